@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.PointValues.IntersectVisitor;
+import org.apache.lucene.index.PointValues.Relation;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@code BKDReader#intersect} for one-dimensional long ranges of varying selectivity
+ * on a single-segment index.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class BKDReaderBenchmark {
+
+  private static final String FIELD = "point";
+
+  /** Number of indexed points. */
+  @Param({"1000000"})
+  public int numDocs;
+
+  /** Fraction of the value space that the query range covers. */
+  @Param({"0.001", "0.01", "0.1", "0.5"})
+  public double selectivity;
+
+  private Directory dir;
+  private DirectoryReader reader;
+  private PointValues points;
+  private byte[] lower;
+  private byte[] upper;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    final Random random = new Random(0);
+    dir = new ByteBuffersDirectory();
+    try (IndexWriter w = new IndexWriter(dir, new IndexWriterConfig(null))) {
+      for (int i = 0; i < numDocs; ++i) {
+        Document doc = new Document();
+        doc.add(new LongPoint(FIELD, random.nextInt(numDocs)));
+        w.addDocument(doc);
+      }
+      w.forceMerge(1);
+    }
+    reader = DirectoryReader.open(dir);
+    points = reader.leaves().get(0).reader().getPointValues(FIELD);
+
+    final long min = numDocs / 4;
+    final long max = min + (long) (numDocs * selectivity);
+    lower = new byte[Long.BYTES];
+    upper = new byte[Long.BYTES];
+    LongPoint.encodeDimension(min, lower, 0);
+    LongPoint.encodeDimension(max, upper, 0);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    reader.close();
+    dir.close();
+  }
+
+  @Benchmark
+  public int intersect() throws IOException {
+    final RangeVisitor visitor = new RangeVisitor(lower, upper);
+    points.intersect(visitor);
+    return visitor.count;
+  }
+
+  private static class RangeVisitor implements IntersectVisitor {
+    private final byte[] lower;
+    private final byte[] upper;
+    int count;
+
+    RangeVisitor(byte[] lower, byte[] upper) {
+      this.lower = lower;
+      this.upper = upper;
+    }
+
+    @Override
+    public void visit(int docID) {
+      count++;
+    }
+
+    @Override
+    public void visit(int docID, byte[] packedValue) {
+      if (compareValues(packedValue, lower) >= 0 && compareValues(packedValue, upper) <= 0) {
+        count++;
+      }
+    }
+
+    @Override
+    public Relation compare(byte[] minPackedValue, byte[] maxPackedValue) {
+      if (compareValues(maxPackedValue, lower) < 0 || compareValues(minPackedValue, upper) > 0) {
+        return Relation.CELL_OUTSIDE_QUERY;
+      }
+      if (compareValues(minPackedValue, lower) >= 0 && compareValues(maxPackedValue, upper) <= 0) {
+        return Relation.CELL_INSIDE_QUERY;
+      }
+      return Relation.CELL_CROSSES_QUERY;
+    }
+
+    private static int compareValues(byte[] a, byte[] b) {
+      return Arrays.compareUnsigned(a, 0, Long.BYTES, b, 0, Long.BYTES);
+    }
+  }
+}
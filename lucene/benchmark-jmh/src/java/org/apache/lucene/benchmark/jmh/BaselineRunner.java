@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs JMH benchmarks and optionally compares the scores against a baseline recorded by a
+ * previous run, for instance on another JDK or on the base branch of a change.
+ * <p>
+ * Results are written as one tab-separated line per benchmark and parameter combination. When a
+ * baseline is given, the process exits with a non-zero status if any benchmark regressed by more
+ * than the threshold, which makes it usable as a gate in scripts.
+ * <p>
+ * Run it with no command-line arguments for usage information.
+ */
+public class BaselineRunner {
+
+  private BaselineRunner() {}
+
+  /** A single benchmark score. */
+  static final class Score {
+    final double score;
+    final double error;
+    final String unit;
+    final boolean higherIsBetter;
+
+    Score(double score, double error, String unit, boolean higherIsBetter) {
+      this.score = score;
+      this.error = error;
+      this.unit = unit;
+      this.higherIsBetter = higherIsBetter;
+    }
+
+    /** Returns the relative change of this score compared to {@code baseline}, positive values being improvements. */
+    double improvementOver(Score baseline) {
+      final double delta = (score - baseline.score) / baseline.score;
+      return higherIsBetter ? delta : -delta;
+    }
+  }
+
+  /** Run benchmarks and compare them to a baseline. */
+  public static void main(String[] args) throws IOException, RunnerException {
+    String usage = "java org.apache.lucene.benchmark.jmh.BaselineRunner"
+                 + " [-include REGEX] [-output FILE] [-baseline FILE] [-threshold PERCENT] [-forks N]\n\n"
+                 + "This runs the JMH benchmarks matching REGEX, writes their scores to FILE and, if a\n"
+                 + "baseline is given, fails if any benchmark is more than PERCENT (default 5) slower.";
+    String include = ".*";
+    Path output = null;
+    Path baseline = null;
+    double threshold = 5;
+    int forks = -1;
+    for (int i = 0; i < args.length; i++) {
+      if ("-include".equals(args[i])) {
+        include = args[++i];
+      } else if ("-output".equals(args[i])) {
+        output = Paths.get(args[++i]);
+      } else if ("-baseline".equals(args[i])) {
+        baseline = Paths.get(args[++i]);
+      } else if ("-threshold".equals(args[i])) {
+        threshold = Double.parseDouble(args[++i]);
+      } else if ("-forks".equals(args[i])) {
+        forks = Integer.parseInt(args[++i]);
+      } else {
+        System.err.println("Usage: " + usage);
+        System.exit(1);
+      }
+    }
+
+    ChainedOptionsBuilder options = new OptionsBuilder().include(include);
+    if (forks >= 0) {
+      options.forks(forks);
+    }
+    final Map<String,Score> scores = toScores(new Runner(options.build()).run());
+
+    if (output != null) {
+      write(scores, output);
+      System.out.println("Wrote " + scores.size() + " scores to " + output);
+    }
+    if (baseline != null) {
+      final int regressions = compare(read(baseline), scores, threshold / 100);
+      if (regressions > 0) {
+        System.out.println(regressions + " benchmark(s) regressed by more than " + threshold + "%");
+        System.exit(2);
+      }
+    }
+  }
+
+  static Map<String,Score> toScores(Collection<RunResult> results) {
+    final Map<String,Score> scores = new TreeMap<>();
+    for (RunResult result : results) {
+      final BenchmarkParams params = result.getParams();
+      final StringBuilder key = new StringBuilder(params.getBenchmark());
+      for (String param : params.getParamsKeys()) {
+        key.append(':').append(param).append('=').append(params.getParam(param));
+      }
+      final Result<?> primary = result.getPrimaryResult();
+      scores.put(key.toString(), new Score(primary.getScore(), primary.getScoreError(), primary.getScoreUnit(),
+          params.getMode() == Mode.Throughput));
+    }
+    return scores;
+  }
+
+  /**
+   * Prints a comparison of {@code current} against {@code baseline} and returns the number of
+   * benchmarks whose score got worse by more than {@code threshold}.
+   */
+  static int compare(Map<String,Score> baseline, Map<String,Score> current, double threshold) {
+    int regressions = 0;
+    for (Map.Entry<String,Score> entry : current.entrySet()) {
+      final Score base = baseline.get(entry.getKey());
+      final Score score = entry.getValue();
+      if (base == null) {
+        System.out.println(String.format(Locale.ROOT, "%-100s %14.3f %s (no baseline)",
+            entry.getKey(), score.score, score.unit));
+        continue;
+      }
+      final double improvement = score.improvementOver(base);
+      // don't flag differences that are within the error margin of both runs
+      final boolean significant = Math.abs(score.score - base.score) > score.error + base.error;
+      final boolean regressed = significant && improvement < -threshold;
+      if (regressed) {
+        regressions++;
+      }
+      System.out.println(String.format(Locale.ROOT, "%-100s %14.3f -> %14.3f %s %+7.2f%%%s",
+          entry.getKey(), base.score, score.score, score.unit, improvement * 100, regressed ? " REGRESSION" : ""));
+    }
+    return regressions;
+  }
+
+  static void write(Map<String,Score> scores, Path file) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      for (Map.Entry<String,Score> entry : scores.entrySet()) {
+        final Score score = entry.getValue();
+        writer.write(entry.getKey() + '\t' + score.score + '\t' + score.error + '\t' + score.unit + '\t' + score.higherIsBetter);
+        writer.newLine();
+      }
+    }
+  }
+
+  static Map<String,Score> read(Path file) throws IOException {
+    final Map<String,Score> scores = new TreeMap<>();
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty()) {
+          continue;
+        }
+        final String[] parts = line.split("\t");
+        if (parts.length != 5) {
+          throw new IllegalArgumentException("Malformed baseline line in " + file + ": " + line);
+        }
+        scores.put(parts[0], new Score(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), parts[3],
+            Boolean.parseBoolean(parts[4])));
+      }
+    }
+    return scores;
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.FSTCompiler;
+import org.apache.lucene.util.fst.PositiveIntOutputs;
+import org.apache.lucene.util.fst.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures exact-match lookups that walk an {@link FST} with {@link FST#findTargetArc},
+ * with and without direct addressing of arcs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class FSTBenchmark {
+
+  /** Number of terms in the FST. */
+  @Param({"100000", "1000000"})
+  public int numTerms;
+
+  /** See {@link FSTCompiler.Builder#directAddressingMaxOversizingFactor}; a negative value disables direct addressing. */
+  @Param({"-1", "1"})
+  public float oversizingFactor;
+
+  private FST<Long> fst;
+  private FST.BytesReader bytesReader;
+  private final FST.Arc<Long> arc = new FST.Arc<>();
+  private BytesRef[] lookups;
+  private int upto;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    final Random random = new Random(0);
+    final TreeSet<BytesRef> terms = new TreeSet<>();
+    while (terms.size() < numTerms) {
+      // base-36 ids resemble typical primary keys
+      terms.add(new BytesRef(Long.toString(random.nextLong() & Long.MAX_VALUE, 36)));
+    }
+
+    final PositiveIntOutputs outputs = PositiveIntOutputs.getSingleton();
+    final FSTCompiler<Long> compiler = new FSTCompiler.Builder<>(FST.INPUT_TYPE.BYTE1, outputs)
+        .directAddressingMaxOversizingFactor(oversizingFactor)
+        .build();
+    final IntsRefBuilder scratch = new IntsRefBuilder();
+    long ord = 0;
+    for (BytesRef term : terms) {
+      compiler.add(Util.toIntsRef(term, scratch), ord++);
+    }
+    fst = compiler.compile();
+    bytesReader = fst.getBytesReader();
+
+    // half hits, half misses that diverge at a random position
+    final BytesRef[] all = terms.toArray(new BytesRef[0]);
+    lookups = new BytesRef[1 << 14];
+    for (int i = 0; i < lookups.length; ++i) {
+      BytesRef term = BytesRef.deepCopyOf(all[random.nextInt(all.length)]);
+      if (random.nextBoolean()) {
+        term.bytes[term.offset + random.nextInt(term.length)] = (byte) '~';
+      }
+      lookups[i] = term;
+    }
+  }
+
+  @Benchmark
+  public Long lookup() throws IOException {
+    final BytesRef term = lookups[upto++ & (lookups.length - 1)];
+    fst.getFirstArc(arc);
+    long output = 0;
+    for (int i = 0; i < term.length; ++i) {
+      if (fst.findTargetArc(term.bytes[term.offset + i] & 0xFF, arc, arc, bytesReader) == null) {
+        return null;
+      }
+      output += arc.output();
+    }
+    return arc.isFinal() ? output + arc.nextFinalOutput() : null;
+  }
+}
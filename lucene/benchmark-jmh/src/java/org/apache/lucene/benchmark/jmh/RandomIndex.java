@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+
+/**
+ * Builds a deterministic in-memory index shared by the search benchmarks. Each document has a
+ * {@code body} text field whose terms follow a skewed distribution, so that there are both very
+ * frequent and rare terms, and a {@code price} long indexed as points and doc values.
+ */
+final class RandomIndex {
+
+  static final String BODY = "body";
+  static final String PRICE = "price";
+  static final int VOCABULARY_SIZE = 10_000;
+
+  private RandomIndex() {}
+
+  /** Returns the term with the given rank, rank 0 being the most frequent term. */
+  static String term(int rank) {
+    return "t" + rank;
+  }
+
+  static Directory build(int numDocs, int numSegments, long seed) throws IOException {
+    final Random random = new Random(seed);
+    final Directory dir = new ByteBuffersDirectory();
+    final IndexWriterConfig iwc = new IndexWriterConfig(new StandardAnalyzer());
+    iwc.setRAMBufferSizeMB(256);
+    try (IndexWriter w = new IndexWriter(dir, iwc)) {
+      final StringBuilder body = new StringBuilder();
+      for (int i = 0; i < numDocs; ++i) {
+        body.setLength(0);
+        final int numTokens = 5 + random.nextInt(50);
+        for (int j = 0; j < numTokens; ++j) {
+          // square of a uniform variable gives a cheap skewed distribution
+          final double u = random.nextDouble();
+          body.append(term((int) (u * u * VOCABULARY_SIZE))).append(' ');
+        }
+        final long price = random.nextInt(1_000_000);
+        Document doc = new Document();
+        doc.add(new TextField(BODY, body.toString(), Field.Store.NO));
+        doc.add(new LongPoint(PRICE, price));
+        doc.add(new NumericDocValuesField(PRICE, price));
+        w.addDocument(doc);
+      }
+      w.forceMerge(numSegments);
+    }
+    return dir;
+  }
+}
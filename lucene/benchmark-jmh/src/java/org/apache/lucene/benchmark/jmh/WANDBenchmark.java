@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures top-k disjunctions of term queries. With a bounded total hits threshold these are
+ * executed by {@code WANDScorer}, which skips non-competitive blocks using impacts; an exact hit
+ * count disables skipping and gives the exhaustive baseline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class WANDBenchmark {
+
+  @Param({"1000000"})
+  public int numDocs;
+
+  /** Number of SHOULD clauses. */
+  @Param({"2", "4", "8"})
+  public int numClauses;
+
+  /** Whether the query mixes frequent and rare terms, or only uses frequent terms. */
+  @Param({"true", "false"})
+  public boolean mixed;
+
+  @Param({"10"})
+  public int topN;
+
+  private Directory dir;
+  private DirectoryReader reader;
+  private IndexSearcher searcher;
+  private Query query;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    dir = RandomIndex.build(numDocs, 1, 0);
+    reader = DirectoryReader.open(dir);
+    searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(null);
+
+    BooleanQuery.Builder builder = new BooleanQuery.Builder();
+    for (int i = 0; i < numClauses; ++i) {
+      final int rank = mixed && (i & 1) == 1 ? RandomIndex.VOCABULARY_SIZE / 2 + i : i;
+      builder.add(new TermQuery(new Term(RandomIndex.BODY, RandomIndex.term(rank))), Occur.SHOULD);
+    }
+    query = builder.build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    reader.close();
+    dir.close();
+  }
+
+  @Benchmark
+  public TopDocs topScores() throws IOException {
+    TopScoreDocCollector collector = TopScoreDocCollector.create(topN, topN);
+    searcher.search(query, collector);
+    return collector.topDocs();
+  }
+
+  @Benchmark
+  public TopDocs topScoresExactCount() throws IOException {
+    TopScoreDocCollector collector = TopScoreDocCollector.create(topN, Integer.MAX_VALUE);
+    searcher.search(query, collector);
+    return collector.topDocs();
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JMH micro-benchmarks for Lucene core primitives (postings block decoding, BKD intersection,
+ * FST lookups, WAND disjunctions and sorted collection).
+ * <p>
+ * Benchmarks are regular JMH benchmarks and can be run with any JMH launcher; {@link
+ * org.apache.lucene.benchmark.jmh.BaselineRunner} additionally records scores and compares them
+ * against a previous run. From the root of the checkout:
+ * <pre class="prettyprint">
+ * ./gradlew -p lucene/benchmark-jmh jmh -Pjmh.include=FSTBenchmark -Pjmh.output=base.txt
+ * # switch JDK or branch
+ * ./gradlew -p lucene/benchmark-jmh jmh -Pjmh.include=FSTBenchmark -Pjmh.baseline=base.txt
+ * </pre>
+ * This module is not published; JMH is licensed under the GPLv2 with the classpath exception.
+ */
+package org.apache.lucene.benchmark.jmh;
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene84;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteBuffersDataOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures decoding of a single 128-value block with {@link ForUtil} and {@link PForUtil}.
+ * <p>
+ * This benchmark lives in the codec package because both utilities are package-private.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ForUtilBenchmark {
+
+  /** Number of bits per value of the encoded block. */
+  @Param({"1", "2", "4", "7", "8", "12", "16", "20", "24", "31"})
+  public int bitsPerValue;
+
+  private final ForUtil forUtil = new ForUtil();
+  private final PForUtil pforUtil = new PForUtil(new ForUtil());
+  private final long[] values = new long[ForUtil.BLOCK_SIZE];
+  private final ByteArrayDataInput in = new ByteArrayDataInput();
+
+  private byte[] forBlock;
+  private byte[] pforBlock;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    final Random random = new Random(bitsPerValue);
+    final long mask = (1L << bitsPerValue) - 1;
+
+    final long[] longs = new long[ForUtil.BLOCK_SIZE];
+    for (int i = 0; i < longs.length; ++i) {
+      longs[i] = random.nextLong() & mask;
+    }
+    ByteBuffersDataOutput out = new ByteBuffersDataOutput();
+    forUtil.encode(longs.clone(), bitsPerValue, out);
+    forBlock = out.toArrayCopy();
+
+    // Typical postings blocks have a few outliers that PFor patches as exceptions
+    final long smallMask = (1L << Math.max(1, bitsPerValue - 4)) - 1;
+    for (int i = 0; i < longs.length; ++i) {
+      longs[i] = random.nextInt(16) == 0 ? longs[i] : longs[i] & smallMask;
+    }
+    out = new ByteBuffersDataOutput();
+    pforUtil.encode(longs, out);
+    pforBlock = out.toArrayCopy();
+  }
+
+  @Benchmark
+  public long[] forDecode() throws IOException {
+    in.reset(forBlock);
+    forUtil.decode(bitsPerValue, in, values);
+    return values;
+  }
+
+  @Benchmark
+  public long[] forDecodeAndPrefixSum() throws IOException {
+    in.reset(forBlock);
+    forUtil.decodeAndPrefixSum(bitsPerValue, in, 0L, values);
+    return values;
+  }
+
+  @Benchmark
+  public long[] pforDecode() throws IOException {
+    in.reset(pforBlock);
+    pforUtil.decode(in, values);
+    return values;
+  }
+}
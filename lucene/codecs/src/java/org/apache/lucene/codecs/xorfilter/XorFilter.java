@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.xorfilter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * An immutable approximate membership filter over 64-bit keys, using the
+ * 8-bit xor filter construction of Graf and Lemire ("Xor Filters: Faster and
+ * Smaller Than Bloom and Cuckoo Filters"). A filter uses ~9.84 bits per key
+ * for a false positive rate of ~0.39% and answers lookups with exactly three
+ * memory accesses. Unlike {@link org.apache.lucene.codecs.bloom.FuzzySet}
+ * the filter is always built for the exact set of keys, so it never needs
+ * to be downsized or checked for saturation.
+ * <p>
+ * The serialized format is as follows:
+ * <ul>
+ * <li>XorFilter --&gt; Seed, BlockLength, Fingerprints</li>
+ * <li>Seed --&gt; {@link DataOutput#writeLong Uint64} The seed that
+ * produced an acyclic hypergraph for the keys</li>
+ * <li>BlockLength --&gt; {@link DataOutput#writeVInt VInt} The number of
+ * fingerprints per hash function</li>
+ * <li>Fingerprints --&gt; {@link DataOutput#writeByte Byte}<sup>3 * BlockLength</sup></li>
+ * </ul>
+ * @lucene.experimental
+ */
+public final class XorFilter implements Accountable {
+
+  private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(XorFilter.class);
+
+  private final long seed;
+  private final int blockLength;
+  private final byte[] fingerprints;
+
+  private XorFilter(long seed, int blockLength, byte[] fingerprints) {
+    this.seed = seed;
+    this.blockLength = blockLength;
+    this.fingerprints = fingerprints;
+  }
+
+  /**
+   * Builds a filter over the first {@code size} keys of the given array,
+   * which is sorted in place. Duplicate keys are allowed.
+   */
+  public static XorFilter build(long[] keys, int size) {
+    Arrays.sort(keys, 0, size);
+    int unique = 0;
+    for (int i = 0; i < size; i++) {
+      if (unique == 0 || keys[i] != keys[unique - 1]) {
+        keys[unique++] = keys[i];
+      }
+    }
+    size = unique;
+
+    final int blockLength = (32 + (int) Math.ceil(1.23 * size)) / 3;
+    final int arrayLength = 3 * blockLength;
+    final long[] xorMask = new long[arrayLength];
+    final int[] count = new int[arrayLength];
+    final int[] queue = new int[arrayLength];
+    final long[] stackHash = new long[size];
+    final byte[] stackIndex = new byte[size];
+
+    long seedState = 0x9E3779B97F4A7C15L;
+    long seed;
+    while (true) {
+      seedState += 0x9E3779B97F4A7C15L;
+      seed = fmix64(seedState);
+      Arrays.fill(xorMask, 0L);
+      Arrays.fill(count, 0);
+      for (int i = 0; i < size; i++) {
+        final long hash = fmix64(keys[i] + seed);
+        for (int hi = 0; hi < 3; hi++) {
+          final int slot = slot(hash, hi, blockLength);
+          count[slot]++;
+          xorMask[slot] ^= hash;
+        }
+      }
+
+      // peel slots that are referenced by exactly one key
+      int queueSize = 0;
+      for (int i = 0; i < arrayLength; i++) {
+        if (count[i] == 1) {
+          queue[queueSize++] = i;
+        }
+      }
+      int stackSize = 0;
+      while (queueSize > 0) {
+        final int index = queue[--queueSize];
+        if (count[index] != 1) {
+          continue;
+        }
+        final long hash = xorMask[index];
+        final int found = index / blockLength;
+        stackHash[stackSize] = hash;
+        stackIndex[stackSize] = (byte) found;
+        stackSize++;
+        for (int hi = 0; hi < 3; hi++) {
+          final int slot = slot(hash, hi, blockLength);
+          count[slot]--;
+          xorMask[slot] ^= hash;
+          if (count[slot] == 1) {
+            queue[queueSize++] = slot;
+          }
+        }
+      }
+      if (stackSize == size) {
+        break;
+      }
+      // the hypergraph had a cycle: retry with another seed
+    }
+
+    final byte[] fingerprints = new byte[arrayLength];
+    for (int i = size - 1; i >= 0; i--) {
+      final long hash = stackHash[i];
+      final int found = stackIndex[i];
+      int xor = fingerprint(hash);
+      for (int hi = 0; hi < 3; hi++) {
+        if (hi != found) {
+          xor ^= fingerprints[slot(hash, hi, blockLength)];
+        }
+      }
+      fingerprints[slot(hash, found, blockLength)] = (byte) xor;
+    }
+    return new XorFilter(seed, blockLength, fingerprints);
+  }
+
+  /**
+   * Returns {@code false} if the key was definitely not added to this filter,
+   * and {@code true} if it probably was.
+   */
+  public boolean mayContain(long key) {
+    final long hash = fmix64(key + seed);
+    final int xor = fingerprint(hash)
+        ^ fingerprints[slot(hash, 0, blockLength)]
+        ^ fingerprints[slot(hash, 1, blockLength)]
+        ^ fingerprints[slot(hash, 2, blockLength)];
+    return (xor & 0xFF) == 0;
+  }
+
+  /** Returns {@code false} if the term was definitely not added to this filter. */
+  public boolean mayContain(BytesRef term) {
+    return mayContain(hash64(term));
+  }
+
+  /** Serializes this filter, see the class javadocs for the format. */
+  public void serialize(DataOutput out) throws IOException {
+    out.writeLong(seed);
+    out.writeVInt(blockLength);
+    out.writeBytes(fingerprints, fingerprints.length);
+  }
+
+  /** Reads a filter that was written with {@link #serialize(DataOutput)}. */
+  public static XorFilter deserialize(DataInput in) throws IOException {
+    final long seed = in.readLong();
+    final int blockLength = in.readVInt();
+    final byte[] fingerprints = new byte[3 * blockLength];
+    in.readBytes(fingerprints, 0, fingerprints.length);
+    return new XorFilter(seed, blockLength, fingerprints);
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(fingerprints);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(blockLength=" + blockLength + ")";
+  }
+
+  private static int slot(long hash, int index, int blockLength) {
+    final long r = Long.rotateLeft(hash, 21 * index);
+    return (int) (((r & 0xFFFFFFFFL) * blockLength) >>> 32) + index * blockLength;
+  }
+
+  private static int fingerprint(long hash) {
+    return (int) (hash ^ (hash >>> 32)) & 0xFF;
+  }
+
+  private static long fmix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+  /**
+   * Returns the low 64 bits of the MurmurHash3 x64 128-bit hash (seed 0)
+   * of the given bytes.
+   */
+  public static long hash64(BytesRef term) {
+    final byte[] data = term.bytes;
+    final int offset = term.offset;
+    final int len = term.length;
+    final long c1 = 0x87c37b91114253d5L;
+    final long c2 = 0x4cf5ad432745937fL;
+    long h1 = 0;
+    long h2 = 0;
+
+    final int nblocks = len >>> 4;
+    for (int i = 0; i < nblocks; i++) {
+      long k1 = readLongLE(data, offset + (i << 4));
+      long k2 = readLongLE(data, offset + (i << 4) + 8);
+
+      k1 *= c1;
+      k1 = Long.rotateLeft(k1, 31);
+      k1 *= c2;
+      h1 ^= k1;
+      h1 = Long.rotateLeft(h1, 27);
+      h1 += h2;
+      h1 = h1 * 5 + 0x52dce729;
+
+      k2 *= c2;
+      k2 = Long.rotateLeft(k2, 33);
+      k2 *= c1;
+      h2 ^= k2;
+      h2 = Long.rotateLeft(h2, 31);
+      h2 += h1;
+      h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    // tail
+    final int tail = offset + (nblocks << 4);
+    final int remaining = len & 15;
+    long k1 = 0;
+    long k2 = 0;
+    for (int i = remaining - 1; i >= 8; i--) {
+      k2 ^= (data[tail + i] & 0xFFL) << ((i - 8) << 3);
+    }
+    if (remaining > 8) {
+      k2 *= c2;
+      k2 = Long.rotateLeft(k2, 33);
+      k2 *= c1;
+      h2 ^= k2;
+    }
+    for (int i = Math.min(remaining, 8) - 1; i >= 0; i--) {
+      k1 ^= (data[tail + i] & 0xFFL) << (i << 3);
+    }
+    if (remaining > 0) {
+      k1 *= c1;
+      k1 = Long.rotateLeft(k1, 31);
+      k1 *= c2;
+      h1 ^= k1;
+    }
+
+    // finalization
+    h1 ^= len;
+    h2 ^= len;
+    h1 += h2;
+    h2 += h1;
+    h1 = fmix64(h1);
+    h2 = fmix64(h2);
+    h1 += h2;
+    return h1;
+  }
+
+  private static long readLongLE(byte[] data, int offset) {
+    return (data[offset] & 0xFFL)
+        | ((data[offset + 1] & 0xFFL) << 8)
+        | ((data[offset + 2] & 0xFFL) << 16)
+        | ((data[offset + 3] & 0xFFL) << 24)
+        | ((data[offset + 4] & 0xFFL) << 32)
+        | ((data[offset + 5] & 0xFFL) << 40)
+        | ((data[offset + 6] & 0xFFL) << 48)
+        | ((data[offset + 7] & 0xFFL) << 56);
+  }
+}
@@ -0,0 +1,463 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.xorfilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.FieldsConsumer;
+import org.apache.lucene.codecs.FieldsProducer;
+import org.apache.lucene.codecs.NormsProducer;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.index.BaseTermsEnum;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.Fields;
+import org.apache.lucene.index.FilterLeafReader.FilterTerms;
+import org.apache.lucene.index.ImpactsEnum;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOUtils;
+
+/**
+ * <p>
+ * A {@link PostingsFormat} for primary key fields that maintains a per-segment
+ * {@link XorFilter} over the terms of every field it writes, offering
+ * "fast-fail" for {@link TermsEnum#seekExact(BytesRef)} in segments known to
+ * have no record of the key. This is the access pattern of updates by id and
+ * real-time get, which probe every segment for a key that lives in at most one
+ * of them. A choice of delegate PostingsFormat is used to record all other
+ * postings data.
+ * </p>
+ * <p>
+ * Compared to {@link org.apache.lucene.codecs.bloom.BloomFilteringPostingsFormat}
+ * filters are built for the exact set of terms of the segment, so they are
+ * ~1.23 bytes per term with a false positive rate of ~0.39% regardless of the
+ * segment size, and need no sizing configuration. Lookup counters of a
+ * filtered field in a segment are available from {@link #getStats(Terms)}.
+ * </p>
+ * <p>
+ * The format of the xor file is as follows:
+ * </p>
+ * <ul>
+ * <li>XorFilters (.xor) --&gt; Header, DelegatePostingsFormatName,
+ * NumFilteredFields, Filter<sup>NumFilteredFields</sup>, Footer</li>
+ * <li>Filter --&gt; FieldNumber, XorFilter</li>
+ * <li>XorFilter --&gt;See {@link XorFilter#serialize(DataOutput)}</li>
+ * <li>Header --&gt; {@link CodecUtil#writeIndexHeader IndexHeader}</li>
+ * <li>DelegatePostingsFormatName --&gt; {@link DataOutput#writeString(String)
+ * String} The name of a ServiceProvider registered {@link PostingsFormat}</li>
+ * <li>NumFilteredFields --&gt; {@link DataOutput#writeInt Uint32}</li>
+ * <li>FieldNumber --&gt; {@link DataOutput#writeInt Uint32} The number of the
+ * field in this segment</li>
+ * <li>Footer --&gt; {@link CodecUtil#writeFooter CodecFooter}</li>
+ * </ul>
+ * @lucene.experimental
+ */
+public final class XorFilterPostingsFormat extends PostingsFormat {
+
+  public static final String XOR_CODEC_NAME = "XorFilter";
+  public static final int VERSION_START = 0;
+  public static final int VERSION_CURRENT = VERSION_START;
+
+  /** Extension of xor filters file */
+  static final String XOR_EXTENSION = "xor";
+
+  private PostingsFormat delegatePostingsFormat;
+
+  /**
+   * Creates xor filters for all fields written with this format. This
+   * PostingsFormat delegates to a choice of delegate PostingsFormat for
+   * encoding all other postings data.
+   *
+   * @param delegatePostingsFormat
+   *          The PostingsFormat that records all the non-filter data i.e.
+   *          postings info.
+   */
+  public XorFilterPostingsFormat(PostingsFormat delegatePostingsFormat) {
+    super(XOR_CODEC_NAME);
+    this.delegatePostingsFormat = delegatePostingsFormat;
+  }
+
+  // Used only by core Lucene at read-time via Service Provider instantiation -
+  // do not use at Write-time in application code.
+  public XorFilterPostingsFormat() {
+    super(XOR_CODEC_NAME);
+  }
+
+  /**
+   * Returns the lookup counters of a filtered field in one segment, or null if
+   * the given terms were not read with this format. The terms must come
+   * straight from a segment, e.g. an unwrapped {@link org.apache.lucene.index.CodecReader},
+   * and the counters live as long as that segment's core readers.
+   */
+  public static Stats getStats(Terms terms) {
+    if (terms instanceof XorFilteredFieldsProducer.XorFilteredTerms) {
+      return ((XorFilteredFieldsProducer.XorFilteredTerms) terms).stats;
+    }
+    return null;
+  }
+
+  @Override
+  public FieldsConsumer fieldsConsumer(SegmentWriteState state) throws IOException {
+    if (delegatePostingsFormat == null) {
+      throw new UnsupportedOperationException("Error - " + getClass().getName()
+          + " has been constructed without a choice of PostingsFormat");
+    }
+    FieldsConsumer fieldsConsumer = delegatePostingsFormat.fieldsConsumer(state);
+    return new XorFilteredFieldsConsumer(fieldsConsumer, state);
+  }
+
+  @Override
+  public FieldsProducer fieldsProducer(SegmentReadState state) throws IOException {
+    return new XorFilteredFieldsProducer(state);
+  }
+
+  /**
+   * Counters of {@link TermsEnum#seekExact(BytesRef)} calls against filtered
+   * fields. Lookups that the filter rejects never reach the delegate terms
+   * dictionary; false positives are lookups that passed the filter but whose
+   * term did not exist in the segment.
+   */
+  public static final class Stats {
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder filterNegatives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    /** Creates zeroed counters, e.g. to {@link #add(Stats) sum} the counters of several segments. */
+    public Stats() {}
+
+    /** Adds the current counts of {@code other} to these counters. */
+    public void add(Stats other) {
+      lookups.add(other.getLookups());
+      filterNegatives.add(other.getFilterNegatives());
+      falsePositives.add(other.getFalsePositives());
+    }
+
+    /** Total number of exact lookups against filtered fields. */
+    public long getLookups() {
+      return lookups.sum();
+    }
+
+    /** Number of lookups answered by the filter alone. */
+    public long getFilterNegatives() {
+      return filterNegatives.sum();
+    }
+
+    /** Number of lookups that passed the filter but found no term. */
+    public long getFalsePositives() {
+      return falsePositives.sum();
+    }
+
+    /** Fraction of lookups answered by the filter alone. */
+    public double getFilterNegativeRate() {
+      final long lookups = getLookups();
+      return lookups == 0 ? 0 : (double) getFilterNegatives() / lookups;
+    }
+
+    /** Fraction of lookups for absent terms that the filter failed to reject. */
+    public double getFalsePositiveRate() {
+      final long falsePositives = getFalsePositives();
+      final long absent = falsePositives + getFilterNegatives();
+      return absent == 0 ? 0 : (double) falsePositives / absent;
+    }
+
+    @Override
+    public String toString() {
+      return "Stats(lookups=" + getLookups() + ",filterNegatives=" + getFilterNegatives()
+          + ",falsePositives=" + getFalsePositives() + ")";
+    }
+  }
+
+  static class XorFilteredFieldsProducer extends FieldsProducer {
+    private FieldsProducer delegateFieldsProducer;
+    HashMap<String,XorFilter> filtersByFieldName = new HashMap<>();
+    HashMap<String,Stats> statsByFieldName = new HashMap<>();
+
+    public XorFilteredFieldsProducer(SegmentReadState state) throws IOException {
+      String xorFileName = IndexFileNames.segmentFileName(
+          state.segmentInfo.name, state.segmentSuffix, XOR_EXTENSION);
+      ChecksumIndexInput xorIn = null;
+      boolean success = false;
+      try {
+        xorIn = state.directory.openChecksumInput(xorFileName, state.context);
+        CodecUtil.checkIndexHeader(xorIn, XOR_CODEC_NAME, VERSION_START, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+        // Load the delegate postings format
+        PostingsFormat delegatePostingsFormat = PostingsFormat.forName(xorIn.readString());
+
+        this.delegateFieldsProducer = delegatePostingsFormat.fieldsProducer(state);
+        int numFilters = xorIn.readInt();
+        for (int i = 0; i < numFilters; i++) {
+          int fieldNum = xorIn.readInt();
+          XorFilter filter = XorFilter.deserialize(xorIn);
+          FieldInfo fieldInfo = state.fieldInfos.fieldInfo(fieldNum);
+          filtersByFieldName.put(fieldInfo.name, filter);
+          statsByFieldName.put(fieldInfo.name, new Stats());
+        }
+        CodecUtil.checkFooter(xorIn);
+        IOUtils.close(xorIn);
+        success = true;
+      } finally {
+        if (!success) {
+          IOUtils.closeWhileHandlingException(xorIn, delegateFieldsProducer);
+        }
+      }
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+      return delegateFieldsProducer.iterator();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegateFieldsProducer.close();
+    }
+
+    @Override
+    public Terms terms(String field) throws IOException {
+      Terms result = delegateFieldsProducer.terms(field);
+      XorFilter filter = filtersByFieldName.get(field);
+      if (filter == null || result == null) {
+        return result;
+      }
+      return new XorFilteredTerms(result, filter, statsByFieldName.get(field));
+    }
+
+    @Override
+    public int size() {
+      return delegateFieldsProducer.size();
+    }
+
+    static final class XorFilteredTerms extends FilterTerms {
+      private final XorFilter filter;
+      private final Stats stats;
+
+      XorFilteredTerms(Terms terms, XorFilter filter, Stats stats) {
+        super(terms);
+        this.filter = filter;
+        this.stats = stats;
+      }
+
+      @Override
+      public TermsEnum iterator() throws IOException {
+        return new XorFilteredTermsEnum(in, filter, stats);
+      }
+    }
+
+    static final class XorFilteredTermsEnum extends BaseTermsEnum {
+      private final Terms delegateTerms;
+      private TermsEnum delegateTermsEnum;
+      private final XorFilter filter;
+      private final Stats stats;
+
+      XorFilteredTermsEnum(Terms delegateTerms, XorFilter filter, Stats stats) {
+        this.delegateTerms = delegateTerms;
+        this.filter = filter;
+        this.stats = stats;
+      }
+
+      private TermsEnum delegate() throws IOException {
+        if (delegateTermsEnum == null) {
+          // pull the iterator lazily: lookups rejected by the filter never need it
+          delegateTermsEnum = delegateTerms.iterator();
+        }
+        return delegateTermsEnum;
+      }
+
+      @Override
+      public BytesRef next() throws IOException {
+        return delegate().next();
+      }
+
+      @Override
+      public boolean seekExact(BytesRef text) throws IOException {
+        stats.lookups.increment();
+        if (filter.mayContain(text) == false) {
+          stats.filterNegatives.increment();
+          return false;
+        }
+        if (delegate().seekExact(text)) {
+          return true;
+        }
+        stats.falsePositives.increment();
+        return false;
+      }
+
+      @Override
+      public SeekStatus seekCeil(BytesRef text) throws IOException {
+        return delegate().seekCeil(text);
+      }
+
+      @Override
+      public void seekExact(long ord) throws IOException {
+        delegate().seekExact(ord);
+      }
+
+      @Override
+      public BytesRef term() throws IOException {
+        return delegate().term();
+      }
+
+      @Override
+      public long ord() throws IOException {
+        return delegate().ord();
+      }
+
+      @Override
+      public int docFreq() throws IOException {
+        return delegate().docFreq();
+      }
+
+      @Override
+      public long totalTermFreq() throws IOException {
+        return delegate().totalTermFreq();
+      }
+
+      @Override
+      public PostingsEnum postings(PostingsEnum reuse, int flags) throws IOException {
+        return delegate().postings(reuse, flags);
+      }
+
+      @Override
+      public ImpactsEnum impacts(int flags) throws IOException {
+        return delegate().impacts(flags);
+      }
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      long sizeInBytes = ((delegateFieldsProducer != null) ? delegateFieldsProducer.ramBytesUsed() : 0);
+      for (Map.Entry<String,XorFilter> entry : filtersByFieldName.entrySet()) {
+        sizeInBytes += entry.getKey().length() * Character.BYTES;
+        sizeInBytes += entry.getValue().ramBytesUsed();
+      }
+      return sizeInBytes;
+    }
+
+    @Override
+    public Collection<Accountable> getChildResources() {
+      List<Accountable> resources = new ArrayList<>(Accountables.namedAccountables("field", filtersByFieldName));
+      if (delegateFieldsProducer != null) {
+        resources.add(Accountables.namedAccountable("delegate", delegateFieldsProducer));
+      }
+      return Collections.unmodifiableList(resources);
+    }
+
+    @Override
+    public void checkIntegrity() throws IOException {
+      delegateFieldsProducer.checkIntegrity();
+    }
+
+    @Override
+    public String toString() {
+      return getClass().getSimpleName() + "(fields=" + filtersByFieldName.size() + ",delegate=" + delegateFieldsProducer + ")";
+    }
+  }
+
+  class XorFilteredFieldsConsumer extends FieldsConsumer {
+    private final FieldsConsumer delegateFieldsConsumer;
+    private final Map<FieldInfo,XorFilter> filters = new HashMap<>();
+    private final SegmentWriteState state;
+
+    XorFilteredFieldsConsumer(FieldsConsumer fieldsConsumer, SegmentWriteState state) {
+      this.delegateFieldsConsumer = fieldsConsumer;
+      this.state = state;
+    }
+
+    @Override
+    public void write(Fields fields, NormsProducer norms) throws IOException {
+      // Delegate must write first: it may have opened files on creation and
+      // write() will close them
+      delegateFieldsConsumer.write(fields, norms);
+
+      long[] hashes = new long[16];
+      for (String field : fields) {
+        Terms terms = fields.terms(field);
+        if (terms == null) {
+          continue;
+        }
+        FieldInfo fieldInfo = state.fieldInfos.fieldInfo(field);
+        TermsEnum termsEnum = terms.iterator();
+        PostingsEnum postingsEnum = null;
+        int numHashes = 0;
+        for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+          // Make sure there's at least one doc for this term:
+          postingsEnum = termsEnum.postings(postingsEnum, PostingsEnum.NONE);
+          if (postingsEnum.nextDoc() != PostingsEnum.NO_MORE_DOCS) {
+            hashes = ArrayUtil.grow(hashes, numHashes + 1);
+            hashes[numHashes++] = XorFilter.hash64(term);
+          }
+        }
+        if (numHashes > 0) {
+          assert filters.containsKey(fieldInfo) == false;
+          filters.put(fieldInfo, XorFilter.build(hashes, numHashes));
+        }
+      }
+    }
+
+    private boolean closed;
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      delegateFieldsConsumer.close();
+
+      String xorFileName = IndexFileNames.segmentFileName(
+          state.segmentInfo.name, state.segmentSuffix, XOR_EXTENSION);
+      try (IndexOutput xorOutput = state.directory.createOutput(xorFileName, state.context)) {
+        CodecUtil.writeIndexHeader(xorOutput, XOR_CODEC_NAME, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+        // remember the name of the postings format we will delegate to
+        xorOutput.writeString(delegatePostingsFormat.getName());
+
+        xorOutput.writeInt(filters.size());
+        for (Map.Entry<FieldInfo,XorFilter> entry : filters.entrySet()) {
+          xorOutput.writeInt(entry.getKey().number);
+          entry.getValue().serialize(xorOutput);
+        }
+        CodecUtil.writeFooter(xorOutput);
+      }
+      filters.clear();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "XorFilterPostingsFormat(" + delegatePostingsFormat + ")";
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.xorfilter;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.lucene.store.ByteBuffersDataInput;
+import org.apache.lucene.store.ByteBuffersDataOutput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestXorFilter extends LuceneTestCase {
+
+  public void testNoFalseNegatives() {
+    int size = TestUtil.nextInt(random(), 0, 10000);
+    long[] keys = new long[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = random().nextLong();
+    }
+    long[] copy = keys.clone();
+    XorFilter filter = XorFilter.build(copy, size);
+    for (long key : keys) {
+      assertTrue(filter.mayContain(key));
+    }
+  }
+
+  public void testDuplicateKeys() {
+    long[] keys = new long[] {3, 1, 3, 2, 1, 3};
+    XorFilter filter = XorFilter.build(keys, keys.length);
+    assertTrue(filter.mayContain(1));
+    assertTrue(filter.mayContain(2));
+    assertTrue(filter.mayContain(3));
+  }
+
+  public void testFalsePositiveRate() {
+    int size = 50000;
+    Set<Long> added = new HashSet<>();
+    long[] keys = new long[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = random().nextLong();
+      added.add(keys[i]);
+    }
+    XorFilter filter = XorFilter.build(keys, size);
+    int falsePositives = 0;
+    int probes = 100000;
+    for (int i = 0; i < probes; i++) {
+      long key = random().nextLong();
+      if (added.contains(key) == false && filter.mayContain(key)) {
+        falsePositives++;
+      }
+    }
+    // expected rate is 1/256, leave plenty of room for randomness
+    assertTrue("falsePositives=" + falsePositives, falsePositives < probes / 100);
+  }
+
+  public void testSerialization() throws IOException {
+    int size = TestUtil.nextInt(random(), 1, 1000);
+    BytesRef[] terms = new BytesRef[size];
+    long[] hashes = new long[size];
+    for (int i = 0; i < size; i++) {
+      terms[i] = new BytesRef(TestUtil.randomUnicodeString(random()));
+      hashes[i] = XorFilter.hash64(terms[i]);
+    }
+    XorFilter filter = XorFilter.build(hashes, size);
+    ByteBuffersDataOutput out = new ByteBuffersDataOutput();
+    filter.serialize(out);
+    XorFilter read = XorFilter.deserialize(new ByteBuffersDataInput(out.toBufferList()));
+    assertEquals(filter.ramBytesUsed(), read.ramBytesUsed());
+    for (BytesRef term : terms) {
+      assertTrue(read.mayContain(term));
+    }
+  }
+
+  public void testHashHonorsOffset() {
+    byte[] bytes = new byte[TestUtil.nextInt(random(), 0, 40)];
+    random().nextBytes(bytes);
+    byte[] padded = new byte[bytes.length + 7];
+    System.arraycopy(bytes, 0, padded, 3, bytes.length);
+    assertEquals(XorFilter.hash64(new BytesRef(bytes)), XorFilter.hash64(new BytesRef(padded, 3, bytes.length)));
+  }
+}
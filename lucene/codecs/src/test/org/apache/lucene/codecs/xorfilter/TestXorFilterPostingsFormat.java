@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.xorfilter;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.BasePostingsFormatTestCase;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.TestUtil;
+
+/**
+ * Basic tests for XorFilterPostingsFormat
+ */
+public class TestXorFilterPostingsFormat extends BasePostingsFormatTestCase {
+  private final Codec codec = TestUtil.alwaysPostingsFormat(new XorFilterPostingsFormat(TestUtil.getDefaultPostingsFormat()));
+
+  @Override
+  protected Codec getCodec() {
+    return codec;
+  }
+
+  public void testStats() throws Exception {
+    try (Directory dir = newDirectory()) {
+      IndexWriterConfig iwc = newIndexWriterConfig().setCodec(codec);
+      try (IndexWriter w = new IndexWriter(dir, iwc)) {
+        for (int i = 0; i < 100; i++) {
+          Document doc = new Document();
+          doc.add(new StringField("id", Integer.toString(i), Field.Store.NO));
+          w.addDocument(doc);
+        }
+      }
+      XorFilterPostingsFormat.Stats total = new XorFilterPostingsFormat.Stats();
+      try (DirectoryReader reader = DirectoryReader.open(dir)) {
+        for (LeafReaderContext ctx : reader.leaves()) {
+          Terms terms = ctx.reader().terms("id");
+          XorFilterPostingsFormat.Stats stats = XorFilterPostingsFormat.getStats(terms);
+          assertNotNull(stats);
+          assertEquals(0, stats.getLookups());
+          TermsEnum termsEnum = terms.iterator();
+          assertTrue(termsEnum.seekExact(new BytesRef(Integer.toString(ctx.docBase))));
+          assertEquals(1, stats.getLookups());
+          for (int i = 100; i < 1100; i++) {
+            assertFalse(termsEnum.seekExact(new BytesRef(Integer.toString(i))));
+          }
+          assertEquals(1001, stats.getLookups());
+          assertEquals(1000, stats.getFilterNegatives() + stats.getFalsePositives());
+          assertTrue(stats.getFilterNegatives() > 900);
+          // counters belong to the segment, not to the terms instance
+          assertSame(stats, XorFilterPostingsFormat.getStats(ctx.reader().terms("id")));
+          total.add(stats);
+        }
+        assertEquals(1001L * reader.leaves().size(), total.getLookups());
+      }
+    }
+  }
+}
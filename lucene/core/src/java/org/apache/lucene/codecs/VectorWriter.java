@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.index.DocIDMerger;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.MergeState;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.util.Bits;
+
+/**
+ * Writes vectors to an index.
+ *
+ * @lucene.experimental
+ */
+public abstract class VectorWriter implements Closeable {
+
+  /** Sole constructor */
+  protected VectorWriter() {}
+
+  /** Write all values contained in the provided reader */
+  public abstract void writeField(FieldInfo fieldInfo, VectorValues values) throws IOException;
+
+  /** Called once at the end before close */
+  public abstract void finish() throws IOException;
+
+  /** Merge the vector values from multiple segments, for all fields */
+  public void merge(MergeState mergeState) throws IOException {
+    // check each incoming reader
+    for (VectorReader reader : mergeState.vectorReaders) {
+      if (reader != null) {
+        reader.checkIntegrity();
+      }
+    }
+    // merge field at a time
+    for (FieldInfo fieldInfo : mergeState.mergeFieldInfos) {
+      if (fieldInfo.hasVectorValues()) {
+        mergeOneField(mergeState, fieldInfo);
+      }
+    }
+    finish();
+  }
+
+  /**
+   * Default naive merge implementation for one field: it writes the vectors of all the incoming
+   * segments, in the order of the merged segment, as if they were indexed from scratch.
+   */
+  protected void mergeOneField(MergeState mergeState, FieldInfo fieldInfo) throws IOException {
+    if (mergeState.infoStream.isEnabled("VV")) {
+      mergeState.infoStream.message("VV", "merging " + mergeState.segmentInfo);
+    }
+    writeField(fieldInfo, mergedVectorValues(mergeState, fieldInfo));
+    if (mergeState.infoStream.isEnabled("VV")) {
+      mergeState.infoStream.message("VV", "merge done " + mergeState.segmentInfo);
+    }
+  }
+
+  /**
+   * Returns the vector values of the given field of all the incoming segments of a merge, in the
+   * order of the merged segment and without the deleted documents.
+   */
+  protected static VectorValues mergedVectorValues(MergeState mergeState, FieldInfo fieldInfo) throws IOException {
+    List<VectorValuesSub> subs = new ArrayList<>();
+    int dimension = -1;
+    int size = 0;
+    for (int i = 0; i < mergeState.vectorReaders.length; i++) {
+      VectorReader vectorReader = mergeState.vectorReaders[i];
+      if (vectorReader == null) {
+        continue;
+      }
+      FieldInfo readerFieldInfo = mergeState.fieldInfos[i].fieldInfo(fieldInfo.name);
+      if (readerFieldInfo == null || readerFieldInfo.hasVectorValues() == false) {
+        continue;
+      }
+      VectorValues values = vectorReader.getVectorValues(fieldInfo.name);
+      if (values == null) {
+        continue;
+      }
+      int segmentDimension = values.dimension();
+      if (dimension == -1) {
+        dimension = segmentDimension;
+      } else if (dimension != segmentDimension) {
+        throw new IllegalStateException("Varying dimensions for vector-valued field " + fieldInfo.name
+            + ": " + dimension + "!=" + segmentDimension);
+      }
+      size += liveSize(mergeState.liveDocs[i], vectorReader.getVectorValues(fieldInfo.name));
+      subs.add(new VectorValuesSub(mergeState.docMaps[i], values));
+    }
+    return new MergedVectorValues(subs, mergeState, dimension == -1 ? fieldInfo.getVectorDimension() : dimension, size);
+  }
+
+  private static int liveSize(Bits liveDocs, VectorValues values) throws IOException {
+    if (liveDocs == null) {
+      return values.size();
+    }
+    int size = 0;
+    for (int doc = values.nextDoc(); doc != VectorValues.NO_MORE_DOCS; doc = values.nextDoc()) {
+      if (liveDocs.get(doc)) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  /** Tracks state of one sub-reader that we are merging */
+  private static class VectorValuesSub extends DocIDMerger.Sub {
+
+    final VectorValues values;
+
+    VectorValuesSub(MergeState.DocMap docMap, VectorValues values) {
+      super(docMap);
+      this.values = values;
+      assert values.docID() == -1;
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      return values.nextDoc();
+    }
+  }
+
+  /** View over the VectorValues of multiple segments, that iterates over them in merged doc ID order */
+  private static class MergedVectorValues extends VectorValues {
+    private final DocIDMerger<VectorValuesSub> docIdMerger;
+    private final int dimension;
+    private final int size;
+
+    private int docId;
+    private VectorValuesSub current;
+
+    MergedVectorValues(List<VectorValuesSub> subs, MergeState mergeState, int dimension, int size) throws IOException {
+      this.docIdMerger = DocIDMerger.of(subs, mergeState.needsIndexSort);
+      this.dimension = dimension;
+      this.size = size;
+      this.docId = -1;
+    }
+
+    @Override
+    public int docID() {
+      return docId;
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      current = docIdMerger.next();
+      if (current == null) {
+        docId = NO_MORE_DOCS;
+      } else {
+        docId = current.mappedDocID;
+      }
+      return docId;
+    }
+
+    @Override
+    public float[] vectorValue() throws IOException {
+      return current.values.vectorValue();
+    }
+
+    @Override
+    public int advance(int target) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public int dimension() {
+      return dimension;
+    }
+  }
+}
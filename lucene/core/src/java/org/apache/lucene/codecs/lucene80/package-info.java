@@ -17,7 +17,7 @@
 
 /**
  * Components from the Lucene 8.0 index format
- * See {@link org.apache.lucene.codecs.lucene84} for an overview
+ * See {@link org.apache.lucene.codecs.lucene90} for an overview
  * of the index format.
  */
 package org.apache.lucene.codecs.lucene80;
@@ -42,6 +42,7 @@ import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.SegmentReadState;
 import org.apache.lucene.index.SlowImpactsEnum;
+import org.apache.lucene.search.DocAndFreqBuffer;
 import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.ArrayUtil;
@@ -523,6 +524,38 @@ public final class Lucene84PostingsReader extends PostingsReaderBase {
       docBufferUpto++;
       return this.doc = (int) doc;
     }
+
+    @Override
+    public void nextPostings(int upTo, DocAndFreqBuffer buffer) throws IOException {
+      assert doc != -1;
+      if (doc >= upTo) {
+        buffer.size = 0;
+        return;
+      }
+      if (isFreqsRead == false) {
+        pforUtil.decode(docIn, freqBuffer); // read freqBuffer for this block
+        isFreqsRead = true;
+      }
+
+      // return the rest of the current block, the buffer is always terminated by NO_MORE_DOCS
+      final int start = docBufferUpto - 1;
+      int end = docBufferUpto;
+      while (docBuffer[end] < upTo) {
+        ++end;
+      }
+      final int size = end - start;
+      buffer.growNoCopy(size);
+      for (int i = 0; i < size; ++i) {
+        buffer.docs[i] = (int) docBuffer[start + i];
+      }
+      for (int i = 0; i < size; ++i) {
+        buffer.freqs[i] = (int) freqBuffer[start + i];
+      }
+      buffer.size = size;
+
+      docBufferUpto = end;
+      nextDoc();
+    }
     
     @Override
     public long cost() {
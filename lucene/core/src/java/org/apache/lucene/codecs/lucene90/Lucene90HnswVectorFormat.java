@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene90;
+
+import java.io.IOException;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.VectorFormat;
+import org.apache.lucene.codecs.VectorReader;
+import org.apache.lucene.codecs.VectorWriter;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.util.hnsw.HnswGraph;
+import org.apache.lucene.util.hnsw.HnswGraphBuilder;
+
+/**
+ * Lucene 9.0 vector format, which encodes numeric vector values and an optional associated graph
+ * connecting the documents having values. The graph is used to power HNSW search. The format
+ * consists of three files:
+ * <ol>
+ *   <li><code>.vec</code>: Vector data</li>
+ *   <li><code>.vex</code>: Vector index</li>
+ *   <li><code>.vem</code>: Vector metadata</li>
+ * </ol>
+ * <ol>
+ *   <li><a id="vec"></a>
+ *   <p>The vector data or .vec file.</p>
+ *   <p>For each field, this stores the vector values of the documents having a value, in doc ID
+ *      order. Each vector is encoded as {@code dimension} little-endian floats.</p>
+ *   <p>Vector data (.vec) --&gt; Header,&lt;VectorData&gt;<sup>NumFields</sup>,Footer</p>
+ *   <li><a id="vex"></a>
+ *   <p>The vector index or .vex file.</p>
+ *   <p>For each field, this stores the neighbors of every node of the {@link HnswGraph HNSW graph},
+ *      level by level starting from level 0, and in increasing node order on every level. The
+ *      neighbors of a node are encoded in a fixed-size slot of {@link DataOutput#writeInt Int32}s:
+ *      the number of neighbors, then the neighbors' ordinals padded to the maximum number of
+ *      connections on the level, which is twice {@code maxConn} on level 0 and {@code maxConn} on
+ *      the other levels. Fixed-size slots make it possible to seek directly to the neighbors of
+ *      a node.</p>
+ *   <li><a id="vem"></a>
+ *   <p>The vector metadata or .vem file.</p>
+ *   <p>Vector metadata (.vem) --&gt; Header,&lt;Entry&gt;<sup>NumFields</sup>,Footer</p>
+ *   <ul>
+ *     <li>Header --&gt; {@link CodecUtil#writeIndexHeader IndexHeader}</li>
+ *     <li>Entry --&gt; FieldNumber, SimilarityFunction, VectorDataOffset, VectorDataLength,
+ *         VectorIndexOffset, VectorIndexLength, Dimension, Count, DocIds<sup>Count</sup>, MaxConn,
+ *         NumLevels, &lt;NumNodesOnLevel, NodesOnLevel<sup>NumNodesOnLevel</sup>&gt;<sup>NumLevels-1</sup>,
+ *         EntryNode</li>
+ *     <li>FieldNumber, SimilarityFunction, Dimension, Count, MaxConn, NumLevels, NumNodesOnLevel,
+ *         EntryNode --&gt; {@link DataOutput#writeInt Int32}</li>
+ *     <li>VectorDataOffset, VectorDataLength, VectorIndexOffset, VectorIndexLength --&gt;
+ *         {@link DataOutput#writeVLong VLong}</li>
+ *     <li>DocIds, NodesOnLevel --&gt; {@link DataOutput#writeVInt VInt}, delta-encoded</li>
+ *     <li>Footer --&gt; {@link CodecUtil#writeFooter CodecFooter}</li>
+ *   </ul>
+ *   <p>FieldNumber of -1 indicates the end of metadata. SimilarityFunction is the ordinal of the
+ *      field's {@link org.apache.lucene.index.VectorSimilarityFunction}. Level 0 contains all
+ *      nodes, so its nodes are not written.</p>
+ * </ol>
+ *
+ * @lucene.experimental
+ */
+public final class Lucene90HnswVectorFormat extends VectorFormat {
+
+  static final String META_CODEC_NAME = "Lucene90HnswVectorFormatMeta";
+  static final String VECTOR_DATA_CODEC_NAME = "Lucene90HnswVectorFormatData";
+  static final String VECTOR_INDEX_CODEC_NAME = "Lucene90HnswVectorFormatIndex";
+  static final String META_EXTENSION = "vem";
+  static final String VECTOR_DATA_EXTENSION = "vec";
+  static final String VECTOR_INDEX_EXTENSION = "vex";
+
+  static final int VERSION_START = 0;
+  static final int VERSION_CURRENT = VERSION_START;
+
+  /**
+   * Controls how many of the nearest neighbor candidates are connected to the new node. Defaults
+   * to {@link HnswGraphBuilder#DEFAULT_MAX_CONN}.
+   */
+  private final int maxConn;
+
+  /**
+   * The number of candidate neighbors to track while searching the graph for each newly inserted
+   * node. Defaults to {@link HnswGraphBuilder#DEFAULT_BEAM_WIDTH}.
+   */
+  private final int beamWidth;
+
+  /** Constructs a format using default graph construction parameters */
+  public Lucene90HnswVectorFormat() {
+    this(HnswGraphBuilder.DEFAULT_MAX_CONN, HnswGraphBuilder.DEFAULT_BEAM_WIDTH);
+  }
+
+  /**
+   * Constructs a format using the given graph construction parameters.
+   * @param maxConn the maximum number of connections to a node in the HNSW graph
+   * @param beamWidth the size of the queue maintained during graph construction.
+   */
+  public Lucene90HnswVectorFormat(int maxConn, int beamWidth) {
+    if (maxConn <= 0) {
+      throw new IllegalArgumentException("maxConn must be positive, got " + maxConn);
+    }
+    if (beamWidth <= 0) {
+      throw new IllegalArgumentException("beamWidth must be positive, got " + beamWidth);
+    }
+    this.maxConn = maxConn;
+    this.beamWidth = beamWidth;
+  }
+
+  @Override
+  public VectorWriter fieldsWriter(SegmentWriteState state) throws IOException {
+    return new Lucene90HnswVectorWriter(state, maxConn, beamWidth);
+  }
+
+  @Override
+  public VectorReader fieldsReader(SegmentReadState state) throws IOException {
+    return new Lucene90HnswVectorReader(state);
+  }
+
+  @Override
+  public String toString() {
+    return "Lucene90HnswVectorFormat(maxConn=" + maxConn + ", beamWidth=" + beamWidth + ")";
+  }
+}
@@ -0,0 +1,404 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene90;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.VectorReader;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.hnsw.HnswGraph;
+import org.apache.lucene.util.hnsw.HnswGraphSearcher;
+import org.apache.lucene.util.hnsw.NeighborQueue;
+
+import static org.apache.lucene.codecs.lucene90.Lucene90HnswVectorFormat.VERSION_CURRENT;
+import static org.apache.lucene.codecs.lucene90.Lucene90HnswVectorFormat.VERSION_START;
+
+/**
+ * Reads vectors from the index segments along with their HNSW graphs, see
+ * {@link Lucene90HnswVectorFormat}.
+ *
+ * @lucene.experimental
+ */
+public final class Lucene90HnswVectorReader extends VectorReader {
+
+  private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(Lucene90HnswVectorReader.class);
+
+  private final FieldInfos fieldInfos;
+  private final Map<String, FieldEntry> fields = new HashMap<>();
+  private final IndexInput vectorData;
+  private final IndexInput vectorIndex;
+
+  Lucene90HnswVectorReader(SegmentReadState state) throws IOException {
+    this.fieldInfos = state.fieldInfos;
+    String metaFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, Lucene90HnswVectorFormat.META_EXTENSION);
+    int versionMeta = -1;
+    try (ChecksumIndexInput meta = state.directory.openChecksumInput(metaFileName, state.context)) {
+      Throwable priorE = null;
+      try {
+        versionMeta = CodecUtil.checkIndexHeader(meta, Lucene90HnswVectorFormat.META_CODEC_NAME,
+            VERSION_START, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+        readFields(meta, state.fieldInfos);
+      } catch (Throwable exception) {
+        priorE = exception;
+      } finally {
+        CodecUtil.checkFooter(meta, priorE);
+      }
+    }
+
+    boolean success = false;
+    IndexInput vectorData = null;
+    IndexInput vectorIndex = null;
+    try {
+      vectorData = openDataInput(state, versionMeta, Lucene90HnswVectorFormat.VECTOR_DATA_EXTENSION, Lucene90HnswVectorFormat.VECTOR_DATA_CODEC_NAME);
+      vectorIndex = openDataInput(state, versionMeta, Lucene90HnswVectorFormat.VECTOR_INDEX_EXTENSION, Lucene90HnswVectorFormat.VECTOR_INDEX_CODEC_NAME);
+      success = true;
+    } finally {
+      if (success == false) {
+        IOUtils.closeWhileHandlingException(vectorData, vectorIndex);
+      }
+    }
+    this.vectorData = vectorData;
+    this.vectorIndex = vectorIndex;
+  }
+
+  private static IndexInput openDataInput(SegmentReadState state, int versionMeta, String fileExtension, String codecName) throws IOException {
+    String fileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, fileExtension);
+    IndexInput in = state.directory.openInput(fileName, state.context);
+    boolean success = false;
+    try {
+      int versionData = CodecUtil.checkIndexHeader(in, codecName, VERSION_START, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+      if (versionMeta != versionData) {
+        throw new CorruptIndexException("Format versions mismatch: meta=" + versionMeta + ", " + codecName + "=" + versionData, in);
+      }
+      // NOTE: data file is too costly to verify checksum against all the bytes on open,
+      // but for now we at least verify proper structure of the checksum footer: which looks
+      // for FOOTER_MAGIC + algorithmID. This is cheap and can detect some forms of corruption
+      // such as file truncation.
+      CodecUtil.retrieveChecksum(in);
+      success = true;
+      return in;
+    } finally {
+      if (success == false) {
+        IOUtils.closeWhileHandlingException(in);
+      }
+    }
+  }
+
+  private void readFields(ChecksumIndexInput meta, FieldInfos infos) throws IOException {
+    for (int fieldNumber = meta.readInt(); fieldNumber != -1; fieldNumber = meta.readInt()) {
+      FieldInfo info = infos.fieldInfo(fieldNumber);
+      if (info == null) {
+        throw new CorruptIndexException("Invalid field number: " + fieldNumber, meta);
+      }
+      FieldEntry fieldEntry = readField(meta);
+      validateFieldEntry(info, fieldEntry, meta);
+      fields.put(info.name, fieldEntry);
+    }
+  }
+
+  private void validateFieldEntry(FieldInfo info, FieldEntry fieldEntry, ChecksumIndexInput meta) throws CorruptIndexException {
+    if (info.getVectorDimension() != fieldEntry.dimension) {
+      throw new CorruptIndexException("Inconsistent vector dimension for field=\"" + info.name + "\"; "
+          + info.getVectorDimension() + " != " + fieldEntry.dimension, meta);
+    }
+    if (info.getVectorSimilarityFunction() != fieldEntry.similarityFunction) {
+      throw new CorruptIndexException("Inconsistent vector similarity function for field=\"" + info.name + "\"; "
+          + info.getVectorSimilarityFunction() + " != " + fieldEntry.similarityFunction, meta);
+    }
+    long numBytes = (long) fieldEntry.size() * fieldEntry.dimension * Float.BYTES;
+    if (numBytes != fieldEntry.vectorDataLength) {
+      throw new CorruptIndexException("Vector data length " + fieldEntry.vectorDataLength
+          + " not matching size=" + fieldEntry.size() + " * dim=" + fieldEntry.dimension + " * 4 = " + numBytes, meta);
+    }
+  }
+
+  private static VectorSimilarityFunction readSimilarityFunction(ChecksumIndexInput meta) throws IOException {
+    int similarityFunctionId = meta.readInt();
+    if (similarityFunctionId < 0 || similarityFunctionId >= VectorSimilarityFunction.values().length) {
+      throw new CorruptIndexException("Invalid similarity function id: " + similarityFunctionId, meta);
+    }
+    return VectorSimilarityFunction.values()[similarityFunctionId];
+  }
+
+  private static FieldEntry readField(ChecksumIndexInput meta) throws IOException {
+    VectorSimilarityFunction similarityFunction = readSimilarityFunction(meta);
+    return new FieldEntry(meta, similarityFunction);
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    long totalBytes = SHALLOW_SIZE;
+    totalBytes += RamUsageEstimator.sizeOfMap(fields, RamUsageEstimator.shallowSizeOfInstance(FieldEntry.class));
+    for (FieldEntry entry : fields.values()) {
+      totalBytes += RamUsageEstimator.sizeOf(entry.ordToDoc);
+      for (int level = 1; level < entry.numLevels; level++) {
+        totalBytes += RamUsageEstimator.sizeOf(entry.nodesByLevel[level]);
+      }
+    }
+    return totalBytes;
+  }
+
+  @Override
+  public void checkIntegrity() throws IOException {
+    CodecUtil.checksumEntireFile(vectorData);
+    CodecUtil.checksumEntireFile(vectorIndex);
+  }
+
+  @Override
+  public VectorValues getVectorValues(String field) throws IOException {
+    FieldEntry fieldEntry = fields.get(field);
+    if (fieldEntry == null) {
+      return null;
+    }
+    return getOffHeapVectorValues(fieldEntry);
+  }
+
+  @Override
+  public TopDocs search(String field, float[] target, int k, Bits acceptDocs, int visitedLimit) throws IOException {
+    FieldEntry fieldEntry = fields.get(field);
+    if (fieldEntry == null) {
+      return null;
+    }
+    if (fieldEntry.size() == 0) {
+      return new TopDocs(new TotalHits(0, TotalHits.Relation.EQUAL_TO), new ScoreDoc[0]);
+    }
+
+    OffHeapVectorValues vectorValues = getOffHeapVectorValues(fieldEntry);
+    NeighborQueue results = HnswGraphSearcher.search(target, k, vectorValues, fieldEntry.similarityFunction,
+        getGraph(fieldEntry), getAcceptOrds(acceptDocs, fieldEntry), visitedLimit);
+    TotalHits.Relation relation = results.incomplete()
+        ? TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO
+        : TotalHits.Relation.EQUAL_TO;
+    int visitedCount = results.visitedCount();
+    // the queue pops the least similar neighbors first: fill the results from the end
+    ScoreDoc[] scoreDocs = new ScoreDoc[Math.min(results.size(), k)];
+    for (int i = scoreDocs.length - 1; i >= 0; i--) {
+      float score = results.topScore();
+      int node = results.pop();
+      scoreDocs[i] = new ScoreDoc(fieldEntry.ordToDoc[node], score);
+    }
+    return new TopDocs(new TotalHits(visitedCount, relation), scoreDocs);
+  }
+
+  private OffHeapVectorValues getOffHeapVectorValues(FieldEntry fieldEntry) throws IOException {
+    IndexInput bytesSlice = vectorData.slice("vector-data", fieldEntry.vectorDataOffset, fieldEntry.vectorDataLength);
+    return new OffHeapVectorValues(fieldEntry.dimension, fieldEntry.ordToDoc, bytesSlice);
+  }
+
+  private Bits getAcceptOrds(Bits acceptDocs, FieldEntry fieldEntry) {
+    if (acceptDocs == null) {
+      return null;
+    }
+    return new Bits() {
+      @Override
+      public boolean get(int index) {
+        return acceptDocs.get(fieldEntry.ordToDoc[index]);
+      }
+
+      @Override
+      public int length() {
+        return fieldEntry.ordToDoc.length;
+      }
+    };
+  }
+
+  /** Get knn graph values; used for testing and for reusing the graph of a segment when merging */
+  public HnswGraph getGraph(String field) throws IOException {
+    FieldInfo info = fieldInfos.fieldInfo(field);
+    if (info == null) {
+      throw new IllegalArgumentException("No such field '" + field + "'");
+    }
+    FieldEntry entry = fields.get(field);
+    if (entry != null && entry.vectorIndexLength > 0) {
+      return getGraph(entry);
+    } else {
+      return HnswGraph.EMPTY;
+    }
+  }
+
+  private HnswGraph getGraph(FieldEntry entry) throws IOException {
+    IndexInput bytesSlice = vectorIndex.slice("graph-data", entry.vectorIndexOffset, entry.vectorIndexLength);
+    return new OffHeapHnswGraph(entry, bytesSlice);
+  }
+
+  /** Returns the maximum number of connections of the graph of the field, or -1 if the field has no graph */
+  int getMaxConn(String field) {
+    FieldEntry entry = fields.get(field);
+    return entry == null ? -1 : entry.maxConn;
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOUtils.close(vectorData, vectorIndex);
+  }
+
+  private static class FieldEntry {
+
+    final VectorSimilarityFunction similarityFunction;
+    final long vectorDataOffset;
+    final long vectorDataLength;
+    final long vectorIndexOffset;
+    final long vectorIndexLength;
+    final int dimension;
+    final int[] ordToDoc;
+    final int maxConn;
+    final int numLevels;
+    final int[][] nodesByLevel;
+    // for each level the start offset in the graph file of its first node
+    final long[] graphOffsetsByLevel;
+    final int entryNode;
+
+    FieldEntry(ChecksumIndexInput input, VectorSimilarityFunction similarityFunction) throws IOException {
+      this.similarityFunction = similarityFunction;
+      vectorDataOffset = input.readVLong();
+      vectorDataLength = input.readVLong();
+      vectorIndexOffset = input.readVLong();
+      vectorIndexLength = input.readVLong();
+      dimension = input.readInt();
+      int size = input.readInt();
+      ordToDoc = new int[size];
+      int lastDocID = -1;
+      for (int i = 0; i < size; i++) {
+        int doc = lastDocID + 1 + input.readVInt();
+        ordToDoc[i] = doc;
+        lastDocID = doc;
+      }
+
+      // read the nodes by level
+      maxConn = input.readInt();
+      numLevels = input.readInt();
+      // level 0 contains all the nodes, they are not stored
+      nodesByLevel = new int[numLevels][];
+      for (int level = 1; level < numLevels; level++) {
+        int numNodesOnLevel = input.readInt();
+        nodesByLevel[level] = new int[numNodesOnLevel];
+        int lastNode = -1;
+        for (int i = 0; i < numNodesOnLevel; i++) {
+          int node = lastNode + 1 + input.readVInt();
+          nodesByLevel[level][i] = node;
+          lastNode = node;
+        }
+      }
+      entryNode = input.readInt();
+
+      // compute the offsets of the levels in the graph file
+      graphOffsetsByLevel = new long[numLevels];
+      for (int level = 0; level < numLevels; level++) {
+        if (level == 0) {
+          graphOffsetsByLevel[level] = 0;
+        } else {
+          int numNodesOnPrevLevel = level == 1 ? size : nodesByLevel[level - 1].length;
+          graphOffsetsByLevel[level] = graphOffsetsByLevel[level - 1]
+              + (long) numNodesOnPrevLevel * Integer.BYTES * (1 + maxConnOnLevel(level - 1));
+        }
+      }
+    }
+
+    int size() {
+      return ordToDoc.length;
+    }
+
+    int maxConnOnLevel(int level) {
+      return level == 0 ? maxConn * 2 : maxConn;
+    }
+  }
+
+  /** Read the nearest-neighbors graph from the index input */
+  private static final class OffHeapHnswGraph extends HnswGraph {
+
+    final FieldEntry entry;
+    final IndexInput dataIn;
+
+    int arcCount;
+    int arcUpTo;
+    final int[] arcs;
+
+    OffHeapHnswGraph(FieldEntry entry, IndexInput dataIn) {
+      this.entry = entry;
+      this.dataIn = dataIn;
+      this.arcs = new int[entry.maxConnOnLevel(0)];
+    }
+
+    @Override
+    public void seek(int level, int targetOrd) throws IOException {
+      int targetIndex = level == 0 ? targetOrd : Arrays.binarySearch(entry.nodesByLevel[level], targetOrd);
+      assert targetIndex >= 0 : "node " + targetOrd + " is not on level " + level;
+      // unsafe; no bounds checking
+      dataIn.seek(entry.graphOffsetsByLevel[level]
+          + (long) targetIndex * Integer.BYTES * (1 + entry.maxConnOnLevel(level)));
+      arcCount = dataIn.readInt();
+      for (int i = 0; i < arcCount; i++) {
+        arcs[i] = dataIn.readInt();
+      }
+      arcUpTo = 0;
+    }
+
+    @Override
+    public int size() {
+      return entry.size();
+    }
+
+    @Override
+    public int nextNeighbor() {
+      if (arcUpTo >= arcCount) {
+        return DocIdSetIterator.NO_MORE_DOCS;
+      }
+      return arcs[arcUpTo++];
+    }
+
+    @Override
+    public int numLevels() {
+      return entry.numLevels;
+    }
+
+    @Override
+    public int entryNode() {
+      return entry.entryNode;
+    }
+
+    @Override
+    public int[] getNodesOnLevel(int level) {
+      if (level == 0) {
+        int[] nodes = new int[entry.size()];
+        for (int i = 0; i < nodes.length; i++) {
+          nodes[i] = i;
+        }
+        return nodes;
+      }
+      return entry.nodesByLevel[level].clone();
+    }
+  }
+}
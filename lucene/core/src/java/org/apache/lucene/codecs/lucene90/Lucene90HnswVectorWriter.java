@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene90;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.VectorReader;
+import org.apache.lucene.codecs.VectorWriter;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.MergeState;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.hnsw.HnswGraph;
+import org.apache.lucene.util.hnsw.HnswGraphBuilder;
+import org.apache.lucene.util.hnsw.NeighborArray;
+import org.apache.lucene.util.hnsw.OnHeapHnswGraph;
+
+/**
+ * Writes vector values and knn graphs to index segments, see {@link Lucene90HnswVectorFormat}.
+ *
+ * @lucene.experimental
+ */
+public final class Lucene90HnswVectorWriter extends VectorWriter {
+
+  private final SegmentWriteState segmentWriteState;
+  private final IndexOutput meta, vectorData, vectorIndex;
+  private final int maxConn;
+  private final int beamWidth;
+
+  private boolean finished;
+
+  Lucene90HnswVectorWriter(SegmentWriteState state, int maxConn, int beamWidth) throws IOException {
+    this.maxConn = maxConn;
+    this.beamWidth = beamWidth;
+    this.segmentWriteState = state;
+
+    String metaFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, Lucene90HnswVectorFormat.META_EXTENSION);
+    String vectorDataFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, Lucene90HnswVectorFormat.VECTOR_DATA_EXTENSION);
+    String indexDataFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, Lucene90HnswVectorFormat.VECTOR_INDEX_EXTENSION);
+
+    boolean success = false;
+    IndexOutput meta = null, vectorData = null, vectorIndex = null;
+    try {
+      meta = state.directory.createOutput(metaFileName, state.context);
+      vectorData = state.directory.createOutput(vectorDataFileName, state.context);
+      vectorIndex = state.directory.createOutput(indexDataFileName, state.context);
+
+      CodecUtil.writeIndexHeader(meta, Lucene90HnswVectorFormat.META_CODEC_NAME,
+          Lucene90HnswVectorFormat.VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+      CodecUtil.writeIndexHeader(vectorData, Lucene90HnswVectorFormat.VECTOR_DATA_CODEC_NAME,
+          Lucene90HnswVectorFormat.VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+      CodecUtil.writeIndexHeader(vectorIndex, Lucene90HnswVectorFormat.VECTOR_INDEX_CODEC_NAME,
+          Lucene90HnswVectorFormat.VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+      success = true;
+    } finally {
+      if (success == false) {
+        IOUtils.closeWhileHandlingException(meta, vectorData, vectorIndex);
+      }
+    }
+    this.meta = meta;
+    this.vectorData = vectorData;
+    this.vectorIndex = vectorIndex;
+  }
+
+  @Override
+  public void writeField(FieldInfo fieldInfo, VectorValues vectors) throws IOException {
+    writeField(fieldInfo, vectors, null, 0);
+  }
+
+  /**
+   * Writes the vectors of a field and their graph, which is initialized from {@code initializerGraph}
+   * if it is not null, see {@link HnswGraphBuilder#initializeFromGraph}.
+   */
+  private void writeField(FieldInfo fieldInfo, VectorValues vectors, HnswGraph initializerGraph, int ordOffset) throws IOException {
+    // The vectors are first written to a temporary file so that they can be read back with random
+    // access while the graph is built, without holding them in memory.
+    IndexOutput tempVectorData = segmentWriteState.directory.createTempOutput(
+        vectorData.getName(), "temp", segmentWriteState.context);
+    IndexInput vectorDataInput = null;
+    boolean success = false;
+    try {
+      int[] docIds = writeVectorData(tempVectorData, vectors);
+      CodecUtil.writeFooter(tempVectorData);
+      IOUtils.close(tempVectorData);
+
+      // copy the temporary file vectors to the actual data file
+      vectorDataInput = segmentWriteState.directory.openInput(tempVectorData.getName(), segmentWriteState.context);
+      long vectorDataOffset = vectorData.getFilePointer();
+      vectorData.copyBytes(vectorDataInput, vectorDataInput.length() - CodecUtil.footerLength());
+      CodecUtil.retrieveChecksum(vectorDataInput);
+      long vectorDataLength = vectorData.getFilePointer() - vectorDataOffset;
+
+      // build the graph using the temporary vector data
+      OffHeapVectorValues offHeapVectors = new OffHeapVectorValues(vectors.dimension(), docIds, vectorDataInput);
+      long vectorIndexOffset = vectorIndex.getFilePointer();
+      OnHeapHnswGraph graph = null;
+      if (docIds.length > 0) {
+        graph = writeGraph(offHeapVectors, fieldInfo, initializerGraph, ordOffset);
+      }
+      long vectorIndexLength = vectorIndex.getFilePointer() - vectorIndexOffset;
+      writeMeta(fieldInfo, vectorDataOffset, vectorDataLength, vectorIndexOffset, vectorIndexLength,
+          vectors.dimension(), docIds, graph);
+      success = true;
+    } finally {
+      if (success) {
+        IOUtils.close(vectorDataInput);
+      } else {
+        IOUtils.closeWhileHandlingException(vectorDataInput, tempVectorData);
+      }
+      IOUtils.deleteFilesIgnoringExceptions(segmentWriteState.directory, tempVectorData.getName());
+    }
+  }
+
+  /**
+   * Merges the vectors of a field, reusing the graph of the largest segment when possible so that
+   * only the vectors of the other segments need to be inserted into it.
+   */
+  @Override
+  protected void mergeOneField(MergeState mergeState, FieldInfo fieldInfo) throws IOException {
+    int initializerIndex = selectGraphForInitialization(mergeState, fieldInfo);
+    if (initializerIndex == -1) {
+      super.mergeOneField(mergeState, fieldInfo);
+      return;
+    }
+    // without index sort, the merged segment contains the documents of each segment in order,
+    // so the vectors of the initializer segment come after the live vectors of the previous ones
+    int ordOffset = 0;
+    for (int i = 0; i < initializerIndex; i++) {
+      ordOffset += liveVectorCount(mergeState, i, fieldInfo);
+    }
+    if (mergeState.infoStream.isEnabled("VV")) {
+      mergeState.infoStream.message("VV", "merging " + mergeState.segmentInfo
+          + " using the graph of segment #" + initializerIndex + " for field " + fieldInfo.name);
+    }
+    Lucene90HnswVectorReader initializerReader = (Lucene90HnswVectorReader) mergeState.vectorReaders[initializerIndex];
+    writeField(fieldInfo, mergedVectorValues(mergeState, fieldInfo), initializerReader.getGraph(fieldInfo.name), ordOffset);
+  }
+
+  /**
+   * Returns the index of the segment with the most vectors whose graph can be copied into the
+   * graph of the merged segment, or -1 if none can. The graph can be reused if the vectors of the
+   * segment are contiguous and in the same order in the merged segment, which requires that the
+   * index is not sorted and that the segment has no deletions, and if it was built with the same
+   * parameters.
+   */
+  private int selectGraphForInitialization(MergeState mergeState, FieldInfo fieldInfo) throws IOException {
+    if (mergeState.segmentInfo.getIndexSort() != null) {
+      return -1;
+    }
+    int initializerIndex = -1;
+    int maxVectorCount = 0;
+    for (int i = 0; i < mergeState.vectorReaders.length; i++) {
+      VectorReader reader = mergeState.vectorReaders[i];
+      if (reader instanceof Lucene90HnswVectorReader == false || mergeState.liveDocs[i] != null) {
+        continue;
+      }
+      FieldInfo readerFieldInfo = mergeState.fieldInfos[i].fieldInfo(fieldInfo.name);
+      if (readerFieldInfo == null || readerFieldInfo.hasVectorValues() == false
+          || ((Lucene90HnswVectorReader) reader).getMaxConn(fieldInfo.name) != maxConn) {
+        continue;
+      }
+      VectorValues values = reader.getVectorValues(fieldInfo.name);
+      if (values != null && values.size() > maxVectorCount) {
+        maxVectorCount = values.size();
+        initializerIndex = i;
+      }
+    }
+    return initializerIndex;
+  }
+
+  private static int liveVectorCount(MergeState mergeState, int readerIndex, FieldInfo fieldInfo) throws IOException {
+    VectorReader reader = mergeState.vectorReaders[readerIndex];
+    if (reader == null) {
+      return 0;
+    }
+    FieldInfo readerFieldInfo = mergeState.fieldInfos[readerIndex].fieldInfo(fieldInfo.name);
+    if (readerFieldInfo == null || readerFieldInfo.hasVectorValues() == false) {
+      return 0;
+    }
+    VectorValues values = reader.getVectorValues(fieldInfo.name);
+    if (values == null) {
+      return 0;
+    }
+    Bits liveDocs = mergeState.liveDocs[readerIndex];
+    if (liveDocs == null) {
+      return values.size();
+    }
+    int count = 0;
+    for (int doc = values.nextDoc(); doc != VectorValues.NO_MORE_DOCS; doc = values.nextDoc()) {
+      if (liveDocs.get(doc)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Writes the vector values to the output and returns the doc IDs of the documents that have a
+   * value, in order.
+   */
+  private static int[] writeVectorData(IndexOutput output, VectorValues vectors) throws IOException {
+    int[] docIds = new int[Math.max(vectors.size(), 1)];
+    int count = 0;
+    ByteBuffer binaryVector = ByteBuffer.allocate(vectors.dimension() * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    for (int docV = vectors.nextDoc(); docV != VectorValues.NO_MORE_DOCS; docV = vectors.nextDoc()) {
+      // write vector
+      binaryVector.asFloatBuffer().put(vectors.vectorValue());
+      output.writeBytes(binaryVector.array(), binaryVector.limit());
+      if (count == docIds.length) {
+        docIds = ArrayUtil.grow(docIds, count + 1);
+      }
+      docIds[count++] = docV;
+    }
+    return ArrayUtil.copyOfSubArray(docIds, 0, count);
+  }
+
+  private OnHeapHnswGraph writeGraph(OffHeapVectorValues vectorValues, FieldInfo fieldInfo,
+      HnswGraph initializerGraph, int ordOffset) throws IOException {
+    // build graph
+    HnswGraphBuilder hnswGraphBuilder = new HnswGraphBuilder(vectorValues, fieldInfo.getVectorSimilarityFunction(),
+        maxConn, beamWidth, HnswGraphBuilder.DEFAULT_RAND_SEED);
+    if (initializerGraph != null) {
+      hnswGraphBuilder.initializeFromGraph(initializerGraph, ordOffset);
+    }
+    OnHeapHnswGraph graph = hnswGraphBuilder.build();
+
+    // write the neighbors of the nodes level by level, in fixed-size slots
+    for (int level = 0; level < graph.numLevels(); level++) {
+      int maxConnOnLevel = level == 0 ? maxConn * 2 : maxConn;
+      for (int node : graph.getNodesOnLevel(level)) {
+        NeighborArray neighbors = graph.getNeighbors(level, node);
+        int size = neighbors.size();
+        assert size <= maxConnOnLevel : "node " + node + " has " + size + " neighbors on level " + level;
+        vectorIndex.writeInt(size);
+        int[] nodes = neighbors.node();
+        for (int i = 0; i < size; i++) {
+          vectorIndex.writeInt(nodes[i]);
+        }
+        for (int i = size; i < maxConnOnLevel; i++) {
+          vectorIndex.writeInt(0);
+        }
+      }
+    }
+    return graph;
+  }
+
+  private void writeMeta(FieldInfo field, long vectorDataOffset, long vectorDataLength, long vectorIndexOffset,
+      long vectorIndexLength, int dimension, int[] docIds, OnHeapHnswGraph graph) throws IOException {
+    meta.writeInt(field.number);
+    meta.writeInt(field.getVectorSimilarityFunction().ordinal());
+    meta.writeVLong(vectorDataOffset);
+    meta.writeVLong(vectorDataLength);
+    meta.writeVLong(vectorIndexOffset);
+    meta.writeVLong(vectorIndexLength);
+    meta.writeInt(dimension);
+    meta.writeInt(docIds.length);
+    int lastDocID = -1;
+    for (int docId : docIds) {
+      // delta-encode the doc IDs, they are strictly increasing
+      meta.writeVInt(docId - lastDocID - 1);
+      lastDocID = docId;
+    }
+
+    meta.writeInt(maxConn);
+    if (graph == null) {
+      meta.writeInt(0); // numLevels
+      meta.writeInt(-1); // entryNode
+      return;
+    }
+    meta.writeInt(graph.numLevels());
+    // level 0 contains all nodes, only write the nodes of the upper levels
+    for (int level = 1; level < graph.numLevels(); level++) {
+      int[] nodesOnLevel = graph.getNodesOnLevel(level);
+      meta.writeInt(nodesOnLevel.length);
+      int lastNode = -1;
+      for (int node : nodesOnLevel) {
+        meta.writeVInt(node - lastNode - 1);
+        lastNode = node;
+      }
+    }
+    meta.writeInt(graph.entryNode());
+  }
+
+  @Override
+  public void finish() throws IOException {
+    if (finished) {
+      throw new IllegalStateException("already finished");
+    }
+    finished = true;
+
+    if (meta != null) {
+      // write end of fields marker
+      meta.writeInt(-1);
+      CodecUtil.writeFooter(meta);
+    }
+    if (vectorData != null) {
+      CodecUtil.writeFooter(vectorData);
+      CodecUtil.writeFooter(vectorIndex);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOUtils.close(meta, vectorData, vectorIndex);
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene90;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.hnsw.RandomAccessVectorValues;
+
+/**
+ * Read the vector values from the index input. This supports both iterated and random access.
+ * The vectors are read from the input on demand, so that they do not need to fit in memory.
+ */
+final class OffHeapVectorValues extends VectorValues implements RandomAccessVectorValues {
+
+  private final int dimension;
+  // the doc IDs of the vectors, indexed by ordinal
+  private final int[] ordToDoc;
+  private final IndexInput dataIn;
+
+  private final byte[] binaryValue;
+  private final FloatBuffer floatBuffer;
+  private final float[] value;
+
+  private int ord = -1;
+  private int doc = -1;
+
+  OffHeapVectorValues(int dimension, int[] ordToDoc, IndexInput dataIn) {
+    this.dimension = dimension;
+    this.ordToDoc = ordToDoc;
+    this.dataIn = dataIn;
+    this.binaryValue = new byte[dimension * Float.BYTES];
+    this.floatBuffer = ByteBuffer.wrap(binaryValue).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+    this.value = new float[dimension];
+  }
+
+  @Override
+  public int dimension() {
+    return dimension;
+  }
+
+  @Override
+  public int size() {
+    return ordToDoc.length;
+  }
+
+  @Override
+  public float[] vectorValue() throws IOException {
+    return vectorValue(ord);
+  }
+
+  @Override
+  public int docID() {
+    return doc;
+  }
+
+  @Override
+  public int nextDoc() {
+    if (++ord >= size()) {
+      doc = NO_MORE_DOCS;
+    } else {
+      doc = ordToDoc[ord];
+    }
+    return doc;
+  }
+
+  @Override
+  public int advance(int target) {
+    assert docID() < target;
+    ord = Arrays.binarySearch(ordToDoc, ord + 1, ordToDoc.length, target);
+    if (ord < 0) {
+      ord = -(ord + 1);
+    }
+    assert ord <= ordToDoc.length;
+    if (ord == ordToDoc.length) {
+      doc = NO_MORE_DOCS;
+    } else {
+      doc = ordToDoc[ord];
+    }
+    return doc;
+  }
+
+  @Override
+  public RandomAccessVectorValues copy() {
+    return new OffHeapVectorValues(dimension, ordToDoc, dataIn.clone());
+  }
+
+  @Override
+  public float[] vectorValue(int targetOrd) throws IOException {
+    dataIn.seek((long) targetOrd * binaryValue.length);
+    dataIn.readBytes(binaryValue, 0, binaryValue.length);
+    floatBuffer.position(0);
+    floatBuffer.get(value, 0, dimension);
+    return value;
+  }
+
+  /** Returns the doc ID of the vector with the given ordinal */
+  int ordToDoc(int ord) {
+    return ordToDoc[ord];
+  }
+}
@@ -25,6 +25,8 @@ import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexableFieldType;
 import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.index.VectorValues;
 
 /**
  * Describes the properties of a field.
@@ -44,6 +46,8 @@ public class FieldType implements IndexableFieldType  {
   private int dimensionCount;
   private int indexDimensionCount;
   private int dimensionNumBytes;
+  private int vectorDimension;
+  private VectorSimilarityFunction vectorSimilarityFunction = VectorSimilarityFunction.EUCLIDEAN;
   private Map<String, String> attributes;
 
   /**
@@ -62,6 +66,8 @@ public class FieldType implements IndexableFieldType  {
     this.dimensionCount = ref.pointDimensionCount();
     this.indexDimensionCount = ref.pointIndexDimensionCount();
     this.dimensionNumBytes = ref.pointNumBytes();
+    this.vectorDimension = ref.vectorDimension();
+    this.vectorSimilarityFunction = ref.vectorSimilarityFunction();
     if (ref.getAttributes() != null) {
       this.attributes = new HashMap<>(ref.getAttributes());
     }
@@ -351,6 +357,36 @@ public class FieldType implements IndexableFieldType  {
     return dimensionNumBytes;
   }
 
+  /**
+   * Enables vector indexing, with the given number of dimensions and similarity function.
+   * @throws IllegalStateException if this FieldType is frozen against
+   *         future modifications.
+   */
+  public void setVectorDimensionsAndSimilarityFunction(int numDimensions, VectorSimilarityFunction similarity) {
+    checkIfFrozen();
+    if (numDimensions <= 0) {
+      throw new IllegalArgumentException("vector numDimensions must be > 0; got " + numDimensions);
+    }
+    if (numDimensions > VectorValues.MAX_DIMENSIONS) {
+      throw new IllegalArgumentException("vector numDimensions must be <= VectorValues.MAX_DIMENSIONS (=" + VectorValues.MAX_DIMENSIONS + "); got " + numDimensions);
+    }
+    if (similarity == null) {
+      throw new NullPointerException("VectorSimilarityFunction must not be null");
+    }
+    this.vectorDimension = numDimensions;
+    this.vectorSimilarityFunction = similarity;
+  }
+
+  @Override
+  public int vectorDimension() {
+    return vectorDimension;
+  }
+
+  @Override
+  public VectorSimilarityFunction vectorSimilarityFunction() {
+    return vectorSimilarityFunction;
+  }
+
   /**
    * Puts an attribute value.
    * <p>
@@ -421,6 +457,15 @@ public class FieldType implements IndexableFieldType  {
       result.append(",pointNumBytes=");
       result.append(dimensionNumBytes);
     }
+    if (vectorDimension != 0) {
+      if (result.length() > 0) {
+        result.append(",");
+      }
+      result.append("vectorDimension=");
+      result.append(vectorDimension);
+      result.append(",vectorSimilarityFunction=");
+      result.append(vectorSimilarityFunction);
+    }
     if (docValuesType != DocValuesType.NONE) {
       if (result.length() > 0) {
         result.append(",");
@@ -465,6 +510,8 @@ public class FieldType implements IndexableFieldType  {
     result = prime * result + dimensionCount;
     result = prime * result + indexDimensionCount;
     result = prime * result + dimensionNumBytes;
+    result = prime * result + vectorDimension;
+    result = prime * result + vectorSimilarityFunction.hashCode();
     result = prime * result + ((docValuesType == null) ? 0 : docValuesType.hashCode());
     result = prime * result + indexOptions.hashCode();
     result = prime * result + (omitNorms ? 1231 : 1237);
@@ -486,6 +533,8 @@ public class FieldType implements IndexableFieldType  {
     if (dimensionCount != other.dimensionCount) return false;
     if (indexDimensionCount != other.indexDimensionCount) return false;
     if (dimensionNumBytes != other.dimensionNumBytes) return false;
+    if (vectorDimension != other.vectorDimension) return false;
+    if (vectorSimilarityFunction != other.vectorSimilarityFunction) return false;
     if (docValuesType != other.docValuesType) return false;
     if (indexOptions != other.indexOptions) return false;
     if (omitNorms != other.omitNorms) return false;
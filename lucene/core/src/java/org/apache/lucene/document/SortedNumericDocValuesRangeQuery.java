@@ -18,6 +18,7 @@ package org.apache.lucene.document;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.function.LongPredicate;
 
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
@@ -27,12 +28,16 @@ import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.search.ConstantScoreScorer;
 import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.DocValuesFieldExistsQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryVisitor;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
 import org.apache.lucene.search.TwoPhaseIterator;
 import org.apache.lucene.search.Weight;
 
@@ -116,6 +121,12 @@ abstract class SortedNumericDocValuesRangeQuery extends Query {
           return null;
         }
         final NumericDocValues singleton = DocValues.unwrapSingleton(values);
+        if (singleton != null) {
+          final DocIdSetIterator sortedIterator = indexSortedIterator(context.reader(), singleton);
+          if (sortedIterator != null) {
+            return new ConstantScoreScorer(this, score(), scoreMode, sortedIterator);
+          }
+        }
         final TwoPhaseIterator iterator;
         if (singleton != null) {
           iterator = new TwoPhaseIterator(singleton) {
@@ -157,4 +168,137 @@ abstract class SortedNumericDocValuesRangeQuery extends Query {
     };
   }
 
+  /**
+   * Returns an iterator over the matches of this query if the segment is primarily sorted on
+   * this field, or null otherwise. Matching documents are contiguous in such segments, so both
+   * ends of their doc ID range can be found with a binary search on the doc values, without
+   * checking the value of every document in between.
+   */
+  private DocIdSetIterator indexSortedIterator(LeafReader reader, NumericDocValues values) throws IOException {
+    final Sort indexSort = reader.getMetaData().getSort();
+    if (indexSort == null) {
+      return null;
+    }
+    final SortField sortField = indexSort.getSort()[0];
+    if (field.equals(sortField.getField()) == false) {
+      return null;
+    }
+    final SortField.Type type = sortField instanceof SortedNumericSortField
+        ? ((SortedNumericSortField) sortField).getNumericType()
+        : sortField.getType();
+    if (type != SortField.Type.LONG && type != SortField.Type.INT) {
+      // float and double doc values do not sort in the order of their raw long bits
+      return null;
+    }
+
+    final SortedValues sortedValues = new SortedValues(reader, type, sortField.getMissingValue());
+    final int maxDoc = reader.maxDoc();
+    final int firstDoc, lastDoc;
+    if (sortField.getReverse()) {
+      firstDoc = sortedValues.firstDoc(0, maxDoc, v -> v <= upperValue);
+      lastDoc = sortedValues.firstDoc(firstDoc, maxDoc, v -> v < lowerValue);
+    } else {
+      firstDoc = sortedValues.firstDoc(0, maxDoc, v -> v >= lowerValue);
+      lastDoc = sortedValues.firstDoc(firstDoc, maxDoc, v -> v > upperValue);
+    }
+    if (firstDoc == lastDoc) {
+      return DocIdSetIterator.empty();
+    }
+    return new BoundedDocIdSetIterator(firstDoc, lastDoc, values);
+  }
+
+  /**
+   * Gives access to the values of a segment that is sorted on this field in random order, by
+   * pulling a new doc values iterator whenever an earlier document is requested. Documents
+   * without a value are sorted as if they had the missing value of the sort.
+   */
+  private class SortedValues {
+
+    private final LeafReader reader;
+    private final boolean intValues;
+    private final long missingValue;
+    private NumericDocValues values;
+
+    SortedValues(LeafReader reader, SortField.Type type, Object missingValue) throws IOException {
+      this.reader = reader;
+      this.intValues = type == SortField.Type.INT;
+      this.missingValue = missingValue == null ? 0L : ((Number) missingValue).longValue();
+      this.values = DocValues.unwrapSingleton(getValues(reader, field));
+    }
+
+    long get(int doc) throws IOException {
+      if (doc < values.docID()) {
+        values = DocValues.unwrapSingleton(getValues(reader, field));
+      }
+      if (values.docID() < doc) {
+        values.advance(doc);
+      }
+      if (values.docID() != doc) {
+        return missingValue;
+      }
+      // int sorts compare the values that they read as ints
+      return intValues ? (int) values.longValue() : values.longValue();
+    }
+
+    /**
+     * Returns the first doc in [from, to) whose value matches the predicate, assuming that the
+     * predicate does not match any document before a matching document, or {@code to} if no
+     * document matches.
+     */
+    int firstDoc(int from, int to, LongPredicate predicate) throws IOException {
+      int low = from;
+      int high = to - 1;
+      while (low <= high) {
+        final int mid = (low + high) >>> 1;
+        if (predicate.test(get(mid))) {
+          high = mid - 1;
+        } else {
+          low = mid + 1;
+        }
+      }
+      return low;
+    }
+  }
+
+  /**
+   * Iterates over the documents of a delegate iterator that are in [firstDoc, lastDoc).
+   */
+  private static class BoundedDocIdSetIterator extends DocIdSetIterator {
+
+    private final int firstDoc;
+    private final int lastDoc;
+    private final DocIdSetIterator delegate;
+    private int doc = -1;
+
+    BoundedDocIdSetIterator(int firstDoc, int lastDoc, DocIdSetIterator delegate) {
+      this.firstDoc = firstDoc;
+      this.lastDoc = lastDoc;
+      this.delegate = delegate;
+    }
+
+    @Override
+    public int docID() {
+      return doc;
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      return advance(doc + 1);
+    }
+
+    @Override
+    public int advance(int target) throws IOException {
+      doc = delegate.advance(Math.max(target, firstDoc));
+      if (doc >= lastDoc) {
+        doc = NO_MORE_DOCS;
+      }
+      return doc;
+    }
+
+    @Override
+    public long cost() {
+      return lastDoc - firstDoc;
+    }
+  }
+
 }
@@ -30,8 +30,11 @@ import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.PointsReader;
 import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.codecs.TermVectorsReader;
+import org.apache.lucene.codecs.VectorReader;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.Bits;
 
 /**
  * LeafReader implemented by codec APIs.
@@ -77,6 +80,12 @@ public abstract class CodecReader extends LeafReader implements Accountable {
    * @lucene.internal
    */
   public abstract PointsReader getPointsReader();
+
+  /**
+   * Expert: retrieve underlying VectorReader
+   * @lucene.internal
+   */
+  public abstract VectorReader getVectorReader();
   
   @Override
   public final void document(int docID, StoredFieldVisitor visitor) throws IOException {
@@ -202,6 +211,30 @@ public abstract class CodecReader extends LeafReader implements Accountable {
     return getPointsReader().getValues(field);
   }
 
+  @Override
+  public final VectorValues getVectorValues(String field) throws IOException {
+    ensureOpen();
+    FieldInfo fi = getFieldInfos().fieldInfo(field);
+    if (fi == null || fi.hasVectorValues() == false) {
+      // Field does not exist or does not index vectors
+      return null;
+    }
+
+    return getVectorReader().getVectorValues(field);
+  }
+
+  @Override
+  public final TopDocs searchNearestVectors(String field, float[] target, int k, Bits acceptDocs, int visitedLimit) throws IOException {
+    ensureOpen();
+    FieldInfo fi = getFieldInfos().fieldInfo(field);
+    if (fi == null || fi.hasVectorValues() == false) {
+      // Field does not exist or does not index vectors
+      return null;
+    }
+
+    return getVectorReader().search(field, target, k, acceptDocs, visitedLimit);
+  }
+
   @Override
   protected void doClose() throws IOException {
   }
@@ -237,6 +270,11 @@ public abstract class CodecReader extends LeafReader implements Accountable {
     if (getPointsReader() != null) {
       ramBytesUsed += getPointsReader().ramBytesUsed();
     }
+
+    // vectors
+    if (getVectorReader() != null) {
+      ramBytesUsed += getVectorReader().ramBytesUsed();
+    }
     
     return ramBytesUsed;
   }
@@ -244,7 +282,7 @@ public abstract class CodecReader extends LeafReader implements Accountable {
   @Override
   public Collection<Accountable> getChildResources() {
     ensureOpen();
-    final List<Accountable> resources = new ArrayList<>(6);
+    final List<Accountable> resources = new ArrayList<>(7);
     
     // terms/postings
     resources.add(Accountables.namedAccountable("postings", getPostingsReader()));
@@ -273,6 +311,11 @@ public abstract class CodecReader extends LeafReader implements Accountable {
     if (getPointsReader() != null) {
       resources.add(Accountables.namedAccountable("points", getPointsReader()));
     }
+
+    // vectors
+    if (getVectorReader() != null) {
+      resources.add(Accountables.namedAccountable("vectors", getVectorReader()));
+    }
     
     return Collections.unmodifiableList(resources);
   }
@@ -308,5 +351,10 @@ public abstract class CodecReader extends LeafReader implements Accountable {
     if (getPointsReader() != null) {
       getPointsReader().checkIntegrity();
     }
+
+    // vectors
+    if (getVectorReader() != null) {
+      getVectorReader().checkIntegrity();
+    }
   }
 }
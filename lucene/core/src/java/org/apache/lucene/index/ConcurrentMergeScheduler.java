@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
 
 import org.apache.lucene.index.MergePolicy.OneMerge;
 import org.apache.lucene.store.AlreadyClosedException;
@@ -121,6 +122,9 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
 
   private double forceMergeMBPerSec = Double.POSITIVE_INFINITY;
 
+  /** Runs the parts of merges that can proceed concurrently, see {@link #getIntraMergeExecutor}. */
+  private final IntraMergeExecutor intraMergeExecutor = new IntraMergeExecutor();
+
   /** Sole constructor, with all settings set to default
    *  values. */
   public ConcurrentMergeScheduler() {
@@ -280,16 +284,22 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
         // somewhere that is failing to pass down the right IOContext:
         assert context.context == IOContext.Context.MERGE: "got context=" + context.context;
         
-        // Because rateLimiter is bound to a particular merge thread, this method should
-        // always be called from that context. Verify this.
-        assert mergeThread == Thread.currentThread() : "Not the same merge thread, current="
-          + Thread.currentThread() + ", expected=" + mergeThread;
-
+        // The rateLimiter is bound to the merge, and shared by the intra-merge threads
+        // that may be creating outputs for it too.
         return new RateLimitedIndexOutput(rateLimiter, in.createOutput(name, context));
       }
     };
   }
   
+  @Override
+  public Executor getIntraMergeExecutor(OneMerge merge) {
+    if (merge.estimatedMergeBytes < MIN_BIG_MERGE_MB*1024*1024) {
+      // Small merges are done quickly enough that extra threads wouldn't pay off:
+      return Runnable::run;
+    }
+    return intraMergeExecutor;
+  }
+
   /**
    * Called whenever the running merges have changed, to set merge IO limits.
    * This method sorts the merge threads by their merge size in
@@ -345,8 +355,9 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
 
       OneMerge merge = mergeThread.merge;
 
-      // pause the thread if maxThreadCount is smaller than the number of merge threads.
-      final boolean doPause = threadIdx < bigMergeCount - maxThreadCount;
+      // pause the thread if maxThreadCount is smaller than the number of merge threads,
+      // including the intra-merge threads that big merges are using
+      final boolean doPause = threadIdx < bigMergeCount + intraMergeExecutor.threads.size() - maxThreadCount;
 
       double newMBPerSec;
       if (doPause) {
@@ -441,6 +452,7 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
   @Override
   public void close() {
     sync();
+    intraMergeExecutor.shutdown();
   }
 
   /** Wait for any running merge threads to finish. This call is not interruptible as used by {@link #close()}. */
@@ -478,7 +490,8 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
 
   /**
    * Returns the number of merge threads that are alive, ignoring the calling thread
-   * if it is a merge thread.  Note that this number is &le; {@link #mergeThreads} size.
+   * if it is a merge thread, plus the intra-merge threads that are running tasks of
+   * merges (see {@link #getIntraMergeExecutor}).
    *
    * @lucene.internal
    */
@@ -490,7 +503,7 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
         count++;
       }
     }
-    return count;
+    return count + intraMergeExecutor.threads.size();
   }
 
   @Override
@@ -698,6 +711,72 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
     }
   }
 
+  /**
+   * Runs the tasks of a merge on extra threads as long as these, together with the merge threads,
+   * stay within {@link #getMaxThreadCount}. Otherwise tasks run in the calling merge thread.
+   * The extra threads count against that budget for pausing big merges and stalling indexing too.
+   * Like merge threads, each intra-merge thread runs a single task and exits when it is done,
+   * so no idle threads are kept around between merges.
+   */
+  private class IntraMergeExecutor implements Executor {
+    // the following are guarded by ConcurrentMergeScheduler.this
+    private final List<Thread> threads = new ArrayList<>();
+    private int threadCount;
+    private boolean closed;
+
+    @Override
+    public void execute(Runnable task) {
+      synchronized (ConcurrentMergeScheduler.this) {
+        if (closed == false && threads.size() < maxThreadCount - mergeThreads.size()) {
+          final Thread thread = new Thread(() -> {
+            try {
+              task.run();
+            } finally {
+              synchronized (ConcurrentMergeScheduler.this) {
+                threads.remove(Thread.currentThread());
+                // a paused merge may resume, or stalled indexing proceed, now that a thread is free:
+                updateMergeThreads();
+                ConcurrentMergeScheduler.this.notifyAll();
+              }
+            }
+          }, "Lucene Intra-Merge Thread #" + threadCount++);
+          thread.setDaemon(true);
+          threads.add(thread);
+          thread.start();
+          updateMergeThreads();
+          return;
+        }
+      }
+      task.run();
+    }
+
+    /** Stops the intra-merge threads, waiting for them to finish. This call is not interruptible. */
+    void shutdown() {
+      boolean interrupted = false;
+      try {
+        while (true) {
+          Thread toJoin;
+          synchronized (ConcurrentMergeScheduler.this) {
+            closed = true;
+            if (threads.isEmpty()) {
+              break;
+            }
+            toJoin = threads.get(0);
+          }
+          try {
+            toJoin.join();
+          } catch (InterruptedException ie) {
+            // ignore this Exception, we will retry until all threads are dead
+            interrupted = true;
+          }
+        }
+      } finally {
+        // finally, restore interrupt status:
+        if (interrupted) Thread.currentThread().interrupt();
+      }
+    }
+  }
+
   /** Called when an exception is hit in a background merge
    *  thread */
   protected void handleMergeException(Directory dir, Throwable exc) {
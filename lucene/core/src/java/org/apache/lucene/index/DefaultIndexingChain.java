@@ -26,6 +26,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.codecs.DocValuesConsumer;
@@ -35,7 +38,10 @@ import org.apache.lucene.codecs.NormsFormat;
 import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.PointsFormat;
 import org.apache.lucene.codecs.PointsWriter;
+import org.apache.lucene.codecs.VectorFormat;
+import org.apache.lucene.codecs.VectorWriter;
 import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.VectorField;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
@@ -126,34 +132,67 @@ final class DefaultIndexingChain extends DocConsumer {
     // aborting on any exception from this method
     Sorter.DocMap sortMap = maybeSortSegment(state);
     int maxDoc = state.segmentInfo.maxDoc();
+    // finishing doc values updates bytesUsed, which is not thread-safe, so do it before the formats are written
+    finishDocValues(maxDoc);
+
+    // Each format is written from its own per-field buffers to its own files, so the formats can be
+    // written concurrently. The only dependency is that postings need the written norms.
+    final Executor executor = docWriter.getFlushExecutor() == null ? Runnable::run : docWriter.getFlushExecutor();
+    final List<FutureTask<Void>> tasks = new ArrayList<>();
+    tasks.add(submit(executor, () -> {
+      runWithLogging(() -> writeNorms(state, sortMap), "write norms");
+      runWithLogging(() -> writePostings(state, sortMap), "write postings and finish vectors");
+    }));
+    tasks.add(submit(executor, () -> runWithLogging(() -> writeDocValues(state, sortMap), "write docValues")));
+    tasks.add(submit(executor, () -> runWithLogging(() -> writePoints(state, sortMap), "write points")));
+    tasks.add(submit(executor, () -> runWithLogging(() -> writeVectors(state, sortMap), "write vectors")));
+    tasks.add(submit(executor, () -> runWithLogging(() -> {
+      // it's possible all docs hit non-aborting exceptions...
+      storedFieldsConsumer.finish(maxDoc);
+      storedFieldsConsumer.flush(state, sortMap);
+    }, "finish stored fields")));
+    SegmentMerger.awaitAll(tasks);
+
+    // Important to save after asking consumer to flush so
+    // consumer can alter the FieldInfo* if necessary.  EG,
+    // FreqProxTermsWriter does this with
+    // FieldInfo.storePayload.
+    runWithLogging(() -> docWriter.codec.fieldInfosFormat().write(state.directory, state.segmentInfo, "", state.fieldInfos, IOContext.DEFAULT),
+        "write fieldInfos");
+
+    return sortMap;
+  }
+
+  /** A part of the flush that may run concurrently with the others. */
+  @FunctionalInterface
+  private interface FlushStep {
+    void flush() throws IOException;
+  }
+
+  private void runWithLogging(FlushStep step, String stepName) throws IOException {
     long t0 = System.nanoTime();
-    writeNorms(state, sortMap);
+    step.flush();
     if (docState.infoStream.isEnabled("IW")) {
-      docState.infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write norms");
-    }
-    SegmentReadState readState = new SegmentReadState(state.directory, state.segmentInfo, state.fieldInfos, IOContext.READ, state.segmentSuffix);
-    
-    t0 = System.nanoTime();
-    writeDocValues(state, sortMap);
-    if (docState.infoStream.isEnabled("IW")) {
-      docState.infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write docValues");
+      docState.infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to " + stepName);
     }
+  }
 
-    t0 = System.nanoTime();
-    writePoints(state, sortMap);
-    if (docState.infoStream.isEnabled("IW")) {
-      docState.infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write points");
-    }
-    
-    // it's possible all docs hit non-aborting exceptions...
-    t0 = System.nanoTime();
-    storedFieldsConsumer.finish(maxDoc);
-    storedFieldsConsumer.flush(state, sortMap);
-    if (docState.infoStream.isEnabled("IW")) {
-      docState.infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to finish stored fields");
+  private static FutureTask<Void> submit(Executor executor, FlushStep step) {
+    FutureTask<Void> task = new FutureTask<>(() -> {
+      step.flush();
+      return null;
+    });
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      // all tasks must run so that the ones already submitted can be awaited, and their files closed
+      task.run();
     }
+    return task;
+  }
 
-    t0 = System.nanoTime();
+  /** Writes all buffered postings and term vectors, reading the norms that were written before. */
+  private void writePostings(SegmentWriteState state, Sorter.DocMap sortMap) throws IOException {
     Map<String,TermsHashPerField> fieldsToFlush = new HashMap<>();
     for (int i=0;i<fieldHash.length;i++) {
       PerField perField = fieldHash[i];
@@ -165,6 +204,7 @@ final class DefaultIndexingChain extends DocConsumer {
       }
     }
 
+    SegmentReadState readState = new SegmentReadState(state.directory, state.segmentInfo, state.fieldInfos, IOContext.READ, state.segmentSuffix);
     try (NormsProducer norms = readState.fieldInfos.hasNorms()
         ? state.segmentInfo.getCodec().normsFormat().normsProducer(readState)
         : null) {
@@ -175,21 +215,6 @@ final class DefaultIndexingChain extends DocConsumer {
       }
       termsHash.flush(fieldsToFlush, state, sortMap, normsMergeInstance);
     }
-    if (docState.infoStream.isEnabled("IW")) {
-      docState.infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write postings and finish vectors");
-    }
-
-    // Important to save after asking consumer to flush so
-    // consumer can alter the FieldInfo* if necessary.  EG,
-    // FreqProxTermsWriter does this with
-    // FieldInfo.storePayload.
-    t0 = System.nanoTime();
-    docWriter.codec.fieldInfosFormat().write(state.directory, state.segmentInfo, "", state.fieldInfos, IOContext.DEFAULT);
-    if (docState.infoStream.isEnabled("IW")) {
-      docState.infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write fieldInfos");
-    }
-
-    return sortMap;
   }
 
   /** Writes all buffered points. */
@@ -235,10 +260,66 @@ final class DefaultIndexingChain extends DocConsumer {
       }
     }
   }
+  /** Writes all buffered vectors. */
+  private void writeVectors(SegmentWriteState state, Sorter.DocMap sortMap) throws IOException {
+    VectorWriter vectorWriter = null;
+    boolean success = false;
+    try {
+      for (int i=0;i<fieldHash.length;i++) {
+        PerField perField = fieldHash[i];
+        while (perField != null) {
+          if (perField.vectorValuesWriter != null) {
+            if (perField.fieldInfo.getVectorDimension() == 0) {
+              // BUG
+              throw new AssertionError("segment=" + state.segmentInfo + ": field=\"" + perField.fieldInfo.name + "\" has no vectors but wrote them");
+            }
+            if (vectorWriter == null) {
+              // lazy init
+              VectorFormat fmt = state.segmentInfo.getCodec().vectorFormat();
+              if (fmt == null) {
+                throw new IllegalStateException("field=\"" + perField.fieldInfo.name + "\" was indexed as vectors but codec does not support vectors");
+              }
+              vectorWriter = fmt.fieldsWriter(state);
+            }
+
+            perField.vectorValuesWriter.flush(sortMap, vectorWriter);
+            perField.vectorValuesWriter = null;
+          } else if (perField.fieldInfo.getVectorDimension() != 0) {
+            // BUG
+            throw new AssertionError("segment=" + state.segmentInfo + ": field=\"" + perField.fieldInfo.name + "\" has vectors but did not write them");
+          }
+          perField = perField.next;
+        }
+      }
+      if (vectorWriter != null) {
+        vectorWriter.finish();
+      }
+      success = true;
+    } finally {
+      if (success) {
+        IOUtils.close(vectorWriter);
+      } else {
+        IOUtils.closeWhileHandlingException(vectorWriter);
+      }
+    }
+  }
+
+
+  /** Finishes all buffered doc values that were not finished to sort the segment. */
+  private void finishDocValues(int maxDoc) {
+    for (int i=0;i<fieldHash.length;i++) {
+      PerField perField = fieldHash[i];
+      while (perField != null) {
+        if (perField.docValuesWriter != null && finishedDocValues.add(perField.fieldInfo.name)) {
+          perField.docValuesWriter.finish(maxDoc);
+        }
+        perField = perField.next;
+      }
+    }
+  }
 
   /** Writes all buffered doc values (called from {@link #flush}). */
   private void writeDocValues(SegmentWriteState state, Sorter.DocMap sortMap) throws IOException {
-    int maxDoc = state.segmentInfo.maxDoc();
     DocValuesConsumer dvConsumer = null;
     boolean success = false;
     try {
@@ -256,9 +337,7 @@ final class DefaultIndexingChain extends DocConsumer {
               dvConsumer = fmt.fieldsConsumer(state);
             }
 
-            if (finishedDocValues.contains(perField.fieldInfo.name) == false) {
-              perField.docValuesWriter.finish(maxDoc);
-            }
+            assert finishedDocValues.contains(perField.fieldInfo.name);
             perField.docValuesWriter.flush(state, sortMap, dvConsumer);
             perField.docValuesWriter = null;
           } else if (perField.fieldInfo.getDocValuesType() != DocValuesType.NONE) {
@@ -483,6 +562,12 @@ final class DefaultIndexingChain extends DocConsumer {
       }
       indexPoint(fp, field);
     }
+    if (fieldType.vectorDimension() != 0) {
+      if (fp == null) {
+        fp = getOrAddField(fieldName, fieldType, false);
+      }
+      indexVector(fp, field);
+    }
     
     return fieldCount;
   }
@@ -527,6 +612,27 @@ final class DefaultIndexingChain extends DocConsumer {
     fp.pointValuesWriter.addPackedValue(docState.docID, field.binaryValue());
   }
 
+  /** Called from processDocument to index one field's vector value */
+  private void indexVector(PerField fp, IndexableField field) {
+    if (field instanceof VectorField == false) {
+      throw new IllegalArgumentException("field=\"" + field.name() + "\": vector values must be indexed with a VectorField");
+    }
+    int dimension = field.fieldType().vectorDimension();
+    VectorSimilarityFunction similarityFunction = field.fieldType().vectorSimilarityFunction();
+
+    // Record dimension and similarity function for this field; this setter will throw IllegalArgExc if
+    // the dimension or similarity function were already set to something different:
+    if (fp.fieldInfo.getVectorDimension() == 0) {
+      fieldInfos.globalFieldNumbers.setVectorDimensionsAndSimilarityFunction(fp.fieldInfo.number, fp.fieldInfo.name, dimension, similarityFunction);
+    }
+    fp.fieldInfo.setVectorDimensionAndSimilarityFunction(dimension, similarityFunction);
+
+    if (fp.vectorValuesWriter == null) {
+      fp.vectorValuesWriter = new VectorValuesWriter(fp.fieldInfo, bytesUsed);
+    }
+    fp.vectorValuesWriter.addValue(docState.docID, ((VectorField) field).vectorValue());
+  }
+
   private void validateIndexSortDVType(Sort indexSort, String fieldName, DocValuesType dvType) {
     for (SortField sortField : indexSort.getSort()) {
       if (sortField.getField().equals(fieldName)) {
@@ -718,6 +824,9 @@ final class DefaultIndexingChain extends DocConsumer {
     // Non-null if this field ever had points in this segment:
     PointValuesWriter pointValuesWriter;
 
+    // Non-null if this field ever had vector values in this segment:
+    VectorValuesWriter vectorValuesWriter;
+
     /** We use this to know when a PerField is seen for the
      *  first time in the current document. */
     long fieldGen = -1;
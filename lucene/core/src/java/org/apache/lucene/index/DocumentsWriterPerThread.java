@@ -23,6 +23,7 @@ import java.util.HashSet;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.lucene.analysis.Analyzer;
@@ -558,6 +559,11 @@ final class DocumentsWriterPerThread {
     return segmentInfo;
   }
 
+  /** Returns the executor that writes the formats of the flushed segment, or null to write them in the flushing thread. */
+  Executor getFlushExecutor() {
+    return indexWriterConfig.getFlushExecutor();
+  }
+
   long bytesUsed() {
     return bytesUsed.get() + pendingUpdates.ramBytesUsed();
   }
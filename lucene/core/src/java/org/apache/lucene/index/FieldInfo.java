@@ -54,6 +54,10 @@ public final class FieldInfo {
   private int pointIndexDimensionCount;
   private int pointNumBytes;
 
+  // if it is a positive value, it means this field indexes vectors
+  private int vectorDimension;
+  private VectorSimilarityFunction vectorSimilarityFunction;
+
   // whether this field is used as the soft-deletes field
   private final boolean softDeletesField;
 
@@ -64,7 +68,8 @@ public final class FieldInfo {
    */
   public FieldInfo(String name, int number, boolean storeTermVector, boolean omitNorms, boolean storePayloads,
                    IndexOptions indexOptions, DocValuesType docValues, long dvGen, Map<String,String> attributes,
-                   int pointDimensionCount, int pointIndexDimensionCount, int pointNumBytes, boolean softDeletesField) {
+                   int pointDimensionCount, int pointIndexDimensionCount, int pointNumBytes,
+                   int vectorDimension, VectorSimilarityFunction vectorSimilarityFunction, boolean softDeletesField) {
     this.name = Objects.requireNonNull(name);
     this.number = number;
     this.docValuesType = Objects.requireNonNull(docValues, "DocValuesType must not be null (field: \"" + name + "\")");
@@ -83,6 +88,9 @@ public final class FieldInfo {
     this.pointDimensionCount = pointDimensionCount;
     this.pointIndexDimensionCount = pointIndexDimensionCount;
     this.pointNumBytes = pointNumBytes;
+    this.vectorDimension = vectorDimension;
+    this.vectorSimilarityFunction = Objects.requireNonNull(vectorSimilarityFunction,
+        "VectorSimilarityFunction must not be null (field: \"" + name + "\")");
     this.softDeletesField = softDeletesField;
     assert checkConsistency();
   }
@@ -132,6 +140,10 @@ public final class FieldInfo {
     if (pointNumBytes != 0 && pointDimensionCount == 0) {
       throw new IllegalStateException("pointDimensionCount must be > 0 when pointNumBytes=" + pointNumBytes);
     }
+
+    if (vectorDimension < 0) {
+      throw new IllegalStateException("vectorDimension must be >= 0; got " + vectorDimension);
+    }
     
     if (dvGen != -1 && docValuesType == DocValuesType.NONE) {
       throw new IllegalStateException("field '" + name + "' cannot have a docvalues update generation without having docvalues");
@@ -142,7 +154,8 @@ public final class FieldInfo {
 
   // should only be called by FieldInfos#addOrUpdate
   void update(boolean storeTermVector, boolean omitNorms, boolean storePayloads, IndexOptions indexOptions,
-              Map<String, String> attributes, int dimensionCount, int indexDimensionCount, int dimensionNumBytes) {
+              Map<String, String> attributes, int dimensionCount, int indexDimensionCount, int dimensionNumBytes,
+              int vectorDimension, VectorSimilarityFunction vectorSimilarityFunction) {
     if (indexOptions == null) {
       throw new NullPointerException("IndexOptions must not be null (field: \"" + name + "\")");
     }
@@ -163,6 +176,13 @@ public final class FieldInfo {
       throw new IllegalArgumentException("cannot change field \"" + name + "\" from points dimensionCount=" + this.pointDimensionCount + ", indexDimensionCount=" + this.pointIndexDimensionCount + ", numBytes=" + this.pointNumBytes + " to inconsistent dimensionCount=" + dimensionCount +", indexDimensionCount=" + indexDimensionCount + ", numBytes=" + dimensionNumBytes);
     }
 
+    if (this.vectorDimension == 0 && vectorDimension != 0) {
+      this.vectorDimension = vectorDimension;
+      this.vectorSimilarityFunction = vectorSimilarityFunction;
+    } else if (vectorDimension != 0 && (this.vectorDimension != vectorDimension || this.vectorSimilarityFunction != vectorSimilarityFunction)) {
+      throw new IllegalArgumentException("cannot change field \"" + name + "\" from vector dimension=" + this.vectorDimension + ", similarity function=" + this.vectorSimilarityFunction + " to inconsistent vector dimension=" + vectorDimension + ", similarity function=" + vectorSimilarityFunction);
+    }
+
     if (this.indexOptions != IndexOptions.NONE) { // if updated field data is not for indexing, leave the updates out
       this.storeTermVector |= storeTermVector;                // once vector, always vector
       this.storePayloads |= storePayloads;
@@ -232,6 +252,45 @@ public final class FieldInfo {
     return pointNumBytes;
   }
 
+  /** Record that this field is indexed with vectors, with the specified dimension and similarity function */
+  public void setVectorDimensionAndSimilarityFunction(int dimension, VectorSimilarityFunction similarityFunction) {
+    if (dimension <= 0) {
+      throw new IllegalArgumentException("vector dimension must be > 0; got " + dimension + " for field=\"" + name + "\"");
+    }
+    if (dimension > VectorValues.MAX_DIMENSIONS) {
+      throw new IllegalArgumentException("vector dimension must be <= VectorValues.MAX_DIMENSIONS (= " + VectorValues.MAX_DIMENSIONS + "); got " + dimension + " for field=\"" + name + "\"");
+    }
+    if (similarityFunction == null) {
+      throw new NullPointerException("VectorSimilarityFunction must not be null (field: \"" + name + "\")");
+    }
+    if (vectorDimension != 0 && vectorDimension != dimension) {
+      throw new IllegalArgumentException("cannot change vector dimension from " + vectorDimension + " to " + dimension + " for field=\"" + name + "\"");
+    }
+    if (vectorDimension != 0 && vectorSimilarityFunction != similarityFunction) {
+      throw new IllegalArgumentException("cannot change vector similarity function from " + vectorSimilarityFunction + " to " + similarityFunction + " for field=\"" + name + "\"");
+    }
+
+    vectorDimension = dimension;
+    vectorSimilarityFunction = similarityFunction;
+
+    assert checkConsistency();
+  }
+
+  /** Returns the number of dimensions of the vector value */
+  public int getVectorDimension() {
+    return vectorDimension;
+  }
+
+  /** Returns the {@link VectorSimilarityFunction} for the field */
+  public VectorSimilarityFunction getVectorSimilarityFunction() {
+    return vectorSimilarityFunction;
+  }
+
+  /** Returns true if this field indexes vector values, see {@link org.apache.lucene.document.VectorField} */
+  public boolean hasVectorValues() {
+    return vectorDimension > 0;
+  }
+
   /** Record that this field is indexed with docvalues, with the specified type */
   public void setDocValuesType(DocValuesType type) {
     if (type == null) {
@@ -338,7 +397,7 @@ public final class FieldInfo {
   /**
    * Get a codec attribute value, or null if it does not exist
    */
-  public String getAttribute(String key) {
+  public synchronized String getAttribute(String key) {
     return attributes.get(key);
   }
   
@@ -352,8 +411,12 @@ public final class FieldInfo {
    * If a value already exists for the key in the field, it will be replaced with
    * the new value. If the value of the attributes for a same field is changed between
    * the documents, the behaviour after merge is undefined.
+   * <p>
+   * This method is synchronized since the formats of a segment may be written
+   * concurrently, see {@link IndexWriterConfig#setFlushExecutor} and
+   * {@link MergeScheduler#getIntraMergeExecutor}.
    */
-  public String putAttribute(String key, String value) {
+  public synchronized String putAttribute(String key, String value) {
     return attributes.put(key, value);
   }
   
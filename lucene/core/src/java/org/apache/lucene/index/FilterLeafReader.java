@@ -20,6 +20,7 @@ package org.apache.lucene.index;
 import java.io.IOException;
 import java.util.Iterator;
 
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.util.AttributeSource;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
@@ -330,6 +331,16 @@ public abstract class FilterLeafReader extends LeafReader {
     return in.getPointValues(field);
   }
 
+  @Override
+  public VectorValues getVectorValues(String field) throws IOException {
+    return in.getVectorValues(field);
+  }
+
+  @Override
+  public TopDocs searchNearestVectors(String field, float[] target, int k, Bits acceptDocs, int visitedLimit) throws IOException {
+    return in.searchNearestVectors(field, target, k, acceptDocs, visitedLimit);
+  }
+
   @Override
   public Fields getTermVectors(int docID)
           throws IOException {
@@ -33,6 +33,7 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -589,6 +590,8 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
             applyAllDeletesAndUpdates();
           }
 
+          mergeOnFullFlush(MergeTrigger.GET_READER);
+
           synchronized(this) {
 
             // NOTE: we cannot carry doc values updates in memory yet, so we always must write them through to disk and re-open each
@@ -1071,7 +1074,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
     for(SegmentCommitInfo info : segmentInfos) {
       FieldInfos fis = readFieldInfos(info);
       for(FieldInfo fi : fis) {
-        map.addOrGet(fi.name, fi.number, fi.getIndexOptions(), fi.getDocValuesType(), fi.getPointDimensionCount(), fi.getPointIndexDimensionCount(), fi.getPointNumBytes(), fi.isSoftDeletesField());
+        map.addOrGet(fi.name, fi.number, fi.getIndexOptions(), fi.getDocValuesType(), fi.getPointDimensionCount(), fi.getPointIndexDimensionCount(), fi.getPointNumBytes(), fi.getVectorDimension(), fi.getVectorSimilarityFunction(), fi.isSoftDeletesField());
       }
     }
 
@@ -1813,7 +1816,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
       if (globalFieldNumberMap.contains(f.name(), dvType) == false) {
         // if this field doesn't exists we try to add it. if it exists and the DV type doesn't match we
         // get a consistent error message as if you try to do that during an indexing operation.
-        globalFieldNumberMap.addOrGet(f.name(), -1, IndexOptions.NONE, dvType, 0, 0, 0, f.name().equals(config.softDeletesField));
+        globalFieldNumberMap.addOrGet(f.name(), -1, IndexOptions.NONE, dvType, 0, 0, 0, 0, VectorSimilarityFunction.EUCLIDEAN, f.name().equals(config.softDeletesField));
         assert globalFieldNumberMap.contains(f.name(), dvType);
       }
       if (config.getIndexSortFields().contains(f.name())) {
@@ -2209,6 +2212,71 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
     return newMergesFound;
   }
 
+  /**
+   * Runs the merges that {@link MergePolicy#findFullFlushMerges} returns for the segments that
+   * were just flushed, and waits up to {@link IndexWriterConfig#getMaxFullFlushMergeWaitMillis()}
+   * for them to complete. This must be called while the full flush is still in progress, so that
+   * no other segments are published until the commit point or NRT reader has been created.
+   */
+  private void mergeOnFullFlush(MergeTrigger trigger) throws IOException {
+    assert trigger == MergeTrigger.COMMIT || trigger == MergeTrigger.GET_READER;
+    assert holdsFullFlushLock();
+    final long maxWaitMillis = config.getMaxFullFlushMergeWaitMillis();
+    if (maxWaitMillis <= 0) {
+      return;
+    }
+
+    final List<MergePolicy.OneMerge> merges = new ArrayList<>();
+    synchronized (this) {
+      if (stopMerges || tragedy.get() != null) {
+        return;
+      }
+      final MergePolicy.MergeSpecification spec = config.getMergePolicy().findFullFlushMerges(trigger, segmentInfos, this);
+      if (spec == null) {
+        return;
+      }
+      for (MergePolicy.OneMerge merge : spec.merges) {
+        if (registerMerge(merge)) {
+          merges.add(merge);
+        }
+      }
+    }
+    if (merges.isEmpty()) {
+      return;
+    }
+
+    final long startNS = System.nanoTime();
+    // We can't hold IW's lock when going into merge because it can lead to deadlock:
+    mergeScheduler.merge(this, trigger, true);
+
+    synchronized (this) {
+      final long deadlineNS = startNS + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+      boolean running = true;
+      while (running && tragedy.get() == null) {
+        running = false;
+        for (MergePolicy.OneMerge merge : merges) {
+          if (pendingMerges.contains(merge) || runningMerges.contains(merge)) {
+            running = true;
+            break;
+          }
+        }
+        final long remainingNS = deadlineNS - System.nanoTime();
+        if (running == false || remainingNS <= 0) {
+          break;
+        }
+        try {
+          wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNS)));
+        } catch (InterruptedException ie) {
+          throw new ThreadInterruptedException(ie);
+        }
+      }
+      if (infoStream.isEnabled("IW")) {
+        infoStream.message("IW", (running ? "timed out waiting for " : "done waiting for ") + merges.size()
+            + " merge/s on " + trigger + " after " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNS) + " msec");
+      }
+    }
+  }
+
   /** Expert: to be used by a {@link MergePolicy} to avoid
    *  selecting merges for segments already being merged.
    *  The returned collection is not cloned, and thus is
@@ -2838,7 +2906,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
             FieldInfos fis = readFieldInfos(info);
             for(FieldInfo fi : fis) {
               // This will throw exceptions if any of the incoming fields have an illegal schema change:
-              globalFieldNumberMap.addOrGet(fi.name, fi.number, fi.getIndexOptions(), fi.getDocValuesType(), fi.getPointDimensionCount(), fi.getPointIndexDimensionCount(), fi.getPointNumBytes(), fi.isSoftDeletesField());
+              globalFieldNumberMap.addOrGet(fi.name, fi.number, fi.getIndexOptions(), fi.getDocValuesType(), fi.getPointDimensionCount(), fi.getPointIndexDimensionCount(), fi.getPointNumBytes(), fi.getVectorDimension(), fi.getVectorSimilarityFunction(), fi.isSoftDeletesField());
             }
             infos.add(copySegmentAsIs(info, newSegName, context));
           }
@@ -2985,9 +3053,10 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
       SegmentInfo info = new SegmentInfo(directoryOrig, Version.LATEST, null, mergedName, -1,
                                          false, codec, Collections.emptyMap(), StringHelper.randomId(), Collections.emptyMap(), config.getIndexSort());
 
+      // Not a merge of the merge scheduler, so there's no intra-merge executor and no rate limit
       SegmentMerger merger = new SegmentMerger(Arrays.asList(readers), info, infoStream, trackingDir,
                                                globalFieldNumberMap, 
-                                               context);
+                                               context, Runnable::run);
 
       if (!merger.shouldMerge()) {
         return docWriter.deleteQueue.getNextSequenceNumber();
@@ -3221,6 +3290,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
             flushSuccess = true;
 
             applyAllDeletesAndUpdates();
+            mergeOnFullFlush(MergeTrigger.COMMIT);
             synchronized(this) {
               writeReaderPool(true);
               if (changeCount.get() != lastCommitChangeCount) {
@@ -4459,7 +4529,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
       final SegmentMerger merger = new SegmentMerger(mergeReaders,
                                                      merge.info.info, infoStream, dirWrapper,
                                                      globalFieldNumberMap, 
-                                                     context);
+                                                     context, config.getMergeScheduler().getIntraMergeExecutor(merge));
       merge.info.setSoftDelCount(Math.toIntExact(softDeleteCount.get()));
       merge.checkAborted();
 
@@ -20,6 +20,7 @@ package org.apache.lucene.index;
 import java.io.PrintStream;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import org.apache.lucene.analysis.Analyzer;
@@ -110,6 +111,10 @@ public final class IndexWriterConfig extends LiveIndexWriterConfig {
   
   /** Default value for whether calls to {@link IndexWriter#close()} include a commit. */
   public final static boolean DEFAULT_COMMIT_ON_CLOSE = true;
+
+  /** Default value for the time to wait for merges on commit or NRT reader open (disabled).
+   *  Change using {@link #setMaxFullFlushMergeWaitMillis(long)} */
+  public static final long DEFAULT_MAX_FULL_FLUSH_MERGE_WAIT_MILLIS = 0;
   
   // indicates whether this config instance is already attached to a writer.
   // not final so that it can be cloned properly.
@@ -543,4 +548,52 @@ public final class IndexWriterConfig extends LiveIndexWriterConfig {
     this.softDeletesField = softDeletesField;
     return this;
   }
+
+  /**
+   * Expert: sets the maximum amount of time, in milliseconds, that {@link IndexWriter#commit()} and the opening of a
+   * near-real-time reader wait for merges of the segments they just flushed. When set to a positive value, the
+   * {@link IndexWriter} asks {@link MergePolicy#findFullFlushMerges} for merges once the full flush is done, hands them
+   * to the {@link MergeScheduler} and waits for them to complete before the commit point or reader is created, so that
+   * frequent commits or reopens expose a few merged segments instead of many tiny flushed ones. Merges that did not
+   * complete in time keep running in the background and the commit or reader uses the unmerged segments.
+   *
+   * <p>Indexing threads may stall while the writer waits since new segments cannot be published during a full flush,
+   * so this should be set to a small value. The merges run on the threads of the {@link MergeScheduler}, which makes
+   * this best used with {@link ConcurrentMergeScheduler}.
+   *
+   * <p>The default is <code>0</code>, which never looks for such merges.
+   *
+   * @see #getMaxFullFlushMergeWaitMillis()
+   */
+  public IndexWriterConfig setMaxFullFlushMergeWaitMillis(long maxFullFlushMergeWaitMillis) {
+    if (maxFullFlushMergeWaitMillis < 0) {
+      throw new IllegalArgumentException("maxFullFlushMergeWaitMillis must be >= 0 (got " + maxFullFlushMergeWaitMillis + ")");
+    }
+    this.maxFullFlushMergeWaitMillis = maxFullFlushMergeWaitMillis;
+    return this;
+  }
+
+  /**
+   * Expert: sets the {@link Executor} that writes the formats of a flushed segment concurrently. When a
+   * segment is flushed, its stored fields, doc values, points, and postings and term vectors (after the
+   * norms they depend on) are written by separate tasks that are submitted to this executor, while the flushing indexing thread
+   * waits for them to complete. This shortens the time large RAM buffers take to flush, and thus the time
+   * that indexing threads stall because flushing falls behind.
+   *
+   * <p>The executor may run tasks in the calling thread, e.g. when it is saturated, and tasks it rejects
+   * are run there too. Since all indexing
+   * threads may flush at the same time, a bounded executor should be used, and it must not be one that
+   * indexing threads run on, or flushes may wait for tasks that never get a thread. The executor is not
+   * shut down by the {@link IndexWriter}.
+   *
+   * <p>The default is <code>null</code>, which writes the formats sequentially in the flushing thread.
+   *
+   * <p>Only takes effect when IndexWriter is first created.
+   *
+   * @see #getFlushExecutor()
+   */
+  public IndexWriterConfig setFlushExecutor(Executor flushExecutor) {
+    this.flushExecutor = flushExecutor;
+    return this;
+  }
 }
@@ -114,6 +114,16 @@ public interface IndexableFieldType {
    */
   public int pointNumBytes();
 
+  /**
+   * The number of dimensions of the field's vector value
+   */
+  public int vectorDimension();
+
+  /**
+   * The {@link VectorSimilarityFunction} of the field's vector value
+   */
+  public VectorSimilarityFunction vectorSimilarityFunction();
+
   /**
    * Attributes for the field type.
    *
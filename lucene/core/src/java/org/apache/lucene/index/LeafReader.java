@@ -18,6 +18,9 @@ package org.apache.lucene.index;
 
 import java.io.IOException;
 
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.util.Bits;
 
 /** {@code LeafReader} is an abstract class, providing an interface for accessing an
@@ -231,6 +234,43 @@ public abstract class LeafReader extends IndexReader {
    *  are no point fields. */
   public abstract PointValues getPointValues(String field) throws IOException;
 
+  /** Returns {@link VectorValues} for this field, or
+   *  null if no {@link VectorValues} were indexed.
+   *  The returned instance should only be used by a single thread.
+   *
+   * @lucene.experimental
+   */
+  public abstract VectorValues getVectorValues(String field) throws IOException;
+
+  /**
+   * Return the k nearest neighbor documents as determined by comparison of their vector values for
+   * this field, to the given vector, by the field's similarity function. The score of each
+   * document is derived from the vector similarity in a way that ensures scores are positive and
+   * that a larger score corresponds to a higher ranking.
+   * <p>
+   * The search is allowed to be approximate, meaning the results are not guaranteed to be the true
+   * k closest neighbors. For large values of k (for example when k is close to the total number of
+   * documents), the search may also retrieve fewer than k documents.
+   * <p>
+   * The returned {@link TopDocs} will contain a {@link ScoreDoc} for each nearest neighbor, sorted
+   * in order of their similarity to the query vector (decreasing scores). The {@link TotalHits}
+   * contains the number of documents visited during the search. If the search stopped early because
+   * it hit {@code visitedLimit}, it is indicated through the relation {@code
+   * TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO}.
+   *
+   * @param field the vector field to search
+   * @param target the vector-valued query
+   * @param k the number of docs to return
+   * @param acceptDocs {@link Bits} that represents the allowed documents to match, or
+   *     {@code null} if they are all allowed to match.
+   * @param visitedLimit the maximum number of nodes that the search is allowed to visit
+   * @return the k nearest neighbor documents, along with their (similarity-specific) scores,
+   *     or null if the field has no vectors.
+   * @lucene.experimental
+   */
+  public abstract TopDocs searchNearestVectors(String field, float[] target, int k, Bits acceptDocs, int visitedLimit) throws IOException;
+
+
   /**
    * Checks consistency of this reader.
    * <p>
@@ -19,6 +19,7 @@ package org.apache.lucene.index;
 
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.codecs.Codec;
@@ -113,6 +114,12 @@ public class LiveIndexWriterConfig {
   /** soft deletes field */
   protected String softDeletesField = null;
 
+  /** Amount of time to wait for merges returned by MergePolicy.findFullFlushMerges(...) */
+  protected volatile long maxFullFlushMergeWaitMillis = IndexWriterConfig.DEFAULT_MAX_FULL_FLUSH_MERGE_WAIT_MILLIS;
+
+  /** Executor that writes the formats of a flushed segment concurrently, or null to write them sequentially */
+  protected Executor flushExecutor = null;
+
 
   // used by IndexWriterConfig
   LiveIndexWriterConfig(Analyzer analyzer) {
@@ -476,6 +483,25 @@ public class LiveIndexWriterConfig {
     return softDeletesField;
   }
 
+  /**
+   * Returns the maximum amount of time, in milliseconds, that a commit or the opening of a near-real-time reader
+   * waits for the merges of freshly flushed segments that the {@link MergePolicy} returns from
+   * {@link MergePolicy#findFullFlushMerges}. A value of <code>0</code> disables these merges.
+   * See {@link IndexWriterConfig#setMaxFullFlushMergeWaitMillis(long)} for details.
+   */
+  public long getMaxFullFlushMergeWaitMillis() {
+    return maxFullFlushMergeWaitMillis;
+  }
+
+  /**
+   * Returns the {@link Executor} that writes the formats of flushed segments concurrently, or <code>null</code>
+   * if they are written sequentially by the flushing thread.
+   * See {@link IndexWriterConfig#setFlushExecutor(Executor)} for details.
+   */
+  public Executor getFlushExecutor() {
+    return flushExecutor;
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
@@ -500,6 +526,8 @@ public class LiveIndexWriterConfig {
     sb.append("indexSort=").append(getIndexSort()).append("\n");
     sb.append("checkPendingFlushOnUpdate=").append(isCheckPendingFlushOnUpdate()).append("\n");
     sb.append("softDeletesField=").append(getSoftDeletesField()).append("\n");
+    sb.append("maxFullFlushMergeWaitMillis=").append(getMaxFullFlushMergeWaitMillis()).append("\n");
+    sb.append("flushExecutor=").append(getFlushExecutor()).append("\n");
     return sb.toString();
   }
 }
@@ -95,13 +95,6 @@ public abstract class MergePolicy {
     
     private volatile boolean aborted;
 
-    /**
-     * This field is for sanity-check purposes only. Only the same thread that invoked
-     * {@link OneMerge#mergeInit()} is permitted to be calling 
-     * {@link #pauseNanos}. This is always verified at runtime. 
-     */
-    private Thread owner;
-
     /** Creates a new merge progress info. */
     public OneMergeProgress() {
       // Place all the pause reasons in there immediately so that we can simply update values.
@@ -128,7 +121,8 @@ public abstract class MergePolicy {
     }
 
     /**
-     * Pauses the calling thread for at least <code>pauseNanos</code> nanoseconds
+     * Pauses the calling thread, which is one of the threads working on the merge,
+     * for at least <code>pauseNanos</code> nanoseconds
      * unless the merge is aborted or the external condition returns <code>false</code>,
      * in which case control returns immediately.
      * 
@@ -142,12 +136,6 @@ public abstract class MergePolicy {
      *      condition 
      */
     public void pauseNanos(long pauseNanos, PauseReason reason, BooleanSupplier condition) throws InterruptedException {
-      if (Thread.currentThread() != owner) {
-        throw new RuntimeException("Only the merge owner thread can call pauseNanos(). This thread: "
-            + Thread.currentThread().getName() + ", owner thread: "
-            + owner);
-      }
-
       long start = System.nanoTime();
       AtomicLong timeUpdate = pauseTimesNS.get(reason);
       pauseLock.lock();
@@ -181,11 +169,6 @@ public abstract class MergePolicy {
               (e) -> e.getKey(),
               (e) -> e.getValue().get()));
     }
-
-    final void setMergeThread(Thread owner) {
-      assert this.owner == null;
-      this.owner = owner;
-    }
   }
 
   /** OneMerge provides the information necessary to perform
@@ -248,7 +231,6 @@ public abstract class MergePolicy {
      * thread that will be executing the merge.
      */
     public void mergeInit() throws IOException {
-      mergeProgress.setMergeThread(Thread.currentThread());
     }
     
     /** Called by {@link IndexWriter} after the merge is done and all readers have been closed. */
@@ -526,6 +508,26 @@ public abstract class MergePolicy {
   public abstract MergeSpecification findForcedDeletesMerges(
       SegmentInfos segmentInfos, MergeContext mergeContext) throws IOException;
 
+  /**
+   * Identifies merges that the {@link IndexWriter} should run and wait for before a commit
+   * point is written or a near-real-time reader is opened, in order to fold the segments that
+   * were just flushed into fewer segments. This is only called if
+   * {@link IndexWriterConfig#getMaxFullFlushMergeWaitMillis()} is greater than zero, and merges
+   * that don't complete in time keep running as regular background merges. The default
+   * implementation returns <code>null</code>, meaning no such merges.
+   * This call is always synchronized on the {@link IndexWriter} instance.
+   *
+   * @param mergeTrigger the event that triggered the merge, either {@link MergeTrigger#COMMIT}
+   *          or {@link MergeTrigger#GET_READER}
+   * @param segmentInfos
+   *          the total set of segments in the index, including the segments that were just flushed
+   * @param mergeContext the IndexWriter to find the merges on
+   */
+  public MergeSpecification findFullFlushMerges(MergeTrigger mergeTrigger, SegmentInfos segmentInfos, MergeContext mergeContext)
+      throws IOException {
+    return null;
+  }
+
   /**
    * Returns true if a new segment (regardless of its origin) should use the
    * compound file format. The default implementation returns <code>true</code>
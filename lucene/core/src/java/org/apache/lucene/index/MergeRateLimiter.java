@@ -41,6 +41,10 @@ public class MergeRateLimiter extends RateLimiter {
   private volatile double mbPerSec;
   private volatile long minPauseCheckBytes;
 
+  // Guards lastNS, and is held while pausing: all threads writing for the merge share this limiter,
+  // and taking turns makes their writes add up to the merge's rate.
+  private final Object pauseLock = new Object();
+
   private long lastNS;
 
   private AtomicLong totalBytesWritten = new AtomicLong();
@@ -90,9 +94,11 @@ public class MergeRateLimiter extends RateLimiter {
     // is changed while we were pausing:
     long paused = 0;
     long delta;
-    while ((delta = maybePause(bytes, System.nanoTime())) >= 0) {
-      // Keep waiting.
-      paused += delta;
+    synchronized (pauseLock) {
+      while ((delta = maybePause(bytes, System.nanoTime())) >= 0) {
+        // Keep waiting.
+        paused += delta;
+      }
     }
 
     return paused;
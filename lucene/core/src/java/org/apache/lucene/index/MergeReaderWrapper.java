@@ -25,6 +25,8 @@ import org.apache.lucene.codecs.FieldsProducer;
 import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.codecs.TermVectorsReader;
+import org.apache.lucene.codecs.VectorReader;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.util.Bits;
 
 /** This is a hack to make index sorting fast, with a {@link LeafReader} that always returns merge instances when you ask for the codec readers. */
@@ -35,6 +37,7 @@ class MergeReaderWrapper extends LeafReader {
   final DocValuesProducer docValues;
   final StoredFieldsReader store;
   final TermVectorsReader vectors;
+  final VectorReader vectorValues;
   
   MergeReaderWrapper(CodecReader in) throws IOException {
     this.in = in;
@@ -68,6 +71,12 @@ class MergeReaderWrapper extends LeafReader {
       vectors = vectors.getMergeInstance();
     }
     this.vectors = vectors;
+
+    VectorReader vectorValues = in.getVectorReader();
+    if (vectorValues != null) {
+      vectorValues = vectorValues.getMergeInstance();
+    }
+    this.vectorValues = vectorValues;
   }
 
   @Override
@@ -194,6 +203,22 @@ class MergeReaderWrapper extends LeafReader {
     return in.getPointValues(fieldName);
   }
 
+  @Override
+  public VectorValues getVectorValues(String fieldName) throws IOException {
+    ensureOpen();
+    FieldInfo fi = getFieldInfos().fieldInfo(fieldName);
+    if (fi == null || fi.hasVectorValues() == false) {
+      // Field does not exist or does not index vectors
+      return null;
+    }
+    return vectorValues.getVectorValues(fieldName);
+  }
+
+  @Override
+  public TopDocs searchNearestVectors(String fieldName, float[] target, int k, Bits acceptDocs, int visitedLimit) throws IOException {
+    return in.searchNearestVectors(fieldName, target, k, acceptDocs, visitedLimit);
+  }
+
   @Override
   public int numDocs() {
     return in.numDocs();
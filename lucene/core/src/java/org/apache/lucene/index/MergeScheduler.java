@@ -19,6 +19,7 @@ package org.apache.lucene.index;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 import org.apache.lucene.index.MergePolicy.OneMerge;
 import org.apache.lucene.store.Directory;
@@ -54,6 +55,16 @@ public abstract class MergeScheduler implements Closeable {
     return in;
   }
 
+  /**
+   * Returns the {@link Executor} that runs the parts of the given merge, such as the merging of
+   * the different index formats, which can proceed concurrently. The default runs them one after
+   * the other in the merging thread. Tasks may be run by other threads, which write through the
+   * same {@link #wrapForMerge wrapped} directory, so the rate limiting of the merge still applies.
+   */
+  public Executor getIntraMergeExecutor(OneMerge merge) {
+    return Runnable::run;
+  }
+
   /** Close this MergeScheduler. */
   @Override
   public abstract void close() throws IOException;
@@ -28,6 +28,7 @@ import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.PointsReader;
 import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.codecs.TermVectorsReader;
+import org.apache.lucene.codecs.VectorReader;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.InfoStream;
@@ -77,6 +78,9 @@ public class MergeState {
   /** Point readers to merge */
   public final PointsReader[] pointsReaders;
 
+  /** Vector readers to merge */
+  public final VectorReader[] vectorReaders;
+
   /** Max docs per reader */
   public final int[] maxDocs;
 
@@ -86,7 +90,7 @@ public class MergeState {
   /** Indicates if the index needs to be sorted **/
   public boolean needsIndexSort;
 
-  /** Sole constructor. */
+  /** Creates the state for merging the given readers. */
   MergeState(List<CodecReader> originalReaders, SegmentInfo segmentInfo, InfoStream infoStream) throws IOException {
 
     this.infoStream = infoStream;
@@ -103,6 +107,7 @@ public class MergeState {
     termVectorsReaders = new TermVectorsReader[numReaders];
     docValuesProducers = new DocValuesProducer[numReaders];
     pointsReaders = new PointsReader[numReaders];
+    vectorReaders = new VectorReader[numReaders];
     fieldInfos = new FieldInfos[numReaders];
     liveDocs = new Bits[numReaders];
 
@@ -139,6 +144,10 @@ public class MergeState {
       if (pointsReaders[i] != null) {
         pointsReaders[i] = pointsReaders[i].getMergeInstance();
       }
+      vectorReaders[i] = reader.getVectorReader();
+      if (vectorReaders[i] != null) {
+        vectorReaders[i] = vectorReaders[i].getMergeInstance();
+      }
       numDocs += reader.numDocs();
     }
 
@@ -148,6 +157,32 @@ public class MergeState {
     this.docMaps = buildDocMaps(readers, indexSort);
   }
 
+  /**
+   * Creates a copy of the given merge state with different field infos and postings, for instance to
+   * restrict the merge to some of the fields. Formats may be merged concurrently, so they must not change
+   * the state they are given.
+   *
+   * @lucene.internal
+   */
+  public MergeState(MergeState in, FieldInfos mergeFieldInfos, FieldInfos[] fieldInfos, FieldsProducer[] fieldsProducers) {
+    this.docMaps = in.docMaps;
+    this.leafDocMaps = in.leafDocMaps;
+    this.segmentInfo = in.segmentInfo;
+    this.mergeFieldInfos = mergeFieldInfos;
+    this.storedFieldsReaders = in.storedFieldsReaders;
+    this.termVectorsReaders = in.termVectorsReaders;
+    this.normsProducers = in.normsProducers;
+    this.docValuesProducers = in.docValuesProducers;
+    this.fieldInfos = fieldInfos;
+    this.liveDocs = in.liveDocs;
+    this.fieldsProducers = fieldsProducers;
+    this.pointsReaders = in.pointsReaders;
+    this.vectorReaders = in.vectorReaders;
+    this.maxDocs = in.maxDocs;
+    this.infoStream = in.infoStream;
+    this.needsIndexSort = in.needsIndexSort;
+  }
+
   // Remap docIDs around deletions
   private DocMap[] buildDeletionDocMaps(List<CodecReader> readers) {
 
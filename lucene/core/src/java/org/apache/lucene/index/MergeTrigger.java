@@ -47,5 +47,17 @@ public enum MergeTrigger {
   /**
    * Merge was triggered by a closing IndexWriter.
    */
-  CLOSING
+  CLOSING,
+
+  /**
+   * Merge was triggered on commit, to merge the segments that were just flushed
+   * before the commit point is written.
+   */
+  COMMIT,
+
+  /**
+   * Merge was triggered on the opening of a near-real-time reader, to merge the
+   * segments that were just flushed before the reader sees them.
+   */
+  GET_READER
 }
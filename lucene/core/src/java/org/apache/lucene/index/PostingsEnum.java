@@ -19,6 +19,7 @@ package org.apache.lucene.index;
 
 import java.io.IOException;
 
+import org.apache.lucene.search.DocAndFreqBuffer;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.util.BytesRef;
 
@@ -99,4 +100,33 @@ public abstract class PostingsEnum extends DocIdSetIterator {
    *  in the byte[]). */
   public abstract BytesRef getPayload() throws IOException;
 
+  /**
+   * Fill a buffer of doc IDs and frequencies with some number of doc IDs and their corresponding
+   * frequencies, starting at the current doc ID, and ending before {@code upTo}. On return, this
+   * enum is positioned on the first doc ID that was not added to the buffer, which is
+   * {@code >= upTo} if the buffer is empty. Frequencies are undefined if {@link #FREQS} was not
+   * requested.
+   * <p>
+   * This method must only be called once this enum is positioned on a doc ID, and allows
+   * implementations that decode postings by blocks to expose them without going through
+   * {@link #nextDoc()} for every single document. The default implementation collects doc IDs
+   * one at a time, up to a small batch size.
+   * <p>
+   * <b>NOTE</b>: The provided {@link DocAndFreqBuffer} should not hold references to internal
+   * data structures.
+   *
+   * @lucene.internal
+   */
+  public void nextPostings(int upTo, DocAndFreqBuffer buffer) throws IOException {
+    final int batchSize = 16; // arbitrary
+    buffer.growNoCopy(batchSize);
+    int size = 0;
+    for (int doc = docID(); doc < upTo && size < batchSize; doc = nextDoc()) {
+      buffer.docs[size] = doc;
+      buffer.freqs[size] = freq();
+      ++size;
+    }
+    buffer.size = size;
+  }
+
 }
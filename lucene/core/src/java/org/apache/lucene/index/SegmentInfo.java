@@ -69,7 +69,8 @@ public final class SegmentInfo {
 
   private Map<String,String> diagnostics;
   
-  private Map<String,String> attributes;
+  // copied on write, volatile since codec writers may put attributes while the formats are merged concurrently
+  private volatile Map<String,String> attributes;
 
   private final Sort indexSort;
 
@@ -325,9 +326,11 @@ public final class SegmentInfo {
    * <p>
    * If a value already exists for the field, it will be replaced with the new
    * value.
-   * This method make a copy on write for every attribute change.
+   * This method make a copy on write for every attribute change. It is synchronized
+   * since the formats of a segment may be merged concurrently, see
+   * {@link MergeScheduler#getIntraMergeExecutor}.
    */
-  public String putAttribute(String key, String value) {
+  public synchronized String putAttribute(String key, String value) {
     HashMap<String, String> newMap = new HashMap<>(attributes);
     String oldValue = newMap.put(key, value);
     // we make a full copy of this to prevent concurrent modifications to this in the toString method
@@ -18,7 +18,11 @@ package org.apache.lucene.index;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesConsumer;
@@ -28,9 +32,12 @@ import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.PointsWriter;
 import org.apache.lucene.codecs.StoredFieldsWriter;
 import org.apache.lucene.codecs.TermVectorsWriter;
+import org.apache.lucene.codecs.VectorWriter;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.InfoStream;
+import org.apache.lucene.util.ThreadInterruptedException;
 import org.apache.lucene.util.Version;
 
 /**
@@ -46,13 +53,15 @@ final class SegmentMerger {
   private final Codec codec;
   
   private final IOContext context;
+
+  private final Executor intraMergeExecutor;
   
   final MergeState mergeState;
   private final FieldInfos.Builder fieldInfosBuilder;
 
   // note, just like in codec apis Directory 'dir' is NOT the same as segmentInfo.dir!!
   SegmentMerger(List<CodecReader> readers, SegmentInfo segmentInfo, InfoStream infoStream, Directory dir,
-                FieldInfos.FieldNumbers fieldNumbers, IOContext context) throws IOException {
+                FieldInfos.FieldNumbers fieldNumbers, IOContext context, Executor intraMergeExecutor) throws IOException {
     if (context.context != IOContext.Context.MERGE) {
       throw new IllegalArgumentException("IOContext.context should be MERGE; got: " + context.context);
     }
@@ -60,6 +69,7 @@ final class SegmentMerger {
     directory = dir;
     this.codec = segmentInfo.getCodec();
     this.context = context;
+    this.intraMergeExecutor = intraMergeExecutor;
     this.fieldInfosBuilder = new FieldInfos.Builder(fieldNumbers);
     Version minVersion = Version.LATEST;
     for (CodecReader reader : readers) {
@@ -98,96 +108,114 @@ final class SegmentMerger {
       throw new IllegalStateException("Merge would result in 0 document segment");
     }
     mergeFieldInfos();
-    long t0 = 0;
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
-    }
-    int numMerged = mergeFields();
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge stored fields [" + numMerged + " docs]");
-    }
-    assert numMerged == mergeState.segmentInfo.maxDoc(): "numMerged=" + numMerged + " vs mergeState.segmentInfo.maxDoc()=" + mergeState.segmentInfo.maxDoc();
 
     final SegmentWriteState segmentWriteState = new SegmentWriteState(mergeState.infoStream, directory, mergeState.segmentInfo,
                                                                       mergeState.mergeFieldInfos, null, context);
     final SegmentReadState segmentReadState = new SegmentReadState(directory, mergeState.segmentInfo, mergeState.mergeFieldInfos,
         IOContext.READ, segmentWriteState.segmentSuffix);
 
-    if (mergeState.mergeFieldInfos.hasNorms()) {
-      if (mergeState.infoStream.isEnabled("SM")) {
-        t0 = System.nanoTime();
-      }
-      mergeNorms(segmentWriteState);
-      if (mergeState.infoStream.isEnabled("SM")) {
-        long t1 = System.nanoTime();
-        mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge norms [" + numMerged + " docs]");
+    // Each format reads through its own producers of the merge state and writes its own files, so the formats
+    // can be merged concurrently. The only dependency is that postings need the merged norms.
+    final List<FutureTask<Void>> tasks = new ArrayList<>();
+    tasks.add(submit(() -> {
+      if (mergeState.mergeFieldInfos.hasNorms()) {
+        runWithLogging(() -> mergeNorms(segmentWriteState), "merge norms");
       }
+      runWithLogging(() -> {
+        try (NormsProducer norms = mergeState.mergeFieldInfos.hasNorms()
+            ? codec.normsFormat().normsProducer(segmentReadState)
+            : null) {
+          NormsProducer normsMergeInstance = null;
+          if (norms != null) {
+            // Use the merge instance in order to reuse the same IndexInput for all terms
+            normsMergeInstance = norms.getMergeInstance();
+          }
+          mergeTerms(segmentWriteState, normsMergeInstance);
+        }
+      }, "merge postings");
+    }));
+    tasks.add(submit(() -> runWithLogging(() -> {
+      int numMerged = mergeFields();
+      assert numMerged == mergeState.segmentInfo.maxDoc(): "numMerged=" + numMerged + " vs mergeState.segmentInfo.maxDoc()=" + mergeState.segmentInfo.maxDoc();
+    }, "merge stored fields")));
+    if (mergeState.mergeFieldInfos.hasDocValues()) {
+      tasks.add(submit(() -> runWithLogging(() -> mergeDocValues(segmentWriteState), "merge doc values")));
     }
-
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
+    if (mergeState.mergeFieldInfos.hasPointValues()) {
+      tasks.add(submit(() -> runWithLogging(() -> mergePoints(segmentWriteState), "merge points")));
     }
-    try (NormsProducer norms = mergeState.mergeFieldInfos.hasNorms()
-        ? codec.normsFormat().normsProducer(segmentReadState)
-        : null) {
-      NormsProducer normsMergeInstance = null;
-      if (norms != null) {
-        // Use the merge instance in order to reuse the same IndexInput for all terms
-        normsMergeInstance = norms.getMergeInstance();
-      }
-      mergeTerms(segmentWriteState, normsMergeInstance);
+    if (mergeState.mergeFieldInfos.hasVectorValues()) {
+      tasks.add(submit(() -> runWithLogging(() -> mergeVectorValues(segmentWriteState), "merge vector values")));
     }
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge postings [" + numMerged + " docs]");
+    if (mergeState.mergeFieldInfos.hasVectors()) {
+      tasks.add(submit(() -> runWithLogging(() -> {
+        int numMerged = mergeVectors();
+        assert numMerged == mergeState.segmentInfo.maxDoc();
+      }, "merge vectors")));
     }
+    awaitAll(tasks);
 
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
-    }
-    if (mergeState.mergeFieldInfos.hasDocValues()) {
-      mergeDocValues(segmentWriteState);
-    }
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge doc values [" + numMerged + " docs]");
-    }
+    // write the merged infos
+    runWithLogging(() -> codec.fieldInfosFormat().write(directory, mergeState.segmentInfo, "", mergeState.mergeFieldInfos, context),
+        "write field infos");
 
+    return mergeState;
+  }
+
+  /** A part of the merge that may run concurrently with the others. */
+  @FunctionalInterface
+  private interface MergeStep {
+    void merge() throws IOException;
+  }
+
+  private void runWithLogging(MergeStep step, String stepName) throws IOException {
+    long t0 = 0;
     if (mergeState.infoStream.isEnabled("SM")) {
       t0 = System.nanoTime();
     }
-    if (mergeState.mergeFieldInfos.hasPointValues()) {
-      mergePoints(segmentWriteState);
-    }
+    step.merge();
     if (mergeState.infoStream.isEnabled("SM")) {
       long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge points [" + numMerged + " docs]");
+      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to " + stepName + " [" + mergeState.segmentInfo.maxDoc() + " docs]");
     }
+  }
 
-    if (mergeState.mergeFieldInfos.hasVectors()) {
-      if (mergeState.infoStream.isEnabled("SM")) {
-        t0 = System.nanoTime();
-      }
-      numMerged = mergeVectors();
-      if (mergeState.infoStream.isEnabled("SM")) {
-        long t1 = System.nanoTime();
-        mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge vectors [" + numMerged + " docs]");
+  private FutureTask<Void> submit(MergeStep step) {
+    FutureTask<Void> task = new FutureTask<>(() -> {
+      step.merge();
+      return null;
+    });
+    intraMergeExecutor.execute(task);
+    return task;
+  }
+
+  /**
+   * Waits for all tasks to finish, even if some of them fail or this thread is interrupted,
+   * since the files they write must be closed before the merge (or flush) can be cleaned up.
+   */
+  static void awaitAll(List<FutureTask<Void>> tasks) throws IOException {
+    Throwable th = null;
+    boolean interrupted = false;
+    for (FutureTask<Void> task : tasks) {
+      while (true) {
+        try {
+          task.get();
+          break;
+        } catch (ExecutionException e) {
+          th = IOUtils.useOrSuppress(th, e.getCause());
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
       }
-      assert numMerged == mergeState.segmentInfo.maxDoc();
     }
-    
-    // write the merged infos
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+      th = IOUtils.useOrSuppress(th, new ThreadInterruptedException(new InterruptedException()));
     }
-    codec.fieldInfosFormat().write(directory, mergeState.segmentInfo, "", mergeState.mergeFieldInfos, context);
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to write field infos [" + numMerged + " docs]");
+    if (th != null) {
+      throw IOUtils.rethrowAlways(th);
     }
-
-    return mergeState;
   }
 
   private void mergeDocValues(SegmentWriteState segmentWriteState) throws IOException {
@@ -202,6 +230,12 @@ final class SegmentMerger {
     }
   }
 
+  private void mergeVectorValues(SegmentWriteState segmentWriteState) throws IOException {
+    try (VectorWriter writer = codec.vectorFormat().fieldsWriter(segmentWriteState)) {
+      writer.merge(mergeState);
+    }
+  }
+
   private void mergeNorms(SegmentWriteState segmentWriteState) throws IOException {
     try (NormsConsumer consumer = codec.normsFormat().normsConsumer(segmentWriteState)) {
       consumer.merge(mergeState);
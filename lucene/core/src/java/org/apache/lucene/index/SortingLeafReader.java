@@ -23,7 +23,9 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.ByteBuffersDataInput;
 import org.apache.lucene.store.ByteBuffersDataOutput;
 import org.apache.lucene.store.DataOutput;
@@ -367,6 +369,61 @@ class SortingLeafReader extends FilterLeafReader {
     }
   }
 
+  private static class SortingVectorValues extends VectorValues {
+
+    private final int dimension;
+    private final int size;
+    private final FixedBitSet docsWithField;
+    private final float[][] vectors;
+
+    private int docId = -1;
+
+    SortingVectorValues(VectorValues in, Sorter.DocMap docMap) throws IOException {
+      this.dimension = in.dimension();
+      this.size = in.size();
+      docsWithField = new FixedBitSet(docMap.size());
+      vectors = new float[docMap.size()][];
+      for (int doc = in.nextDoc(); doc != NO_MORE_DOCS; doc = in.nextDoc()) {
+        int newDocID = docMap.oldToNew(doc);
+        docsWithField.set(newDocID);
+        vectors[newDocID] = in.vectorValue().clone();
+      }
+    }
+
+    @Override
+    public int docID() {
+      return docId;
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      return advance(docId + 1);
+    }
+
+    @Override
+    public int advance(int target) throws IOException {
+      if (target >= docsWithField.length()) {
+        return docId = NO_MORE_DOCS;
+      }
+      return docId = docsWithField.nextSetBit(target);
+    }
+
+    @Override
+    public float[] vectorValue() {
+      return vectors[docId];
+    }
+
+    @Override
+    public int dimension() {
+      return dimension;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
   static class SortingSortedDocValues extends SortedDocValues {
 
     private final SortedDocValues in;
@@ -1099,6 +1156,49 @@ class SortingLeafReader extends FilterLeafReader {
     }
   }
 
+  @Override
+  public VectorValues getVectorValues(String fieldName) throws IOException {
+    final VectorValues inVectorValues = in.getVectorValues(fieldName);
+    if (inVectorValues == null) {
+      return null;
+    } else {
+      return new SortingVectorValues(inVectorValues, docMap);
+    }
+  }
+
+  @Override
+  public TopDocs searchNearestVectors(String fieldName, float[] target, int k, Bits acceptDocs, int visitedLimit) throws IOException {
+    final Bits inAcceptDocs;
+    if (acceptDocs == null) {
+      inAcceptDocs = null;
+    } else {
+      // acceptDocs are in the sorted doc ID space, the wrapped reader asks for its own doc IDs
+      inAcceptDocs = new SortingBits(acceptDocs, new Sorter.DocMap() {
+        @Override
+        int oldToNew(int docID) {
+          return docMap.newToOld(docID);
+        }
+
+        @Override
+        int newToOld(int docID) {
+          return docMap.oldToNew(docID);
+        }
+
+        @Override
+        int size() {
+          return docMap.size();
+        }
+      });
+    }
+    final TopDocs topDocs = in.searchNearestVectors(fieldName, target, k, inAcceptDocs, visitedLimit);
+    if (topDocs != null) {
+      for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+        scoreDoc.doc = docMap.oldToNew(scoreDoc.doc);
+      }
+    }
+    return topDocs;
+  }
+
   private final Map<String,CachedNumericDVs> cachedNorms = new HashMap<>();
 
   @Override
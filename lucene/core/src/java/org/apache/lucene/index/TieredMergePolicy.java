@@ -815,6 +815,42 @@ public class TieredMergePolicy extends MergePolicy {
 
   }
 
+  /**
+   * Merges the flushed segments that are smaller than the floor segment size
+   * ({@link #setFloorSegmentMB}) together, at most {@link #getMaxMergeAtOnce()} of them,
+   * smallest first. These segments would be merged by the next regular merge anyway, so
+   * doing it before the commit or NRT reader sees them saves per-segment search overhead.
+   */
+  @Override
+  public MergeSpecification findFullFlushMerges(MergeTrigger mergeTrigger, SegmentInfos infos, MergeContext mergeContext) throws IOException {
+    final Set<SegmentCommitInfo> merging = mergeContext.getMergingSegments();
+    List<SegmentSizeAndDocs> sortedInfos = getSortedBySegmentSize(infos, mergeContext);
+
+    // sortedInfos is sorted by decreasing size, so walk it backwards:
+    List<SegmentCommitInfo> candidate = new ArrayList<>();
+    for (int i = sortedInfos.size() - 1; i >= 0 && candidate.size() < maxMergeAtOnce; i--) {
+      SegmentSizeAndDocs segSizeDocs = sortedInfos.get(i);
+      if (segSizeDocs.sizeInBytes >= floorSegmentBytes) {
+        break;
+      }
+      SegmentCommitInfo info = segSizeDocs.segInfo;
+      if (merging.contains(info) == false
+          && IndexWriter.SOURCE_FLUSH.equals(info.info.getDiagnostics().get(IndexWriter.SOURCE))) {
+        candidate.add(info);
+      }
+    }
+
+    if (candidate.size() < 2) {
+      return null;
+    }
+    if (verbose(mergeContext)) {
+      message("findFullFlushMerges trigger=" + mergeTrigger + " merge=" + segString(mergeContext, candidate), mergeContext);
+    }
+    MergeSpecification spec = new MergeSpecification();
+    spec.add(new OneMerge(candidate));
+    return spec;
+  }
+
   private long floorSize(long bytes) {
     return Math.max(floorSegmentBytes, bytes);
   }
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import org.apache.lucene.util.VectorUtil;
+
+/**
+ * Vector similarity function; used in search to return top K most similar vectors to a target
+ * vector. Similarities are positive, higher values mean more similar vectors, and they are used
+ * as the scores of the hits of vector searches.
+ * <p>
+ * The ordinals of the constants are written to the index: new functions may only be added at
+ * the end.
+ */
+public enum VectorSimilarityFunction {
+
+  /** Euclidean distance, the similarity is {@code 1 / (1 + squareDistance)} */
+  EUCLIDEAN {
+    @Override
+    public float compare(float[] v1, float[] v2) {
+      return 1 / (1 + VectorUtil.squareDistance(v1, v2));
+    }
+  },
+
+  /**
+   * Dot product, the similarity is {@code (1 + dotProduct) / 2}. NOTE: this is only a
+   * similarity if the vectors are normalized to unit length, the similarity is not
+   * guaranteed to be positive otherwise. Prefer it over {@link #COSINE} for normalized
+   * vectors since it is cheaper to compute.
+   */
+  DOT_PRODUCT {
+    @Override
+    public float compare(float[] v1, float[] v2) {
+      return Math.max((1 + VectorUtil.dotProduct(v1, v2)) / 2, 0);
+    }
+  },
+
+  /** Cosine similarity, the similarity is {@code (1 + cosine) / 2}. */
+  COSINE {
+    @Override
+    public float compare(float[] v1, float[] v2) {
+      return (1 + VectorUtil.cosine(v1, v2)) / 2;
+    }
+  };
+
+  /**
+   * Calculates the similarity of the given vectors, which must have the same dimension.
+   */
+  public abstract float compare(float[] v1, float[] v2);
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.codecs.VectorWriter;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.Counter;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/** Buffers up pending vector value(s) per doc, then flushes when segment flushes. */
+class VectorValuesWriter {
+
+  private final FieldInfo fieldInfo;
+  private final Counter iwBytesUsed;
+  private final List<float[]> vectors = new ArrayList<>();
+  private int[] docIDs;
+  private int lastDocID = -1;
+
+  VectorValuesWriter(FieldInfo fieldInfo, Counter iwBytesUsed) {
+    this.fieldInfo = fieldInfo;
+    this.iwBytesUsed = iwBytesUsed;
+    docIDs = new int[16];
+    iwBytesUsed.addAndGet(16 * Integer.BYTES);
+  }
+
+  /**
+   * Adds a value for the given document. Only a single value may be added.
+   * @param docID the value is added to this document
+   * @param vectorValue the value to add
+   * @throws IllegalArgumentException if a value has already been added to the given document
+   */
+  public void addValue(int docID, float[] vectorValue) {
+    if (docID == lastDocID) {
+      throw new IllegalArgumentException("VectorField \"" + fieldInfo.name + "\" appears more than once in this document (only one value is allowed per field)");
+    }
+    if (vectorValue.length != fieldInfo.getVectorDimension()) {
+      throw new IllegalArgumentException("Attempt to index a vector of dimension " + vectorValue.length +
+          " but \"" + fieldInfo.name + "\" has dimension " + fieldInfo.getVectorDimension());
+    }
+    assert docID > lastDocID;
+    final int count = vectors.size();
+    if (docIDs.length == count) {
+      docIDs = ArrayUtil.grow(docIDs, count + 1);
+      iwBytesUsed.addAndGet((docIDs.length - count) * Integer.BYTES);
+    }
+    docIDs[count] = docID;
+    vectors.add(ArrayUtil.copyOfSubArray(vectorValue, 0, vectorValue.length));
+    iwBytesUsed.addAndGet(RamUsageEstimator.NUM_BYTES_OBJECT_REF
+        + RamUsageEstimator.sizeOf(vectors.get(count)));
+    lastDocID = docID;
+  }
+
+  /**
+   * Flush this field's values to storage, sorting the values in accordance with sortMap
+   * @param sortMap specifies the order of documents being flushed, or null if they are to be flushed in docid order
+   * @param vectorWriter the Codec's vector writer that handles the actual encoding and I/O
+   * @throws IOException if there is an error writing the field and its values
+   */
+  public void flush(Sorter.DocMap sortMap, VectorWriter vectorWriter) throws IOException {
+    final int count = vectors.size();
+    final int[] ords = new int[count];
+    final int[] docs = new int[count];
+    if (sortMap == null) {
+      for (int i = 0; i < count; i++) {
+        ords[i] = i;
+        docs[i] = docIDs[i];
+      }
+    } else {
+      // sort the ordinals by their new doc ID, a vector per document means no ties
+      final long[] newDocAndOrd = new long[count];
+      for (int i = 0; i < count; i++) {
+        newDocAndOrd[i] = ((long) sortMap.oldToNew(docIDs[i]) << 32) | i;
+      }
+      Arrays.sort(newDocAndOrd);
+      for (int i = 0; i < count; i++) {
+        docs[i] = (int) (newDocAndOrd[i] >>> 32);
+        ords[i] = (int) newDocAndOrd[i];
+      }
+    }
+    vectorWriter.writeField(fieldInfo, new BufferedVectorValues(docs, ords, vectors, fieldInfo.getVectorDimension()));
+  }
+
+  private static class BufferedVectorValues extends VectorValues {
+
+    final int[] docs;
+    final int[] ords;
+    final List<float[]> vectors;
+    final int dimension;
+
+    int index = -1;
+    int docID = -1;
+
+    BufferedVectorValues(int[] docs, int[] ords, List<float[]> vectors, int dimension) {
+      this.docs = docs;
+      this.ords = ords;
+      this.vectors = vectors;
+      this.dimension = dimension;
+    }
+
+    @Override
+    public int dimension() {
+      return dimension;
+    }
+
+    @Override
+    public int size() {
+      return docs.length;
+    }
+
+    @Override
+    public float[] vectorValue() {
+      return vectors.get(ords[index]);
+    }
+
+    @Override
+    public int docID() {
+      return docID;
+    }
+
+    @Override
+    public int nextDoc() {
+      if (++index >= docs.length) {
+        docID = NO_MORE_DOCS;
+      } else {
+        docID = docs[index];
+      }
+      return docID;
+    }
+
+    @Override
+    public int advance(int target) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -45,11 +45,14 @@ final class BooleanScorer extends BulkScorer {
 
   private class BulkScorerAndDoc {
     final BulkScorer scorer;
+    // if not null, matches are added to the window by batches rather than through the OrCollector
+    final Scorer batchScorer;
     final long cost;
     int next;
 
-    BulkScorerAndDoc(BulkScorer scorer) {
+    BulkScorerAndDoc(BulkScorer scorer, Scorer batchScorer) {
       this.scorer = scorer;
+      this.batchScorer = batchScorer;
       this.cost = scorer.cost();
       this.next = -1;
     }
@@ -59,7 +62,36 @@ final class BooleanScorer extends BulkScorer {
     }
 
     void score(LeafCollector collector, Bits acceptDocs, int min, int max) throws IOException {
-      next = scorer.score(collector, acceptDocs, min, max);
+      if (collector == orCollector && batchScorer != null) {
+        next = scoreBatches(acceptDocs, min, max);
+      } else {
+        next = scorer.score(collector, acceptDocs, min, max);
+      }
+    }
+
+    private int scoreBatches(Bits acceptDocs, int min, int max) throws IOException {
+      final DocIdSetIterator iterator = batchScorer.iterator();
+      int doc = iterator.docID();
+      if (doc < min) {
+        doc = iterator.advance(min);
+      }
+      final DocAndScoreBuffer buffer = docAndScoreBuffer;
+      final long[] matching = BooleanScorer.this.matching;
+      final Bucket[] buckets = BooleanScorer.this.buckets;
+      while (doc < max) {
+        batchScorer.nextDocsAndScores(max, acceptDocs, buffer);
+        final int[] docs = buffer.docs;
+        final float[] scores = buffer.scores;
+        for (int j = 0, size = buffer.size; j < size; ++j) {
+          final int i = docs[j] & MASK;
+          matching[i >>> 6] |= 1L << i;
+          final Bucket bucket = buckets[i];
+          bucket.freq++;
+          bucket.score += scores[j];
+        }
+        doc = iterator.docID();
+      }
+      return doc;
     }
   }
 
@@ -143,6 +175,7 @@ final class BooleanScorer extends BulkScorer {
   }
 
   final OrCollector orCollector = new OrCollector();
+  final DocAndScoreBuffer docAndScoreBuffer = new DocAndScoreBuffer();
 
   BooleanScorer(BooleanWeight weight, Collection<BulkScorer> scorers, int minShouldMatch, boolean needsScores) {
     if (minShouldMatch < 1 || minShouldMatch > scorers.size()) {
@@ -159,12 +192,19 @@ final class BooleanScorer extends BulkScorer {
     this.tail = new TailPriorityQueue(minShouldMatch - 1);
     this.minShouldMatch = minShouldMatch;
     for (BulkScorer scorer : scorers) {
+      Scorer batchScorer = null;
       if (needsScores == false) {
         // OrCollector calls score() all the time so we have to explicitly
         // disable scoring in order to avoid decoding useless norms
         scorer = BooleanWeight.disableScoring(scorer);
+      } else if (scorer instanceof Weight.DefaultBulkScorer) {
+        // only plain iterators: two-phase bulk scorers may leave the scorer on a non-matching doc
+        final Scorer s = ((Weight.DefaultBulkScorer) scorer).scorer;
+        if (s.twoPhaseIterator() == null) {
+          batchScorer = s;
+        }
       }
-      final BulkScorerAndDoc evicted = tail.insertWithOverflow(new BulkScorerAndDoc(scorer));
+      final BulkScorerAndDoc evicted = tail.insertWithOverflow(new BulkScorerAndDoc(scorer, batchScorer));
       if (evicted != null) {
         head.add(evicted);
       }
@@ -99,6 +99,11 @@ public final class ConstantScoreQuery extends Query {
             }
           });
         }
+
+        @Override
+        public DocIdSetIterator competitiveIterator() throws IOException {
+          return in.competitiveIterator();
+        }
       };
     }
 
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.util.ArrayUtil;
+
+/**
+ * Wrapper around parallel arrays storing doc IDs and their corresponding frequencies.
+ *
+ * @see PostingsEnum#nextPostings(int, DocAndFreqBuffer)
+ * @lucene.internal
+ */
+public final class DocAndFreqBuffer {
+
+  /** Doc IDs */
+  public int[] docs = new int[0];
+
+  /** Frequencies */
+  public int[] freqs = new int[0];
+
+  /** Number of valid entries in the doc ID and frequency arrays. */
+  public int size;
+
+  /** Sole constructor. */
+  public DocAndFreqBuffer() {}
+
+  /** Make sure that the arrays can store at least {@code minSize} entries, without preserving
+   *  their content. */
+  public void growNoCopy(int minSize) {
+    if (docs.length < minSize) {
+      docs = new int[ArrayUtil.oversize(minSize, Integer.BYTES)];
+      freqs = new int[docs.length];
+    }
+  }
+}
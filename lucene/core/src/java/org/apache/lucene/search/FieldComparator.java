@@ -19,14 +19,18 @@ package org.apache.lucene.search;
 
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.PointValues;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.DocIdSetBuilder;
+import org.apache.lucene.util.NumericUtils;
 
 /**
  * Expert: a FieldComparator compares hits so as to determine their
@@ -136,34 +140,319 @@ public abstract class FieldComparator<T> {
     }
   }
 
+  /**
+   * Informs the comparator that sorting is done only by this comparator. Comparators
+   * that skip non-competitive documents may then also skip the documents whose value
+   * equals the bottom value of the queue, since ties are broken by doc ID.
+   */
+  public void setSingleSort() {
+  }
+
+
+  /** Encodes the values of a {@link NumericComparator} the way the points of its field are encoded. */
+  @FunctionalInterface
+  interface PointsEncoder<T extends Number> {
+    /** Encodes {@code value} into the first bytes of {@code packedValue}. */
+    void encode(T value, byte[] packedValue);
+  }
 
   /**
-   * Base FieldComparator class for numeric types
+   * Base FieldComparator class for numeric types.
+   * <p>
+   * The numeric comparators that {@link SortField#getComparator} returns for a
+   * {@link SortField#setOptimizeSortWithPoints(boolean) points-optimized} sort
+   * field skip non-competitive documents: once the queue is full and the hits
+   * threshold is reached, the points of the field are intersected with the range
+   * of values that are still competitive, and the resulting documents are exposed
+   * through {@link #competitiveIterator()}. The range is updated as the bottom of
+   * the queue changes.
    */
   public static abstract class NumericComparator<T extends Number> extends SimpleFieldComparator<T> {
     protected final T missingValue;
     protected final String field;
     protected NumericDocValues currentReaderValues;
+
+    // The following are used to skip non-competitive documents with the points of the field
+    private final boolean reverse;
+    private final boolean usePoints;
+    private final int bytesCount;
+    private final PointsEncoder<T> pointsEncoder;
+    private final byte[] missingValueAsBytes;
+    private final byte[] bottomValueAsBytes;
+    private final byte[] topValueAsBytes;
+    private boolean singleSort;
+    private boolean hitsThresholdReached;
+    private boolean queueFull;
+    private int bottomSlot;
+    private boolean hasTopValue;
+    // per segment:
+    private PointValues pointValues;
+    private int maxDoc;
+    private int docCount;
+    private DocIdSetIterator competitiveDocs;
+    private DocIdSetIterator competitiveIterator;
+    private long iteratorCost;
+    private int updateCounter;
     
     public NumericComparator(String field, T missingValue) {
+      this(field, missingValue, false, false, 0, null);
+    }
+
+    /**
+     * @param pointsEncoder encodes the values of this comparator the way the points of the field are
+     *                      encoded, with {@code bytesCount} bytes; only used if {@code usePoints} is true
+     */
+    NumericComparator(String field, T missingValue, boolean reverse, boolean usePoints, int bytesCount,
+                      PointsEncoder<T> pointsEncoder) {
       this.field = field;
       this.missingValue = missingValue;
+      this.reverse = reverse;
+      this.usePoints = usePoints;
+      this.bytesCount = bytesCount;
+      this.pointsEncoder = pointsEncoder;
+      if (usePoints) {
+        missingValueAsBytes = new byte[bytesCount];
+        pointsEncoder.encode(missingValue, missingValueAsBytes);
+        bottomValueAsBytes = new byte[bytesCount];
+        topValueAsBytes = new byte[bytesCount];
+      } else {
+        missingValueAsBytes = bottomValueAsBytes = topValueAsBytes = null;
+      }
+    }
+
+    @Override
+    public void setSingleSort() {
+      singleSort = true;
     }
 
     @Override
     protected void doSetNextReader(LeafReaderContext context) throws IOException {
       currentReaderValues = getNumericDocValues(context, field);
+      if (usePoints) {
+        pointValues = context.reader().getPointValues(field);
+        if (pointValues != null) {
+          if (pointValues.getNumIndexDimensions() != 1) {
+            throw new IllegalArgumentException("Field [" + field + "] is indexed with " + pointValues.getNumIndexDimensions() +
+                " dimensions, but sorting with points requires a single dimension");
+          }
+          if (pointValues.getBytesPerDimension() != bytesCount) {
+            throw new IllegalArgumentException("Field [" + field + "] is indexed with " + pointValues.getBytesPerDimension() +
+                " bytes per dimension, but sorting with points requires " + bytesCount);
+          }
+        }
+        maxDoc = context.reader().maxDoc();
+        docCount = pointValues == null ? 0 : pointValues.getDocCount();
+        competitiveDocs = DocIdSetIterator.all(maxDoc);
+        competitiveIterator = new CompetitiveIterator();
+        iteratorCost = maxDoc;
+        updateCounter = 0;
+        // the queue may already be full and the threshold reached in previous segments
+        updateCompetitiveIterator();
+      }
     }
     
     /** Retrieves the NumericDocValues for the field in this segment */
     protected NumericDocValues getNumericDocValues(LeafReaderContext context, String field) throws IOException {
       return DocValues.getNumeric(context.reader(), field);
     }
+
+    @Override
+    public DocIdSetIterator competitiveIterator() {
+      return competitiveIterator;
+    }
+
+    @Override
+    public void setHitsThresholdReached() throws IOException {
+      hitsThresholdReached = true;
+      updateCompetitiveIterator();
+    }
+
+    /** Called by subclasses when the bottom of the queue changed to the value in the given slot. */
+    void bottomChanged(int slot) throws IOException {
+      queueFull = true;
+      bottomSlot = slot;
+      updateCompetitiveIterator();
+    }
+
+    /** Called by subclasses when the top value is set. */
+    void topChanged(T value) {
+      hasTopValue = true;
+      if (usePoints) {
+        pointsEncoder.encode(value, topValueAsBytes);
+      }
+    }
+
+    /** Compares encoded values, which sort the same way as the values they encode. */
+    private int compareEncoded(byte[] a, byte[] b) {
+      return Arrays.compareUnsigned(a, 0, bytesCount, b, 0, bytesCount);
+    }
+
+    private boolean isMissingValueCompetitive() {
+      int cmp = compareEncoded(missingValueAsBytes, bottomValueAsBytes);
+      boolean competitive;
+      if (reverse == false) {
+        competitive = cmp < 0 || (cmp == 0 && singleSort == false);
+      } else {
+        competitive = cmp > 0 || (cmp == 0 && singleSort == false);
+      }
+      if (competitive && hasTopValue) {
+        // docs with the top value may still follow the top doc
+        cmp = compareEncoded(missingValueAsBytes, topValueAsBytes);
+        competitive = reverse == false ? cmp >= 0 : cmp <= 0;
+      }
+      return competitive;
+    }
+
+    private void updateCompetitiveIterator() throws IOException {
+      if (competitiveIterator == null || hitsThresholdReached == false || queueFull == false) {
+        return;
+      }
+      final int lastDoc = competitiveIterator.docID();
+      if (lastDoc == DocIdSetIterator.NO_MORE_DOCS) {
+        return;
+      }
+      pointsEncoder.encode(value(bottomSlot), bottomValueAsBytes);
+      if (docCount < maxDoc && isMissingValueCompetitive()) {
+        // documents without a value are not in the points but may be competitive
+        return;
+      }
+      updateCounter++;
+      if (updateCounter > 256 && (updateCounter & 0x1f) != 0x1f) {
+        // the bottom changes often, only sample updates
+        return;
+      }
+      if (pointValues == null) {
+        // only documents without a value, none of them is competitive
+        competitiveDocs = DocIdSetIterator.empty();
+        iteratorCost = 0;
+        return;
+      }
+
+      // competitive values are below the bottom and above the top, or the other way around when reversed;
+      // ties with the bottom are only competitive if other sort fields may break them
+      final boolean hasMin = reverse || hasTopValue;
+      final boolean hasMax = reverse == false || hasTopValue;
+      final byte[] minValueAsBytes;
+      final byte[] maxValueAsBytes;
+      final boolean minInclusive;
+      final boolean maxInclusive;
+      if (reverse == false) {
+        maxValueAsBytes = bottomValueAsBytes;
+        maxInclusive = singleSort == false;
+        minValueAsBytes = topValueAsBytes;
+        minInclusive = true;
+      } else {
+        minValueAsBytes = bottomValueAsBytes;
+        minInclusive = singleSort == false;
+        maxValueAsBytes = topValueAsBytes;
+        maxInclusive = true;
+      }
+
+      final DocIdSetBuilder result = new DocIdSetBuilder(maxDoc);
+      final PointValues.IntersectVisitor visitor = new PointValues.IntersectVisitor() {
+        DocIdSetBuilder.BulkAdder adder;
+
+        @Override
+        public void grow(int count) {
+          adder = result.grow(count);
+        }
+
+        @Override
+        public void visit(int docID) {
+          if (docID > lastDoc) {
+            adder.add(docID);
+          }
+        }
+
+        @Override
+        public void visit(int docID, byte[] packedValue) {
+          if (docID > lastDoc && isCompetitive(packedValue)) {
+            adder.add(docID);
+          }
+        }
+
+        private boolean isCompetitive(byte[] packedValue) {
+          if (hasMin) {
+            int cmp = Arrays.compareUnsigned(packedValue, 0, bytesCount, minValueAsBytes, 0, bytesCount);
+            if (cmp < 0 || (cmp == 0 && minInclusive == false)) {
+              return false;
+            }
+          }
+          if (hasMax) {
+            int cmp = Arrays.compareUnsigned(packedValue, 0, bytesCount, maxValueAsBytes, 0, bytesCount);
+            if (cmp > 0 || (cmp == 0 && maxInclusive == false)) {
+              return false;
+            }
+          }
+          return true;
+        }
+
+        @Override
+        public PointValues.Relation compare(byte[] minPackedValue, byte[] maxPackedValue) {
+          if (hasMin) {
+            int cmp = Arrays.compareUnsigned(maxPackedValue, 0, bytesCount, minValueAsBytes, 0, bytesCount);
+            if (cmp < 0 || (cmp == 0 && minInclusive == false)) {
+              return PointValues.Relation.CELL_OUTSIDE_QUERY;
+            }
+          }
+          if (hasMax) {
+            int cmp = Arrays.compareUnsigned(minPackedValue, 0, bytesCount, maxValueAsBytes, 0, bytesCount);
+            if (cmp > 0 || (cmp == 0 && maxInclusive == false)) {
+              return PointValues.Relation.CELL_OUTSIDE_QUERY;
+            }
+          }
+          if (isCompetitive(minPackedValue) && isCompetitive(maxPackedValue)) {
+            return PointValues.Relation.CELL_INSIDE_QUERY;
+          }
+          return PointValues.Relation.CELL_CROSSES_QUERY;
+        }
+      };
+
+      final long threshold = iteratorCost >>> 3;
+      if (pointValues.estimatePointCount(visitor) >= threshold) {
+        // not selective enough to be worth collecting the documents, this should reduce the number of docs by 8x at least
+        return;
+      }
+      pointValues.intersect(visitor);
+      competitiveDocs = result.build().iterator();
+      iteratorCost = competitiveDocs.cost();
+    }
+
+    /**
+     * The iterator that is exposed to the collector, which delegates to the current competitive documents.
+     * These are replaced whenever the competitive range shrinks, and only contain the documents after the
+     * current one.
+     */
+    private class CompetitiveIterator extends DocIdSetIterator {
+      private int doc = -1;
+
+      @Override
+      public int docID() {
+        return doc;
+      }
+
+      @Override
+      public int nextDoc() throws IOException {
+        return advance(doc + 1);
+      }
+
+      @Override
+      public int advance(int target) throws IOException {
+        return doc = competitiveDocs.advance(target);
+      }
+
+      @Override
+      public long cost() {
+        return competitiveDocs.cost();
+      }
+    }
   }
 
   /** Parses field's values as double (using {@link
    *  org.apache.lucene.index.LeafReader#getNumericDocValues} and sorts by ascending value */
   public static class DoubleComparator extends NumericComparator<Double> {
+    private static final PointsEncoder<Double> POINTS_ENCODER = (value, packedValue) ->
+        NumericUtils.longToSortableBytes(NumericUtils.doubleToSortableLong(value), packedValue, 0);
     private final double[] values;
     private double bottom;
     private double topValue;
@@ -173,7 +462,17 @@ public abstract class FieldComparator<T> {
      * When a document has no value for the field, {@code missingValue} is substituted.
      */
     public DoubleComparator(int numHits, String field, Double missingValue) {
-      super(field, missingValue != null ? missingValue : 0.0);
+      this(numHits, field, missingValue, false, false);
+    }
+
+    /**
+     * Creates a new comparator based on {@link Double#compare} for {@code numHits}.
+     * When a document has no value for the field, {@code missingValue} is substituted.
+     * If {@code usePoints} is true, non-competitive documents are skipped with the points
+     * of the field, which must have been indexed with the same values as the doc values.
+     */
+    public DoubleComparator(int numHits, String field, Double missingValue, boolean reverse, boolean usePoints) {
+      super(field, missingValue != null ? missingValue : 0.0, reverse, usePoints, Double.BYTES, POINTS_ENCODER);
       values = new double[numHits];
     }
 
@@ -201,13 +500,15 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomChanged(bottom);
     }
 
     @Override
     public void setTopValue(Double value) {
       topValue = value;
+      topChanged(value);
     }
 
     @Override
@@ -219,11 +520,14 @@ public abstract class FieldComparator<T> {
     public int compareTop(int doc) throws IOException {
       return Double.compare(topValue, getValueForDoc(doc));
     }
+
   }
 
   /** Parses field's values as float (using {@link
    *  org.apache.lucene.index.LeafReader#getNumericDocValues(String)} and sorts by ascending value */
   public static class FloatComparator extends NumericComparator<Float> {
+    private static final PointsEncoder<Float> POINTS_ENCODER = (value, packedValue) ->
+        NumericUtils.intToSortableBytes(NumericUtils.floatToSortableInt(value), packedValue, 0);
     private final float[] values;
     private float bottom;
     private float topValue;
@@ -233,7 +537,17 @@ public abstract class FieldComparator<T> {
      * When a document has no value for the field, {@code missingValue} is substituted. 
      */
     public FloatComparator(int numHits, String field, Float missingValue) {
-      super(field, missingValue != null ? missingValue : 0.0f);
+      this(numHits, field, missingValue, false, false);
+    }
+
+    /**
+     * Creates a new comparator based on {@link Float#compare} for {@code numHits}.
+     * When a document has no value for the field, {@code missingValue} is substituted.
+     * If {@code usePoints} is true, non-competitive documents are skipped with the points
+     * of the field, which must have been indexed with the same values as the doc values.
+     */
+    public FloatComparator(int numHits, String field, Float missingValue, boolean reverse, boolean usePoints) {
+      super(field, missingValue != null ? missingValue : 0.0f, reverse, usePoints, Float.BYTES, POINTS_ENCODER);
       values = new float[numHits];
     }
     
@@ -261,13 +575,15 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomChanged(bottom);
     }
 
     @Override
     public void setTopValue(Float value) {
       topValue = value;
+      topChanged(value);
     }
 
     @Override
@@ -279,11 +595,14 @@ public abstract class FieldComparator<T> {
     public int compareTop(int doc) throws IOException {
       return Float.compare(topValue, getValueForDoc(doc));
     }
+
   }
 
   /** Parses field's values as int (using {@link
    *  org.apache.lucene.index.LeafReader#getNumericDocValues(String)} and sorts by ascending value */
   public static class IntComparator extends NumericComparator<Integer> {
+    private static final PointsEncoder<Integer> POINTS_ENCODER = (value, packedValue) ->
+        NumericUtils.intToSortableBytes(value, packedValue, 0);
     private final int[] values;
     private int bottom;                           // Value of bottom of queue
     private int topValue;
@@ -293,9 +612,17 @@ public abstract class FieldComparator<T> {
      * When a document has no value for the field, {@code missingValue} is substituted. 
      */
     public IntComparator(int numHits, String field, Integer missingValue) {
-      super(field, missingValue != null ? missingValue : 0);
-      //System.out.println("IntComparator.init");
-      //new Throwable().printStackTrace(System.out);
+      this(numHits, field, missingValue, false, false);
+    }
+
+    /**
+     * Creates a new comparator based on {@link Integer#compare} for {@code numHits}.
+     * When a document has no value for the field, {@code missingValue} is substituted.
+     * If {@code usePoints} is true, non-competitive documents are skipped with the points
+     * of the field, which must have been indexed with the same values as the doc values.
+     */
+    public IntComparator(int numHits, String field, Integer missingValue, boolean reverse, boolean usePoints) {
+      super(field, missingValue != null ? missingValue : 0, reverse, usePoints, Integer.BYTES, POINTS_ENCODER);
       values = new int[numHits];
     }
 
@@ -323,13 +650,15 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomChanged(bottom);
     }
 
     @Override
     public void setTopValue(Integer value) {
       topValue = value;
+      topChanged(value);
     }
 
     @Override
@@ -341,11 +670,14 @@ public abstract class FieldComparator<T> {
     public int compareTop(int doc) throws IOException {
       return Integer.compare(topValue, getValueForDoc(doc));
     }
+
   }
 
   /** Parses field's values as long (using {@link
    *  org.apache.lucene.index.LeafReader#getNumericDocValues(String)} and sorts by ascending value */
   public static class LongComparator extends NumericComparator<Long> {
+    private static final PointsEncoder<Long> POINTS_ENCODER = (value, packedValue) ->
+        NumericUtils.longToSortableBytes(value, packedValue, 0);
     private final long[] values;
     private long bottom;
     private long topValue;
@@ -355,7 +687,17 @@ public abstract class FieldComparator<T> {
      * When a document has no value for the field, {@code missingValue} is substituted. 
      */
     public LongComparator(int numHits, String field, Long missingValue) {
-      super(field, missingValue != null ? missingValue : 0L);
+      this(numHits, field, missingValue, false, false);
+    }
+
+    /**
+     * Creates a new comparator based on {@link Long#compare} for {@code numHits}.
+     * When a document has no value for the field, {@code missingValue} is substituted.
+     * If {@code usePoints} is true, non-competitive documents are skipped with the points
+     * of the field, which must have been indexed with the same values as the doc values.
+     */
+    public LongComparator(int numHits, String field, Long missingValue, boolean reverse, boolean usePoints) {
+      super(field, missingValue != null ? missingValue : 0L, reverse, usePoints, Long.BYTES, POINTS_ENCODER);
       values = new long[numHits];
     }
 
@@ -383,13 +725,15 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomChanged(bottom);
     }
 
     @Override
     public void setTopValue(Long value) {
       topValue = value;
+      topChanged(value);
     }
 
     @Override
@@ -401,6 +745,7 @@ public abstract class FieldComparator<T> {
     public int compareTop(int doc) throws IOException {
       return Long.compare(topValue, getValueForDoc(doc));
     }
+
   }
 
   /** Sorts by descending relevance.  NOTE: if you are
@@ -64,6 +64,8 @@ public abstract class FieldValueHitQueue<T extends FieldValueHitQueue.Entry> ext
       assert fields.length == 1;
       oneComparator = comparators[0];
       oneReverseMul = reverseMul[0];
+      // ties are broken by doc ID only
+      oneComparator.setSingleSort();
     }
 
     /**
@@ -42,7 +42,10 @@ import org.apache.lucene.index.LeafReaderContext;
  * perform better, ie. when we need a good lead iterator that will be almost
  * entirely consumed; and doc values otherwise, ie. in the case that another
  * part of the query is already leading iteration but we still need the ability
- * to verify that some documents match.
+ * to verify that some documents match. On segments that are primarily sorted
+ * on the field, the doc values query only needs to iterate over the contiguous
+ * range of doc IDs that match, so it is used whenever it is cheaper than the
+ * points query.
  * <p><b>NOTE</b>This query currently only works well with point range/exact
  * queries and their equivalent doc values queries.
  * @lucene.experimental
@@ -133,6 +136,15 @@ public final class IndexOrDocValuesQuery extends Query {
 
       @Override
       public BulkScorer bulkScorer(LeafReaderContext context) throws IOException {
+        final ScorerSupplier dvScorerSupplier = dvWeight.scorerSupplier(context);
+        if (dvScorerSupplier != null) {
+          final ScorerSupplier indexScorerSupplier = indexWeight.scorerSupplier(context);
+          if (indexScorerSupplier != null && dvScorerSupplier.cost() < indexScorerSupplier.cost()) {
+            // doc values can only be cheaper than the index if they don't need to
+            // check every document, eg. when the segment is sorted on the field
+            return new DefaultBulkScorer(dvScorerSupplier.get(Long.MAX_VALUE));
+          }
+        }
         // Bulk scorers need to consume the entire set of docs, so using an
         // index structure should perform better
         return indexWeight.bulkScorer(context);
@@ -152,7 +164,12 @@ public final class IndexOrDocValuesQuery extends Query {
             // still need to perform one comparison per document while points can
             // do much better than that given how values are organized. So we give
             // an arbitrary 8x penalty to doc values.
-            final long threshold = cost() >>> 3;
+            if (dvScorerSupplier.cost() < indexScorerSupplier.cost()) {
+              // doc values can only be cheaper than the index if they don't need to
+              // check every document, eg. when the segment is sorted on the field
+              return dvScorerSupplier.get(leadCost);
+            }
+            final long threshold = indexScorerSupplier.cost() >>> 3;
             if (threshold <= leadCost) {
               return indexScorerSupplier.get(leadCost);
             } else {
@@ -162,7 +179,7 @@ public final class IndexOrDocValuesQuery extends Query {
 
           @Override
           public long cost() {
-            return indexScorerSupplier.cost();
+            return Math.min(indexScorerSupplier.cost(), dvScorerSupplier.cost());
           }
         };
       }
@@ -25,12 +25,14 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.ToLongFunction;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
@@ -104,7 +106,8 @@ public class IndexSearcher {
 
   /**
    * Thresholds for index slice allocation logic. To change the default, extend
-   * <code> IndexSearcher</code> and use custom values
+   * <code> IndexSearcher</code> and use custom values, or a different slicing
+   * strategy such as {@link #balancedSlices}
    */
   private static final int MAX_DOCS_PER_SLICE = 250_000;
   private static final int MAX_SEGMENTS_PER_SLICE = 5;
@@ -357,6 +360,112 @@ public class IndexSearcher {
     return slices;
   }
 
+  /**
+   * Static method to segregate LeafReaderContexts amongst multiple slices so that slices have a
+   * similar number of live documents. If {@code allowSegmentPartitions} is {@code true}, segments
+   * that have more than {@code maxDocsPerSlice} live documents are split into ranges of doc IDs
+   * that are searched concurrently.
+   *
+   * @see #balancedSlices(List, ToLongFunction, long, int, boolean)
+   * @lucene.experimental
+   */
+  public static LeafSlice[] slices(List<LeafReaderContext> leaves, int maxDocsPerSlice,
+                                   int maxSegmentsPerSlice, boolean allowSegmentPartitions) {
+    return balancedSlices(leaves, ctx -> ctx.reader().numDocs(), maxDocsPerSlice, maxSegmentsPerSlice, allowSegmentPartitions);
+  }
+
+  /**
+   * Expert: Static method to segregate LeafReaderContexts amongst multiple slices so that the
+   * estimated cost of searching each slice is balanced.
+   * <p>
+   * The cost of searching a segment is given by {@code costEstimator}, and is assumed to be
+   * uniformly distributed across the doc ID space of the segment. If {@code allowSegmentPartitions}
+   * is {@code true}, segments whose cost is greater than {@code maxCostPerSlice} are split into
+   * ranges of doc IDs of equal sizes whose cost is at most {@code maxCostPerSlice}, so that a
+   * single large segment doesn't dominate the latency of concurrent searches. Pieces are then
+   * assigned, from the most to the least costly, to the slice that has the lowest cost so far,
+   * while never putting more than {@code maxSegmentsPerSlice} pieces in a single slice.
+   *
+   * @lucene.experimental
+   */
+  public static LeafSlice[] balancedSlices(List<LeafReaderContext> leaves, ToLongFunction<LeafReaderContext> costEstimator,
+                                           long maxCostPerSlice, int maxSegmentsPerSlice, boolean allowSegmentPartitions) {
+    if (maxCostPerSlice < 1) {
+      throw new IllegalArgumentException("maxCostPerSlice must be >= 1, got " + maxCostPerSlice);
+    }
+    if (maxSegmentsPerSlice < 1) {
+      throw new IllegalArgumentException("maxSegmentsPerSlice must be >= 1, got " + maxSegmentsPerSlice);
+    }
+
+    final List<LeafReaderContextPartition> pieces = new ArrayList<>();
+    final List<Long> pieceCosts = new ArrayList<>();
+    for (LeafReaderContext ctx : leaves) {
+      final long cost = Math.max(0, costEstimator.applyAsLong(ctx));
+      final int maxDoc = ctx.reader().maxDoc();
+      final long numPartitions = allowSegmentPartitions ? Math.min(maxDoc, (cost + maxCostPerSlice - 1) / maxCostPerSlice) : 1;
+      if (numPartitions <= 1) {
+        pieces.add(LeafReaderContextPartition.createForEntireSegment(ctx));
+        pieceCosts.add(cost);
+      } else {
+        for (int i = 0; i < numPartitions; ++i) {
+          final int minDocId = (int) (maxDoc * i / numPartitions);
+          final int maxDocId = i == numPartitions - 1 ? DocIdSetIterator.NO_MORE_DOCS : (int) (maxDoc * (i + 1) / numPartitions);
+          pieces.add(LeafReaderContextPartition.createFromAndTo(ctx, minDocId, maxDocId));
+          pieceCosts.add(cost / numPartitions);
+        }
+      }
+    }
+
+    // Longest-processing-time-first scheduling: most costly pieces first, each to the least loaded slice
+    final Integer[] order = new Integer[pieces.size()];
+    for (int i = 0; i < order.length; ++i) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingLong((Integer i) -> pieceCosts.get(i)).reversed()
+        .thenComparingInt(i -> pieces.get(i).ctx.docBase)
+        .thenComparingInt(i -> pieces.get(i).minDocId));
+
+    // pieces that are at least as costly as a slice get their own slice, others are packed together
+    long numLargePieces = 0;
+    long smallPiecesCost = 0;
+    for (long cost : pieceCosts) {
+      if (cost >= maxCostPerSlice) {
+        numLargePieces++;
+      } else {
+        smallPiecesCost += cost;
+      }
+    }
+    final long numSmallPiecesSlices = (smallPiecesCost + maxCostPerSlice - 1) / maxCostPerSlice;
+    final int targetNumSlices = (int) Math.max(1, Math.min(pieces.size(), numLargePieces + numSmallPiecesSlices));
+    final List<List<LeafReaderContextPartition>> groups = new ArrayList<>();
+    final PriorityQueue<long[]> loads = new PriorityQueue<>(Comparator.<long[]>comparingLong(l -> l[0]).thenComparingLong(l -> l[1]));
+    for (int i = 0; i < targetNumSlices; ++i) {
+      groups.add(new ArrayList<>());
+      loads.add(new long[] {0, i}); // {cost, group index}
+    }
+    for (int i : order) {
+      long[] load = loads.poll();
+      if (load == null) {
+        // all slices are full
+        groups.add(new ArrayList<>());
+        load = new long[] {0, groups.size() - 1};
+      }
+      groups.get((int) load[1]).add(pieces.get(i));
+      load[0] += pieceCosts.get(i);
+      if (groups.get((int) load[1]).size() < maxSegmentsPerSlice) {
+        loads.add(load);
+      } // else the slice is full: don't add more pieces to it
+    }
+
+    final List<LeafSlice> slices = new ArrayList<>(groups.size());
+    for (List<LeafReaderContextPartition> group : groups) {
+      if (group.isEmpty() == false) {
+        slices.add(new LeafSlice(group.toArray(new LeafReaderContextPartition[0])));
+      }
+    }
+    return slices.toArray(new LeafSlice[0]);
+  }
+
   /** Return the {@link IndexReader} this searches. */
   public IndexReader getIndexReader() {
     return reader;
@@ -674,10 +783,14 @@ public class IndexSearcher {
       final Weight weight = createWeight(query, scoreMode, 1);
       final List<FutureTask<C>> listTasks = new ArrayList<>();
       for (int i = 0; i < leafSlices.length; ++i) {
-        final LeafReaderContext[] leaves = leafSlices[i].leaves;
+        final LeafSlice slice = leafSlices[i];
         final C collector = collectors.get(i);
         FutureTask<C> task = new FutureTask<>(() -> {
-          search(Arrays.asList(leaves), weight, collector);
+          if (slice.hasSegmentPartitions()) {
+            search(slice.partitions, weight, collector);
+          } else {
+            search(Arrays.asList(slice.leaves), weight, collector);
+          }
           return collector;
         });
 
@@ -745,6 +858,40 @@ public class IndexSearcher {
     }
   }
 
+  /**
+   * Lower-level search API.
+   * <p>
+   * Same as {@link #search(List, Weight, Collector)} but only collects documents within the doc ID
+   * range of each partition. This is used to search slices that contain partitions of segments.
+   * A new {@link LeafCollector} is pulled for every partition, even if several partitions belong to
+   * the same segment.
+   *
+   * @lucene.experimental
+   */
+  protected void search(LeafReaderContextPartition[] partitions, Weight weight, Collector collector)
+      throws IOException {
+    for (LeafReaderContextPartition partition : partitions) {
+      final LeafReaderContext ctx = partition.ctx;
+      final LeafCollector leafCollector;
+      try {
+        leafCollector = collector.getLeafCollector(ctx);
+      } catch (CollectionTerminatedException e) {
+        // there is no doc of interest in this reader context
+        // continue with the following partition
+        continue;
+      }
+      BulkScorer scorer = weight.bulkScorer(ctx);
+      if (scorer != null) {
+        try {
+          scorer.score(leafCollector, ctx.reader().getLiveDocs(), partition.minDocId, partition.maxDocId);
+        } catch (CollectionTerminatedException e) {
+          // collection was terminated prematurely
+          // continue with the following partition
+        }
+      }
+    }
+  }
+
   /** Expert: called to re-write queries into primitive queries.
    * @throws TooManyClauses If a query would exceed
    *         {@link IndexSearcher#getMaxClauseCount()} clauses.
@@ -864,10 +1011,91 @@ public class IndexSearcher {
      *
      *  @lucene.experimental */
     public final LeafReaderContext[] leaves;
+
+    /** The partitions of leaves that make up this slice, ordered by doc ID. Unless this slice was
+     *  created from partitions, there is one partition per leaf which covers the entire leaf.
+     *
+     *  @lucene.experimental */
+    public final LeafReaderContextPartition[] partitions;
     
     public LeafSlice(List<LeafReaderContext> leavesList) {
       Collections.sort(leavesList, Comparator.comparingInt(l -> l.docBase));
       this.leaves = leavesList.toArray(new LeafReaderContext[0]);
+      this.partitions = new LeafReaderContextPartition[leaves.length];
+      for (int i = 0; i < leaves.length; ++i) {
+        partitions[i] = LeafReaderContextPartition.createForEntireSegment(leaves[i]);
+      }
+    }
+
+    /** Create a slice from partitions of leaves.
+     *
+     *  @lucene.experimental */
+    public LeafSlice(LeafReaderContextPartition... partitions) {
+      this.partitions = partitions.clone();
+      Arrays.sort(this.partitions, Comparator.<LeafReaderContextPartition>comparingInt(p -> p.ctx.docBase)
+          .thenComparingInt(p -> p.minDocId));
+      final List<LeafReaderContext> leavesList = new ArrayList<>();
+      for (LeafReaderContextPartition partition : this.partitions) {
+        if (leavesList.isEmpty() || leavesList.get(leavesList.size() - 1) != partition.ctx) {
+          leavesList.add(partition.ctx);
+        }
+      }
+      this.leaves = leavesList.toArray(new LeafReaderContext[0]);
+    }
+
+    /** Whether some partitions of this slice only cover a range of doc IDs of their segment. */
+    boolean hasSegmentPartitions() {
+      for (LeafReaderContextPartition partition : partitions) {
+        if (partition.isEntireSegment() == false) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * A range of doc IDs of a leaf, which may be searched independently of the other doc IDs of the
+   * same leaf.
+   *
+   * @lucene.experimental
+   */
+  public static final class LeafReaderContextPartition {
+
+    /** The leaf this partition belongs to. */
+    public final LeafReaderContext ctx;
+    /** The first doc ID of the partition, inclusive. */
+    public final int minDocId;
+    /** The last doc ID of the partition, exclusive. {@link DocIdSetIterator#NO_MORE_DOCS} means
+     *  that the partition goes until the end of the segment. */
+    public final int maxDocId;
+
+    private LeafReaderContextPartition(LeafReaderContext ctx, int minDocId, int maxDocId) {
+      if (minDocId < 0 || minDocId >= maxDocId) {
+        throw new IllegalArgumentException("Illegal range of doc IDs: [" + minDocId + ", " + maxDocId + ")");
+      }
+      this.ctx = Objects.requireNonNull(ctx);
+      this.minDocId = minDocId;
+      this.maxDocId = maxDocId;
+    }
+
+    /** Create a partition that covers all doc IDs of the given leaf. */
+    public static LeafReaderContextPartition createForEntireSegment(LeafReaderContext ctx) {
+      return new LeafReaderContextPartition(ctx, 0, DocIdSetIterator.NO_MORE_DOCS);
+    }
+
+    /** Create a partition that covers doc IDs from {@code minDocId} inclusive to {@code maxDocId} exclusive. */
+    public static LeafReaderContextPartition createFromAndTo(LeafReaderContext ctx, int minDocId, int maxDocId) {
+      return new LeafReaderContextPartition(ctx, minDocId, maxDocId);
+    }
+
+    boolean isEntireSegment() {
+      return minDocId == 0 && (maxDocId == DocIdSetIterator.NO_MORE_DOCS || maxDocId >= ctx.reader().maxDoc());
+    }
+
+    @Override
+    public String toString() {
+      return "LeafReaderContextPartition(ord=" + ctx.ord + ", minDocId=" + minDocId + ", maxDocId=" + maxDocId + ")";
     }
   }
 
@@ -93,4 +93,21 @@ public interface LeafCollector {
    */
   void collect(int doc) throws IOException;
 
+  /**
+   * Optionally returns an iterator over the documents that are still competitive.
+   * <p>
+   * The bulk scorer that feeds this collector may skip the documents that this
+   * iterator does not match, so it must only skip documents that the collector
+   * would not have collected anyway. The set of competitive documents may shrink
+   * while documents are collected, but it never grows. Collectors typically
+   * delegate this method to their {@link LeafFieldComparator}s, see
+   * {@link LeafFieldComparator#competitiveIterator()}.
+   * <p>
+   * The default is to return {@code null}, which means that all documents are
+   * competitive.
+   */
+  default DocIdSetIterator competitiveIterator() throws IOException {
+    return null;
+  }
+
 }
@@ -116,4 +116,21 @@ public interface LeafFieldComparator {
    * obtain the current hit's score, if necessary. */
   void setScorer(Scorable scorer) throws IOException;
 
+  /**
+   * Returns an iterator over the competitive documents of this segment, or {@code null}
+   * if this comparator cannot skip documents. The returned iterator is only created
+   * once per segment, but the documents it matches may shrink as the bottom of the queue
+   * is updated. See {@link LeafCollector#competitiveIterator()}.
+   */
+  default DocIdSetIterator competitiveIterator() throws IOException {
+    return null;
+  }
+
+  /**
+   * Informs this leaf comparator that the hits threshold is reached, which means
+   * that the total hit count no longer needs to be accurate and that non-competitive
+   * documents may be skipped. This is only called on the primary comparator.
+   */
+  default void setHitsThresholdReached() throws IOException {}
+
 }
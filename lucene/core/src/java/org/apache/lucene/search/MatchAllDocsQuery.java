@@ -58,7 +58,17 @@ public final class MatchAllDocsQuery extends Query {
             ScoreAndDoc scorer = new ScoreAndDoc();
             scorer.score = score;
             collector.setScorer(scorer);
+            final DocIdSetIterator competitiveIterator = collector.competitiveIterator();
             for (int doc = min; doc < max; ++doc) {
+              if (competitiveIterator != null) {
+                if (competitiveIterator.docID() < doc) {
+                  competitiveIterator.advance(doc);
+                }
+                doc = competitiveIterator.docID();
+                if (doc >= max) {
+                  break;
+                }
+              }
               scorer.doc = doc;
               if (acceptDocs == null || acceptDocs.get(doc)) {
                 collector.collect(doc);
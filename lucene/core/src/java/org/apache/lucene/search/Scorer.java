@@ -20,6 +20,8 @@ package org.apache.lucene.search;
 import java.io.IOException;
 import java.util.Objects;
 
+import org.apache.lucene.util.Bits;
+
 /**
  * Expert: Common scoring functionality for different types of queries.
  *
@@ -111,4 +113,34 @@ public abstract class Scorer extends Scorable {
    * included and {@code upTo} included.
    */
   public abstract float getMaxScore(int upTo) throws IOException;
+
+  /**
+   * Fill a buffer of doc IDs and scores with some number of doc IDs and their corresponding scores,
+   * starting at the current doc ID, and ending before {@code upTo}. Documents that are not live
+   * according to {@code liveDocs} are skipped. On return, the {@link #iterator()} is positioned on
+   * the first doc ID that was not considered, which is {@code >= upTo} once all matches in the
+   * range have been returned. The buffer may be empty even though there are remaining matches
+   * before {@code upTo}, if all considered documents were deleted.
+   * <p>
+   * This method must only be called once the iterator is positioned on a match, and allows
+   * scorers over block-encoded postings to compute scores in tight loops rather than one document
+   * at a time. The default implementation collects doc IDs and scores one at a time, up to a small
+   * batch size.
+   *
+   * @lucene.internal
+   */
+  public void nextDocsAndScores(int upTo, Bits liveDocs, DocAndScoreBuffer buffer) throws IOException {
+    final int batchSize = 64; // arbitrary
+    buffer.growNoCopy(batchSize);
+    final DocIdSetIterator iterator = iterator();
+    int size = 0;
+    for (int doc = docID(); doc < upTo && size < batchSize; doc = iterator.nextDoc()) {
+      if (liveDocs == null || liveDocs.get(doc)) {
+        buffer.docs[size] = doc;
+        buffer.scores[size] = score();
+        ++size;
+      }
+    }
+    buffer.size = size;
+  }
 }
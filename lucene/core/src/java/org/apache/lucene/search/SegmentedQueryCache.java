@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+
+/**
+ * A {@link QueryCache} that hash-partitions queries across several
+ * {@link LRUQueryCache} instances in order to reduce lock contention on
+ * searchers that run many concurrent queries.
+ *
+ * Each query is always routed to the same partition, which owns all the
+ * cached {@link DocIdSet}s of that query across segments. Partitions have
+ * their own lock and their own LRU list, and each of them is given an equal
+ * share of the maximum number of queries and of the memory budget, so that
+ * eviction is an approximation of a global LRU policy: a query may be evicted
+ * from its partition while less recently used queries still sit in other
+ * partitions. Note that since the check that refuses to cache entries that are
+ * too large is performed against the budget of a partition, fewer partitions
+ * should be used when the memory budget is small compared to the size of the
+ * index.
+ *
+ * Statistics are the sums of the statistics of the partitions.
+ *
+ * This class is thread-safe.
+ *
+ * @see LRUQueryCache
+ * @lucene.experimental
+ */
+public class SegmentedQueryCache implements QueryCache, Accountable {
+
+  private final LRUQueryCache[] partitions;
+
+  /**
+   * Expert: Create a new instance that will cache at most <code>maxSize</code>
+   * queries with at most <code>maxRamBytesUsed</code> bytes of memory, only on
+   * leaves that satisfy {@code leavesToCache}, split across
+   * <code>numPartitions</code> partitions.
+   *
+   * @see LRUQueryCache#LRUQueryCache(int, long, Predicate, float)
+   */
+  public SegmentedQueryCache(int numPartitions, int maxSize, long maxRamBytesUsed,
+                             Predicate<LeafReaderContext> leavesToCache, float skipCacheFactor) {
+    if (numPartitions < 1) {
+      throw new IllegalArgumentException("numPartitions must be at least 1, got " + numPartitions);
+    }
+    // every partition must be able to hold at least one query
+    numPartitions = Math.max(1, Math.min(numPartitions, maxSize));
+    partitions = new LRUQueryCache[numPartitions];
+    for (int i = 0; i < numPartitions; ++i) {
+      final int partitionMaxSize = maxSize / numPartitions + (i < maxSize % numPartitions ? 1 : 0);
+      final long partitionMaxRamBytesUsed = maxRamBytesUsed / numPartitions + (i < maxRamBytesUsed % numPartitions ? 1 : 0);
+      partitions[i] = new LRUQueryCache(partitionMaxSize, partitionMaxRamBytesUsed, leavesToCache, skipCacheFactor);
+    }
+  }
+
+  /**
+   * Create a new instance that will cache at most <code>maxSize</code> queries
+   * with at most <code>maxRamBytesUsed</code> bytes of memory, split across
+   * <code>numPartitions</code> partitions, using the same defaults as
+   * {@link LRUQueryCache#LRUQueryCache(int, long)}.
+   */
+  public SegmentedQueryCache(int numPartitions, int maxSize, long maxRamBytesUsed) {
+    this(numPartitions, maxSize, maxRamBytesUsed, new LRUQueryCache.MinSegmentSizePredicate(10000, .03f), 250);
+  }
+
+  /** Return the partition that is responsible for the given query. */
+  LRUQueryCache partition(Query query) {
+    int h = query.hashCode();
+    // queries often have poor low bits, eg. when their hash code is a sum of field hashes
+    h ^= (h >>> 16);
+    h *= 0x9E3779B9;
+    return partitions[Math.floorMod(h, partitions.length)];
+  }
+
+  // pkg-private for testing
+  int numPartitions() {
+    return partitions.length;
+  }
+
+  @Override
+  public Weight doCache(Weight weight, QueryCachingPolicy policy) {
+    return partition(weight.getQuery()).doCache(weight, policy);
+  }
+
+  /**
+   * Remove all cache entries for the given core cache key.
+   */
+  public void clearCoreCacheKey(Object coreKey) {
+    for (LRUQueryCache partition : partitions) {
+      partition.clearCoreCacheKey(coreKey);
+    }
+  }
+
+  /**
+   * Remove all cache entries for the given query.
+   */
+  public void clearQuery(Query query) {
+    partition(query).clearQuery(query);
+  }
+
+  /**
+   * Clear the content of this cache.
+   */
+  public void clear() {
+    for (LRUQueryCache partition : partitions) {
+      partition.clear();
+    }
+  }
+
+  // pkg-private for testing
+  void assertConsistent() {
+    for (LRUQueryCache partition : partitions) {
+      partition.assertConsistent();
+      for (Query query : partition.cachedQueries()) {
+        if (partition(query) != partition) {
+          throw new AssertionError("Query cached in the wrong partition: " + query);
+        }
+      }
+    }
+  }
+
+  // pkg-private for testing
+  List<Query> cachedQueries() {
+    final List<Query> queries = new ArrayList<>();
+    for (LRUQueryCache partition : partitions) {
+      queries.addAll(partition.cachedQueries());
+    }
+    return queries;
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    long ramBytesUsed = 0;
+    for (LRUQueryCache partition : partitions) {
+      ramBytesUsed += partition.ramBytesUsed();
+    }
+    return ramBytesUsed;
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    final List<Accountable> resources = new ArrayList<>();
+    for (int i = 0; i < partitions.length; ++i) {
+      resources.add(Accountables.namedAccountable("partition " + i, partitions[i].getChildResources(), partitions[i].ramBytesUsed()));
+    }
+    return Collections.unmodifiableList(resources);
+  }
+
+  /**
+   * Return the total number of times that a {@link Query} has been looked up
+   * in this {@link QueryCache}.
+   * @see LRUQueryCache#getTotalCount()
+   */
+  public final long getTotalCount() {
+    return getHitCount() + getMissCount();
+  }
+
+  /**
+   * Return the number of cache hits, summed over all partitions.
+   * @see LRUQueryCache#getHitCount()
+   */
+  public final long getHitCount() {
+    long hitCount = 0;
+    for (LRUQueryCache partition : partitions) {
+      hitCount += partition.getHitCount();
+    }
+    return hitCount;
+  }
+
+  /**
+   * Return the number of cache misses, summed over all partitions.
+   * @see LRUQueryCache#getMissCount()
+   */
+  public final long getMissCount() {
+    long missCount = 0;
+    for (LRUQueryCache partition : partitions) {
+      missCount += partition.getMissCount();
+    }
+    return missCount;
+  }
+
+  /**
+   * Return the total number of {@link DocIdSet}s which are currently stored
+   * in the cache.
+   * @see LRUQueryCache#getCacheSize()
+   */
+  public final long getCacheSize() {
+    long cacheSize = 0;
+    for (LRUQueryCache partition : partitions) {
+      cacheSize += partition.getCacheSize();
+    }
+    return cacheSize;
+  }
+
+  /**
+   * Return the total number of cache entries that have been generated and put
+   * in the cache.
+   * @see LRUQueryCache#getCacheCount()
+   */
+  public final long getCacheCount() {
+    long cacheCount = 0;
+    for (LRUQueryCache partition : partitions) {
+      cacheCount += partition.getCacheCount();
+    }
+    return cacheCount;
+  }
+
+  /**
+   * Return the number of cache entries that have been removed from the cache.
+   * @see LRUQueryCache#getEvictionCount()
+   */
+  public final long getEvictionCount() {
+    return getCacheCount() - getCacheSize();
+  }
+}
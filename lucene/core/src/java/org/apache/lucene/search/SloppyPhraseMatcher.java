@@ -20,16 +20,13 @@ package org.apache.lucene.search;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.stream.Collectors;
 
-import org.apache.lucene.index.Impact;
-import org.apache.lucene.index.Impacts;
+import org.apache.lucene.index.ImpactsEnum;
 import org.apache.lucene.index.ImpactsSource;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.similarities.Similarity.SimScorer;
@@ -92,38 +89,25 @@ final class SloppyPhraseMatcher extends PhraseMatcher {
       phrasePositions[i] = new PhrasePositions(postings[i].postings, postings[i].position, i, postings[i].terms);
     }
 
-    approximation = ConjunctionDISI.intersectIterators(Arrays.stream(postings).map(p -> p.postings).collect(Collectors.toList()));
-    // What would be a good upper bound of the sloppy frequency? A sum of the
-    // sub frequencies would be correct, but it is usually so much higher than
-    // the actual sloppy frequency that it doesn't help skip irrelevant
-    // documents. As a consequence for now, sloppy phrase queries use dummy
-    // impacts:
-    final ImpactsSource impactsSource = new ImpactsSource() {
-      @Override
-      public Impacts getImpacts() throws IOException {
-        return new Impacts() {
-
-          @Override
-          public int numLevels() {
-            return 1;
-          }
-
-          @Override
-          public List<Impact> getImpacts(int level) {
-            return Collections.singletonList(new Impact(Integer.MAX_VALUE, 1L));
-          }
-
-          @Override
-          public int getDocIdUpTo(int level) {
-            return DocIdSetIterator.NO_MORE_DOCS;
-          }
-        };
-      }
-
-      @Override
-      public void advanceShallow(int target) throws IOException {}
-    };
-    impactsApproximation = new ImpactsDISI(approximation, impactsSource, scorer);
+    final DocIdSetIterator approximation = ConjunctionDISI.intersectIterators(Arrays.stream(postings).map(p -> p.postings).collect(Collectors.toList()));
+    // Every term position in each postings list can be at the head of at most
+    // one matching phrase, and every match contributes at most 1 to the sloppy
+    // frequency, so the sum of the term frequencies is an upper bound of the
+    // sloppy frequency, see maxFreq(). Merging the impacts of all terms like
+    // synonyms gives this bound for every block of documents and norm value.
+    final ImpactsEnum[] impactsEnums = new ImpactsEnum[postings.length];
+    final float[] boosts = new float[postings.length];
+    for (int i = 0; i < postings.length; ++i) {
+      impactsEnums[i] = postings[i].impacts;
+      boosts[i] = 1f;
+    }
+    final ImpactsSource impactsSource = SynonymQuery.mergeImpacts(impactsEnums, boosts);
+    if (scoreMode == ScoreMode.TOP_SCORES) {
+      this.approximation = this.impactsApproximation = new ImpactsDISI(approximation, impactsSource, scorer);
+    } else {
+      this.approximation = approximation;
+      this.impactsApproximation = new ImpactsDISI(approximation, impactsSource, scorer);
+    }
   }
 
   @Override
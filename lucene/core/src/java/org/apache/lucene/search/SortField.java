@@ -98,6 +98,9 @@ public class SortField {
   // Used for 'sortMissingFirst/Last'
   protected Object missingValue = null;
 
+  // Whether numeric sorts may skip non-competitive documents with the points of the field
+  private boolean optimizeSortWithPoints;
+
   /** Creates a sort by terms in the given field with the type of term
    * values explicitly given.
    * @param field  Name of field to sort by.  Can be <code>null</code> if
@@ -168,6 +171,35 @@ public class SortField {
     this.missingValue = missingValue;
   }
 
+  /**
+   * Enables the skipping of non-competitive documents with the points of the sort field,
+   * for sorts of type {@link Type#INT}, {@link Type#LONG}, {@link Type#FLOAT} and
+   * {@link Type#DOUBLE}. Once enough hits are collected, the comparator then only
+   * visits the documents whose points are within the range of competitive values,
+   * instead of all matches.
+   * <p>
+   * This requires every document that has a value for the field to index exactly
+   * this value both as a numeric doc value and as a single 1-dimensional point of
+   * the corresponding type, e.g. with a {@link org.apache.lucene.document.LongPoint}
+   * and a {@link org.apache.lucene.document.NumericDocValuesField}. Otherwise
+   * results are undefined.
+   * <p>
+   * This is not taken into account by {@link #equals} and {@link #hashCode}, since it
+   * does not change the order of hits.
+   */
+  public void setOptimizeSortWithPoints(boolean optimizeSortWithPoints) {
+    if (optimizeSortWithPoints && type != Type.INT && type != Type.LONG && type != Type.FLOAT && type != Type.DOUBLE) {
+      throw new IllegalArgumentException("Sorting with points only works for numeric types, but got " + type);
+    }
+    this.optimizeSortWithPoints = optimizeSortWithPoints;
+  }
+
+  /** Returns whether non-competitive documents may be skipped with the points of the sort field.
+   *  @see #setOptimizeSortWithPoints(boolean) */
+  public boolean getOptimizeSortWithPoints() {
+    return optimizeSortWithPoints;
+  }
+
   /** Creates a sort with a custom comparison function.
    * @param field Name of field to sort by; cannot be <code>null</code>.
    * @param comparator Returns a comparator for sorting hits.
@@ -345,16 +377,16 @@ public class SortField {
       return new FieldComparator.DocComparator(numHits);
 
     case INT:
-      return new FieldComparator.IntComparator(numHits, field, (Integer) missingValue);
+      return new FieldComparator.IntComparator(numHits, field, (Integer) missingValue, reverse, optimizeSortWithPoints);
 
     case FLOAT:
-      return new FieldComparator.FloatComparator(numHits, field, (Float) missingValue);
+      return new FieldComparator.FloatComparator(numHits, field, (Float) missingValue, reverse, optimizeSortWithPoints);
 
     case LONG:
-      return new FieldComparator.LongComparator(numHits, field, (Long) missingValue);
+      return new FieldComparator.LongComparator(numHits, field, (Long) missingValue, reverse, optimizeSortWithPoints);
 
     case DOUBLE:
-      return new FieldComparator.DoubleComparator(numHits, field, (Double) missingValue);
+      return new FieldComparator.DoubleComparator(numHits, field, (Double) missingValue, reverse, optimizeSortWithPoints);
 
     case CUSTOM:
       assert comparatorSource != null;
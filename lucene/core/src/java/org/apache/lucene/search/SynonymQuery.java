@@ -338,9 +338,13 @@ public final class SynonymQuery extends Query {
   }
 
   /**
-   * Merge impacts for multiple synonyms.
+   * Merge impacts for multiple synonyms. The merged impacts bound the sum of the
+   * boosted frequencies of the given terms, so they may also be used to bound the
+   * frequency of any match that never counts more than one occurrence of each term
+   * position, such as sloppy phrases and spans.
+   * @lucene.internal
    */
-  static ImpactsSource mergeImpacts(ImpactsEnum[] impactsEnums, float[] boosts) {
+  public static ImpactsSource mergeImpacts(ImpactsEnum[] impactsEnums, float[] boosts) {
     assert impactsEnums.length == boosts.length;
     return new ImpactsSource() {
 
@@ -256,26 +256,46 @@ public class TermInSetQuery extends Query implements Accountable {
         List<TermAndState> matchingTerms = new ArrayList<>(threshold);
         DocIdSetBuilder builder = null;
 
+        // Both the query terms and the terms of the segment are sorted, so we leapfrog
+        // between them: query terms that sort before the current term of the segment
+        // are skipped without seeking, the terms enum only moves forward which lets it
+        // reuse the frames of shared prefixes, and we stop as soon as the segment has
+        // no more terms.
+        BytesRef indexTerm = null; // current term of termsEnum, or null if it needs to seek
         for (BytesRef term = iterator.next(); term != null; term = iterator.next()) {
           assert field.equals(iterator.field());
-          if (termsEnum.seekExact(term)) {
-            if (matchingTerms == null) {
-              docs = termsEnum.postings(docs, PostingsEnum.NONE);
-              builder.add(docs);
-            } else if (matchingTerms.size() < threshold) {
-              matchingTerms.add(new TermAndState(field, termsEnum));
-            } else {
-              assert matchingTerms.size() == threshold;
-              builder = new DocIdSetBuilder(reader.maxDoc(), terms);
-              docs = termsEnum.postings(docs, PostingsEnum.NONE);
+          if (indexTerm == null || indexTerm.compareTo(term) < 0) {
+            if (termsEnum.seekCeil(term) == TermsEnum.SeekStatus.END) {
+              break;
+            }
+            indexTerm = termsEnum.term();
+          }
+          if (indexTerm.equals(term) == false) {
+            continue;
+          }
+          if (matchingTerms == null) {
+            docs = termsEnum.postings(docs, PostingsEnum.NONE);
+            builder.add(docs);
+          } else if (matchingTerms.size() < threshold) {
+            matchingTerms.add(new TermAndState(field, termsEnum));
+          } else {
+            assert matchingTerms.size() == threshold;
+            builder = new DocIdSetBuilder(reader.maxDoc(), terms);
+            docs = termsEnum.postings(docs, PostingsEnum.NONE);
+            builder.add(docs);
+            final TermState state = termsEnum.termState();
+            for (TermAndState t : matchingTerms) {
+              t.termsEnum.seekExact(t.term, t.state);
+              docs = t.termsEnum.postings(docs, PostingsEnum.NONE);
               builder.add(docs);
-              for (TermAndState t : matchingTerms) {
-                t.termsEnum.seekExact(t.term, t.state);
-                docs = t.termsEnum.postings(docs, PostingsEnum.NONE);
-                builder.add(docs);
-              }
-              matchingTerms = null;
             }
+            // move back to the current term before moving forward again
+            termsEnum.seekExact(term, state);
+            matchingTerms = null;
+          }
+          indexTerm = termsEnum.next();
+          if (indexTerm == null) {
+            break;
           }
         }
         if (matchingTerms != null) {
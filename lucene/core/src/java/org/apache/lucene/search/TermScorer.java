@@ -22,6 +22,7 @@ import java.io.IOException;
 import org.apache.lucene.index.ImpactsEnum;
 import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.SlowImpactsEnum;
+import org.apache.lucene.util.Bits;
 
 /** Expert: A <code>Scorer</code> for documents matching a <code>Term</code>.
  */
@@ -31,6 +32,7 @@ final class TermScorer extends Scorer {
   private final DocIdSetIterator iterator;
   private final LeafSimScorer docScorer;
   private final ImpactsDISI impactsDisi;
+  private DocAndFreqBuffer docAndFreqBuffer;
 
   /**
    * Construct a {@link TermScorer} that will iterate all documents.
@@ -75,6 +77,43 @@ final class TermScorer extends Scorer {
     return docScorer.score(postingsEnum.docID(), postingsEnum.freq());
   }
 
+  @Override
+  public void nextDocsAndScores(int upTo, Bits liveDocs, DocAndScoreBuffer buffer) throws IOException {
+    if (iterator != postingsEnum) {
+      // skipping with impacts, don't bypass the impacts iterator
+      super.nextDocsAndScores(upTo, liveDocs, buffer);
+      return;
+    }
+    if (docAndFreqBuffer == null) {
+      docAndFreqBuffer = new DocAndFreqBuffer();
+    }
+
+    postingsEnum.nextPostings(upTo, docAndFreqBuffer);
+    final int[] docs = docAndFreqBuffer.docs;
+    final int[] freqs = docAndFreqBuffer.freqs;
+    int size = docAndFreqBuffer.size;
+    if (liveDocs != null) {
+      int newSize = 0;
+      for (int i = 0; i < size; ++i) {
+        if (liveDocs.get(docs[i])) {
+          docs[newSize] = docs[i];
+          freqs[newSize] = freqs[i];
+          ++newSize;
+        }
+      }
+      size = newSize;
+    }
+
+    buffer.growNoCopy(size);
+    for (int i = 0; i < size; ++i) {
+      buffer.docs[i] = docs[i];
+    }
+    for (int i = 0; i < size; ++i) {
+      buffer.scores[i] = docScorer.score(docs[i], freqs[i]);
+    }
+    buffer.size = size;
+  }
+
   @Override
   public int advanceShallow(int target) throws IOException {
     return impactsDisi.advanceShallow(target);
@@ -73,11 +73,16 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
 
     final boolean canEarlyTerminate;
     boolean collectedAllCompetitiveHits = false;
+    boolean hitsThresholdReached = false;
 
     TopFieldLeafCollector(FieldValueHitQueue<Entry> queue, Sort sort, LeafReaderContext context) throws IOException {
       super(queue.getComparators(context), queue.getReverseMul());
       final Sort indexSort = context.reader().getMetaData().getSort();
       canEarlyTerminate = canEarlyTerminate(sort, indexSort);
+      if (hitsThresholdChecker.isThresholdReached()) {
+        // reached in a previous segment, or by another slice
+        setHitsThresholdReached();
+      }
     }
 
     void countHit(int doc) throws IOException {
@@ -87,6 +92,23 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
       if (minScoreAcc != null && (totalHits & minScoreAcc.modInterval) == 0) {
         updateGlobalMinCompetitiveScore(scorer);
       }
+      if (hitsThresholdReached == false && hitsThresholdChecker.isThresholdReached()) {
+        setHitsThresholdReached();
+      }
+    }
+
+    private void setHitsThresholdReached() throws IOException {
+      hitsThresholdReached = true;
+      comparator.setHitsThresholdReached();
+      if (comparator.competitiveIterator() != null) {
+        // the comparator may skip non-competitive hits from now on
+        totalHitsRelation = Relation.GREATER_THAN_OR_EQUAL_TO;
+      }
+    }
+
+    @Override
+    public DocIdSetIterator competitiveIterator() throws IOException {
+      return comparator.competitiveIterator();
     }
 
     boolean thresholdCheck(int doc) throws IOException {
@@ -157,6 +179,11 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
       final SortField[] fields1 = searchSort.getSort();
       final SortField[] fields2 = indexSort.getSort();
       // early termination is possible if fields1 is a prefix of fields2
+      if (fields1.length == fields2.length + 1 && SortField.FIELD_DOC.equals(fields1[fields2.length])) {
+        // or if fields1 is fields2 followed by a tie-break on doc ID, since
+        // segments break ties of the index sort by doc ID too
+        return Arrays.asList(fields1).subList(0, fields2.length).equals(Arrays.asList(fields2));
+      }
       if (fields1.length > fields2.length) {
         return false;
       }
@@ -179,7 +179,7 @@ public abstract class Weight implements SegmentCacheable {
   /** Just wraps a Scorer and performs top scoring using it.
    *  @lucene.internal */
   protected static class DefaultBulkScorer extends BulkScorer {
-    private final Scorer scorer;
+    final Scorer scorer; // package-private for BooleanScorer
     private final DocIdSetIterator iterator;
     private final TwoPhaseIterator twoPhase;
 
@@ -201,6 +201,10 @@ public abstract class Weight implements SegmentCacheable {
     @Override
     public int score(LeafCollector collector, Bits acceptDocs, int min, int max) throws IOException {
       collector.setScorer(scorer);
+      final DocIdSetIterator competitiveIterator = collector.competitiveIterator();
+      if (competitiveIterator != null) {
+        return scoreCompetitive(collector, competitiveIterator, acceptDocs, min, max);
+      }
       if (scorer.docID() == -1 && min == 0 && max == DocIdSetIterator.NO_MORE_DOCS) {
         scoreAll(collector, iterator, twoPhase, acceptDocs);
         return DocIdSetIterator.NO_MORE_DOCS;
@@ -217,6 +221,35 @@ public abstract class Weight implements SegmentCacheable {
       }
     }
 
+    /** Bulk-scores the hits in a range that the collector's competitive iterator also matches. The
+     *  competitive iterator may shrink while hits are collected, so it is advanced lazily. */
+    private int scoreCompetitive(LeafCollector collector, DocIdSetIterator competitiveIterator,
+        Bits acceptDocs, int min, int max) throws IOException {
+      final DocIdSetIterator approximation = twoPhase == null ? iterator : twoPhase.approximation();
+      int doc = approximation.docID();
+      if (doc < min) {
+        doc = approximation.advance(min);
+      }
+      while (doc < max) {
+        int competitiveDoc = competitiveIterator.docID();
+        if (competitiveDoc < doc) {
+          competitiveDoc = competitiveIterator.advance(doc);
+        }
+        if (competitiveDoc > doc) {
+          if (competitiveDoc >= max) {
+            return max;
+          }
+          doc = approximation.advance(competitiveDoc);
+          continue;
+        }
+        if ((acceptDocs == null || acceptDocs.get(doc)) && (twoPhase == null || twoPhase.matches())) {
+          collector.collect(doc);
+        }
+        doc = approximation.nextDoc();
+      }
+      return doc;
+    }
+
     /** Specialized method to bulk-score a range of hits; we
      *  separate this from {@link #scoreAll} to help out
      *  hotspot.
@@ -20,7 +20,9 @@ package org.apache.lucene.search.spans;
 import java.io.IOException;
 import java.util.Objects;
 
+import org.apache.lucene.index.ImpactsSource;
 import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.ImpactsDISI;
 import org.apache.lucene.search.LeafSimScorer;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.TwoPhaseIterator;
@@ -39,12 +41,22 @@ public class SpanScorer extends Scorer {
   /** number of matches (computed in setFreqCurrentDoc) */
   private int numMatches;
   private int lastScoredDoc = -1; // last doc we called setFreqCurrentDoc() for
+  /** bounds the scores of the default scoring, or null if unknown */
+  private final ImpactsDISI impacts;
 
-  /** Sole constructor. */
+  /**
+   * Create a new SpanScorer. Its max scores are unknown since subclasses may
+   * score documents differently.
+   */
   public SpanScorer(SpanWeight weight, Spans spans, LeafSimScorer docScorer) {
+    this(weight, spans, docScorer, null);
+  }
+
+  SpanScorer(SpanWeight weight, Spans spans, LeafSimScorer docScorer, ImpactsSource impactsSource) {
     super(weight);
     this.spans = Objects.requireNonNull(spans);
     this.docScorer = docScorer;
+    this.impacts = impactsSource == null ? null : new ImpactsDISI(spans, impactsSource, docScorer.getSimScorer());
   }
 
   /** return the Spans for this Scorer **/
@@ -134,9 +146,20 @@ public class SpanScorer extends Scorer {
     return scoreCurrentDoc();
   }
 
+  @Override
+  public int advanceShallow(int target) throws IOException {
+    if (impacts == null) {
+      return super.advanceShallow(target);
+    }
+    return impacts.advanceShallow(target);
+  }
+
   @Override
   public float getMaxScore(int upTo) throws IOException {
-    return Float.POSITIVE_INFINITY;
+    if (impacts == null) {
+      return Float.POSITIVE_INFINITY;
+    }
+    return impacts.getMaxScore(upTo);
   }
 
   /** Returns the intermediate "sloppy freq" adjusted for edit distance
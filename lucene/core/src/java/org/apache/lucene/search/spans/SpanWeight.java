@@ -18,14 +18,22 @@ package org.apache.lucene.search.spans;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 
+import org.apache.lucene.index.Impacts;
+import org.apache.lucene.index.ImpactsEnum;
+import org.apache.lucene.index.ImpactsSource;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermState;
 import org.apache.lucene.index.TermStates;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.CollectionStatistics;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.IndexSearcher;
@@ -34,6 +42,8 @@ import org.apache.lucene.search.Matches;
 import org.apache.lucene.search.MatchesIterator;
 import org.apache.lucene.search.MatchesUtils;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.SynonymQuery;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TermStatistics;
 import org.apache.lucene.search.Weight;
@@ -81,6 +91,7 @@ public abstract class SpanWeight extends Weight {
   protected final Similarity similarity;
   protected final Similarity.SimScorer simScorer;
   protected final String field;
+  private final Map<Term, TermStates> termStates;
 
   /**
    * Create a new SpanWeight
@@ -95,6 +106,7 @@ public abstract class SpanWeight extends Weight {
     this.field = query.getField();
     this.similarity = searcher.getSimilarity();
     this.simScorer = buildSimWeight(query, searcher, termStates, boost);
+    this.termStates = termStates;
   }
 
   private Similarity.SimScorer buildSimWeight(SpanQuery query, IndexSearcher searcher, Map<Term, TermStates> termStates, float boost) throws IOException {
@@ -137,7 +149,100 @@ public abstract class SpanWeight extends Weight {
       return null;
     }
     final LeafSimScorer docScorer = getSimScorer(context);
-    return new SpanScorer(this, spans, docScorer);
+    return new SpanScorer(this, spans, docScorer, getImpactsSource(context));
+  }
+
+  /**
+   * Return impacts that bound the sloppy frequency of the spans of this weight in
+   * the given segment, or null if no bound is known. Every position of a term can
+   * only contribute one match of at most 1 to the sloppy frequency, so the sum of
+   * the frequencies of the terms that the spans are built on is such a bound.
+   */
+  private ImpactsSource getImpactsSource(LeafReaderContext context) throws IOException {
+    if (simScorer == null || termStates == null) {
+      return null;
+    }
+    final List<Term> terms = getMatchingTerms();
+    if (terms == null) {
+      return null;
+    }
+    final List<Term> segmentTerms = new ArrayList<>();
+    final List<TermState> segmentStates = new ArrayList<>();
+    for (Term term : terms) {
+      final TermStates states = termStates.get(term);
+      final TermState state = states == null ? null : states.get(context);
+      if (state != null) {
+        segmentTerms.add(term);
+        segmentStates.add(state);
+      }
+    }
+    if (segmentTerms.isEmpty()) {
+      return null;
+    }
+    // pulling impacts is only needed when scores are pruned, so do it lazily
+    return new ImpactsSource() {
+
+      private ImpactsSource in;
+
+      private ImpactsSource in() throws IOException {
+        if (in == null) {
+          final ImpactsEnum[] impactsEnums = new ImpactsEnum[segmentTerms.size()];
+          final float[] boosts = new float[impactsEnums.length];
+          for (int i = 0; i < impactsEnums.length; ++i) {
+            final TermsEnum termsEnum = context.reader().terms(field).iterator();
+            termsEnum.seekExact(segmentTerms.get(i).bytes(), segmentStates.get(i));
+            impactsEnums[i] = termsEnum.impacts(PostingsEnum.FREQS);
+            boosts[i] = 1f;
+          }
+          in = SynonymQuery.mergeImpacts(impactsEnums, boosts);
+        }
+        return in;
+      }
+
+      @Override
+      public void advanceShallow(int target) throws IOException {
+        in().advanceShallow(target);
+      }
+
+      @Override
+      public Impacts getImpacts() throws IOException {
+        return in().getImpacts();
+      }
+    };
+  }
+
+  /**
+   * Return the terms of the query that spans are built on, once per occurrence in
+   * the query, or null if the spans may also be built on something else than terms
+   * of the field of this weight.
+   */
+  private List<Term> getMatchingTerms() {
+    final List<Term> terms = new ArrayList<>();
+    final boolean[] onlyTerms = new boolean[] { true };
+    getQuery().visit(new QueryVisitor() {
+      @Override
+      public void consumeTerms(Query query, Term... queryTerms) {
+        for (Term term : queryTerms) {
+          if (field.equals(term.field())) {
+            terms.add(term);
+          } else {
+            onlyTerms[0] = false;
+          }
+        }
+      }
+
+      @Override
+      public void visitLeaf(Query query) {
+        onlyTerms[0] = false;
+      }
+
+      @Override
+      public QueryVisitor getSubVisitor(BooleanClause.Occur occur, Query parent) {
+        // excluded spans never contribute matches
+        return occur == BooleanClause.Occur.MUST_NOT ? QueryVisitor.EMPTY_VISITOR : this;
+      }
+    });
+    return onlyTerms[0] ? terms : null;
   }
 
   /**
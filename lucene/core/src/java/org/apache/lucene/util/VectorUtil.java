@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util;
+
+/**
+ * Utilities for computations with numeric arrays
+ *
+ * @lucene.internal
+ */
+public final class VectorUtil {
+
+  private VectorUtil() {
+  }
+
+  /**
+   * Returns the vector dot product of the two vectors. The vectors must have the same length.
+   */
+  public static float dotProduct(float[] a, float[] b) {
+    if (a.length != b.length) {
+      throw new IllegalArgumentException("vector dimensions differ: " + a.length + "!=" + b.length);
+    }
+    float res = 0f;
+    // unrolled to help the JIT vectorize the loop
+    int i = 0;
+    final int upperBound = a.length & ~0x03;
+    for (; i < upperBound; i += 4) {
+      res += a[i] * b[i]
+          + a[i + 1] * b[i + 1]
+          + a[i + 2] * b[i + 2]
+          + a[i + 3] * b[i + 3];
+    }
+    for (; i < a.length; i++) {
+      res += a[i] * b[i];
+    }
+    return res;
+  }
+
+  /**
+   * Returns the cosine similarity between the two vectors, or 0 if one of them is a zero vector.
+   * The vectors must have the same length.
+   */
+  public static float cosine(float[] a, float[] b) {
+    if (a.length != b.length) {
+      throw new IllegalArgumentException("vector dimensions differ: " + a.length + "!=" + b.length);
+    }
+    float sum = 0f;
+    float norm1 = 0f;
+    float norm2 = 0f;
+    for (int i = 0; i < a.length; i++) {
+      sum += a[i] * b[i];
+      norm1 += a[i] * a[i];
+      norm2 += b[i] * b[i];
+    }
+    if (norm1 == 0f || norm2 == 0f) {
+      return 0f;
+    }
+    return (float) (sum / Math.sqrt((double) norm1 * (double) norm2));
+  }
+
+  /**
+   * Returns the sum of squared differences of the two vectors. The vectors must have the same length.
+   */
+  public static float squareDistance(float[] a, float[] b) {
+    if (a.length != b.length) {
+      throw new IllegalArgumentException("vector dimensions differ: " + a.length + "!=" + b.length);
+    }
+    float squareSum = 0f;
+    int i = 0;
+    final int upperBound = a.length & ~0x03;
+    for (; i < upperBound; i += 4) {
+      final float d0 = a[i] - b[i];
+      final float d1 = a[i + 1] - b[i + 1];
+      final float d2 = a[i + 2] - b[i + 2];
+      final float d3 = a[i + 3] - b[i + 3];
+      squareSum += d0 * d0 + d1 * d1 + d2 * d2 + d3 * d3;
+    }
+    for (; i < a.length; i++) {
+      final float diff = a[i] - b[i];
+      squareSum += diff * diff;
+    }
+    return squareSum;
+  }
+
+}
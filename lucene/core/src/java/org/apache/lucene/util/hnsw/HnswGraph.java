@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+import java.io.IOException;
+
+import org.apache.lucene.search.DocIdSetIterator;
+
+/**
+ * Hierarchical Navigable Small World graph. Its nodes are the ordinals of vectors, in
+ * {@code [0, size())}. All nodes are on level 0, and every level only contains a subset of the
+ * nodes of the level below. Searches enter the graph at the {@link #entryNode() entry node} on the
+ * top level, and greedily walk down to level 0, see {@link HnswGraphSearcher}.
+ * <p>
+ * Implementations are not thread-safe: their neighbor iteration is stateful.
+ *
+ * @lucene.internal
+ */
+public abstract class HnswGraph {
+
+  /** Sole constructor */
+  protected HnswGraph() {}
+
+  /**
+   * Move the pointer to exactly the given {@code level}'s {@code target}. After this method
+   * returns, call {@link #nextNeighbor()} to return successive (ordered) connected node ordinals.
+   * @param level level of the graph
+   * @param target ordinal of a node in the graph, must be &ge; 0 and &lt; {@link #size()}, and on the given level.
+   */
+  public abstract void seek(int level, int target) throws IOException;
+
+  /** Returns the number of nodes in the graph */
+  public abstract int size();
+
+  /**
+   * Iterates over the neighbor list. It is illegal to call this method after it returns
+   * NO_MORE_DOCS without calling {@link #seek(int, int)}, which resets the iterator.
+   * @return a node ordinal in the graph, or NO_MORE_DOCS if the iteration is complete.
+   */
+  public abstract int nextNeighbor() throws IOException;
+
+  /** Returns the number of levels of the graph */
+  public abstract int numLevels() throws IOException;
+
+  /** Returns graph's entry point on the top level, or -1 if the graph is empty */
+  public abstract int entryNode() throws IOException;
+
+  /**
+   * Returns the sorted ordinals of the nodes on the given level. This is all nodes for level 0.
+   */
+  public abstract int[] getNodesOnLevel(int level) throws IOException;
+
+  /** Empty graph value */
+  public static final HnswGraph EMPTY = new HnswGraph() {
+
+    @Override
+    public int nextNeighbor() {
+      return DocIdSetIterator.NO_MORE_DOCS;
+    }
+
+    @Override
+    public void seek(int level, int target) {}
+
+    @Override
+    public int size() {
+      return 0;
+    }
+
+    @Override
+    public int numLevels() {
+      return 0;
+    }
+
+    @Override
+    public int entryNode() {
+      return -1;
+    }
+
+    @Override
+    public int[] getNodesOnLevel(int level) {
+      return new int[0];
+    }
+  };
+}
@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.util.FixedBitSet;
+
+/**
+ * Builder for an {@link OnHeapHnswGraph}. Nodes are inserted one at a time: their level is drawn
+ * from an exponentially decaying distribution, and they are connected on every level up to it to
+ * a diverse subset of their nearest neighbors on that level, found with a beam search.
+ * <p>
+ * The builder may be initialized from an existing graph whose nodes are a subset of the vectors
+ * to index, which avoids rebuilding the graph of the largest segment when merging.
+ *
+ * @lucene.internal
+ */
+public final class HnswGraphBuilder {
+
+  /** Default random seed for level generation */
+  public static final long DEFAULT_RAND_SEED = 42;
+  /** Default number of maximum connections per node on the upper levels */
+  public static final int DEFAULT_MAX_CONN = 16;
+  /** Default size of the queue of candidates that is maintained while searching the graph during insertion */
+  public static final int DEFAULT_BEAM_WIDTH = 100;
+
+  private final int maxConn;
+  private final int beamWidth;
+  private final double ml;
+  private final SplittableRandom random;
+  private final VectorSimilarityFunction similarityFunction;
+  private final RandomAccessVectorValues vectorValues;
+  private final HnswGraphSearcher graphSearcher;
+  private final OnHeapHnswGraph hnsw;
+
+  // a copy of the vector values that is used to read the vectors of the nodes of the graph while
+  // vectorValues holds the vector of the candidate neighbors
+  private final RandomAccessVectorValues buildVectors;
+  // the nodes that were copied from an initializer graph, or null
+  private FixedBitSet initializedNodes;
+
+  /**
+   * Creates a builder for the given vectors.
+   * @param vectors the vectors whose relations are represented by the graph. The builder reads
+   *     them through its own copies, see {@link RandomAccessVectorValues#copy()}.
+   * @param similarityFunction the similarity function to compare vectors
+   * @param maxConn the number of connections to make when adding a new graph node on the upper
+   *     levels; nodes have up to twice as many connections on level 0. Roughly speaking the
+   *     graph fanout.
+   * @param beamWidth the size of the beam search to use when finding nearest neighbors.
+   * @param seed the seed for a random number generator used during graph construction. Provide
+   *     this to ensure repeatable construction.
+   */
+  public HnswGraphBuilder(RandomAccessVectorValues vectors, VectorSimilarityFunction similarityFunction,
+      int maxConn, int beamWidth, long seed) throws IOException {
+    if (maxConn <= 0) {
+      throw new IllegalArgumentException("maxConn must be positive");
+    }
+    if (beamWidth <= 0) {
+      throw new IllegalArgumentException("beamWidth must be positive");
+    }
+    this.vectorValues = vectors.copy();
+    this.buildVectors = vectors.copy();
+    this.similarityFunction = similarityFunction;
+    this.maxConn = maxConn;
+    this.beamWidth = beamWidth;
+    // normalization factor for level generation, see the HNSW paper
+    this.ml = 1 / Math.log(1.0 * maxConn);
+    this.random = new SplittableRandom(seed);
+    this.hnsw = new OnHeapHnswGraph(maxConn);
+    this.graphSearcher = new HnswGraphSearcher(similarityFunction, vectors.size());
+  }
+
+  /**
+   * Copies the nodes and connections of an existing graph into the graph being built. The
+   * vectors of the initializer graph must be the vectors of ordinals {@code [ordOffset,
+   * ordOffset + initializerGraph.size())} of the vectors of this builder, in the same order, and
+   * the graph must have been built with the same maximum number of connections. The copied
+   * nodes are skipped by {@link #build}.
+   */
+  public void initializeFromGraph(HnswGraph initializerGraph, int ordOffset) throws IOException {
+    if (hnsw.size() != 0) {
+      throw new IllegalStateException("the graph must be initialized before any node is added");
+    }
+    initializedNodes = new FixedBitSet(Math.max(vectorValues.size(), 1));
+    int numLevels = initializerGraph.numLevels();
+    // add the nodes bottom-up, so that nodes are on level 0 before being on the upper levels
+    for (int level = 0; level < numLevels; level++) {
+      for (int node : initializerGraph.getNodesOnLevel(level)) {
+        hnsw.addNode(level, node + ordOffset);
+        if (level == 0) {
+          initializedNodes.set(node + ordOffset);
+        }
+      }
+    }
+    for (int level = 0; level < numLevels; level++) {
+      for (int node : initializerGraph.getNodesOnLevel(level)) {
+        int newNode = node + ordOffset;
+        NeighborArray neighbors = hnsw.getNeighbors(level, newNode);
+        float[] value = vectorValues.vectorValue(newNode);
+        initializerGraph.seek(level, node);
+        int neighbor;
+        while ((neighbor = initializerGraph.nextNeighbor()) != NO_MORE_DOCS) {
+          int newNeighbor = neighbor + ordOffset;
+          float score = similarityFunction.compare(value, buildVectors.vectorValue(newNeighbor));
+          neighbors.insertSorted(newNeighbor, score);
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds all the nodes of the vector values to the graph, except those that were copied from an
+   * initializer graph, and returns the graph.
+   */
+  public OnHeapHnswGraph build() throws IOException {
+    // a third copy since the value of the node must not be overwritten while it is being inserted
+    RandomAccessVectorValues vectorsToAdd = vectorValues.copy();
+    for (int node = 0; node < vectorsToAdd.size(); node++) {
+      if (initializedNodes != null && initializedNodes.get(node)) {
+        continue;
+      }
+      addGraphNode(node, vectorsToAdd.vectorValue(node));
+    }
+    return hnsw;
+  }
+
+  /** Inserts a node with the given vector value into the graph */
+  void addGraphNode(int node, float[] value) throws IOException {
+    final int nodeLevel = getRandomGraphLevel(ml, random);
+    final int curMaxLevel = hnsw.numLevels() - 1;
+    int[] eps = new int[] {hnsw.entryNode()};
+
+    // add the node on level 0 first, then on the levels above
+    for (int level = 0; level <= nodeLevel; level++) {
+      hnsw.addNode(level, node);
+    }
+    if (eps[0] == -1) {
+      // this is the first node of the graph
+      return;
+    }
+
+    // greedily find the closest node on the levels above the level of the new node
+    for (int level = curMaxLevel; level > nodeLevel; level--) {
+      NeighborQueue candidates = graphSearcher.searchLevel(value, 1, level, eps, buildVectors, hnsw, null, Integer.MAX_VALUE);
+      eps = new int[] {candidates.pop()};
+    }
+    // then connect the node to its nearest neighbors on all its levels
+    for (int level = Math.min(nodeLevel, curMaxLevel); level >= 0; level--) {
+      NeighborQueue candidates = graphSearcher.searchLevel(value, beamWidth, level, eps, buildVectors, hnsw, null, Integer.MAX_VALUE);
+      eps = candidates.nodes();
+      addDiverseNeighbors(level, node, candidates);
+    }
+  }
+
+  private int maxConnOnLevel(int level) {
+    return level == 0 ? maxConn * 2 : maxConn;
+  }
+
+  /*
+   * Connects the node to the most similar candidates that are more similar to it than to any of
+   * its other neighbors, and connects these neighbors back to the node, pruning the least diverse
+   * of their neighbors if they have too many.
+   */
+  private void addDiverseNeighbors(int level, int node, NeighborQueue candidates) throws IOException {
+    final int maxConnOnLevel = maxConnOnLevel(level);
+    // pop the candidates into arrays sorted by decreasing similarity
+    int numCandidates = candidates.size();
+    int[] candidateNodes = new int[numCandidates];
+    float[] candidateScores = new float[numCandidates];
+    for (int i = numCandidates - 1; i >= 0; i--) {
+      candidateScores[i] = candidates.topScore();
+      candidateNodes[i] = candidates.pop();
+    }
+    NeighborArray neighbors = hnsw.getNeighbors(level, node);
+    for (int i = 0; i < numCandidates && neighbors.size() < maxConnOnLevel; i++) {
+      int candidate = candidateNodes[i];
+      float score = candidateScores[i];
+      if (diversityCheck(vectorValues.vectorValue(candidate), score, neighbors)) {
+        neighbors.insertSorted(candidate, score);
+      }
+    }
+    // link the selected nodes back to the new node
+    for (int i = 0; i < neighbors.size(); i++) {
+      int neighbor = neighbors.node()[i];
+      NeighborArray neighborsOfNeighbor = hnsw.getNeighbors(level, neighbor);
+      neighborsOfNeighbor.insertSorted(node, neighbors.score()[i]);
+      if (neighborsOfNeighbor.size() > maxConnOnLevel) {
+        neighborsOfNeighbor.removeIndex(findWorstNonDiverse(neighborsOfNeighbor));
+      }
+    }
+  }
+
+  /**
+   * Returns true if the candidate is more similar to the node, whose similarity to the candidate
+   * is {@code score}, than to any of the node's current neighbors.
+   */
+  private boolean diversityCheck(float[] candidate, float score, NeighborArray neighbors) throws IOException {
+    for (int i = 0; i < neighbors.size(); i++) {
+      float neighborSimilarity = similarityFunction.compare(candidate, buildVectors.vectorValue(neighbors.node()[i]));
+      if (neighborSimilarity >= score) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the index of the least similar neighbor that is more similar to another, more similar,
+   * neighbor than to the node, or of the least similar neighbor if they are all diverse.
+   */
+  private int findWorstNonDiverse(NeighborArray neighbors) throws IOException {
+    for (int i = neighbors.size() - 1; i > 0; i--) {
+      float[] candidate = vectorValues.vectorValue(neighbors.node()[i]);
+      float score = neighbors.score()[i];
+      for (int j = 0; j < i; j++) {
+        float neighborSimilarity = similarityFunction.compare(candidate, buildVectors.vectorValue(neighbors.node()[j]));
+        if (neighborSimilarity >= score) {
+          return i;
+        }
+      }
+    }
+    return neighbors.size() - 1;
+  }
+
+  private static int getRandomGraphLevel(double ml, SplittableRandom random) {
+    double randDouble;
+    do {
+      randDouble = random.nextDouble(); // avoid 0 value, as log(0) is undefined
+    } while (randDouble == 0.0);
+    return ((int) (-Math.log(randDouble) * ml));
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+
+import java.io.IOException;
+
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+
+/**
+ * Searches an {@link HnswGraph} for the nearest neighbors of a query vector. The search greedily
+ * descends the upper levels of the graph, keeping only the single closest node on each level, and
+ * then runs a best-first search on level 0 that keeps the {@code topK} closest nodes.
+ *
+ * @lucene.internal
+ */
+public final class HnswGraphSearcher {
+
+  private final VectorSimilarityFunction similarityFunction;
+  // the nodes that were already scored during the search of the current level
+  private final FixedBitSet visited;
+
+  /**
+   * Creates a searcher for graphs of up to {@code numNodes} nodes.
+   * @param similarityFunction the similarity function to compare vectors
+   * @param numNodes the maximum number of nodes of the searched graphs
+   */
+  public HnswGraphSearcher(VectorSimilarityFunction similarityFunction, int numNodes) {
+    this.similarityFunction = similarityFunction;
+    this.visited = new FixedBitSet(Math.max(numNodes, 1));
+  }
+
+  /**
+   * Searches the graph for the nearest neighbors of a query vector.
+   * @param query search query vector
+   * @param topK the number of nodes to be returned
+   * @param vectors the vector values
+   * @param similarityFunction the similarity function to compare vectors
+   * @param graph the graph values. May represent the entire graph, or a level in a hierarchical graph.
+   * @param acceptOrds {@link Bits} that represents the allowed ordinals to return, or null if all are allowed.
+   * @param visitedLimit the maximum number of nodes that the search is allowed to visit; once it
+   *     is reached, the search stops and the returned queue is marked {@link NeighborQueue#incomplete() incomplete}.
+   * @return a queue holding the nearest neighbors found, its top is the least similar node
+   */
+  public static NeighborQueue search(float[] query, int topK, RandomAccessVectorValues vectors,
+      VectorSimilarityFunction similarityFunction, HnswGraph graph, Bits acceptOrds, int visitedLimit) throws IOException {
+    if (topK <= 0) {
+      throw new IllegalArgumentException("topK must be > 0, got " + topK);
+    }
+    HnswGraphSearcher searcher = new HnswGraphSearcher(similarityFunction, graph.size());
+    NeighborQueue results;
+    int entryNode = graph.entryNode();
+    if (entryNode == -1) {
+      return new NeighborQueue(1, false);
+    }
+    int[] eps = new int[] {entryNode};
+    int numVisited = 0;
+    for (int level = graph.numLevels() - 1; level >= 1; level--) {
+      results = searcher.searchLevel(query, 1, level, eps, vectors, graph, null, visitedLimit - numVisited);
+      numVisited += results.visitedCount();
+      if (results.incomplete()) {
+        results.setVisitedCount(numVisited);
+        return results;
+      }
+      eps[0] = results.pop();
+    }
+    results = searcher.searchLevel(query, topK, 0, eps, vectors, graph, acceptOrds, visitedLimit - numVisited);
+    results.setVisitedCount(results.visitedCount() + numVisited);
+    return results;
+  }
+
+  /**
+   * Searches one level of the graph, starting from the given entry points, and returns the
+   * {@code topK} nearest neighbors found on this level.
+   * @param query search query vector
+   * @param topK the number of nearest neighbors to return
+   * @param level the level to search
+   * @param eps the entry points of the search on this level
+   * @param vectors the vector values
+   * @param graph the graph to search
+   * @param acceptOrds {@link Bits} that represents the allowed ordinals to return, or null if all are allowed.
+   * @param visitedLimit the maximum number of nodes that the search is allowed to visit
+   * @return a queue holding the nearest neighbors found, its top is the least similar node
+   */
+  public NeighborQueue searchLevel(float[] query, int topK, int level, final int[] eps,
+      RandomAccessVectorValues vectors, HnswGraph graph, Bits acceptOrds, int visitedLimit) throws IOException {
+    NeighborQueue results = new NeighborQueue(topK, false);
+    // the nodes to explore, the most similar one on top
+    NeighborQueue candidates = new NeighborQueue(topK, true);
+    visited.clear(0, visited.length());
+
+    int numVisited = 0;
+    for (int ep : eps) {
+      if (visited.getAndSet(ep) == false) {
+        if (numVisited >= visitedLimit) {
+          results.markIncomplete();
+          break;
+        }
+        float score = similarityFunction.compare(query, vectors.vectorValue(ep));
+        numVisited++;
+        candidates.add(ep, score);
+        if (acceptOrds == null || acceptOrds.get(ep)) {
+          results.insertWithOverflow(ep, score, topK);
+        }
+      }
+    }
+
+    // A bound that holds the minimum similarity to the query vector that a candidate vector must
+    // have to be considered, it is only known once we collected topK results.
+    float minAcceptedSimilarity = results.size() >= topK ? results.topScore() : Float.NEGATIVE_INFINITY;
+    while (candidates.size() > 0 && results.incomplete() == false) {
+      // get the best candidate (closest or best scoring)
+      float topCandidateSimilarity = candidates.topScore();
+      if (topCandidateSimilarity < minAcceptedSimilarity) {
+        // all the remaining candidates are further than the worst result: done
+        break;
+      }
+      int topCandidateNode = candidates.pop();
+      graph.seek(level, topCandidateNode);
+      int friendOrd;
+      while ((friendOrd = graph.nextNeighbor()) != NO_MORE_DOCS) {
+        assert friendOrd < visited.length() : "friendOrd=" + friendOrd + "; visited.length=" + visited.length();
+        if (visited.getAndSet(friendOrd)) {
+          continue;
+        }
+        if (numVisited >= visitedLimit) {
+          results.markIncomplete();
+          break;
+        }
+        float friendSimilarity = similarityFunction.compare(query, vectors.vectorValue(friendOrd));
+        numVisited++;
+        if (friendSimilarity >= minAcceptedSimilarity) {
+          candidates.add(friendOrd, friendSimilarity);
+          if (acceptOrds == null || acceptOrds.get(friendOrd)) {
+            if (results.insertWithOverflow(friendOrd, friendSimilarity, topK) && results.size() >= topK) {
+              minAcceptedSimilarity = results.topScore();
+            }
+          }
+        }
+      }
+    }
+    while (results.size() > topK) {
+      results.pop();
+    }
+    results.setVisitedCount(numVisited);
+    return results;
+  }
+}
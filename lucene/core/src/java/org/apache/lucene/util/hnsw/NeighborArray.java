@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+import java.util.Arrays;
+
+import org.apache.lucene.util.ArrayUtil;
+
+/**
+ * The neighbors of a node of an {@link OnHeapHnswGraph}, with their similarity to the node.
+ * Neighbors are sorted by decreasing similarity, the most similar first.
+ *
+ * @lucene.internal
+ */
+public class NeighborArray {
+
+  private int size;
+  private float[] scores;
+  private int[] nodes;
+
+  /** Creates an array with the given initial capacity. */
+  public NeighborArray(int maxSize) {
+    nodes = new int[maxSize];
+    scores = new float[maxSize];
+  }
+
+  /**
+   * Adds a new node, keeping the array sorted by decreasing score. Nodes with equal scores are
+   * kept in insertion order.
+   */
+  public void insertSorted(int newNode, float newScore) {
+    if (size == nodes.length) {
+      nodes = ArrayUtil.grow(nodes);
+      scores = ArrayUtil.growExact(scores, nodes.length);
+    }
+    int insertionPoint = size;
+    while (insertionPoint > 0 && scores[insertionPoint - 1] < newScore) {
+      insertionPoint--;
+    }
+    System.arraycopy(nodes, insertionPoint, nodes, insertionPoint + 1, size - insertionPoint);
+    System.arraycopy(scores, insertionPoint, scores, insertionPoint + 1, size - insertionPoint);
+    nodes[insertionPoint] = newNode;
+    scores[insertionPoint] = newScore;
+    ++size;
+  }
+
+  /** Returns the number of neighbors. */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Direct access to the internal list of node ids; provided for efficient writing of the graph
+   * @lucene.internal
+   */
+  public int[] node() {
+    return nodes;
+  }
+
+  /** Direct access to the internal list of scores, parallel to {@link #node()}. */
+  public float[] score() {
+    return scores;
+  }
+
+  /** Removes the neighbor at the given index. */
+  public void removeIndex(int idx) {
+    System.arraycopy(nodes, idx + 1, nodes, idx, size - idx - 1);
+    System.arraycopy(scores, idx + 1, scores, idx, size - idx - 1);
+    size--;
+  }
+
+  @Override
+  public String toString() {
+    return "NeighborArray[" + size + "]" + Arrays.toString(Arrays.copyOf(nodes, size));
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.NumericUtils;
+
+/**
+ * A priority queue of graph nodes and their similarity scores, used to collect the nearest
+ * neighbors of a vector. The node and its score are encoded into a single long so that the queue
+ * is a plain binary heap of longs. Depending on its order, the top of the queue is either the
+ * least similar node ({@code maxHeap == false}), which is the one to evict when collecting the
+ * top-k results, or the most similar node ({@code maxHeap == true}), which is the next candidate
+ * to explore.
+ *
+ * @lucene.internal
+ */
+public class NeighborQueue {
+
+  private final boolean maxHeap;
+  private long[] heap;
+  private int size;
+
+  // Used to track the number of neighbors visited during a single graph traversal
+  private int visitedCount;
+  // Whether the search stopped early because it reached the visited nodes limit
+  private boolean incomplete;
+
+  /** Creates a queue with the given initial capacity and order. */
+  public NeighborQueue(int initialSize, boolean maxHeap) {
+    this.heap = new long[Math.max(initialSize, 1)];
+    this.maxHeap = maxHeap;
+  }
+
+  /** Returns the number of elements in the queue */
+  public int size() {
+    return size;
+  }
+
+  /** Adds a new graph node to the queue, growing it if necessary. */
+  public void add(int newNode, float newScore) {
+    if (size == heap.length) {
+      heap = ArrayUtil.grow(heap, size + 1);
+    }
+    heap[size] = encode(newNode, newScore);
+    upHeap(size);
+    size++;
+  }
+
+  /**
+   * If the queue has fewer than {@code maxSize} elements, adds the new node, otherwise replaces
+   * the top of the queue with it if it is more competitive, ie. more similar for a queue whose top
+   * is the least similar node.
+   * @return whether the node was added
+   */
+  public boolean insertWithOverflow(int newNode, float newScore, int maxSize) {
+    if (size < maxSize) {
+      add(newNode, newScore);
+      return true;
+    }
+    final long encoded = encode(newNode, newScore);
+    if (size > 0 && encoded > heap[0]) {
+      heap[0] = encoded;
+      downHeap(0);
+      return true;
+    }
+    return false;
+  }
+
+  private long encode(int node, float score) {
+    final long raw = (((long) NumericUtils.floatToSortableInt(score)) << 32) | (node & 0xFFFFFFFFL);
+    // reversing all bits reverses the order, so that the heap returns the greatest value first
+    return maxHeap ? ~raw : raw;
+  }
+
+  private long decode(long heapValue) {
+    return maxHeap ? ~heapValue : heapValue;
+  }
+
+  /** Removes the top element and returns its node id. */
+  public int pop() {
+    final long top = heap[0];
+    size--;
+    heap[0] = heap[size];
+    if (size > 0) {
+      downHeap(0);
+    }
+    return (int) decode(top);
+  }
+
+  /** Returns a copy of the internal nodes array. Not sorted by score! */
+  public int[] nodes() {
+    int[] nodes = new int[size];
+    for (int i = 0; i < size; i++) {
+      nodes[i] = (int) decode(heap[i]);
+    }
+    return nodes;
+  }
+
+  /** Returns the top element's node id. */
+  public int topNode() {
+    return (int) decode(heap[0]);
+  }
+
+  /** Returns the top element's node score. */
+  public float topScore() {
+    return NumericUtils.sortableIntToFloat((int) (decode(heap[0]) >> 32));
+  }
+
+  /** Removes all elements. */
+  public void clear() {
+    size = 0;
+    visitedCount = 0;
+    incomplete = false;
+  }
+
+  /** Returns the number of nodes that were visited to fill this queue. */
+  public int visitedCount() {
+    return visitedCount;
+  }
+
+  /** Sets the number of nodes that were visited to fill this queue. */
+  public void setVisitedCount(int visitedCount) {
+    this.visitedCount = visitedCount;
+  }
+
+  /** Returns whether the search stopped early because it reached its limit of visited nodes. */
+  public boolean incomplete() {
+    return incomplete;
+  }
+
+  /** Marks the results of the search as incomplete. */
+  public void markIncomplete() {
+    this.incomplete = true;
+  }
+
+  private void upHeap(int i) {
+    final long value = heap[i];
+    int j = (i - 1) >>> 1;
+    while (i > 0 && value < heap[j]) {
+      heap[i] = heap[j];
+      i = j;
+      j = (i - 1) >>> 1;
+    }
+    heap[i] = value;
+  }
+
+  private void downHeap(int i) {
+    final long value = heap[i];
+    int j = 2 * i + 1;
+    while (j < size) {
+      if (j + 1 < size && heap[j + 1] < heap[j]) {
+        j++;
+      }
+      if (heap[j] >= value) {
+        break;
+      }
+      heap[i] = heap[j];
+      i = j;
+      j = 2 * i + 1;
+    }
+    heap[i] = value;
+  }
+
+  @Override
+  public String toString() {
+    return "Neighbors[" + size + "]";
+  }
+}
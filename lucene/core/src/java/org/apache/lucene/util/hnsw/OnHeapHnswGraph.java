@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * An {@link HnswGraph} where all nodes and their neighbors are held in memory, which is built by
+ * {@link HnswGraphBuilder}. Level 0 holds every node, so its neighbor arrays are indexed by node
+ * ordinal, while the sparse upper levels are maps from node ordinal to neighbor array.
+ *
+ * @lucene.internal
+ */
+public final class OnHeapHnswGraph extends HnswGraph implements Accountable {
+
+  private final int maxConn;
+  private int numLevels; // the current number of levels in the graph
+  private int entryNode; // the current graph entry node on the top level, or -1 if empty
+
+  // neighbors of all nodes on level 0, indexed by node ordinal
+  private NeighborArray[] graphLevel0;
+  private int size; // the number of nodes on level 0
+  // neighbors of the nodes on the upper levels, keyed by node ordinal
+  private final List<Map<Integer, NeighborArray>> graphUpperLevels;
+
+  // the current neighbors being iterated over
+  private NeighborArray cur;
+  private int upto;
+
+  OnHeapHnswGraph(int maxConn) {
+    this.maxConn = maxConn;
+    this.numLevels = 1;
+    this.entryNode = -1;
+    this.graphLevel0 = new NeighborArray[0];
+    this.graphUpperLevels = new ArrayList<>();
+  }
+
+  /**
+   * Returns the {@link NeighborArray} of the given node on the given level.
+   * @param level level of the graph
+   * @param node the node whose neighbors are returned, represented as an ordinal on level 0.
+   */
+  public NeighborArray getNeighbors(int level, int node) {
+    if (level == 0) {
+      return graphLevel0[node];
+    }
+    return graphUpperLevels.get(level - 1).get(node);
+  }
+
+  @Override
+  public int size() {
+    return size; // all nodes are on level 0
+  }
+
+  /**
+   * Adds a node to the graph on the given level. A node must be added on level 0 before it is
+   * added to the upper levels, and it becomes the entry node of the graph if it is on a level
+   * higher than the current top level. Nodes may be added to level 0 in any order, but the graph
+   * is only complete once all the ordinals in {@code [0, size())} have been added.
+   * @param level level to add the node on
+   * @param node the node to add, represented as an ordinal on level 0.
+   */
+  public void addNode(int level, int node) {
+    if (level == 0) {
+      if (node >= graphLevel0.length) {
+        graphLevel0 = ArrayUtil.grow(graphLevel0, node + 1);
+      }
+      assert graphLevel0[node] == null : "node " + node + " was already added";
+      // level 0 has twice as many connections as the upper levels
+      graphLevel0[node] = new NeighborArray(maxConn * 2 + 1);
+      size++;
+      if (entryNode == -1) {
+        entryNode = node;
+      }
+      return;
+    }
+    while (graphUpperLevels.size() < level) {
+      graphUpperLevels.add(new HashMap<>());
+    }
+    graphUpperLevels.get(level - 1).put(node, new NeighborArray(maxConn + 1));
+    if (level >= numLevels) {
+      numLevels = level + 1;
+      entryNode = node;
+    }
+  }
+
+  @Override
+  public void seek(int level, int targetNode) {
+    cur = getNeighbors(level, targetNode);
+    upto = -1;
+  }
+
+  @Override
+  public int nextNeighbor() {
+    if (++upto < cur.size()) {
+      return cur.node()[upto];
+    }
+    return DocIdSetIterator.NO_MORE_DOCS;
+  }
+
+  @Override
+  public int numLevels() {
+    return numLevels;
+  }
+
+  @Override
+  public int entryNode() {
+    return entryNode;
+  }
+
+  @Override
+  public int[] getNodesOnLevel(int level) {
+    if (level == 0) {
+      int[] nodes = new int[size];
+      int i = 0;
+      for (int node = 0; node < graphLevel0.length && i < size; node++) {
+        if (graphLevel0[node] != null) {
+          nodes[i++] = node;
+        }
+      }
+      return nodes;
+    }
+    if (level - 1 >= graphUpperLevels.size()) {
+      return new int[0];
+    }
+    Map<Integer, NeighborArray> levelMap = graphUpperLevels.get(level - 1);
+    int[] nodes = new int[levelMap.size()];
+    int i = 0;
+    for (int node : levelMap.keySet()) {
+      nodes[i++] = node;
+    }
+    Arrays.sort(nodes);
+    return nodes;
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    // an estimate of a NeighborArray with its two arrays sized for its initial capacity
+    long neighborArrayBytes0 = RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + Integer.BYTES
+        + 2 * (RamUsageEstimator.NUM_BYTES_OBJECT_REF + RamUsageEstimator.NUM_BYTES_ARRAY_HEADER)
+        + (long) (maxConn * 2 + 1) * (Integer.BYTES + Float.BYTES);
+    long neighborArrayBytes = RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + Integer.BYTES
+        + 2 * (RamUsageEstimator.NUM_BYTES_OBJECT_REF + RamUsageEstimator.NUM_BYTES_ARRAY_HEADER)
+        + (long) (maxConn + 1) * (Integer.BYTES + Float.BYTES);
+    long total = RamUsageEstimator.shallowSizeOf(graphLevel0) + (long) size * neighborArrayBytes0;
+    for (Map<Integer, NeighborArray> level : graphUpperLevels) {
+      // map entry, boxed key and neighbor array
+      total += level.size() * (neighborArrayBytes + 3L * RamUsageEstimator.NUM_BYTES_OBJECT_REF
+          + 2L * RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + Integer.BYTES);
+    }
+    return total;
+  }
+}
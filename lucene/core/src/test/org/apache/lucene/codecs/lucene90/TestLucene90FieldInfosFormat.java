@@ -14,7 +14,7 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package org.apache.lucene.codecs.lucene50;
+package org.apache.lucene.codecs.lucene90;
 
 
 import org.apache.lucene.codecs.Codec;
@@ -22,9 +22,9 @@ import org.apache.lucene.index.BaseFieldInfoFormatTestCase;
 import org.apache.lucene.util.TestUtil;
 
 /**
- * Tests Lucene60FieldInfoFormat
+ * Tests Lucene90FieldInfosFormat
  */
-public class TestLucene60FieldInfoFormat extends BaseFieldInfoFormatTestCase {
+public class TestLucene90FieldInfosFormat extends BaseFieldInfoFormatTestCase {
 
   @Override
   protected Codec getCodec() {
@@ -134,6 +134,6 @@ public class Test2BPoints extends LuceneTestCase {
   }
 
   private static Codec getCodec() {
-    return Codec.forName("Lucene84");
+    return Codec.forName("Lucene90");
   }
 }
@@ -19,6 +19,7 @@ package org.apache.lucene.index;
 
 import java.io.IOException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -26,6 +27,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
@@ -376,6 +378,68 @@ public class TestConcurrentMergeScheduler extends LuceneTestCase {
     d.close();
   }
 
+  public void testIntraMergeConcurrency() throws Exception {
+    doTestIntraMergeConcurrency(true);
+  }
+
+  public void testSmallMergesRunInline() throws Exception {
+    doTestIntraMergeConcurrency(false);
+  }
+
+  private void doTestIntraMergeConcurrency(boolean bigMerges) throws Exception {
+    Directory d = newDirectory();
+    AtomicInteger tasks = new AtomicInteger();
+    AtomicInteger tasksOnOtherThreads = new AtomicInteger();
+    ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler() {
+      @Override
+      public Executor getIntraMergeExecutor(MergePolicy.OneMerge merge) {
+        if (bigMerges) {
+          // only merges that aren't small get extra threads
+          merge.estimatedMergeBytes = 100 * 1024 * 1024;
+        }
+        Executor executor = super.getIntraMergeExecutor(merge);
+        return task -> {
+          Thread mergeThread = Thread.currentThread();
+          tasks.incrementAndGet();
+          executor.execute(() -> {
+            if (Thread.currentThread() != mergeThread) {
+              tasksOnOtherThreads.incrementAndGet();
+            }
+            task.run();
+          });
+        };
+      }
+    };
+    // a single merge can use the spare threads
+    cms.setMaxMergesAndThreads(4, 4);
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setMergeScheduler(cms);
+    iwc.setMaxBufferedDocs(10);
+    IndexWriter w = new IndexWriter(d, iwc);
+    for (int i = 0; i < 100; i++) {
+      Document doc = new Document();
+      doc.add(new StringField("id", "" + i, Field.Store.YES));
+      doc.add(new TextField("body", "text " + i, Field.Store.NO));
+      doc.add(new NumericDocValuesField("dv", i));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    assertTrue(tasks.get() > 0);
+    if (bigMerges) {
+      assertTrue(tasksOnOtherThreads.get() > 0);
+    } else {
+      assertEquals(0, tasksOnOtherThreads.get());
+    }
+    w.close();
+    assertEquals(0, cms.mergeThreadCount());
+
+    try (DirectoryReader r = DirectoryReader.open(d)) {
+      assertEquals(1, r.leaves().size());
+      assertEquals(100, r.numDocs());
+    }
+    d.close();
+  }
+
   public void testInvalidMaxMergeCountAndThreads() throws Exception {
     ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler();
     expectThrows(IllegalArgumentException.class, () -> {
@@ -39,7 +39,12 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
@@ -81,6 +86,8 @@ import org.apache.lucene.search.PhraseQuery;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherFactory;
 import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.AlreadyClosedException;
@@ -95,6 +102,7 @@ import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.store.LockObtainFailedException;
 import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.store.MockDirectoryWrapper;
+import org.apache.lucene.store.MockDirectoryWrapper.FakeIOException;
 import org.apache.lucene.store.NIOFSDirectory;
 import org.apache.lucene.store.NoLockFactory;
 import org.apache.lucene.store.SimpleFSLockFactory;
@@ -105,6 +113,7 @@ import org.apache.lucene.util.IOSupplier;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.InfoStream;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.SetOnce;
 import org.apache.lucene.util.StringHelper;
 import org.apache.lucene.util.TestUtil;
@@ -3941,4 +3950,99 @@ public class TestIndexWriter extends LuceneTestCase {
       }
     }
   }
+
+  public void testFlushExecutor() throws Exception {
+    ExecutorService executor = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), new NamedThreadFactory("testFlushExecutor"));
+    AtomicInteger flushTasks = new AtomicInteger();
+    Sort indexSort = random().nextBoolean() ? new Sort(new SortField("sort", SortField.Type.LONG)) : null;
+    int maxBufferedDocs = TestUtil.nextInt(random(), 5, 50);
+    try (Directory expectedDir = newDirectory(); Directory actualDir = newDirectory()) {
+      IndexWriterConfig expectedConfig = newIndexWriterConfig(new MockAnalyzer(random()))
+          .setMaxBufferedDocs(maxBufferedDocs)
+          .setRAMBufferSizeMB(IndexWriterConfig.DISABLE_AUTO_FLUSH)
+          .setMergePolicy(NoMergePolicy.INSTANCE)
+          .setCodec(TestUtil.getDefaultCodec());
+      IndexWriterConfig actualConfig = newIndexWriterConfig(new MockAnalyzer(random()))
+          .setMaxBufferedDocs(maxBufferedDocs)
+          .setRAMBufferSizeMB(IndexWriterConfig.DISABLE_AUTO_FLUSH)
+          .setMergePolicy(NoMergePolicy.INSTANCE)
+          .setCodec(TestUtil.getDefaultCodec())
+          .setFlushExecutor(task -> {
+            if (flushTasks.incrementAndGet() % 3 == 0) {
+              // rejected tasks run in the flushing thread
+              throw new RejectedExecutionException();
+            }
+            executor.execute(task);
+          });
+      if (indexSort != null) {
+        expectedConfig.setIndexSort(indexSort);
+        actualConfig.setIndexSort(indexSort);
+      }
+      FieldType vectors = new FieldType(TextField.TYPE_STORED);
+      vectors.setStoreTermVectors(true);
+      vectors.setStoreTermVectorPositions(true);
+      vectors.freeze();
+
+      try (IndexWriter expected = new IndexWriter(expectedDir, expectedConfig);
+           IndexWriter actual = new IndexWriter(actualDir, actualConfig)) {
+        int numDocs = atLeast(200);
+        for (int i = 0; i < numDocs; i++) {
+          Document doc = new Document();
+          doc.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+          doc.add(new TextField("body", TestUtil.randomAnalysisString(random(), 100, true), Field.Store.NO));
+          doc.add(new Field("vectors", TestUtil.randomAnalysisString(random(), 20, true), vectors));
+          long value = random().nextLong();
+          doc.add(new LongPoint("point", value));
+          doc.add(new NumericDocValuesField("sort", value));
+          doc.add(new SortedSetDocValuesField("sorted_set", new BytesRef(TestUtil.randomSimpleString(random()))));
+          expected.addDocument(doc);
+          actual.addDocument(doc);
+        }
+        expected.commit();
+        actual.commit();
+      }
+      assertTrue(flushTasks.get() > 0);
+
+      try (DirectoryReader expectedReader = DirectoryReader.open(expectedDir);
+           DirectoryReader actualReader = DirectoryReader.open(actualDir)) {
+        assertEquals(expectedReader.leaves().size(), actualReader.leaves().size());
+        assertReaderEquals("flush executor", expectedReader, actualReader);
+      }
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+  }
+
+  public void testFlushExecutorException() throws Exception {
+    ExecutorService executor = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), new NamedThreadFactory("testFlushExecutorException"));
+    try (MockDirectoryWrapper dir = newMockDirectory()) {
+      dir.failOn(new MockDirectoryWrapper.Failure() {
+        @Override
+        public void eval(MockDirectoryWrapper dir) throws IOException {
+          if (callStackContainsAnyOf("writePoints")) {
+            throw new FakeIOException();
+          }
+        }
+      });
+      IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+          .setFlushExecutor(executor));
+      for (int i = 0; i < 10; i++) {
+        Document doc = new Document();
+        doc.add(new TextField("body", "some text " + i, Field.Store.YES));
+        doc.add(new LongPoint("point", i));
+        doc.add(new NumericDocValuesField("dv", i));
+        w.addDocument(doc);
+      }
+      // the other formats are still written and their files closed while the points fail
+      expectThrows(FakeIOException.class, w::commit);
+      assertTrue(w.getTragicException() instanceof FakeIOException);
+      assertFalse(w.isOpen());
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+  }
 }
@@ -18,6 +18,7 @@ package org.apache.lucene.index;
 
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
@@ -228,6 +229,66 @@ public class TestIndexWriterMergePolicy extends LuceneTestCase {
     dir.close();
   }
 
+  public void testMergeOnCommit() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+        .setMergePolicy(new TieredMergePolicy())
+        .setMergeScheduler(new ConcurrentMergeScheduler())
+        .setMaxFullFlushMergeWaitMillis(TimeUnit.MINUTES.toMillis(1)));
+
+    for (int i = 0; i < 5; i++) {
+      addDoc(writer);
+      writer.flush();
+    }
+    assertEquals(5, writer.getSegmentCount());
+    addDoc(writer);
+    writer.commit();
+    SegmentInfos infos = SegmentInfos.readLatestCommit(dir);
+    assertEquals(1, infos.size());
+    assertEquals(6, infos.totalMaxDoc());
+
+    writer.close();
+    dir.close();
+  }
+
+  public void testMergeOnGetReader() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+        .setMergePolicy(new TieredMergePolicy())
+        .setMergeScheduler(new ConcurrentMergeScheduler())
+        .setMaxFullFlushMergeWaitMillis(TimeUnit.MINUTES.toMillis(1)));
+
+    for (int i = 0; i < 5; i++) {
+      addDoc(writer);
+      writer.flush();
+    }
+    addDoc(writer);
+    try (DirectoryReader reader = DirectoryReader.open(writer)) {
+      assertEquals(1, reader.leaves().size());
+      assertEquals(6, reader.numDocs());
+    }
+
+    writer.close();
+    dir.close();
+  }
+
+  public void testNoMergeOnCommitByDefault() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+        .setMergePolicy(new TieredMergePolicy())
+        .setMergeScheduler(new ConcurrentMergeScheduler()));
+
+    for (int i = 0; i < 5; i++) {
+      addDoc(writer);
+      writer.flush();
+    }
+    writer.commit();
+    assertEquals(5, SegmentInfos.readLatestCommit(dir).size());
+
+    writer.close();
+    dir.close();
+  }
+
   private void addDoc(IndexWriter writer) throws IOException {
     Document doc = new Document();
     doc.add(newTextField("content", "aaa", Field.Store.NO));
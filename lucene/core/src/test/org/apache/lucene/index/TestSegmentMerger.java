@@ -21,6 +21,9 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.document.Document;
@@ -32,6 +35,7 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.InfoStream;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.StringHelper;
 import org.apache.lucene.util.TestUtil;
 import org.apache.lucene.util.Version;
@@ -82,15 +86,24 @@ public class TestSegmentMerger extends LuceneTestCase {
     assertTrue(reader2 != null);
   }
 
-  public void testMerge() throws IOException {
+  public void testMerge() throws Exception {
     final Codec codec = Codec.getDefault();
     final SegmentInfo si = new SegmentInfo(mergedDir, Version.LATEST, null, mergedSegment, -1, false, codec, Collections.emptyMap(), StringHelper.randomId(), new HashMap<>(), null);
 
-    SegmentMerger merger = new SegmentMerger(Arrays.<CodecReader>asList(reader1, reader2),
-                                             si, InfoStream.getDefault(), mergedDir,
-                                             new FieldInfos.FieldNumbers(null),
-                                             newIOContext(random(), new IOContext(new MergeInfo(-1, -1, false, -1))));
-    MergeState mergeState = merger.merge();
+    // merge the formats concurrently
+    ExecutorService executor = Executors.newFixedThreadPool(TestUtil.nextInt(random(), 1, 4), new NamedThreadFactory("TestSegmentMerger"));
+    MergeState mergeState;
+    try {
+      SegmentMerger merger = new SegmentMerger(Arrays.<CodecReader>asList(reader1, reader2),
+                                               si, InfoStream.getDefault(), mergedDir,
+                                               new FieldInfos.FieldNumbers(null),
+                                               newIOContext(random(), new IOContext(new MergeInfo(-1, -1, false, -1))),
+                                               executor);
+      mergeState = merger.merge();
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
     int docsMerged = mergeState.segmentInfo.maxDoc();
     assertTrue(docsMerged == 2);
     //Should be able to open a new SegmentReader against the new directory
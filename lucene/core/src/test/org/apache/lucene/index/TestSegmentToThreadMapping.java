@@ -19,6 +19,8 @@ package org.apache.lucene.index;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -27,9 +29,11 @@ import java.util.concurrent.TimeUnit;
 
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.IOUtils;
@@ -106,6 +110,16 @@ public class TestSegmentToThreadMapping extends LuceneTestCase {
         return null;
       }
 
+      @Override
+      public VectorValues getVectorValues(String field) {
+        return null;
+      }
+
+      @Override
+      public TopDocs searchNearestVectors(String field, float[] target, int k, Bits acceptDocs, int visitedLimit) {
+        return null;
+      }
+
       @Override
       protected void doClose() {
       }
@@ -251,6 +265,99 @@ public class TestSegmentToThreadMapping extends LuceneTestCase {
     IOUtils.close(r, dir);
   }
 
+  public void testBalancedSlicesSplitLargeSegment() {
+    List<LeafReaderContext> leafReaderContexts = new ArrayList<>();
+    leafReaderContexts.add(new LeafReaderContext(dummyIndexReader(1_000_000)));
+    for (int i = 0; i < 10; i++) {
+      leafReaderContexts.add(new LeafReaderContext(dummyIndexReader(1_000)));
+    }
+
+    IndexSearcher.LeafSlice[] resultSlices = IndexSearcher.slices(leafReaderContexts, 250_000, 5, true);
+    assertSlices(leafReaderContexts, resultSlices, 5);
+
+    // the large segment is split into 4 partitions which are all in different slices
+    int numLargePartitions = 0;
+    for (IndexSearcher.LeafSlice slice : resultSlices) {
+      int numLargePartitionsInSlice = 0;
+      for (IndexSearcher.LeafReaderContextPartition partition : slice.partitions) {
+        if (partition.ctx == leafReaderContexts.get(0)) {
+          numLargePartitionsInSlice++;
+        }
+      }
+      assertTrue(numLargePartitionsInSlice <= 1);
+      numLargePartitions += numLargePartitionsInSlice;
+    }
+    assertEquals(4, numLargePartitions);
+    assertEquals(5, resultSlices.length);
+  }
+
+  public void testBalancedSlicesWithoutPartitions() {
+    List<LeafReaderContext> leafReaderContexts = new ArrayList<>();
+    leafReaderContexts.add(new LeafReaderContext(dummyIndexReader(1_000_000)));
+    leafReaderContexts.add(new LeafReaderContext(dummyIndexReader(200_000)));
+    leafReaderContexts.add(new LeafReaderContext(dummyIndexReader(150_000)));
+    leafReaderContexts.add(new LeafReaderContext(dummyIndexReader(100_000)));
+    leafReaderContexts.add(new LeafReaderContext(dummyIndexReader(50_000)));
+
+    IndexSearcher.LeafSlice[] resultSlices = IndexSearcher.slices(leafReaderContexts, 250_000, 5, false);
+    assertSlices(leafReaderContexts, resultSlices, 5);
+    for (IndexSearcher.LeafSlice slice : resultSlices) {
+      assertEquals(slice.leaves.length, slice.partitions.length);
+    }
+
+    // the large segment gets its own slice, others are balanced: {200k, 50k}, {150k, 100k}
+    assertEquals(3, resultSlices.length);
+    assertEquals(1, resultSlices[0].leaves.length);
+    assertSame(leafReaderContexts.get(0), resultSlices[0].leaves[0]);
+    assertEquals(2, resultSlices[1].leaves.length);
+    assertEquals(2, resultSlices[2].leaves.length);
+  }
+
+  public void testBalancedSlicesIllegalArguments() {
+    List<LeafReaderContext> leafReaderContexts = new ArrayList<>();
+    leafReaderContexts.add(new LeafReaderContext(dummyIndexReader(1_000)));
+    expectThrows(IllegalArgumentException.class, () -> IndexSearcher.slices(leafReaderContexts, 0, 5, true));
+    expectThrows(IllegalArgumentException.class, () -> IndexSearcher.slices(leafReaderContexts, 1000, 0, true));
+  }
+
+  public void testRandomBalancedSlices() {
+    List<LeafReaderContext> leafReaderContexts = new ArrayList<>();
+    int numSegments = 1 + random().nextInt(50);
+    for (int i = 0; i < numSegments; i++) {
+      leafReaderContexts.add(new LeafReaderContext(dummyIndexReader(1 + random().nextInt(1_000_000))));
+    }
+    int maxSegmentsPerSlice = 1 + random().nextInt(10);
+    IndexSearcher.LeafSlice[] resultSlices = IndexSearcher.slices(leafReaderContexts, 1 + random().nextInt(500_000),
+        maxSegmentsPerSlice, random().nextBoolean());
+    assertSlices(leafReaderContexts, resultSlices, maxSegmentsPerSlice);
+  }
+
+  /** Check that slices cover every doc ID of every leaf exactly once. */
+  private static void assertSlices(List<LeafReaderContext> leaves, IndexSearcher.LeafSlice[] slices, int maxSegmentsPerSlice) {
+    List<IndexSearcher.LeafReaderContextPartition> partitions = new ArrayList<>();
+    for (IndexSearcher.LeafSlice slice : slices) {
+      assertTrue(slice.partitions.length > 0);
+      assertTrue(slice.partitions.length <= maxSegmentsPerSlice);
+      partitions.addAll(Arrays.asList(slice.partitions));
+    }
+    for (LeafReaderContext leaf : leaves) {
+      List<IndexSearcher.LeafReaderContextPartition> leafPartitions = new ArrayList<>();
+      for (IndexSearcher.LeafReaderContextPartition partition : partitions) {
+        if (partition.ctx == leaf) {
+          leafPartitions.add(partition);
+        }
+      }
+      leafPartitions.sort(Comparator.comparingInt(p -> p.minDocId));
+      int expectedMin = 0;
+      for (IndexSearcher.LeafReaderContextPartition partition : leafPartitions) {
+        assertEquals(expectedMin, partition.minDocId);
+        assertTrue(partition.maxDocId > partition.minDocId);
+        expectedMin = partition.maxDocId;
+      }
+      assertTrue(expectedMin == DocIdSetIterator.NO_MORE_DOCS || expectedMin == leaf.reader().maxDoc());
+    }
+  }
+
   public void testRandom() {
     List<LeafReaderContext> leafReaderContexts = new ArrayList<>();
     int max = 500_000;
@@ -0,0 +1,557 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.VectorField;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+
+/** Test Indexing/IndexWriter with vectors */
+public class TestVectorValues extends LuceneTestCase {
+
+  private IndexWriterConfig createIndexWriterConfig() {
+    IndexWriterConfig iwc = newIndexWriterConfig();
+    // not all codecs support vectors
+    iwc.setCodec(TestUtil.getDefaultCodec());
+    return iwc;
+  }
+
+  public void testFieldConstructor() {
+    float[] v = new float[1];
+    VectorField field = new VectorField("f", v);
+    assertEquals(1, field.fieldType().vectorDimension());
+    assertEquals(VectorSimilarityFunction.EUCLIDEAN, field.fieldType().vectorSimilarityFunction());
+    assertSame(v, field.vectorValue());
+  }
+
+  public void testFieldConstructorExceptions() {
+    expectThrows(IllegalArgumentException.class, () -> new VectorField(null, new float[1]));
+    expectThrows(IllegalArgumentException.class, () -> new VectorField("f", null));
+    expectThrows(IllegalArgumentException.class, () -> new VectorField("f", new float[1], (VectorSimilarityFunction) null));
+    expectThrows(IllegalArgumentException.class, () -> new VectorField("f", new float[0]));
+    expectThrows(IllegalArgumentException.class, () -> new VectorField("f", new float[VectorValues.MAX_DIMENSIONS + 1]));
+  }
+
+  public void testFieldSetValue() {
+    VectorField field = new VectorField("f", new float[1]);
+    float[] v1 = new float[1];
+    field.setVectorValue(v1);
+    assertSame(v1, field.vectorValue());
+    expectThrows(IllegalArgumentException.class, () -> field.setVectorValue(new float[2]));
+    expectThrows(IllegalArgumentException.class, () -> field.setVectorValue(null));
+  }
+
+  // Illegal schema change tests:
+
+  public void testIllegalDimChangeTwoDocs() throws Exception {
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      Document doc = new Document();
+      doc.add(new VectorField("f", new float[4], VectorSimilarityFunction.DOT_PRODUCT));
+      w.addDocument(doc);
+      if (random().nextBoolean()) {
+        // sometimes test with two segments
+        w.flush();
+      }
+
+      Document doc2 = new Document();
+      doc2.add(new VectorField("f", new float[3], VectorSimilarityFunction.DOT_PRODUCT));
+      IllegalArgumentException expected = expectThrows(IllegalArgumentException.class, () -> w.addDocument(doc2));
+      assertTrue(expected.getMessage(), expected.getMessage().contains("cannot change vector dimension from 4 to 3 for field=\"f\""));
+    }
+  }
+
+  public void testIllegalSimilarityFunctionChange() throws Exception {
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      Document doc = new Document();
+      doc.add(new VectorField("f", new float[4], VectorSimilarityFunction.DOT_PRODUCT));
+      w.addDocument(doc);
+      if (random().nextBoolean()) {
+        // sometimes test with two segments
+        w.flush();
+      }
+
+      Document doc2 = new Document();
+      doc2.add(new VectorField("f", new float[4], VectorSimilarityFunction.EUCLIDEAN));
+      IllegalArgumentException expected = expectThrows(IllegalArgumentException.class, () -> w.addDocument(doc2));
+      assertTrue(expected.getMessage(), expected.getMessage().contains("cannot change vector similarity function from DOT_PRODUCT to EUCLIDEAN for field=\"f\""));
+    }
+  }
+
+  public void testIllegalDimChangeTwoWriters() throws Exception {
+    try (Directory dir = newDirectory()) {
+      try (IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+        Document doc = new Document();
+        doc.add(new VectorField("f", new float[4], VectorSimilarityFunction.DOT_PRODUCT));
+        w.addDocument(doc);
+      }
+
+      try (IndexWriter w2 = new IndexWriter(dir, createIndexWriterConfig())) {
+        Document doc2 = new Document();
+        doc2.add(new VectorField("f", new float[1], VectorSimilarityFunction.DOT_PRODUCT));
+        IllegalArgumentException expected = expectThrows(IllegalArgumentException.class, () -> w2.addDocument(doc2));
+        assertTrue(expected.getMessage(), expected.getMessage().contains("cannot change vector dimension from 4 to 1 for field=\"f\""));
+      }
+    }
+  }
+
+  public void testIllegalDimChangeViaAddIndexesDirectory() throws Exception {
+    try (Directory dir = newDirectory();
+         Directory dir2 = newDirectory()) {
+      try (IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+        Document doc = new Document();
+        doc.add(new VectorField("f", new float[4], VectorSimilarityFunction.DOT_PRODUCT));
+        w.addDocument(doc);
+      }
+      try (IndexWriter w2 = new IndexWriter(dir2, createIndexWriterConfig())) {
+        Document doc = new Document();
+        doc.add(new VectorField("f", new float[5], VectorSimilarityFunction.DOT_PRODUCT));
+        w2.addDocument(doc);
+        IllegalArgumentException expected = expectThrows(IllegalArgumentException.class, () -> w2.addIndexes(dir));
+        assertTrue(expected.getMessage(), expected.getMessage().contains("cannot change vector dimension from 5 to 4 for field=\"f\""));
+      }
+    }
+  }
+
+  public void testIllegalMultipleValues() throws Exception {
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      Document doc = new Document();
+      doc.add(new VectorField("f", new float[4], VectorSimilarityFunction.DOT_PRODUCT));
+      doc.add(new VectorField("f", new float[4], VectorSimilarityFunction.DOT_PRODUCT));
+      IllegalArgumentException expected = expectThrows(IllegalArgumentException.class, () -> w.addDocument(doc));
+      assertTrue(expected.getMessage(), expected.getMessage().contains("appears more than once in this document (only one value is allowed per field)"));
+    }
+  }
+
+  public void testIllegalDimensionTooLarge() {
+    expectThrows(IllegalArgumentException.class,
+        () -> VectorField.createFieldType(VectorValues.MAX_DIMENSIONS + 1, VectorSimilarityFunction.EUCLIDEAN));
+    expectThrows(IllegalArgumentException.class,
+        () -> new FieldType().setVectorDimensionsAndSimilarityFunction(0, VectorSimilarityFunction.EUCLIDEAN));
+  }
+
+  public void testFieldWithoutVectors() throws Exception {
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      Document doc = new Document();
+      doc.add(new StringField("id", "0", Field.Store.NO));
+      doc.add(new VectorField("v", new float[] {1, 2}));
+      w.addDocument(doc);
+      try (IndexReader reader = DirectoryReader.open(w)) {
+        LeafReader leaf = getOnlyLeafReader(reader);
+        assertNull(leaf.getVectorValues("id"));
+        assertNull(leaf.getVectorValues("missing"));
+        assertNull(leaf.searchNearestVectors("id", new float[] {1, 2}, 1, null, Integer.MAX_VALUE));
+        assertNotNull(leaf.getVectorValues("v"));
+      }
+    }
+  }
+
+  public void testSparseVectors() throws Exception {
+    int numDocs = atLeast(100);
+    int dimension = TestUtil.nextInt(random(), 1, 16);
+    float[][] expected = new float[numDocs][];
+    int numVectors = 0;
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      for (int i = 0; i < numDocs; i++) {
+        Document doc = new Document();
+        doc.add(new StoredField("id", i));
+        if (random().nextInt(3) != 0) {
+          expected[i] = randomVector(dimension);
+          doc.add(new VectorField("v", expected[i]));
+          numVectors++;
+        }
+        w.addDocument(doc);
+        if (rarely()) {
+          w.commit();
+        }
+      }
+      if (random().nextBoolean()) {
+        w.forceMerge(1);
+      }
+      try (IndexReader reader = DirectoryReader.open(w)) {
+        int seen = 0;
+        for (LeafReaderContext ctx : reader.leaves()) {
+          VectorValues values = ctx.reader().getVectorValues("v");
+          if (values == null) {
+            continue;
+          }
+          assertEquals(dimension, values.dimension());
+          int count = 0;
+          for (int doc = values.nextDoc(); doc != NO_MORE_DOCS; doc = values.nextDoc()) {
+            int id = ctx.reader().document(doc).getField("id").numericValue().intValue();
+            assertArrayEquals(expected[id], values.vectorValue(), 0f);
+            count++;
+          }
+          assertEquals(values.size(), count);
+          seen += count;
+        }
+        assertEquals(numVectors, seen);
+      }
+    }
+  }
+
+  public void testAdvance() throws Exception {
+    int numDocs = atLeast(100);
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      for (int i = 0; i < numDocs; i++) {
+        Document doc = new Document();
+        if (i % 3 == 0) {
+          doc.add(new VectorField("v", new float[] {i, 0}));
+        }
+        w.addDocument(doc);
+      }
+      w.forceMerge(1);
+      try (IndexReader reader = DirectoryReader.open(w)) {
+        VectorValues values = getOnlyLeafReader(reader).getVectorValues("v");
+        int target = random().nextInt(numDocs);
+        int doc = values.advance(target);
+        int expectedDoc = ((target + 2) / 3) * 3;
+        if (expectedDoc >= numDocs) {
+          assertEquals(NO_MORE_DOCS, doc);
+        } else {
+          assertEquals(expectedDoc, doc);
+          assertEquals(expectedDoc, values.vectorValue()[0], 0f);
+        }
+      }
+    }
+  }
+
+  public void testDeleteAllVectorDocs() throws Exception {
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      Document doc = new Document();
+      doc.add(new StringField("id", "0", Field.Store.NO));
+      doc.add(new VectorField("v", new float[] {2, 3, 5}, VectorSimilarityFunction.DOT_PRODUCT));
+      w.addDocument(doc);
+      w.addDocument(new Document());
+      w.commit();
+
+      w.deleteDocuments(new Term("id", "0"));
+      w.forceMerge(1);
+      try (IndexReader reader = DirectoryReader.open(w)) {
+        LeafReader r = getOnlyLeafReader(reader);
+        VectorValues values = r.getVectorValues("v");
+        assertNotNull(values);
+        assertEquals(0, values.size());
+        assertEquals(NO_MORE_DOCS, values.nextDoc());
+
+        // assert that searching on the empty graph returns no results
+        TopDocs results = r.searchNearestVectors("v", new float[] {2, 3, 5}, 1, null, Integer.MAX_VALUE);
+        assertEquals(0, results.scoreDocs.length);
+      }
+    }
+  }
+
+  public void testDeletesAndMerge() throws Exception {
+    int numDocs = atLeast(100);
+    int dimension = TestUtil.nextInt(random(), 1, 16);
+    float[][] expected = new float[numDocs][];
+    FixedBitSet deleted = new FixedBitSet(numDocs);
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      for (int i = 0; i < numDocs; i++) {
+        Document doc = new Document();
+        doc.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+        expected[i] = randomVector(dimension);
+        doc.add(new VectorField("v", expected[i]));
+        w.addDocument(doc);
+        if (rarely()) {
+          w.commit();
+        }
+      }
+      for (int i = 0; i < numDocs; i++) {
+        if (random().nextInt(5) == 0) {
+          w.deleteDocuments(new Term("id", Integer.toString(i)));
+          deleted.set(i);
+        }
+      }
+      w.forceMerge(1);
+      try (IndexReader reader = DirectoryReader.open(w)) {
+        LeafReader leaf = getOnlyLeafReader(reader);
+        VectorValues values = leaf.getVectorValues("v");
+        assertEquals(numDocs - deleted.cardinality(), values.size());
+        int count = 0;
+        for (int doc = values.nextDoc(); doc != NO_MORE_DOCS; doc = values.nextDoc()) {
+          int id = Integer.parseInt(leaf.document(doc).get("id"));
+          assertFalse(deleted.get(id));
+          assertArrayEquals(expected[id], values.vectorValue(), 0f);
+          count++;
+        }
+        assertEquals(values.size(), count);
+
+        // every remaining vector is its own nearest neighbor, search for more than one since the search is approximate
+        for (int i = 0; i < 10; i++) {
+          int id = random().nextInt(numDocs);
+          if (deleted.get(id)) {
+            continue;
+          }
+          TopDocs results = leaf.searchNearestVectors("v", expected[id], 10, null, Integer.MAX_VALUE);
+          assertTrue(results.scoreDocs.length >= 1);
+          float[] found = vectorOf(leaf, "v", results.scoreDocs[0].doc);
+          assertEquals(0f, squareDistance(expected[id], found), 0f);
+        }
+      }
+    }
+  }
+
+  public void testIndexSort() throws Exception {
+    int numDocs = atLeast(100);
+    try (Directory dir = newDirectory()) {
+      IndexWriterConfig iwc = createIndexWriterConfig();
+      iwc.setIndexSort(new Sort(new SortField("sortkey", SortField.Type.INT, true)));
+      try (IndexWriter w = new IndexWriter(dir, iwc)) {
+        for (int i = 0; i < numDocs; i++) {
+          Document doc = new Document();
+          doc.add(new NumericDocValuesField("sortkey", i));
+          if (random().nextInt(4) != 0) {
+            doc.add(new VectorField("v", new float[] {i, i + 1}));
+          }
+          w.addDocument(doc);
+          if (rarely()) {
+            w.commit();
+          }
+        }
+        if (random().nextBoolean()) {
+          w.forceMerge(1);
+        }
+        try (IndexReader reader = DirectoryReader.open(w)) {
+          for (LeafReaderContext ctx : reader.leaves()) {
+            VectorValues values = ctx.reader().getVectorValues("v");
+            if (values == null) {
+              continue;
+            }
+            NumericDocValues sortKeys = ctx.reader().getNumericDocValues("sortkey");
+            int lastKey = Integer.MAX_VALUE;
+            for (int doc = values.nextDoc(); doc != NO_MORE_DOCS; doc = values.nextDoc()) {
+              assertEquals(doc, sortKeys.advance(doc));
+              int key = (int) sortKeys.longValue();
+              assertTrue(key < lastKey);
+              lastKey = key;
+              assertArrayEquals(new float[] {key, key + 1}, values.vectorValue(), 0f);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  public void testSearchWithAcceptDocs() throws Exception {
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      for (int i = 0; i < 20; i++) {
+        Document doc = new Document();
+        doc.add(new VectorField("v", new float[] {i, 0}));
+        w.addDocument(doc);
+      }
+      w.forceMerge(1);
+      try (IndexReader reader = DirectoryReader.open(w)) {
+        LeafReader leaf = getOnlyLeafReader(reader);
+        FixedBitSet acceptDocs = new FixedBitSet(leaf.maxDoc());
+        for (int i = 1; i < 20; i += 2) {
+          acceptDocs.set(i);
+        }
+        TopDocs results = leaf.searchNearestVectors("v", new float[] {0, 0}, 3, acceptDocs, Integer.MAX_VALUE);
+        assertEquals(TotalHits.Relation.EQUAL_TO, results.totalHits.relation);
+        int[] docs = Arrays.stream(results.scoreDocs).mapToInt(sd -> sd.doc).toArray();
+        assertArrayEquals(new int[] {1, 3, 5}, docs);
+        for (int i = 1; i < results.scoreDocs.length; i++) {
+          assertTrue(results.scoreDocs[i - 1].score >= results.scoreDocs[i].score);
+        }
+
+        // the search stops once it reached the visited limit
+        results = leaf.searchNearestVectors("v", new float[] {0, 0}, 3, acceptDocs, 1);
+        assertEquals(TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO, results.totalHits.relation);
+      }
+    }
+  }
+
+  public void testCheckIndexIncludesVectors() throws Exception {
+    try (Directory dir = newDirectory()) {
+      try (IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+        Document doc = new Document();
+        doc.add(new VectorField("v1", randomVector(3)));
+        w.addDocument(doc);
+
+        doc.add(new VectorField("v2", randomVector(3)));
+        w.addDocument(doc);
+      }
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      CheckIndex.Status status = TestUtil.checkIndex(dir, false, true, output);
+      assertEquals(1, status.segmentInfos.size());
+      CheckIndex.Status.SegmentInfoStatus segStatus = status.segmentInfos.get(0);
+      // total 3 vector values were indexed:
+      assertEquals(3, segStatus.vectorValuesStatus.totalVectorValues);
+      // ... across 2 fields:
+      assertEquals(2, segStatus.vectorValuesStatus.totalVectorFields);
+
+      // Make sure CheckIndex in fact declares that it is testing vectors!
+      assertTrue(output.toString(IOUtils.UTF_8).contains("test: vectors..."));
+    }
+  }
+
+  public void testAddIndexesCodecReader() throws Exception {
+    try (Directory dir = newDirectory();
+         Directory dir2 = newDirectory()) {
+      float[][] vectors = new float[10][];
+      try (IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+        for (int i = 0; i < vectors.length; i++) {
+          vectors[i] = randomVector(5);
+          Document doc = new Document();
+          doc.add(new VectorField("v", vectors[i], VectorSimilarityFunction.COSINE));
+          w.addDocument(doc);
+        }
+      }
+      try (IndexWriter w2 = new IndexWriter(dir2, createIndexWriterConfig());
+           DirectoryReader r = DirectoryReader.open(dir)) {
+        CodecReader[] codecReaders = new CodecReader[r.leaves().size()];
+        for (LeafReaderContext ctx : r.leaves()) {
+          // wrap the readers so that vectors are merged through the LeafReader API
+          codecReaders[ctx.ord] = SlowCodecReaderWrapper.wrap(new FilterLeafReader(ctx.reader()) {
+            @Override
+            public CacheHelper getCoreCacheHelper() {
+              return null;
+            }
+
+            @Override
+            public CacheHelper getReaderCacheHelper() {
+              return null;
+            }
+          });
+        }
+        w2.addIndexes(codecReaders);
+        w2.forceMerge(1);
+        try (IndexReader reader = DirectoryReader.open(w2)) {
+          LeafReader leaf = getOnlyLeafReader(reader);
+          FieldInfo fi = leaf.getFieldInfos().fieldInfo("v");
+          assertEquals(5, fi.getVectorDimension());
+          assertEquals(VectorSimilarityFunction.COSINE, fi.getVectorSimilarityFunction());
+          VectorValues values = leaf.getVectorValues("v");
+          for (int doc = values.nextDoc(); doc != NO_MORE_DOCS; doc = values.nextDoc()) {
+            assertArrayEquals(vectors[doc], values.vectorValue(), 0f);
+          }
+          assertEquals(vectors.length, values.size());
+        }
+      }
+    }
+  }
+
+  public void testRandomSearchMatchesExact() throws Exception {
+    int numDocs = atLeast(200);
+    int dimension = TestUtil.nextInt(random(), 2, 16);
+    VectorSimilarityFunction[] functions = VectorSimilarityFunction.values();
+    VectorSimilarityFunction similarityFunction = functions[random().nextInt(functions.length)];
+    float[][] vectors = new float[numDocs][];
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      for (int i = 0; i < numDocs; i++) {
+        Document doc = new Document();
+        vectors[i] = randomVector(dimension);
+        doc.add(new StoredField("id", i));
+        doc.add(new VectorField("v", vectors[i], similarityFunction));
+        w.addDocument(doc);
+        if (rarely()) {
+          w.commit();
+        }
+      }
+      w.forceMerge(1);
+      try (IndexReader reader = DirectoryReader.open(w)) {
+        LeafReader leaf = getOnlyLeafReader(reader);
+        int matches = 0;
+        int numQueries = 20;
+        int k = 5;
+        for (int i = 0; i < numQueries; i++) {
+          float[] query = randomVector(dimension);
+          TopDocs results = leaf.searchNearestVectors("v", query, k, null, Integer.MAX_VALUE);
+          assertEquals(k, results.scoreDocs.length);
+
+          float[] scores = new float[numDocs];
+          for (int id = 0; id < numDocs; id++) {
+            scores[id] = similarityFunction.compare(query, vectors[id]);
+          }
+          float[] sorted = scores.clone();
+          Arrays.sort(sorted);
+          float kthScore = sorted[numDocs - k];
+          for (ScoreDoc scoreDoc : results.scoreDocs) {
+            int id = leaf.document(scoreDoc.doc).getField("id").numericValue().intValue();
+            assertEquals(scores[id], scoreDoc.score, 1e-5f);
+            if (scoreDoc.score >= kthScore) {
+              matches++;
+            }
+          }
+        }
+        double recall = matches / (double) (numQueries * k);
+        assertTrue("recall=" + recall, recall > 0.8);
+      }
+    }
+  }
+
+  private static float[] vectorOf(LeafReader reader, String field, int doc) throws IOException {
+    VectorValues values = reader.getVectorValues(field);
+    assertEquals(doc, values.advance(doc));
+    return values.vectorValue();
+  }
+
+  private static float squareDistance(float[] a, float[] b) {
+    float sum = 0;
+    for (int i = 0; i < a.length; i++) {
+      float diff = a[i] - b[i];
+      sum += diff * diff;
+    }
+    return sum;
+  }
+
+  private static float[] randomVector(int dimension) {
+    float[] v = new float[dimension];
+    double norm = 0;
+    for (int i = 0; i < dimension; i++) {
+      v[i] = random().nextFloat() + 0.001f;
+      norm += v[i] * v[i];
+    }
+    // unit vectors, so that scores are meaningful with all similarity functions
+    norm = Math.sqrt(norm);
+    for (int i = 0; i < dimension; i++) {
+      v[i] /= norm;
+    }
+    return v;
+  }
+}
@@ -101,6 +101,63 @@ public class TermInSetQueryTest extends LuceneTestCase {
     }
   }
 
+  public void testDuelWithMissingTerms() throws IOException {
+    final int iters = atLeast(2);
+    final String field = "f";
+    for (int iter = 0; iter < iters; ++iter) {
+      final List<BytesRef> indexedTerms = new ArrayList<>();
+      final List<BytesRef> missingTerms = new ArrayList<>();
+      final int numTerms = TestUtil.nextInt(random(), 1, 1 << TestUtil.nextInt(random(), 1, 10));
+      for (int i = 0; i < numTerms; ++i) {
+        final BytesRef value = new BytesRef(TestUtil.randomAnalysisString(random(), 10, true));
+        if (random().nextBoolean()) {
+          indexedTerms.add(value);
+        } else {
+          missingTerms.add(value);
+        }
+      }
+      if (indexedTerms.isEmpty() || missingTerms.isEmpty()) {
+        continue;
+      }
+      Directory dir = newDirectory();
+      RandomIndexWriter iw = new RandomIndexWriter(random(), dir);
+      final int numDocs = atLeast(100);
+      for (int i = 0; i < numDocs; ++i) {
+        Document doc = new Document();
+        final BytesRef term = indexedTerms.get(random().nextInt(indexedTerms.size()));
+        doc.add(new StringField(field, term, Store.NO));
+        iw.addDocument(doc);
+      }
+      iw.commit();
+      final IndexReader reader = iw.getReader();
+      final IndexSearcher searcher = newSearcher(reader);
+      iw.close();
+
+      for (int i = 0; i < 100; ++i) {
+        // mostly missing terms, which the query should skip without seeking each of them
+        final int numQueryTerms = TestUtil.nextInt(random(), 1, 1 << TestUtil.nextInt(random(), 1, 9));
+        List<BytesRef> queryTerms = new ArrayList<>();
+        for (int j = 0; j < numQueryTerms; ++j) {
+          if (random().nextInt(4) == 0) {
+            queryTerms.add(indexedTerms.get(random().nextInt(indexedTerms.size())));
+          } else {
+            queryTerms.add(missingTerms.get(random().nextInt(missingTerms.size())));
+          }
+        }
+        final BooleanQuery.Builder bq = new BooleanQuery.Builder();
+        for (BytesRef t : queryTerms) {
+          bq.add(new TermQuery(new Term(field, t)), Occur.SHOULD);
+        }
+        final Query q1 = new ConstantScoreQuery(bq.build());
+        final Query q2 = new TermInSetQuery(field, queryTerms);
+        assertSameMatches(searcher, q1, q2, false);
+      }
+
+      reader.close();
+      dir.close();
+    }
+  }
+
   private void assertSameMatches(IndexSearcher searcher, Query q1, Query q2, boolean scores) throws IOException {
     final int maxDoc = searcher.getIndexReader().maxDoc();
     final TopDocs td1 = searcher.search(q1, maxDoc, scores ? Sort.RELEVANCE : Sort.INDEXORDER);
@@ -25,7 +25,11 @@ import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
@@ -92,6 +96,105 @@ public class TestDocValuesQueries extends LuceneTestCase {
     }
   }
 
+  public void testDuelPointRangeNumericRangeQueryWithIndexSort() throws IOException {
+    doTestDuelPointRangeNumericRangeQueryWithIndexSort(false);
+  }
+
+  public void testDuelPointRangeSortedNumericRangeQueryWithIndexSort() throws IOException {
+    doTestDuelPointRangeNumericRangeQueryWithIndexSort(true);
+  }
+
+  private void doTestDuelPointRangeNumericRangeQueryWithIndexSort(boolean sortedNumeric) throws IOException {
+    final int iters = atLeast(10);
+    for (int iter = 0; iter < iters; ++iter) {
+      final SortField.Type type = random().nextBoolean() ? SortField.Type.LONG : SortField.Type.INT;
+      final boolean reverse = random().nextBoolean();
+      final SortField sortField = sortedNumeric
+          ? new SortedNumericSortField("dv", type, reverse)
+          : new SortField("dv", type, reverse);
+      if (random().nextBoolean()) {
+        final int missingValue = TestUtil.nextInt(random(), -100, 10000);
+        sortField.setMissingValue(type == SortField.Type.LONG ? (Object) (long) missingValue : (Object) missingValue);
+      }
+      Directory dir = newDirectory();
+      IndexWriterConfig iwc = newIndexWriterConfig().setIndexSort(new Sort(sortField));
+      RandomIndexWriter iw = new RandomIndexWriter(random(), dir, iwc);
+      final int numDocs = atLeast(100);
+      for (int i = 0; i < numDocs; ++i) {
+        Document doc = new Document();
+        if (random().nextInt(10) != 0) {
+          final long value = TestUtil.nextLong(random(), -100, 10000);
+          if (sortedNumeric) {
+            doc.add(new SortedNumericDocValuesField("dv", value));
+          } else {
+            doc.add(new NumericDocValuesField("dv", value));
+          }
+          doc.add(new LongPoint("idx", value));
+        }
+        iw.addDocument(doc);
+      }
+      if (random().nextBoolean()) {
+        iw.deleteDocuments(LongPoint.newRangeQuery("idx", 0L, 10L));
+      }
+      final IndexReader reader = iw.getReader();
+      final IndexSearcher searcher = newSearcher(reader, false);
+      iw.close();
+
+      for (int i = 0; i < 100; ++i) {
+        final long min = random().nextBoolean() ? Long.MIN_VALUE : TestUtil.nextLong(random(), -100, 10000);
+        final long max = random().nextBoolean() ? Long.MAX_VALUE : TestUtil.nextLong(random(), -100, 10000);
+        final Query q1 = LongPoint.newRangeQuery("idx", min, max);
+        final Query q2;
+        if (sortedNumeric) {
+          q2 = SortedNumericDocValuesField.newSlowRangeQuery("dv", min, max);
+        } else {
+          q2 = NumericDocValuesField.newSlowRangeQuery("dv", min, max);
+        }
+        assertSameMatches(searcher, q1, q2, false);
+        assertSameMatches(searcher, q1, new IndexOrDocValuesQuery(q1, q2), false);
+      }
+
+      reader.close();
+      dir.close();
+    }
+  }
+
+  public void testIndexSortedRangeIsContiguous() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = new IndexWriterConfig()
+        .setIndexSort(new Sort(new SortField("dv", SortField.Type.LONG, true)));
+    IndexWriter w = new IndexWriter(dir, iwc);
+    for (int i = 0; i < 100; ++i) {
+      Document doc = new Document();
+      doc.add(new NumericDocValuesField("dv", i));
+      doc.add(new LongPoint("dv", i));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    IndexReader reader = DirectoryReader.open(w);
+    w.close();
+    IndexSearcher searcher = new IndexSearcher(reader);
+    LeafReaderContext context = reader.leaves().get(0);
+
+    Query dvQuery = NumericDocValuesField.newSlowRangeQuery("dv", 10, 19);
+    Weight weight = searcher.createWeight(searcher.rewrite(dvQuery), ScoreMode.COMPLETE_NO_SCORES, 1);
+    Scorer scorer = weight.scorer(context);
+    // matches are found without checking the values of other documents
+    assertNull(scorer.twoPhaseIterator());
+    assertEquals(10, scorer.iterator().cost());
+    // docs are sorted by descending value
+    assertEquals(80, scorer.iterator().nextDoc());
+
+    // the doc values query is cheaper than points on a sorted segment
+    Query query = new IndexOrDocValuesQuery(LongPoint.newRangeQuery("dv", 10, 19), dvQuery);
+    weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1);
+    assertEquals(10, weight.scorerSupplier(context).cost());
+    assertEquals(10, searcher.count(query));
+
+    reader.close();
+    dir.close();
+  }
+
   private void doTestDuelPointRangeSortedRangeQuery(boolean sortedSet, int maxValuesPerDoc) throws IOException {
     final int iters = atLeast(10);
     for (int iter = 0; iter < iters; ++iter) {
@@ -0,0 +1,423 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+import java.io.IOException;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FloatPoint;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestFieldSortOptimizationSkipping extends LuceneTestCase {
+
+  public void testLongSortOptimization() throws IOException {
+    final Directory dir = newDirectory();
+    final IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig());
+    final int numDocs = atLeast(10000);
+    for (int i = 0; i < numDocs; ++i) {
+      final Document doc = new Document();
+      doc.add(new NumericDocValuesField("my_field", i));
+      doc.add(new LongPoint("my_field", i));
+      writer.addDocument(doc);
+      if (i == 7000) writer.flush(); // two segments
+    }
+    final IndexReader reader = DirectoryReader.open(writer);
+    writer.close();
+    IndexSearcher searcher = new IndexSearcher(reader);
+    final SortField sortField = new SortField("my_field", SortField.Type.LONG);
+    sortField.setOptimizeSortWithPoints(true);
+    final Sort sort = new Sort(sortField);
+    final int numHits = 3;
+    final int totalHitsThreshold = 3;
+
+    { // simple sort
+      final TopFieldCollector collector = TopFieldCollector.create(sort, numHits, null, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      TopDocs topDocs = collector.topDocs();
+      assertEquals(numHits, topDocs.scoreDocs.length);
+      for (int i = 0; i < numHits; i++) {
+        FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+        assertEquals(i, ((Long) fieldDoc.fields[0]).intValue());
+      }
+      assertEquals(TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO, topDocs.totalHits.relation);
+      assertTrue(topDocs.totalHits.value < numDocs);
+    }
+
+    { // paging sort with after
+      long afterValue = 2;
+      FieldDoc after = new FieldDoc(2, Float.NaN, new Long[] {afterValue});
+      final TopFieldCollector collector = TopFieldCollector.create(sort, numHits, after, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      TopDocs topDocs = collector.topDocs();
+      assertEquals(numHits, topDocs.scoreDocs.length);
+      for (int i = 0; i < numHits; i++) {
+        FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+        assertEquals(afterValue + 1 + i, fieldDoc.fields[0]);
+      }
+      assertEquals(TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO, topDocs.totalHits.relation);
+      assertTrue(topDocs.totalHits.value < numDocs);
+    }
+
+    { // test that if there is the secondary sort on _score, scores are filled correctly
+      final TopFieldCollector collector = TopFieldCollector.create(new Sort(sortField, SortField.FIELD_SCORE), numHits, null, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      TopDocs topDocs = collector.topDocs();
+      assertEquals(numHits, topDocs.scoreDocs.length);
+      for (int i = 0; i < numHits; i++) {
+        FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+        assertEquals(i, ((Long) fieldDoc.fields[0]).intValue());
+        float score = (float) fieldDoc.fields[1];
+        assertEquals(1.0, score, 0.001);
+      }
+      assertEquals(TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO, topDocs.totalHits.relation);
+      assertTrue(topDocs.totalHits.value < numDocs);
+    }
+
+    { // test that if numeric field is a secondary sort, no optimization is run
+      final TopFieldCollector collector = TopFieldCollector.create(new Sort(SortField.FIELD_SCORE, sortField), numHits, null, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      TopDocs topDocs = collector.topDocs();
+      assertEquals(numHits, topDocs.scoreDocs.length);
+      assertEquals(numDocs, topDocs.totalHits.value); // assert that all documents were collected => optimization was not run
+    }
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testLongSortOptimizationReverse() throws IOException {
+    final Directory dir = newDirectory();
+    final IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig());
+    final int numDocs = atLeast(10000);
+    for (int i = 0; i < numDocs; ++i) {
+      final Document doc = new Document();
+      // the first documents are the most competitive ones
+      doc.add(new NumericDocValuesField("my_field", numDocs - 1 - i));
+      doc.add(new LongPoint("my_field", numDocs - 1 - i));
+      writer.addDocument(doc);
+    }
+    final IndexReader reader = DirectoryReader.open(writer);
+    writer.close();
+    IndexSearcher searcher = new IndexSearcher(reader);
+    final SortField sortField = new SortField("my_field", SortField.Type.LONG, true);
+    sortField.setOptimizeSortWithPoints(true);
+    final Sort sort = new Sort(sortField);
+    final int numHits = 3;
+
+    final TopFieldCollector collector = TopFieldCollector.create(sort, numHits, null, numHits);
+    searcher.search(new MatchAllDocsQuery(), collector);
+    TopDocs topDocs = collector.topDocs();
+    assertEquals(numHits, topDocs.scoreDocs.length);
+    for (int i = 0; i < numHits; i++) {
+      FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+      assertEquals((long) numDocs - 1 - i, fieldDoc.fields[0]);
+    }
+    assertEquals(TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO, topDocs.totalHits.relation);
+    assertTrue(topDocs.totalHits.value < numDocs);
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testSortOptimizationWithMissingValues() throws IOException {
+    final Directory dir = newDirectory();
+    final IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig());
+    final int numDocs = atLeast(10000);
+    for (int i = 0; i < numDocs; ++i) {
+      final Document doc = new Document();
+      if ((i % 500) != 0) { // miss values on every 500th document
+        doc.add(new NumericDocValuesField("my_field", i));
+        doc.add(new LongPoint("my_field", i));
+      }
+      writer.addDocument(doc);
+      if (i == 7000) writer.flush(); // two segments
+    }
+    final IndexReader reader = DirectoryReader.open(writer);
+    writer.close();
+    IndexSearcher searcher = new IndexSearcher(reader);
+    final int numHits = 3;
+    final int totalHitsThreshold = 3;
+
+    { // test that optimization is not run when missing value setting of SortField is competitive
+      final SortField sortField = new SortField("my_field", SortField.Type.LONG);
+      sortField.setMissingValue(0L); // set a competitive missing value
+      sortField.setOptimizeSortWithPoints(true);
+      final Sort sort = new Sort(sortField, SortField.FIELD_DOC);
+      final TopFieldCollector collector = TopFieldCollector.create(sort, numHits, null, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      TopDocs topDocs = collector.topDocs();
+      assertEquals(numHits, topDocs.scoreDocs.length);
+      assertEquals(numDocs, topDocs.totalHits.value); // assert that all documents were collected => optimization was not run
+    }
+    { // test that documents whose missing value ties with the bottom are skipped when sorting on a single field
+      final SortField sortField = new SortField("my_field", SortField.Type.LONG);
+      sortField.setMissingValue(0L);
+      sortField.setOptimizeSortWithPoints(true);
+      final Sort sort = new Sort(sortField);
+      final TopFieldCollector collector = TopFieldCollector.create(sort, numHits, null, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      TopDocs topDocs = collector.topDocs();
+      assertEquals(numHits, topDocs.scoreDocs.length);
+      for (int i = 0; i < numHits; i++) {
+        FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+        assertEquals(0L, fieldDoc.fields[0]);
+        assertEquals(i * 500, fieldDoc.doc);
+      }
+      assertTrue(topDocs.totalHits.value < numDocs); // assert that some docs were skipped => optimization was run
+    }
+    { // test that optimization is run when missing value setting of SortField is NOT competitive
+      final SortField sortField = new SortField("my_field", SortField.Type.LONG);
+      sortField.setMissingValue(100L); // set a NON competitive missing value
+      sortField.setOptimizeSortWithPoints(true);
+      final Sort sort = new Sort(sortField);
+      final TopFieldCollector collector = TopFieldCollector.create(sort, numHits, null, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      TopDocs topDocs = collector.topDocs();
+      assertEquals(numHits, topDocs.scoreDocs.length);
+      for (int i = 0; i < numHits; i++) {
+        FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+        assertEquals(i + 1L, fieldDoc.fields[0]);
+      }
+      assertTrue(topDocs.totalHits.value < numDocs); // assert that some docs were skipped => optimization was run
+    }
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testSortOptimizationEqualValues() throws IOException {
+    final Directory dir = newDirectory();
+    final IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig());
+    final int numDocs = atLeast(10000);
+    for (int i = 1; i <= numDocs; ++i) {
+      final Document doc = new Document();
+      doc.add(new NumericDocValuesField("my_field1", 100)); // all docs have the same value of my_field1
+      doc.add(new IntPoint("my_field1", 100));
+      doc.add(new NumericDocValuesField("my_field2", numDocs - i)); // diff values for the field my_field2
+      writer.addDocument(doc);
+      if (i == 7000) writer.flush(); // two segments
+    }
+    final IndexReader reader = DirectoryReader.open(writer);
+    writer.close();
+    IndexSearcher searcher = new IndexSearcher(reader);
+    final int numHits = 3;
+    final int totalHitsThreshold = 3;
+
+    { // test that sorting on a single field with equal values uses the optimization
+      final SortField sortField = new SortField("my_field1", SortField.Type.INT);
+      sortField.setOptimizeSortWithPoints(true);
+      final Sort sort = new Sort(sortField);
+      final TopFieldCollector collector = TopFieldCollector.create(sort, numHits, null, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      TopDocs topDocs = collector.topDocs();
+      assertEquals(numHits, topDocs.scoreDocs.length);
+      for (int i = 0; i < numHits; i++) {
+        FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+        assertEquals(100, fieldDoc.fields[0]);
+        assertEquals(i, fieldDoc.doc); // ties are broken by doc ID
+      }
+      assertTrue(topDocs.totalHits.value < numDocs); // assert that some docs were skipped => optimization was run
+    }
+
+    { // test that sorting on a single field with equal values and after parameter uses the optimization
+      final int afterValue = 100;
+      final int afterDocID = 10 + random().nextInt(1000);
+      FieldDoc after = new FieldDoc(afterDocID, Float.NaN, new Integer[] {afterValue});
+      final SortField sortField = new SortField("my_field1", SortField.Type.INT);
+      sortField.setOptimizeSortWithPoints(true);
+      final Sort sort = new Sort(sortField);
+      final TopFieldCollector collector = TopFieldCollector.create(sort, numHits, after, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      TopDocs topDocs = collector.topDocs();
+      assertEquals(numHits, topDocs.scoreDocs.length);
+      for (int i = 0; i < numHits; i++) {
+        FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+        assertEquals(100, fieldDoc.fields[0]);
+        assertEquals(afterDocID + 1 + i, fieldDoc.doc);
+      }
+      assertTrue(topDocs.totalHits.value < numDocs); // assert that some docs were skipped => optimization was run
+    }
+
+    { // test that sorting on main field with equal values + another field for tie breaks doesn't skip documents
+      final SortField sortField1 = new SortField("my_field1", SortField.Type.INT);
+      sortField1.setOptimizeSortWithPoints(true);
+      final SortField sortField2 = new SortField("my_field2", SortField.Type.INT);
+      final Sort sort = new Sort(sortField1, sortField2);
+      final TopFieldCollector collector = TopFieldCollector.create(sort, numHits, null, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      TopDocs topDocs = collector.topDocs();
+      assertEquals(numHits, topDocs.scoreDocs.length);
+      for (int i = 0; i < numHits; i++) {
+        FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+        assertEquals(100, fieldDoc.fields[0]); // sort on 1st field as expected
+        assertEquals(i, fieldDoc.fields[1]); // sort on 2nd field as expected
+      }
+      assertEquals(numDocs, topDocs.totalHits.value); // assert that all documents were collected => optimization was not run
+    }
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testFloatSortOptimization() throws IOException {
+    final Directory dir = newDirectory();
+    final IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig());
+    final int numDocs = atLeast(10000);
+    for (int i = 0; i < numDocs; ++i) {
+      final Document doc = new Document();
+      float f = 1f * i;
+      doc.add(new NumericDocValuesField("my_field", Float.floatToIntBits(f)));
+      doc.add(new FloatPoint("my_field", f));
+      writer.addDocument(doc);
+    }
+    final IndexReader reader = DirectoryReader.open(writer);
+    writer.close();
+    IndexSearcher searcher = new IndexSearcher(reader);
+    final SortField sortField = new SortField("my_field", SortField.Type.FLOAT);
+    sortField.setOptimizeSortWithPoints(true);
+    final Sort sort = new Sort(sortField);
+    final int numHits = 3;
+    final int totalHitsThreshold = 3;
+
+    final TopFieldCollector collector = TopFieldCollector.create(sort, numHits, null, totalHitsThreshold);
+    searcher.search(new MatchAllDocsQuery(), collector);
+    TopDocs topDocs = collector.topDocs();
+    assertEquals(numHits, topDocs.scoreDocs.length);
+    for (int i = 0; i < numHits; i++) {
+      FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+      assertEquals(1f * i, fieldDoc.fields[0]);
+    }
+    assertEquals(TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO, topDocs.totalHits.relation);
+    assertTrue(topDocs.totalHits.value < numDocs);
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testPointsWithWrongType() throws IOException {
+    final Directory dir = newDirectory();
+    final IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig());
+    final Document doc = new Document();
+    doc.add(new NumericDocValuesField("my_field", 42));
+    doc.add(new IntPoint("my_field", 42));
+    writer.addDocument(doc);
+    final IndexReader reader = DirectoryReader.open(writer);
+    writer.close();
+    IndexSearcher searcher = new IndexSearcher(reader);
+    final SortField sortField = new SortField("my_field", SortField.Type.LONG);
+    sortField.setOptimizeSortWithPoints(true);
+
+    IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+        () -> searcher.search(new MatchAllDocsQuery(), 1, new Sort(sortField)));
+    assertTrue(e.getMessage(), e.getMessage().contains("bytes per dimension"));
+    expectThrows(IllegalArgumentException.class,
+        () -> new SortField("my_field", SortField.Type.STRING).setOptimizeSortWithPoints(true));
+
+    reader.close();
+    dir.close();
+  }
+
+  /** Compares the top hits with and without the optimization on random data, with deletions and filters. */
+  public void testRandom() throws IOException {
+    final Directory dir = newDirectory();
+    final RandomIndexWriter writer = new RandomIndexWriter(random(), dir);
+    final int numDocs = atLeast(2000);
+    final int maxValue = random().nextBoolean() ? 50 : 100000;
+    for (int i = 0; i < numDocs; ++i) {
+      final Document doc = new Document();
+      doc.add(new StringField("id", Integer.toString(i), Field.Store.NO));
+      doc.add(new StringField("even", i % 2 == 0 ? "yes" : "no", Field.Store.NO));
+      if (random().nextInt(20) != 0) {
+        long l = random().nextInt(maxValue) - maxValue / 2;
+        doc.add(new NumericDocValuesField("long", l));
+        doc.add(new LongPoint("long", l));
+        double d = l / 4d;
+        doc.add(new NumericDocValuesField("double", Double.doubleToLongBits(d)));
+        doc.add(new DoublePoint("double", d));
+      }
+      writer.addDocument(doc);
+      if (random().nextInt(500) == 0) {
+        writer.deleteDocuments(new Term("id", Integer.toString(random().nextInt(i + 1))));
+      }
+    }
+    final IndexReader reader = writer.getReader();
+    writer.close();
+    IndexSearcher searcher = newSearcher(reader);
+
+    for (int iter = 0; iter < 20; ++iter) {
+      final String field = random().nextBoolean() ? "long" : "double";
+      final SortField.Type type = field.equals("long") ? SortField.Type.LONG : SortField.Type.DOUBLE;
+      final boolean reverse = random().nextBoolean();
+      final SortField expectedSortField = new SortField(field, type, reverse);
+      final SortField actualSortField = new SortField(field, type, reverse);
+      if (random().nextBoolean()) {
+        final Object missingValue;
+        if (random().nextBoolean()) {
+          missingValue = type == SortField.Type.LONG ? (Object) Long.MIN_VALUE : (Object) Double.NEGATIVE_INFINITY;
+        } else {
+          missingValue = type == SortField.Type.LONG ? (Object) Long.MAX_VALUE : (Object) Double.POSITIVE_INFINITY;
+        }
+        expectedSortField.setMissingValue(missingValue);
+        actualSortField.setMissingValue(missingValue);
+      }
+      actualSortField.setOptimizeSortWithPoints(true);
+      final boolean tieBreak = random().nextBoolean();
+      final Sort expectedSort = tieBreak ? new Sort(expectedSortField, SortField.FIELD_DOC) : new Sort(expectedSortField);
+      final Sort actualSort = tieBreak ? new Sort(actualSortField, SortField.FIELD_DOC) : new Sort(actualSortField);
+      final Query query = random().nextBoolean() ? new MatchAllDocsQuery() : new TermQuery(new Term("even", "yes"));
+      final int numHits = TestUtil.nextInt(random(), 1, 30);
+
+      TopFieldCollector expectedCollector = TopFieldCollector.create(expectedSort, numHits, Integer.MAX_VALUE);
+      searcher.search(query, expectedCollector);
+      TopFieldDocs expected = expectedCollector.topDocs();
+      TopFieldCollector actualCollector = TopFieldCollector.create(actualSort, numHits, numHits);
+      searcher.search(query, actualCollector);
+      TopFieldDocs actual = actualCollector.topDocs();
+      CheckHits.checkEqual(query, expected.scoreDocs, actual.scoreDocs);
+      assertTrue(actual.totalHits.value <= expected.totalHits.value);
+
+      if (expected.scoreDocs.length > 0) {
+        // and the next page
+        final FieldDoc after = (FieldDoc) expected.scoreDocs[expected.scoreDocs.length - 1];
+        expectedCollector = TopFieldCollector.create(expectedSort, numHits, after, Integer.MAX_VALUE);
+        searcher.search(query, expectedCollector);
+        expected = expectedCollector.topDocs();
+        actualCollector = TopFieldCollector.create(actualSort, numHits, after, numHits);
+        searcher.search(query, actualCollector);
+        actual = actualCollector.topDocs();
+        CheckHits.checkEqual(query, expected.scoreDocs, actual.scoreDocs);
+      }
+    }
+
+    reader.close();
+    dir.close();
+  }
+}
@@ -279,6 +279,72 @@ public class TestIndexSearcher extends LuceneTestCase {
     }
   }
 
+  public void testSegmentPartitions() throws IOException {
+    ExecutorService service = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<Runnable>(),
+        new NamedThreadFactory("TestIndexSearcher"));
+    final int maxDocsPerSlice = TestUtil.nextInt(random(), 1, 30);
+    IndexSearcher searcher = new IndexSearcher(reader, service) {
+      @Override
+      protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+        return slices(leaves, maxDocsPerSlice, TestUtil.nextInt(random(), 1, 5), true);
+      }
+    };
+    boolean hasLargeSegment = false;
+    for (LeafReaderContext ctx : reader.leaves()) {
+      hasLargeSegment |= ctx.reader().numDocs() > maxDocsPerSlice;
+    }
+    boolean hasPartitions = false;
+    for (IndexSearcher.LeafSlice slice : searcher.getSlices()) {
+      hasPartitions |= slice.hasSegmentPartitions();
+    }
+    assertEquals(hasLargeSegment, hasPartitions);
+    IndexSearcher singleThreaded = new IndexSearcher(reader);
+
+    Query[] queries = new Query[] {
+        new MatchAllDocsQuery(),
+        new TermQuery(new Term("field2", "true")),
+        new BooleanQuery.Builder()
+            .add(new TermQuery(new Term("field", "1")), Occur.SHOULD)
+            .add(new TermQuery(new Term("field", "42")), Occur.SHOULD)
+            .add(new TermQuery(new Term("field", "98")), Occur.SHOULD)
+            .build()
+    };
+    for (Query query : queries) {
+      TopDocs expected = singleThreaded.search(query, 10);
+      TopDocs actual = searcher.search(query, 10);
+      CheckHits.checkEqual(query, expected.scoreDocs, actual.scoreDocs);
+      assertEquals(singleThreaded.count(query), searcher.search(query, new TotalHitCountCollectorManager()).intValue());
+
+      Sort sort = new Sort(new SortField("field2", SortField.Type.STRING, true));
+      TopFieldDocs expectedSorted = singleThreaded.search(query, 10, sort);
+      TopFieldDocs actualSorted = searcher.search(query, 10, sort);
+      assertEquals(expectedSorted.scoreDocs.length, actualSorted.scoreDocs.length);
+      for (int i = 0; i < expectedSorted.scoreDocs.length; ++i) {
+        assertArrayEquals(((FieldDoc) expectedSorted.scoreDocs[i]).fields, ((FieldDoc) actualSorted.scoreDocs[i]).fields);
+      }
+    }
+
+    service.shutdown();
+  }
+
+  private static class TotalHitCountCollectorManager implements CollectorManager<TotalHitCountCollector, Integer> {
+
+    @Override
+    public TotalHitCountCollector newCollector() {
+      return new TotalHitCountCollector();
+    }
+
+    @Override
+    public Integer reduce(Collection<TotalHitCountCollector> collectors) {
+      int totalHits = 0;
+      for (TotalHitCountCollector collector : collectors) {
+        totalHits += collector.getTotalHits();
+      }
+      return totalHits;
+    }
+  }
+
   public void testRejectedExecution() throws IOException {
     ExecutorService service = new RejectingMockExecutor();
 
@@ -0,0 +1,475 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.VectorField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+/** Tests the {@link KnnVectorQuery} */
+public class TestKnnVectorQuery extends LuceneTestCase {
+
+  public void testEquals() {
+    KnnVectorQuery q1 = new KnnVectorQuery("f1", new float[] {0, 1}, 10);
+    Query filter1 = new TermQuery(new Term("id", "id1"));
+    KnnVectorQuery q2 = new KnnVectorQuery("f1", new float[] {0, 1}, 10, filter1);
+
+    assertNotEquals(q2, q1);
+    assertNotEquals(q1, q2);
+    assertEquals(q2, new KnnVectorQuery("f1", new float[] {0, 1}, 10, filter1));
+    assertEquals(q1, new KnnVectorQuery("f1", new float[] {0, 1}, 10));
+    assertEquals(q1.hashCode(), new KnnVectorQuery("f1", new float[] {0, 1}, 10).hashCode());
+
+    assertNotEquals(q1, new KnnVectorQuery("f2", new float[] {0, 1}, 10));
+    assertNotEquals(q1, new KnnVectorQuery("f1", new float[] {1, 1}, 10));
+    assertNotEquals(q1, new KnnVectorQuery("f1", new float[] {0, 1}, 2));
+    assertNotEquals(q1, new KnnVectorQuery("f1", new float[] {0}, 10));
+  }
+
+  public void testToString() {
+    KnnVectorQuery query = new KnnVectorQuery("field", new float[] {0, 1}, 10);
+    assertEquals("KnnVectorQuery:field[0.0,...][10]", query.toString("ignored"));
+  }
+
+  public void testIllegalArguments() {
+    expectThrows(IllegalArgumentException.class, () -> new KnnVectorQuery("f", new float[] {1}, 0));
+  }
+
+  /**
+   * Tests if a KnnVectorQuery is rewritten to a MatchNoDocsQuery when there are no documents to
+   * match.
+   */
+  public void testEmptyIndex() throws IOException {
+    try (Directory indexStore = getIndexStore("field");
+         IndexReader reader = DirectoryReader.open(indexStore)) {
+      IndexSearcher searcher = newSearcher(reader);
+      KnnVectorQuery kvq = new KnnVectorQuery("field", new float[] {1, 2}, 10);
+      assertMatches(searcher, kvq, 0);
+      Query q = searcher.rewrite(kvq);
+      assertTrue(q instanceof MatchNoDocsQuery);
+    }
+  }
+
+  /**
+   * Tests that a KnnVectorQuery whose topK &gt;= numDocs returns all the documents in score order
+   */
+  public void testFindAll() throws IOException {
+    try (Directory indexStore = getIndexStore("field", new float[] {0, 1}, new float[] {1, 2}, new float[] {0, 0});
+         IndexReader reader = DirectoryReader.open(indexStore)) {
+      IndexSearcher searcher = newSearcher(reader);
+      KnnVectorQuery kvq = new KnnVectorQuery("field", new float[] {0, 0}, 10);
+      assertMatches(searcher, kvq, 3);
+      ScoreDoc[] scoreDocs = searcher.search(kvq, 3).scoreDocs;
+      assertIdMatches(reader, "id2", scoreDocs[0]);
+      assertIdMatches(reader, "id0", scoreDocs[1]);
+      assertIdMatches(reader, "id1", scoreDocs[2]);
+    }
+  }
+
+  /** testDimensionMismatch */
+  public void testDimensionMismatch() throws IOException {
+    try (Directory indexStore = getIndexStore("field", new float[] {0, 1}, new float[] {1, 2}, new float[] {0, 0});
+         IndexReader reader = DirectoryReader.open(indexStore)) {
+      IndexSearcher searcher = newSearcher(reader);
+      KnnVectorQuery kvq = new KnnVectorQuery("field", new float[] {0}, 10);
+      IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> searcher.search(kvq, 10));
+      assertEquals("vector dimensions differ: 1!=2", e.getMessage());
+    }
+  }
+
+  /** testNonVectorField */
+  public void testNonVectorField() throws IOException {
+    try (Directory indexStore = getIndexStore("field", new float[] {0, 1}, new float[] {1, 2}, new float[] {0, 0});
+         IndexReader reader = DirectoryReader.open(indexStore)) {
+      IndexSearcher searcher = newSearcher(reader);
+      assertMatches(searcher, new KnnVectorQuery("xyzzy", new float[] {0}, 10), 0);
+      assertMatches(searcher, new KnnVectorQuery("id", new float[] {0}, 10), 0);
+    }
+  }
+
+  /** Test bad parameters */
+  public void testIllegalParams() throws IOException {
+    expectThrows(IllegalArgumentException.class, () -> new KnnVectorQuery("xx", new float[] {1}, 0));
+    expectThrows(NullPointerException.class, () -> new KnnVectorQuery(null, new float[] {1}, 1));
+    expectThrows(NullPointerException.class, () -> new KnnVectorQuery("xx", null, 1));
+  }
+
+  public void testDifferentReader() throws IOException {
+    try (Directory indexStore = getIndexStore("field", new float[] {0, 1}, new float[] {1, 2}, new float[] {0, 0});
+         IndexReader reader = DirectoryReader.open(indexStore)) {
+      KnnVectorQuery query = new KnnVectorQuery("field", new float[] {2, 3}, 3);
+      Query dasq = query.rewrite(reader);
+      IndexSearcher leafSearcher = newSearcher(reader.leaves().get(0).reader());
+      expectThrows(IllegalStateException.class, () -> dasq.createWeight(leafSearcher, ScoreMode.COMPLETE, 1));
+    }
+  }
+
+  public void testAdvanceShallow() throws IOException {
+    try (Directory d = newDirectory()) {
+      try (IndexWriter w = new IndexWriter(d, createIndexWriterConfig())) {
+        for (int j = 0; j < 5; j++) {
+          Document doc = new Document();
+          doc.add(new VectorField("field", new float[] {j, j}));
+          w.addDocument(doc);
+        }
+      }
+      try (IndexReader reader = DirectoryReader.open(d)) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        KnnVectorQuery query = new KnnVectorQuery("field", new float[] {2, 2.5f}, 3);
+        Query dasq = query.rewrite(reader);
+        Scorer scorer = dasq.createWeight(searcher, ScoreMode.COMPLETE, 1).scorer(reader.leaves().get(0));
+        // before advancing the iterator
+        assertEquals(1, scorer.advanceShallow(0));
+        assertEquals(1, scorer.advanceShallow(1));
+        assertEquals(DocIdSetIterator.NO_MORE_DOCS, scorer.advanceShallow(10));
+
+        // after advancing the iterator
+        scorer.iterator().advance(2);
+        assertEquals(2, scorer.advanceShallow(0));
+        assertEquals(2, scorer.advanceShallow(2));
+        assertEquals(3, scorer.advanceShallow(3));
+        assertEquals(DocIdSetIterator.NO_MORE_DOCS, scorer.advanceShallow(10));
+      }
+    }
+  }
+
+  public void testScore() throws IOException {
+    try (Directory d = newDirectory()) {
+      try (IndexWriter w = new IndexWriter(d, createIndexWriterConfig())) {
+        for (int j = 0; j < 5; j++) {
+          Document doc = new Document();
+          doc.add(new VectorField("field", new float[] {j, j}));
+          w.addDocument(doc);
+        }
+      }
+      try (IndexReader reader = DirectoryReader.open(d)) {
+        assertEquals(1, reader.leaves().size());
+        IndexSearcher searcher = new IndexSearcher(reader);
+        KnnVectorQuery query = new KnnVectorQuery("field", new float[] {2, 2.5f}, 3);
+        Query rewritten = query.rewrite(reader);
+        Weight weight = searcher.createWeight(rewritten, ScoreMode.COMPLETE, 1);
+        Scorer scorer = weight.scorer(reader.leaves().get(0));
+
+        // prior to advancing, score is 0
+        assertEquals(-1, scorer.docID());
+        expectThrows(ArrayIndexOutOfBoundsException.class, scorer::score);
+
+        // test getMaxScore
+        assertEquals(0, scorer.getMaxScore(-1), 0);
+        assertEquals(0, scorer.getMaxScore(0), 0);
+        // This is 1 / (squareDistance((2, 2.5), (2, 2)) + 1) = 1 / 1.25
+        assertEquals(1 / 1.25f, scorer.getMaxScore(2), 0);
+        assertEquals(1 / 1.25f, scorer.getMaxScore(Integer.MAX_VALUE), 0);
+
+        DocIdSetIterator it = scorer.iterator();
+        assertEquals(3, it.cost());
+        assertEquals(1, it.nextDoc());
+        assertEquals(1 / 4.25f, scorer.score(), 0);
+        assertEquals(3, it.advance(3));
+        assertEquals(1 / 2.25f, scorer.score(), 0);
+        assertEquals(DocIdSetIterator.NO_MORE_DOCS, it.advance(4));
+        expectThrows(ArrayIndexOutOfBoundsException.class, scorer::score);
+      }
+    }
+  }
+
+  public void testExplain() throws IOException {
+    try (Directory d = newDirectory()) {
+      try (IndexWriter w = new IndexWriter(d, createIndexWriterConfig())) {
+        for (int j = 0; j < 5; j++) {
+          Document doc = new Document();
+          doc.add(new VectorField("field", new float[] {j, j}));
+          w.addDocument(doc);
+        }
+      }
+      try (IndexReader reader = DirectoryReader.open(d)) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        KnnVectorQuery query = new KnnVectorQuery("field", new float[] {2, 2.5f}, 3);
+        Explanation matched = searcher.explain(query, 2);
+        assertTrue(matched.isMatch());
+        assertEquals(1 / 1.25f, matched.getValue());
+        assertEquals(0, matched.getDetails().length);
+        assertEquals("within top 3", matched.getDescription());
+
+        Explanation nomatch = searcher.explain(query, 4);
+        assertFalse(nomatch.isMatch());
+        assertEquals(0f, nomatch.getValue());
+        assertEquals(0, matched.getDetails().length);
+        assertEquals("not in top 3", nomatch.getDescription());
+      }
+    }
+  }
+
+  /** Tests combining a KnnVectorQuery with other clauses of a BooleanQuery */
+  public void testBooleanQuery() throws IOException {
+    try (Directory d = newDirectory()) {
+      try (IndexWriter w = new IndexWriter(d, createIndexWriterConfig())) {
+        for (int j = 0; j < 10; j++) {
+          Document doc = new Document();
+          doc.add(new VectorField("field", new float[] {j, j}));
+          doc.add(new StringField("tag", j % 2 == 0 ? "even" : "odd", Field.Store.NO));
+          w.addDocument(doc);
+        }
+      }
+      try (IndexReader reader = DirectoryReader.open(d)) {
+        IndexSearcher searcher = newSearcher(reader);
+        // the vector query finds 0, 1, 2 and the term query keeps the even docs
+        BooleanQuery query = new BooleanQuery.Builder()
+            .add(new KnnVectorQuery("field", new float[] {0, 0}, 3), BooleanClause.Occur.MUST)
+            .add(new TermQuery(new Term("tag", "even")), BooleanClause.Occur.FILTER)
+            .build();
+        TopDocs results = searcher.search(query, 10);
+        assertEquals(2, results.totalHits.value);
+        Set<Integer> docs = new HashSet<>();
+        for (ScoreDoc scoreDoc : results.scoreDocs) {
+          docs.add(scoreDoc.doc);
+        }
+        assertEquals(Set.of(0, 2), docs);
+      }
+    }
+  }
+
+  /** Tests with random vectors, number of documents, etc. Uses RandomIndexWriter. */
+  public void testRandom() throws IOException {
+    int numDocs = atLeast(100);
+    int dimension = atLeast(5);
+    int numIters = atLeast(10);
+    boolean everyDocHasAVector = random().nextBoolean();
+    try (Directory d = newDirectory()) {
+      try (IndexWriter w = new IndexWriter(d, createIndexWriterConfig())) {
+        for (int i = 0; i < numDocs; i++) {
+          Document doc = new Document();
+          if (everyDocHasAVector || random().nextInt(10) != 2) {
+            doc.add(new VectorField("field", randomVector(dimension)));
+          }
+          w.addDocument(doc);
+        }
+      }
+      try (IndexReader reader = DirectoryReader.open(d)) {
+        IndexSearcher searcher = newSearcher(reader);
+        for (int i = 0; i < numIters; i++) {
+          int k = random().nextInt(80) + 1;
+          KnnVectorQuery query = new KnnVectorQuery("field", randomVector(dimension), k);
+          int n = random().nextInt(100) + 1;
+          TopDocs results = searcher.search(query, n);
+          int expected = Math.min(Math.min(n, k), reader.numDocs());
+          // we may get fewer results than requested if there are deletions, but this test doesn't
+          // test that
+          assert reader.hasDeletions() == false;
+          assertEquals(expected, results.scoreDocs.length);
+          assertTrue(results.totalHits.value >= results.scoreDocs.length);
+          // verify the results are in descending score order
+          float last = Float.MAX_VALUE;
+          for (ScoreDoc scoreDoc : results.scoreDocs) {
+            assertTrue(scoreDoc.score <= last);
+            last = scoreDoc.score;
+          }
+        }
+      }
+    }
+  }
+
+  /** Tests with random vectors and a random filter. */
+  public void testRandomWithFilter() throws IOException {
+    int numDocs = 1000;
+    int dimension = atLeast(5);
+    int numIters = atLeast(10);
+    try (Directory d = newDirectory()) {
+      // Always use the default kNN format to have predictable behavior around when it hits
+      // visitedLimit. This is fine since the test targets KnnVectorQuery logic, not the kNN format
+      // implementation.
+      IndexWriterConfig iwc = createIndexWriterConfig();
+      try (IndexWriter w = new IndexWriter(d, iwc)) {
+        for (int i = 0; i < numDocs; i++) {
+          Document doc = new Document();
+          doc.add(new VectorField("field", randomVector(dimension)));
+          doc.add(new IntPoint("tag", i));
+          doc.add(new NumericDocValuesField("tag", i));
+          w.addDocument(doc);
+        }
+        // Force merge because smaller segments have few filtered docs and often fall back to exact
+        // search, making this test less interesting
+        w.forceMerge(1);
+      }
+      try (DirectoryReader reader = DirectoryReader.open(d)) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        for (int i = 0; i < numIters; i++) {
+          int lower = random().nextInt(500);
+
+          // Test a filter with cost less than k and check we use exact search
+          Query filter1 = IntPoint.newRangeQuery("tag", lower, lower + 8);
+          TopDocs results = searcher.search(new KnnVectorQuery("field", randomVector(dimension), 10, filter1), numDocs);
+          assertEquals(9, results.totalHits.value);
+          assertEquals(results.totalHits.value, results.scoreDocs.length);
+          expectThrows(UnsupportedOperationException.class, () -> searcher.search(
+              new ThrowingKnnVectorQuery("field", randomVector(dimension), 10, filter1), numDocs));
+
+          // Test an unrestrictive filter and check we use approximate search
+          Query filter3 = IntPoint.newRangeQuery("tag", lower, numDocs);
+          results = searcher.search(new ThrowingKnnVectorQuery("field", randomVector(dimension), 5, filter3), numDocs, new Sort(new SortField("tag", SortField.Type.INT)));
+          assertEquals(5, results.totalHits.value);
+          assertEquals(results.totalHits.value, results.scoreDocs.length);
+
+          for (ScoreDoc scoreDoc : results.scoreDocs) {
+            FieldDoc fieldDoc = (FieldDoc) scoreDoc;
+            assertEquals(1, fieldDoc.fields.length);
+
+            int tag = (int) fieldDoc.fields[0];
+            assertTrue(lower <= tag && tag <= numDocs);
+          }
+
+          // Test a filter that exhausts visitedLimit in upper levels, and switches to exact search
+          Query filter4 = IntPoint.newRangeQuery("tag", lower, lower + 2);
+          expectThrows(UnsupportedOperationException.class, () -> searcher.search(
+              new ThrowingKnnVectorQuery("field", randomVector(dimension), 1, filter4), numDocs));
+        }
+      }
+    }
+  }
+
+  public void testDeletes() throws IOException {
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, createIndexWriterConfig())) {
+      final int numDocs = atLeast(100);
+      final int dim = 30;
+      for (int i = 0; i < numDocs; ++i) {
+        Document d = new Document();
+        d.add(new StringField("index", String.valueOf(i), Field.Store.YES));
+        if (random().nextInt(10) != 0) {
+          d.add(new VectorField("vector", randomVector(dim)));
+        }
+        w.addDocument(d);
+      }
+      w.commit();
+
+      // Delete some documents at random, both those with and without vectors
+      Set<Term> toDelete = new HashSet<>();
+      for (int i = 0; i < 25; i++) {
+        int index = random().nextInt(numDocs);
+        toDelete.add(new Term("index", String.valueOf(index)));
+      }
+      w.deleteDocuments(toDelete.toArray(new Term[0]));
+      w.commit();
+
+      int hits = 50;
+      try (IndexReader reader = DirectoryReader.open(dir)) {
+        Set<String> allIds = new HashSet<>();
+        IndexSearcher searcher = new IndexSearcher(reader);
+        KnnVectorQuery query = new KnnVectorQuery("vector", randomVector(dim), hits);
+        TopDocs topDocs = searcher.search(query, numDocs);
+        for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+          Document doc = reader.document(scoreDoc.doc, Set.of("index"));
+          String index = doc.get("index");
+          assertFalse("search returned a deleted document: " + index, toDelete.contains(new Term("index", index)));
+          allIds.add(index);
+        }
+        assertEquals("search missed some documents", hits, allIds.size());
+      }
+    }
+  }
+
+  public void testMultiReader() throws IOException {
+    try (Directory dir1 = getIndexStore("field", new float[] {0, 1}, new float[] {1, 2});
+         Directory dir2 = getIndexStore("field", new float[] {0, 0}, new float[] {5, 5});
+         IndexReader r1 = DirectoryReader.open(dir1);
+         IndexReader r2 = DirectoryReader.open(dir2)) {
+      MultiReader reader = new MultiReader(r1, r2);
+      IndexSearcher searcher = new IndexSearcher(reader);
+      TopDocs results = searcher.search(new KnnVectorQuery("field", new float[] {0, 0}, 2), 10);
+      assertEquals(2, results.scoreDocs.length);
+      // (0, 0) is doc 0 of the second reader, (0, 1) doc 0 of the first
+      assertEquals(2, results.scoreDocs[0].doc);
+      assertEquals(0, results.scoreDocs[1].doc);
+    }
+  }
+
+  private static IndexWriterConfig createIndexWriterConfig() {
+    IndexWriterConfig iwc = newIndexWriterConfig();
+    // not all codecs support vectors
+    iwc.setCodec(TestUtil.getDefaultCodec());
+    return iwc;
+  }
+
+  private Directory getIndexStore(String field, float[]... contents) throws IOException {
+    Directory indexStore = newDirectory();
+    try (IndexWriter writer = new IndexWriter(indexStore, createIndexWriterConfig())) {
+      for (int i = 0; i < contents.length; ++i) {
+        Document doc = new Document();
+        doc.add(new VectorField(field, contents[i], VectorSimilarityFunction.EUCLIDEAN));
+        doc.add(new StringField("id", "id" + i, Field.Store.YES));
+        writer.addDocument(doc);
+      }
+      if (contents.length == 0) {
+        // an index with a field that has no vectors
+        Document doc = new Document();
+        doc.add(new StringField("other", "value", Field.Store.NO));
+        writer.addDocument(doc);
+      }
+      writer.forceMerge(1);
+    }
+    return indexStore;
+  }
+
+  private void assertMatches(IndexSearcher searcher, Query q, int expectedMatches) throws IOException {
+    ScoreDoc[] result = searcher.search(q, 1000).scoreDocs;
+    assertEquals(expectedMatches, result.length);
+  }
+
+  private void assertIdMatches(IndexReader reader, String expectedId, ScoreDoc scoreDoc) throws IOException {
+    String actualId = reader.document(scoreDoc.doc).get("id");
+    assertEquals(expectedId, actualId);
+  }
+
+  private static float[] randomVector(int dim) {
+    float[] v = new float[dim];
+    for (int i = 0; i < dim; i++) {
+      v[i] = random().nextFloat();
+    }
+    return v;
+  }
+
+  /** A KnnVectorQuery that fails when it resorts to exact search */
+  private static class ThrowingKnnVectorQuery extends KnnVectorQuery {
+
+    ThrowingKnnVectorQuery(String field, float[] target, int k, Query filter) {
+      super(field, target, k, filter);
+    }
+
+    @Override
+    protected TopDocs exactSearch(LeafReaderContext context, DocIdSetIterator acceptIterator) {
+      throw new UnsupportedOperationException("exact search is not supported");
+    }
+  }
+}
@@ -1045,27 +1045,41 @@ public class TestPhraseQuery extends LuceneTestCase {
     w.close();
     IndexSearcher searcher = newSearcher(reader);
 
-    for (String firstTerm : new String[] {"a", "b", "c"}) {
-      for (String secondTerm : new String[] {"a", "b", "c"}) {
-        Query query = new PhraseQuery("foo", new BytesRef(firstTerm), new BytesRef(secondTerm));
-
-        TopScoreDocCollector collector1 = TopScoreDocCollector.create(10, null, Integer.MAX_VALUE); // COMPLETE
-        TopScoreDocCollector collector2 = TopScoreDocCollector.create(10, null, 10); // TOP_SCORES
-
-        searcher.search(query, collector1);
-        searcher.search(query, collector2);
-        CheckHits.checkEqual(query, collector1.topDocs().scoreDocs, collector2.topDocs().scoreDocs);
-
-        Query filteredQuery = new BooleanQuery.Builder()
-            .add(query, Occur.MUST)
-            .add(new TermQuery(new Term("foo", "b")), Occur.FILTER)
-            .build();
-
-        collector1 = TopScoreDocCollector.create(10, null, Integer.MAX_VALUE); // COMPLETE
-        collector2 = TopScoreDocCollector.create(10, null, 10); // TOP_SCORES
-        searcher.search(filteredQuery, collector1);
-        searcher.search(filteredQuery, collector2);
-        CheckHits.checkEqual(query, collector1.topDocs().scoreDocs, collector2.topDocs().scoreDocs);
+    for (int slop : new int[] {0, TestUtil.nextInt(random(), 1, 3)}) {
+      for (String firstTerm : new String[] {"a", "b", "c"}) {
+        for (String secondTerm : new String[] {"a", "b", "c"}) {
+          Query query = new PhraseQuery(slop, "foo", new BytesRef(firstTerm), new BytesRef(secondTerm));
+
+          TopScoreDocCollector collector1 = TopScoreDocCollector.create(10, null, Integer.MAX_VALUE); // COMPLETE
+          TopScoreDocCollector collector2 = TopScoreDocCollector.create(10, null, 10); // TOP_SCORES
+
+          searcher.search(query, collector1);
+          searcher.search(query, collector2);
+          CheckHits.checkEqual(query, collector1.topDocs().scoreDocs, collector2.topDocs().scoreDocs);
+
+          Query filteredQuery = new BooleanQuery.Builder()
+              .add(query, Occur.MUST)
+              .add(new TermQuery(new Term("foo", "b")), Occur.FILTER)
+              .build();
+
+          collector1 = TopScoreDocCollector.create(10, null, Integer.MAX_VALUE); // COMPLETE
+          collector2 = TopScoreDocCollector.create(10, null, 10); // TOP_SCORES
+          searcher.search(filteredQuery, collector1);
+          searcher.search(filteredQuery, collector2);
+          CheckHits.checkEqual(query, collector1.topDocs().scoreDocs, collector2.topDocs().scoreDocs);
+
+          // phrases may be pruned in disjunctions with terms
+          Query disjunction = new BooleanQuery.Builder()
+              .add(query, Occur.SHOULD)
+              .add(new TermQuery(new Term("foo", "c")), Occur.SHOULD)
+              .build();
+
+          collector1 = TopScoreDocCollector.create(10, null, Integer.MAX_VALUE); // COMPLETE
+          collector2 = TopScoreDocCollector.create(10, null, 10); // TOP_SCORES
+          searcher.search(disjunction, collector1);
+          searcher.search(disjunction, collector2);
+          CheckHits.checkEqual(disjunction, collector1.topDocs().scoreDocs, collector2.topDocs().scoreDocs);
+        }
       }
     }
     reader.close();
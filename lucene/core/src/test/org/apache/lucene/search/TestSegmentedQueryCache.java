@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.carrotsearch.randomizedtesting.generators.RandomPicks;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestSegmentedQueryCache extends LuceneTestCase {
+
+  private static final QueryCachingPolicy ALWAYS_CACHE = new QueryCachingPolicy() {
+
+    @Override
+    public void onUse(Query query) {}
+
+    @Override
+    public boolean shouldCache(Query query) throws IOException {
+      return true;
+    }
+
+  };
+
+  private static final QueryCachingPolicy NEVER_CACHE = new QueryCachingPolicy() {
+
+    @Override
+    public void onUse(Query query) {}
+
+    @Override
+    public boolean shouldCache(Query query) throws IOException {
+      return false;
+    }
+
+  };
+
+  public void testIllegalNumPartitions() {
+    IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+        () -> new SegmentedQueryCache(0, 10, 10000));
+    assertEquals("numPartitions must be at least 1, got 0", e.getMessage());
+  }
+
+  public void testNumPartitionsBoundedByMaxSize() {
+    assertEquals(4, new SegmentedQueryCache(4, 100, 10000).numPartitions());
+    assertEquals(3, new SegmentedQueryCache(4, 3, 10000).numPartitions());
+    assertEquals(1, new SegmentedQueryCache(4, 0, 10000).numPartitions());
+  }
+
+  public void testStats() throws IOException {
+    final SegmentedQueryCache queryCache = new SegmentedQueryCache(TestUtil.nextInt(random(), 1, 8), 100, 10000000, context -> true, 1);
+
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    final String[] colors = new String[] {"blue", "red", "green", "yellow"};
+    Document doc = new Document();
+    StringField f = new StringField("color", "", Store.NO);
+    doc.add(f);
+    for (int i = 0; i < 10; ++i) {
+      f.setStringValue(RandomPicks.randomFrom(random(), colors));
+      w.addDocument(doc);
+      if (random().nextBoolean()) {
+        w.getReader().close();
+      }
+    }
+
+    final DirectoryReader reader = w.getReader();
+    final int segmentCount = reader.leaves().size();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(queryCache);
+
+    // lookups without caching all miss
+    searcher.setQueryCachingPolicy(NEVER_CACHE);
+    for (String color : colors) {
+      searcher.search(new ConstantScoreQuery(new TermQuery(new Term("color", color))), 1);
+    }
+    assertEquals(colors.length * segmentCount, queryCache.getMissCount());
+    assertEquals(0, queryCache.getHitCount());
+    assertEquals(0, queryCache.getCacheSize());
+
+    // the first lookup of each query is a miss, the second one a hit
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+    for (int i = 0; i < 2; ++i) {
+      for (String color : colors) {
+        searcher.search(new ConstantScoreQuery(new TermQuery(new Term("color", color))), 1);
+      }
+    }
+    assertEquals(3 * colors.length * segmentCount, queryCache.getTotalCount());
+    assertEquals(colors.length * segmentCount, queryCache.getHitCount());
+    assertEquals(colors.length * segmentCount, queryCache.getCacheCount());
+    assertEquals(colors.length * segmentCount, queryCache.getCacheSize());
+    assertEquals(0, queryCache.getEvictionCount());
+    assertEquals(colors.length, queryCache.cachedQueries().size());
+    queryCache.assertConsistent();
+
+    // clearing a query only affects its own entries
+    queryCache.clearQuery(new TermQuery(new Term("color", "red")));
+    assertEquals((colors.length - 1) * segmentCount, queryCache.getCacheSize());
+    assertEquals(segmentCount, queryCache.getEvictionCount());
+    queryCache.assertConsistent();
+
+    // closing the reader evicts all remaining entries
+    reader.close();
+    w.close();
+    assertEquals(0, queryCache.getCacheSize());
+    assertEquals(colors.length * segmentCount, queryCache.getEvictionCount());
+    queryCache.assertConsistent();
+    dir.close();
+  }
+
+  public void testEviction() throws IOException {
+    final int numPartitions = TestUtil.nextInt(random(), 1, 4);
+    final int maxSize = numPartitions * 2;
+    final SegmentedQueryCache queryCache = new SegmentedQueryCache(numPartitions, maxSize, 10000000, context -> true, Float.POSITIVE_INFINITY);
+
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    Document doc = new Document();
+    doc.add(new StringField("id", "0", Store.NO));
+    w.addDocument(doc);
+    final DirectoryReader reader = w.getReader();
+    final IndexSearcher searcher = newSearcher(reader);
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+
+    final Set<Query> queries = new HashSet<>();
+    for (int i = 0; i < 100; ++i) {
+      Query query = new TermQuery(new Term("id", Integer.toString(i)));
+      queries.add(query);
+      searcher.search(new ConstantScoreQuery(query), 1);
+      assertTrue(queryCache.cachedQueries().size() <= maxSize);
+      queryCache.assertConsistent();
+    }
+    assertTrue(queries.containsAll(queryCache.cachedQueries()));
+
+    queryCache.clear();
+    assertEquals(0, queryCache.cachedQueries().size());
+    assertEquals(0, queryCache.getCacheSize());
+    assertEquals(0, queryCache.ramBytesUsed());
+
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testConcurrency() throws Throwable {
+    final SegmentedQueryCache queryCache = new SegmentedQueryCache(1 + random().nextInt(8), 1 + random().nextInt(20), 1 + random().nextInt(10000), context -> random().nextBoolean(), Float.POSITIVE_INFINITY);
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    final SearcherFactory searcherFactory = new SearcherFactory() {
+      @Override
+      public IndexSearcher newSearcher(IndexReader reader, IndexReader previous) throws IOException {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+        searcher.setQueryCache(queryCache);
+        return searcher;
+      }
+    };
+    final SearcherManager mgr = new SearcherManager(w.w, random().nextBoolean(), false, searcherFactory);
+    final AtomicBoolean indexing = new AtomicBoolean(true);
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    final String[] colors = new String[] {"blue", "red", "yellow", "green", "purple", "orange"};
+    final int numDocs = atLeast(1000);
+    Thread[] threads = new Thread[4];
+    threads[0] = new Thread() {
+      public void run() {
+        Document doc = new Document();
+        StringField f = new StringField("color", "", Store.NO);
+        doc.add(f);
+        for (int i = 0; indexing.get() && i < numDocs; ++i) {
+          f.setStringValue(RandomPicks.randomFrom(random(), colors));
+          try {
+            w.addDocument(doc);
+            if ((i & 63) == 0) {
+              mgr.maybeRefresh();
+              if (rarely()) {
+                queryCache.clear();
+              }
+            }
+          } catch (Throwable t) {
+            error.compareAndSet(null, t);
+            break;
+          }
+        }
+        indexing.set(false);
+      }
+    };
+    for (int i = 1; i < threads.length; ++i) {
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          while (indexing.get()) {
+            try {
+              final IndexSearcher searcher = mgr.acquire();
+              try {
+                final Query q = new TermQuery(new Term("color", RandomPicks.randomFrom(random(), colors)));
+                TotalHitCountCollector collector = new TotalHitCountCollector();
+                searcher.search(q, collector); // will use the cache
+                TotalHitCountCollector collector2 = new TotalHitCountCollector();
+                searcher.search(q, new FilterCollector(collector2) {
+                  public ScoreMode scoreMode() {
+                    return ScoreMode.COMPLETE; // will not use the cache because of scores
+                  }
+                });
+                assertEquals(collector2.getTotalHits(), collector.getTotalHits());
+              } finally {
+                mgr.release(searcher);
+              }
+            } catch (Throwable t) {
+              error.compareAndSet(null, t);
+            }
+          }
+        }
+      };
+    }
+
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    if (error.get() != null) {
+      throw error.get();
+    }
+    queryCache.assertConsistent();
+    mgr.close();
+    w.close();
+    dir.close();
+    queryCache.assertConsistent();
+    assertEquals(0, queryCache.getCacheSize());
+  }
+}
@@ -38,6 +38,7 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.similarities.ClassicSimilarity;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.LuceneTestCase;
 import org.apache.lucene.util.TestUtil;
 
@@ -256,4 +257,64 @@ public class TestTermScorer extends LuceneTestCase {
     dir.close();
   }
 
+  public void testNextDocsAndScores() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(newLogMergePolicy()));
+    int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      int numValues = random().nextInt(1 << random().nextInt(5));
+      int start = random().nextInt(10);
+      for (int j = 0; j < numValues; ++j) {
+        int freq = TestUtil.nextInt(random(), 1, 1 << random().nextInt(3));
+        for (int k = 0; k < freq; ++k) {
+          doc.add(new TextField("foo", Integer.toString(start + j), Store.NO));
+        }
+      }
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    if (random().nextBoolean()) {
+      w.deleteDocuments(new Term("foo", "3"));
+    }
+    IndexReader reader = DirectoryReader.open(w);
+    w.close();
+    IndexSearcher searcher = new IndexSearcher(reader);
+    LeafReaderContext context = searcher.getIndexReader().leaves().get(0);
+    DocAndScoreBuffer buffer = new DocAndScoreBuffer();
+
+    for (int iter = 0; iter < 15; ++iter) {
+      Query query = new TermQuery(new Term("foo", Integer.toString(iter)));
+      Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE, 1);
+      Scorer expected = weight.scorer(context);
+      Scorer actual = weight.scorer(context);
+      if (expected == null) {
+        assertNull(actual);
+        continue;
+      }
+      Bits liveDocs = context.reader().getLiveDocs();
+      expected.iterator().nextDoc();
+      int doc = actual.iterator().nextDoc();
+      while (doc != DocIdSetIterator.NO_MORE_DOCS) {
+        int upTo = random().nextBoolean() ? DocIdSetIterator.NO_MORE_DOCS : doc + TestUtil.nextInt(random(), 1, 200);
+        actual.nextDocsAndScores(upTo, liveDocs, buffer);
+        for (int i = 0; i < buffer.size; ++i) {
+          while (liveDocs != null && liveDocs.get(expected.docID()) == false) {
+            expected.iterator().nextDoc();
+          }
+          assertEquals(expected.docID(), buffer.docs[i]);
+          assertEquals(expected.score(), buffer.scores[i], 0f);
+          expected.iterator().nextDoc();
+        }
+        doc = actual.docID();
+        while (expected.docID() < doc && (liveDocs == null || liveDocs.get(expected.docID()) == false)) {
+          expected.iterator().nextDoc();
+        }
+        assertEquals(expected.docID(), doc);
+      }
+    }
+    reader.close();
+    dir.close();
+  }
+
 }
@@ -18,15 +18,31 @@ package org.apache.lucene.search.spans;
 
 
 import java.io.IOException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.CheckHits;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryUtils;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.LuceneTestCase;
 
@@ -90,4 +106,86 @@ public class TestSpanNearQuery extends LuceneTestCase {
     });
 
   }
+
+  public void testMaxScore() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
+    for (String text : new String[] {"a b c", "a c b a", "c c c", "b a"}) {
+      Document doc = new Document();
+      doc.add(new TextField("foo", text, Field.Store.NO));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    IndexReader reader = DirectoryReader.open(w);
+    w.close();
+    IndexSearcher searcher = newSearcher(reader);
+    LeafReaderContext context = searcher.getIndexReader().leaves().get(0);
+
+    SpanQuery a = new SpanTermQuery(new Term("foo", "a"));
+    SpanQuery b = new SpanTermQuery(new Term("foo", "b"));
+    SpanQuery c = new SpanTermQuery(new Term("foo", "c"));
+    for (SpanQuery query : new SpanQuery[] {
+        new SpanNearQuery(new SpanQuery[] {a, b}, 2, true),
+        new SpanNearQuery(new SpanQuery[] {a, a}, 3, false),
+        new SpanOrQuery(a, new SpanNearQuery(new SpanQuery[] {b, c}, 1, false)),
+        new SpanNotQuery(a, c)}) {
+      Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.TOP_SCORES, 1);
+      Scorer scorer = weight.scorer(context);
+      scorer.advanceShallow(0);
+      float maxScore = scorer.getMaxScore(DocIdSetIterator.NO_MORE_DOCS);
+      assertTrue(query.toString(), Float.isFinite(maxScore));
+      for (int doc = scorer.iterator().nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = scorer.iterator().nextDoc()) {
+        assertTrue(query.toString(), scorer.score() <= maxScore);
+      }
+    }
+
+    // gaps are not built on terms so their spans have no known bound
+    SpanQuery gap = SpanNearQuery.newOrderedNearQuery("foo").addClause(a).addGap(1).addClause(c).build();
+    Weight weight = searcher.createWeight(searcher.rewrite(gap), ScoreMode.TOP_SCORES, 1);
+    Scorer scorer = weight.scorer(context);
+    scorer.advanceShallow(0);
+    assertEquals(Float.POSITIVE_INFINITY, scorer.getMaxScore(DocIdSetIterator.NO_MORE_DOCS), 0f);
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testRandomTopDocs() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
+    int numDocs = TEST_NIGHTLY ? atLeast(128 * 8 * 8 * 3) : atLeast(100); // at night, make sure some terms have skip data
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      int numTerms = random().nextInt(1 << random().nextInt(5));
+      String text = IntStream.range(0, numTerms)
+          .mapToObj(index -> random().nextBoolean() ? "a" : random().nextBoolean() ? "b" : "c")
+          .collect(Collectors.joining(" "));
+      doc.add(new TextField("foo", text, Field.Store.NO));
+      w.addDocument(doc);
+    }
+    IndexReader reader = DirectoryReader.open(w);
+    w.close();
+    IndexSearcher searcher = newSearcher(reader);
+
+    for (String firstTerm : new String[] {"a", "b", "c"}) {
+      for (String secondTerm : new String[] {"a", "b", "c"}) {
+        SpanQuery[] clauses = new SpanQuery[] {
+            new SpanTermQuery(new Term("foo", firstTerm)),
+            new SpanTermQuery(new Term("foo", secondTerm))};
+        Query spanQuery = new SpanNearQuery(clauses, random().nextInt(3), random().nextBoolean());
+        Query query = new BooleanQuery.Builder()
+            .add(spanQuery, Occur.SHOULD)
+            .add(new TermQuery(new Term("foo", "c")), Occur.SHOULD)
+            .build();
+
+        TopScoreDocCollector collector1 = TopScoreDocCollector.create(10, null, Integer.MAX_VALUE); // COMPLETE
+        TopScoreDocCollector collector2 = TopScoreDocCollector.create(10, null, 10); // TOP_SCORES
+        searcher.search(query, collector1);
+        searcher.search(query, collector2);
+        CheckHits.checkEqual(query, collector1.topDocs().scoreDocs, collector2.topDocs().scoreDocs);
+      }
+    }
+    reader.close();
+    dir.close();
+  }
 }
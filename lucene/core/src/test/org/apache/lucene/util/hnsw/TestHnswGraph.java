@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+
+/** Tests HNSW KNN graphs */
+public class TestHnswGraph extends LuceneTestCase {
+
+  public void testRecall() throws IOException {
+    int size = atLeast(500);
+    int dim = TestUtil.nextInt(random(), 2, 16);
+    int topK = 10;
+    VectorSimilarityFunction similarityFunction = randomSimilarity();
+    RandomVectorValues vectors = new RandomVectorValues(size, dim, random());
+    HnswGraphBuilder builder = new HnswGraphBuilder(vectors, similarityFunction, 16, 100, random().nextLong());
+    OnHeapHnswGraph hnsw = builder.build();
+    assertEquals(size, hnsw.size());
+
+    int totalMatches = 0;
+    int numQueries = 20;
+    for (int i = 0; i < numQueries; i++) {
+      float[] query = randomVector(random(), dim);
+      NeighborQueue actual = HnswGraphSearcher.search(query, 100, vectors, similarityFunction, hnsw, null, Integer.MAX_VALUE);
+      while (actual.size() > topK) {
+        actual.pop();
+      }
+      NeighborQueue expected = new NeighborQueue(topK, false);
+      for (int j = 0; j < size; j++) {
+        expected.insertWithOverflow(j, similarityFunction.compare(query, vectors.vectorValue(j)), topK);
+      }
+      totalMatches += computeOverlap(actual.nodes(), expected.nodes());
+    }
+    double recall = totalMatches / (double) (numQueries * topK);
+    assertTrue("recall=" + recall, recall > 0.8);
+  }
+
+  public void testNeighborBounds() throws IOException {
+    int size = atLeast(200);
+    int maxConn = TestUtil.nextInt(random(), 2, 16);
+    RandomVectorValues vectors = new RandomVectorValues(size, 4, random());
+    HnswGraphBuilder builder = new HnswGraphBuilder(vectors, randomSimilarity(), maxConn, 30, random().nextLong());
+    OnHeapHnswGraph hnsw = builder.build();
+    assertGraphConsistent(hnsw, maxConn, size);
+  }
+
+  public void testAcceptOrds() throws IOException {
+    int size = atLeast(200);
+    RandomVectorValues vectors = new RandomVectorValues(size, 4, random());
+    VectorSimilarityFunction similarityFunction = randomSimilarity();
+    HnswGraphBuilder builder = new HnswGraphBuilder(vectors, similarityFunction, 8, 30, random().nextLong());
+    OnHeapHnswGraph hnsw = builder.build();
+
+    FixedBitSet acceptOrds = new FixedBitSet(size);
+    for (int i = 0; i < size; i += 2) {
+      acceptOrds.set(i);
+    }
+    NeighborQueue nn = HnswGraphSearcher.search(randomVector(random(), 4), 10, vectors, similarityFunction, hnsw, acceptOrds, Integer.MAX_VALUE);
+    assertEquals(10, nn.size());
+    for (int node : nn.nodes()) {
+      assertTrue("the results include a rejected ordinal: " + node, acceptOrds.get(node));
+    }
+  }
+
+  public void testVisitedLimit() throws IOException {
+    int size = atLeast(200);
+    RandomVectorValues vectors = new RandomVectorValues(size, 4, random());
+    VectorSimilarityFunction similarityFunction = randomSimilarity();
+    HnswGraphBuilder builder = new HnswGraphBuilder(vectors, similarityFunction, 8, 30, random().nextLong());
+    OnHeapHnswGraph hnsw = builder.build();
+
+    int visitedLimit = 5;
+    NeighborQueue nn = HnswGraphSearcher.search(randomVector(random(), 4), 10, vectors, similarityFunction, hnsw, null, visitedLimit);
+    assertTrue(nn.incomplete());
+    assertTrue(nn.visitedCount() <= visitedLimit);
+
+    nn = HnswGraphSearcher.search(randomVector(random(), 4), 10, vectors, similarityFunction, hnsw, null, Integer.MAX_VALUE);
+    assertFalse(nn.incomplete());
+    assertTrue(nn.visitedCount() >= 10);
+  }
+
+  public void testSearchEmptyGraph() throws IOException {
+    RandomVectorValues vectors = new RandomVectorValues(0, 4, random());
+    OnHeapHnswGraph hnsw = new HnswGraphBuilder(vectors, VectorSimilarityFunction.EUCLIDEAN, 8, 30, random().nextLong()).build();
+    assertEquals(0, hnsw.size());
+    NeighborQueue nn = HnswGraphSearcher.search(new float[4], 10, vectors, VectorSimilarityFunction.EUCLIDEAN, hnsw, null, Integer.MAX_VALUE);
+    assertEquals(0, nn.size());
+  }
+
+  public void testInitializeFromGraph() throws IOException {
+    int size = atLeast(200);
+    int maxConn = 8;
+    VectorSimilarityFunction similarityFunction = randomSimilarity();
+    RandomVectorValues vectors = new RandomVectorValues(size, 4, random());
+    int initializerSize = size / 2;
+    int ordOffset = random().nextBoolean() ? 0 : size - initializerSize;
+    RandomVectorValues initializerVectors = vectors.slice(ordOffset, initializerSize);
+    OnHeapHnswGraph initializerGraph = new HnswGraphBuilder(initializerVectors, similarityFunction, maxConn, 30, random().nextLong()).build();
+
+    HnswGraphBuilder builder = new HnswGraphBuilder(vectors, similarityFunction, maxConn, 30, random().nextLong());
+    builder.initializeFromGraph(initializerGraph, ordOffset);
+    OnHeapHnswGraph hnsw = builder.build();
+    assertGraphConsistent(hnsw, maxConn, size);
+
+    // the initializer nodes keep their levels
+    for (int level = 1; level < initializerGraph.numLevels(); level++) {
+      Set<Integer> nodes = new HashSet<>();
+      for (int node : hnsw.getNodesOnLevel(level)) {
+        nodes.add(node);
+      }
+      for (int node : initializerGraph.getNodesOnLevel(level)) {
+        assertTrue(nodes.contains(node + ordOffset));
+      }
+    }
+
+    // the nodes that were added can be found
+    for (int i = 0; i < 10; i++) {
+      int target = random().nextInt(size);
+      NeighborQueue nn = HnswGraphSearcher.search(vectors.vectorValue(target).clone(), 10, vectors, similarityFunction, hnsw, null, Integer.MAX_VALUE);
+      Set<Integer> found = new HashSet<>();
+      for (int node : nn.nodes()) {
+        found.add(node);
+      }
+      assertTrue(found.contains(target));
+    }
+  }
+
+  private static void assertGraphConsistent(OnHeapHnswGraph hnsw, int maxConn, int size) throws IOException {
+    assertEquals(size, hnsw.size());
+    assertEquals(size, hnsw.getNodesOnLevel(0).length);
+    for (int level = 0; level < hnsw.numLevels(); level++) {
+      int maxConnOnLevel = level == 0 ? maxConn * 2 : maxConn;
+      for (int node : hnsw.getNodesOnLevel(level)) {
+        hnsw.seek(level, node);
+        Set<Integer> neighbors = new HashSet<>();
+        int neighbor;
+        while ((neighbor = hnsw.nextNeighbor()) != NO_MORE_DOCS) {
+          assertNotEquals("node " + node + " is its own neighbor", node, neighbor);
+          assertTrue("duplicate neighbor " + neighbor + " of node " + node, neighbors.add(neighbor));
+          assertTrue(neighbor >= 0 && neighbor < size);
+        }
+        assertTrue("node " + node + " has " + neighbors.size() + " neighbors on level " + level,
+            neighbors.size() <= maxConnOnLevel);
+        if (size > 1 && level == 0) {
+          assertFalse("node " + node + " has no neighbors", neighbors.isEmpty());
+        }
+      }
+    }
+  }
+
+  private static int computeOverlap(int[] a, int[] b) {
+    Set<Integer> set = new HashSet<>();
+    for (int node : a) {
+      set.add(node);
+    }
+    int overlap = 0;
+    for (int node : b) {
+      if (set.contains(node)) {
+        overlap++;
+      }
+    }
+    return overlap;
+  }
+
+  private static VectorSimilarityFunction randomSimilarity() {
+    VectorSimilarityFunction[] values = VectorSimilarityFunction.values();
+    return values[random().nextInt(values.length)];
+  }
+
+  private static float[] randomVector(Random random, int dim) {
+    float[] vec = new float[dim];
+    for (int i = 0; i < dim; i++) {
+      vec[i] = random.nextFloat();
+    }
+    // normalize so that DOT_PRODUCT is a proper similarity
+    float norm = 0;
+    for (float v : vec) {
+      norm += v * v;
+    }
+    norm = (float) Math.sqrt(norm);
+    for (int i = 0; i < dim; i++) {
+      vec[i] = norm == 0 ? 0 : vec[i] / norm;
+    }
+    return vec;
+  }
+
+  /** Vector values held in memory, that can be accessed by ordinal */
+  private static class RandomVectorValues implements RandomAccessVectorValues {
+
+    private final int dimension;
+    private final float[][] values;
+
+    RandomVectorValues(int size, int dimension, Random random) {
+      this.dimension = dimension;
+      values = new float[size][];
+      for (int i = 0; i < size; i++) {
+        values[i] = randomVector(random, dimension);
+      }
+    }
+
+    private RandomVectorValues(int dimension, float[][] values) {
+      this.dimension = dimension;
+      this.values = values;
+    }
+
+    RandomVectorValues slice(int offset, int length) {
+      float[][] slice = new float[length][];
+      System.arraycopy(values, offset, slice, 0, length);
+      return new RandomVectorValues(dimension, slice);
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+
+    @Override
+    public int dimension() {
+      return dimension;
+    }
+
+    @Override
+    public float[] vectorValue(int targetOrd) {
+      return values[targetOrd];
+    }
+
+    @Override
+    public RandomAccessVectorValues copy() {
+      return new RandomVectorValues(dimension, values);
+    }
+  }
+}
@@ -35,12 +35,16 @@ import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
 import org.apache.lucene.analysis.tokenattributes.TermToBytesRefAttribute;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.VectorField;
 import org.apache.lucene.index.*;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Scorable;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.similarities.Similarity;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.ArrayUtil;
@@ -414,6 +418,13 @@ public class MemoryIndex {
       storePointValues(info, field.binaryValue());
     }
 
+    if (field.fieldType().vectorDimension() > 0) {
+      if (field instanceof VectorField == false) {
+        throw new IllegalArgumentException("vector values of field [" + field.name() + "] must be added with a VectorField");
+      }
+      storeVectorValue(info, ((VectorField) field).vectorValue());
+    }
+
   }
   
   /**
@@ -490,6 +501,10 @@ public class MemoryIndex {
       if (fieldType.pointDimensionCount() > 0)
         info.fieldInfo.setPointDimensions(fieldType.pointDimensionCount(), fieldType.pointIndexDimensionCount(), fieldType.pointNumBytes());
     }
+    if (fieldType.vectorDimension() != info.fieldInfo.getVectorDimension()) {
+      if (fieldType.vectorDimension() > 0)
+        info.fieldInfo.setVectorDimensionAndSimilarityFunction(fieldType.vectorDimension(), fieldType.vectorSimilarityFunction());
+    }
     if (fieldType.docValuesType() != info.fieldInfo.getDocValuesType()) {
       if (fieldType.docValuesType() != DocValuesType.NONE)
         info.fieldInfo.setDocValuesType(fieldType.docValuesType());
@@ -501,7 +516,15 @@ public class MemoryIndex {
     IndexOptions indexOptions = storeOffsets ? IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS : IndexOptions.DOCS_AND_FREQS_AND_POSITIONS;
     return new FieldInfo(fieldName, ord, fieldType.storeTermVectors(), fieldType.omitNorms(), storePayloads,
         indexOptions, fieldType.docValuesType(), -1, Collections.emptyMap(),
-        fieldType.pointDimensionCount(), fieldType.pointIndexDimensionCount(), fieldType.pointNumBytes(), false);
+        fieldType.pointDimensionCount(), fieldType.pointIndexDimensionCount(), fieldType.pointNumBytes(),
+        fieldType.vectorDimension(), fieldType.vectorSimilarityFunction(), false);
+  }
+
+  private void storeVectorValue(Info info, float[] vectorValue) {
+    if (info.vectorValue != null) {
+      throw new IllegalArgumentException("Only one value per field allowed for vector field [" + info.fieldInfo.name + "]");
+    }
+    info.vectorValue = vectorValue.clone();
   }
 
   private void storePointValues(Info info, BytesRef pointValue) {
@@ -521,6 +544,7 @@ public class MemoryIndex {
           info.fieldInfo.name, info.fieldInfo.number, info.fieldInfo.hasVectors(), info.fieldInfo.hasPayloads(),
           info.fieldInfo.hasPayloads(), info.fieldInfo.getIndexOptions(), docValuesType, -1, info.fieldInfo.attributes(),
           info.fieldInfo.getPointDimensionCount(), info.fieldInfo.getPointIndexDimensionCount(), info.fieldInfo.getPointNumBytes(),
+          info.fieldInfo.getVectorDimension(), info.fieldInfo.getVectorSimilarityFunction(),
           info.fieldInfo.isSoftDeletesField()
       );
     } else if (existingDocValuesType != docValuesType) {
@@ -831,6 +855,8 @@ public class MemoryIndex {
 
     private int pointValuesCount;
 
+    private float[] vectorValue;
+
     private Info(FieldInfo fieldInfo, ByteBlockPool byteBlockPool) {
       this.fieldInfo = fieldInfo;
       this.sliceArray = new SliceByteStartArray(BytesRefHash.DEFAULT_CAPACITY);
@@ -1240,6 +1266,35 @@ public class MemoryIndex {
       return new MemoryIndexPointValues(info);
     }
 
+    @Override
+    public VectorValues getVectorValues(String fieldName) {
+      Info info = fields.get(fieldName);
+      if (info == null || info.vectorValue == null) {
+        return null;
+      }
+      return new MemoryVectorValues(info.vectorValue);
+    }
+
+    @Override
+    public TopDocs searchNearestVectors(String fieldName, float[] target, int k, Bits acceptDocs, int visitedLimit) {
+      Info info = fields.get(fieldName);
+      if (info == null || info.vectorValue == null) {
+        return null;
+      }
+      if (target.length != info.vectorValue.length) {
+        throw new IllegalArgumentException("vector dimensions differ: " + target.length + "!=" + info.vectorValue.length);
+      }
+      if (acceptDocs != null && acceptDocs.get(0) == false) {
+        return new TopDocs(new TotalHits(0, TotalHits.Relation.EQUAL_TO), new ScoreDoc[0]);
+      }
+      if (visitedLimit < 1) {
+        return new TopDocs(new TotalHits(0, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO), new ScoreDoc[0]);
+      }
+      // the only document is the nearest neighbor
+      float score = info.fieldInfo.getVectorSimilarityFunction().compare(target, info.vectorValue);
+      return new TopDocs(new TotalHits(1, TotalHits.Relation.EQUAL_TO), new ScoreDoc[] {new ScoreDoc(0, score)});
+    }
+
     @Override
     public void checkIntegrity() throws IOException {
       // no-op
@@ -1545,7 +1600,7 @@ public class MemoryIndex {
       }
     }
 
-    private class MemoryIndexPointValues extends PointValues {
+  private class MemoryIndexPointValues extends PointValues {
 
       final Info info;
 
@@ -1677,6 +1732,52 @@ public class MemoryIndex {
     this.frozen = false;
   }
   
+  private static final class MemoryVectorValues extends VectorValues {
+
+    private final float[] vectorValue;
+    private int docID = -1;
+
+    MemoryVectorValues(float[] vectorValue) {
+      this.vectorValue = vectorValue;
+    }
+
+    @Override
+    public int dimension() {
+      return vectorValue.length;
+    }
+
+    @Override
+    public int size() {
+      return 1;
+    }
+
+    @Override
+    public float[] vectorValue() {
+      if (docID == 0) {
+        return vectorValue;
+      }
+      throw new IllegalStateException("vector values are not positioned on a document");
+    }
+
+    @Override
+    public int docID() {
+      return docID;
+    }
+
+    @Override
+    public int nextDoc() {
+      return advance(docID + 1);
+    }
+
+    @Override
+    public int advance(int target) {
+      if (target == 0) {
+        return docID = 0;
+      }
+      return docID = NO_MORE_DOCS;
+    }
+  }
+
   private static final class SliceByteStartArray extends DirectBytesStartArray {
     int[] start; // the start offset in the IntBlockPool per term
     int[] end; // the end pointer in the IntBlockPool for the postings slice per term
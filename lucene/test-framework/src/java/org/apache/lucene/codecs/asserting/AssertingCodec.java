@@ -16,6 +16,8 @@
  */
 package org.apache.lucene.codecs.asserting;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.apache.lucene.codecs.DocValuesFormat;
 import org.apache.lucene.codecs.FilterCodec;
 import org.apache.lucene.codecs.LiveDocsFormat;
@@ -33,11 +35,16 @@ import org.apache.lucene.util.TestUtil;
  */
 public class AssertingCodec extends FilterCodec {
 
-  static void assertThread(String object, Thread creationThread) {
-    if (creationThread != Thread.currentThread()) {
+  /**
+   * Asserts that only one thread consumes the object. This is the first thread to consume it, which isn't
+   * necessarily the thread that acquired it: merges may hand their merge instances to intra-merge threads.
+   */
+  static void assertThread(String object, AtomicReference<Thread> consumerThread) {
+    Thread currentThread = Thread.currentThread();
+    if (consumerThread.compareAndSet(null, currentThread) == false && consumerThread.get() != currentThread) {
       throw new AssertionError(object + " are only supposed to be consumed in "
-          + "the thread in which they have been acquired. But was acquired in "
-          + creationThread + " and consumed in " + Thread.currentThread() + ".");
+          + "a single thread. But was consumed in " + consumerThread.get()
+          + " and in " + currentThread + ".");
     }
   }
 
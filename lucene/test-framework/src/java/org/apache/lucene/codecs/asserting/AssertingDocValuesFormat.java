@@ -18,6 +18,7 @@ package org.apache.lucene.codecs.asserting;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.lucene.codecs.DocValuesConsumer;
 import org.apache.lucene.codecs.DocValuesFormat;
@@ -220,13 +221,12 @@ public class AssertingDocValuesFormat extends DocValuesFormat {
     private final DocValuesProducer in;
     private final int maxDoc;
     private final boolean merging;
-    private final Thread creationThread;
+    private final AtomicReference<Thread> consumerThread = new AtomicReference<>();
     
     AssertingDocValuesProducer(DocValuesProducer in, int maxDoc, boolean merging) {
       this.in = in;
       this.maxDoc = maxDoc;
       this.merging = merging;
-      this.creationThread = Thread.currentThread();
       // do a few simple checks on init
       assert toString() != null;
       assert ramBytesUsed() >= 0;
@@ -236,7 +236,7 @@ public class AssertingDocValuesFormat extends DocValuesFormat {
     @Override
     public NumericDocValues getNumeric(FieldInfo field) throws IOException {
       if (merging) {
-        AssertingCodec.assertThread("DocValuesProducer", creationThread);
+        AssertingCodec.assertThread("DocValuesProducer", consumerThread);
       }
       assert field.getDocValuesType() == DocValuesType.NUMERIC;
       NumericDocValues values = in.getNumeric(field);
@@ -247,7 +247,7 @@ public class AssertingDocValuesFormat extends DocValuesFormat {
     @Override
     public BinaryDocValues getBinary(FieldInfo field) throws IOException {
       if (merging) {
-        AssertingCodec.assertThread("DocValuesProducer", creationThread);
+        AssertingCodec.assertThread("DocValuesProducer", consumerThread);
       }
       assert field.getDocValuesType() == DocValuesType.BINARY;
       BinaryDocValues values = in.getBinary(field);
@@ -258,7 +258,7 @@ public class AssertingDocValuesFormat extends DocValuesFormat {
     @Override
     public SortedDocValues getSorted(FieldInfo field) throws IOException {
       if (merging) {
-        AssertingCodec.assertThread("DocValuesProducer", creationThread);
+        AssertingCodec.assertThread("DocValuesProducer", consumerThread);
       }
       assert field.getDocValuesType() == DocValuesType.SORTED;
       SortedDocValues values = in.getSorted(field);
@@ -269,7 +269,7 @@ public class AssertingDocValuesFormat extends DocValuesFormat {
     @Override
     public SortedNumericDocValues getSortedNumeric(FieldInfo field) throws IOException {
       if (merging) {
-        AssertingCodec.assertThread("DocValuesProducer", creationThread);
+        AssertingCodec.assertThread("DocValuesProducer", consumerThread);
       }
       assert field.getDocValuesType() == DocValuesType.SORTED_NUMERIC;
       SortedNumericDocValues values = in.getSortedNumeric(field);
@@ -280,7 +280,7 @@ public class AssertingDocValuesFormat extends DocValuesFormat {
     @Override
     public SortedSetDocValues getSortedSet(FieldInfo field) throws IOException {
       if (merging) {
-        AssertingCodec.assertThread("DocValuesProducer", creationThread);
+        AssertingCodec.assertThread("DocValuesProducer", consumerThread);
       }
       assert field.getDocValuesType() == DocValuesType.SORTED_SET;
       SortedSetDocValues values = in.getSortedSet(field);
@@ -18,6 +18,7 @@ package org.apache.lucene.codecs.asserting;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.lucene.codecs.NormsConsumer;
 import org.apache.lucene.codecs.NormsFormat;
@@ -89,13 +90,12 @@ public class AssertingNormsFormat extends NormsFormat {
     private final NormsProducer in;
     private final int maxDoc;
     private final boolean merging;
-    private final Thread creationThread;
+    private final AtomicReference<Thread> consumerThread = new AtomicReference<>();
     
     AssertingNormsProducer(NormsProducer in, int maxDoc, boolean merging) {
       this.in = in;
       this.maxDoc = maxDoc;
       this.merging = merging;
-      this.creationThread = Thread.currentThread();
       // do a few simple checks on init
       assert toString() != null;
       assert ramBytesUsed() >= 0;
@@ -105,7 +105,7 @@ public class AssertingNormsFormat extends NormsFormat {
     @Override
     public NumericDocValues getNorms(FieldInfo field) throws IOException {
       if (merging) {
-        AssertingCodec.assertThread("NormsProducer", creationThread);
+        AssertingCodec.assertThread("NormsProducer", consumerThread);
       }
       assert field.hasNorms();
       NumericDocValues values = in.getNorms(field);
@@ -18,6 +18,7 @@ package org.apache.lucene.codecs.asserting;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.lucene.codecs.PointsFormat;
 import org.apache.lucene.codecs.PointsReader;
@@ -68,13 +69,12 @@ public final class AssertingPointsFormat extends PointsFormat {
     private final PointsReader in;
     private final int maxDoc;
     private final boolean merging;
-    private final Thread creationThread;
+    private final AtomicReference<Thread> consumerThread = new AtomicReference<>();
     
     AssertingPointsReader(int maxDoc, PointsReader in, boolean merging) {
       this.in = in;
       this.maxDoc = maxDoc;
       this.merging = merging;
-      this.creationThread = Thread.currentThread();
       // do a few simple checks on init
       assert toString() != null;
       assert ramBytesUsed() >= 0;
@@ -90,7 +90,7 @@ public final class AssertingPointsFormat extends PointsFormat {
     @Override
     public PointValues getValues(String field) throws IOException {
       if (merging) {
-        AssertingCodec.assertThread("PointsReader", creationThread);
+        AssertingCodec.assertThread("PointsReader", consumerThread);
       }
       PointValues values = this.in.getValues(field);
       if (values == null) {
@@ -18,6 +18,7 @@ package org.apache.lucene.codecs.asserting;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.lucene.codecs.StoredFieldsFormat;
 import org.apache.lucene.codecs.StoredFieldsReader;
@@ -52,13 +53,12 @@ public class AssertingStoredFieldsFormat extends StoredFieldsFormat {
     private final StoredFieldsReader in;
     private final int maxDoc;
     private final boolean merging;
-    private final Thread creationThread;
+    private final AtomicReference<Thread> consumerThread = new AtomicReference<>();
     
     AssertingStoredFieldsReader(StoredFieldsReader in, int maxDoc, boolean merging) {
       this.in = in;
       this.maxDoc = maxDoc;
       this.merging = merging;
-      this.creationThread = Thread.currentThread();
       // do a few simple checks on init
       assert toString() != null;
       assert ramBytesUsed() >= 0;
@@ -73,7 +73,7 @@ public class AssertingStoredFieldsFormat extends StoredFieldsFormat {
 
     @Override
     public void visitDocument(int n, StoredFieldVisitor visitor) throws IOException {
-      AssertingCodec.assertThread("StoredFieldsReader", creationThread);
+      AssertingCodec.assertThread("StoredFieldsReader", consumerThread);
       assert n >= 0 && n < maxDoc;
       in.visitDocument(n, visitor);
     }
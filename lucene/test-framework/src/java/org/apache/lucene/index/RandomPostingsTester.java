@@ -46,6 +46,7 @@ import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.FieldsConsumer;
 import org.apache.lucene.codecs.FieldsProducer;
 import org.apache.lucene.codecs.NormsProducer;
+import org.apache.lucene.search.DocAndFreqBuffer;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FlushInfo;
@@ -130,7 +131,7 @@ public class RandomPostingsTester {
       fieldInfoArray[fieldUpto] = new FieldInfo(field, fieldUpto, false, false, true,
                                                 IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS,
                                                 DocValuesType.NONE, -1, new HashMap<>(),
-                                                0, 0, 0, false);
+                                                0, 0, 0, 0, VectorSimilarityFunction.EUCLIDEAN, false);
       fieldUpto++;
 
       SortedMap<BytesRef,SeedAndOrd> postings = new TreeMap<>();
@@ -651,7 +652,7 @@ public class RandomPostingsTester {
                                                    DocValuesType.NONE,
                                                    -1,
                                                    new HashMap<>(),
-                                                   0, 0, 0, false);
+                                                   0, 0, 0, 0, VectorSimilarityFunction.EUCLIDEAN, false);
     }
 
     FieldInfos newFieldInfos = new FieldInfos(newFieldInfoArray);
@@ -753,6 +754,45 @@ public class RandomPostingsTester {
     return codec.postingsFormat().fieldsProducer(readState);
   }
 
+  /** Checks that {@link PostingsEnum#nextPostings} returns the same docs and freqs as {@link PostingsEnum#nextDoc}. */
+  private void verifyNextPostings(Random random,
+                                  String field,
+                                  BytesRef term,
+                                  TermsEnum termsEnum,
+                                  IndexOptions maxIndexOptions,
+                                  boolean doCheckFreqs) throws IOException {
+    SeedPostings expected = getSeedPostings(term.utf8ToString(),
+                                            fields.get(field).get(term).seed,
+                                            maxIndexOptions,
+                                            true);
+    PostingsEnum postingsEnum = termsEnum.postings(null, doCheckFreqs ? PostingsEnum.FREQS : PostingsEnum.NONE);
+    DocAndFreqBuffer buffer = new DocAndFreqBuffer();
+    int doc = postingsEnum.nextDoc();
+    assertEquals("docID is wrong", expected.nextDoc(), doc);
+    while (doc != PostingsEnum.NO_MORE_DOCS) {
+      final int upTo;
+      if (random.nextInt(10) == 0) {
+        upTo = PostingsEnum.NO_MORE_DOCS;
+      } else {
+        upTo = doc + TestUtil.nextInt(random, 1, random.nextBoolean() ? 10 : 1000);
+      }
+      postingsEnum.nextPostings(upTo, buffer);
+      assertTrue("nextPostings must return the current doc", buffer.size > 0);
+      for (int i = 0; i < buffer.size; ++i) {
+        if (i > 0) {
+          expected.nextDoc();
+        }
+        assertEquals("docID is wrong", expected.docID(), buffer.docs[i]);
+        assertTrue("docID is beyond upTo", buffer.docs[i] < upTo);
+        if (doCheckFreqs) {
+          assertEquals("freq is wrong", expected.freq(), buffer.freqs[i]);
+        }
+      }
+      doc = postingsEnum.docID();
+      assertEquals("docID is wrong after nextPostings", expected.nextDoc(), doc);
+    }
+  }
+
   private void verifyEnum(Random random,
                           ThreadState threadState,
                           String field,
@@ -1049,6 +1089,10 @@ public class RandomPostingsTester {
       }
     }
 
+    if (alwaysTestMax || random.nextInt(3) == 0) {
+      verifyNextPostings(random, field, term, termsEnum, maxIndexOptions, doCheckFreqs);
+    }
+
     if (options.contains(Option.SKIPPING)) {
       final IntToLongFunction docToNorm;
       if (fieldInfo.hasNorms()) {
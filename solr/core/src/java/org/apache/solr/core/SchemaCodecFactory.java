@@ -16,19 +16,31 @@
  */
 package org.apache.solr.core;
 
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesFormat;
 import org.apache.lucene.codecs.PostingsFormat;
 import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat.Mode;
-import org.apache.lucene.codecs.lucene84.Lucene84Codec;
+import org.apache.lucene.codecs.lucene90.Lucene90Codec;
+import org.apache.lucene.codecs.xorfilter.XorFilterPostingsFormat;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Terms;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrException.ErrorCode;
 import org.apache.solr.common.util.NamedList;
+import org.apache.solr.metrics.SolrMetricProducer;
+import org.apache.solr.metrics.SolrMetricsContext;
+import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.util.RefCounted;
 import org.apache.solr.util.plugin.SolrCoreAware;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,15 +53,26 @@ import org.slf4j.LoggerFactory;
  * Also, a string argument with name <code>compressionMode</code> can be
  * provided to chose between the different compression options for
  * stored fields
+ * <br>
+ * A boolean argument with name <code>uniqueKeyFilter</code> wraps the
+ * postings format of the uniqueKey field in a {@link XorFilterPostingsFormat},
+ * so that id lookups done by real-time get and version checks skip segments that
+ * cannot contain the id. Filter lookup counters of the segments of the current
+ * searcher are reported as metrics of the core.
  * 
  * @lucene.experimental
  */
-public class SchemaCodecFactory extends CodecFactory implements SolrCoreAware {
+public class SchemaCodecFactory extends CodecFactory implements SolrCoreAware, SolrMetricProducer {
   
   /**
    * Key to use in init arguments to set the compression mode in the codec.
    */
   public static final String COMPRESSION_MODE = "compressionMode";
+
+  /**
+   * Key to use in init arguments to enable xor filters on the uniqueKey field.
+   */
+  public static final String UNIQUE_KEY_FILTER = "uniqueKeyFilter";
   
   public static final Mode SOLR_DEFAULT_COMPRESSION_MODE = Mode.BEST_SPEED;
   
@@ -57,6 +80,10 @@ public class SchemaCodecFactory extends CodecFactory implements SolrCoreAware {
   
   private Codec codec;
   private volatile SolrCore core;
+  private boolean uniqueKeyFilter;
+  // keyed by delegate name so that the uniqueKey field always maps to the same instance
+  private final Map<String,PostingsFormat> filteredPostingsFormats = new ConcurrentHashMap<>();
+  private SolrMetricsContext solrMetricsContext;
   
   
   // TODO: we need to change how solr does this?
@@ -91,17 +118,28 @@ public class SchemaCodecFactory extends CodecFactory implements SolrCoreAware {
       compressionMode = SOLR_DEFAULT_COMPRESSION_MODE;
       log.debug("Using default compressionMode: " + compressionMode);
     }
-    codec = new Lucene84Codec(compressionMode) {
+    Object uniqueKeyFilterArg = args.get(UNIQUE_KEY_FILTER);
+    uniqueKeyFilter = uniqueKeyFilterArg != null && Boolean.parseBoolean(uniqueKeyFilterArg.toString());
+    codec = new Lucene90Codec(compressionMode) {
       @Override
       public PostingsFormat getPostingsFormatForField(String field) {
-        final SchemaField schemaField = core.getLatestSchema().getFieldOrNull(field);
+        final IndexSchema schema = core.getLatestSchema();
+        final SchemaField schemaField = schema.getFieldOrNull(field);
+        PostingsFormat postingsFormat = null;
         if (schemaField != null) {
           String postingsFormatName = schemaField.getType().getPostingsFormat();
           if (postingsFormatName != null) {
-            return PostingsFormat.forName(postingsFormatName);
+            postingsFormat = PostingsFormat.forName(postingsFormatName);
           }
         }
-        return super.getPostingsFormatForField(field);
+        if (postingsFormat == null) {
+          postingsFormat = super.getPostingsFormatForField(field);
+        }
+        if (uniqueKeyFilter && schemaField != null && schemaField.equals(schema.getUniqueKeyField())) {
+          final PostingsFormat delegate = postingsFormat;
+          postingsFormat = filteredPostingsFormats.computeIfAbsent(delegate.getName(), name -> new XorFilterPostingsFormat(delegate));
+        }
+        return postingsFormat;
       }
       @Override
       public DocValuesFormat getDocValuesFormatForField(String field) {
@@ -122,4 +160,62 @@ public class SchemaCodecFactory extends CodecFactory implements SolrCoreAware {
     assert core != null : "inform must be called first";
     return codec;
   }
+
+  @Override
+  public void initializeMetrics(SolrMetricsContext parentContext, String scope) {
+    if (uniqueKeyFilter == false) {
+      return;
+    }
+    solrMetricsContext = parentContext.getChildContext(this);
+    final String category = SolrInfoBean.Category.INDEX.toString();
+    solrMetricsContext.gauge(() -> getXorFilterStats().getLookups(), true, "lookups", category, scope, "xorFilter");
+    solrMetricsContext.gauge(() -> getXorFilterStats().getFilterNegatives(), true, "filterNegatives", category, scope, "xorFilter");
+    solrMetricsContext.gauge(() -> getXorFilterStats().getFalsePositives(), true, "falsePositives", category, scope, "xorFilter");
+    solrMetricsContext.gauge(() -> getXorFilterStats().getFalsePositiveRate(), true, "falsePositiveRate", category, scope, "xorFilter");
+  }
+
+  /**
+   * Sums the xor filter counters of the uniqueKey field over the segments of the
+   * current searcher of this factory's core. Segments read the filters through the
+   * SPI instance of the format, so the counters are kept per segment rather than
+   * per format instance, and go away with merged segments.
+   */
+  XorFilterPostingsFormat.Stats getXorFilterStats() {
+    final XorFilterPostingsFormat.Stats sum = new XorFilterPostingsFormat.Stats();
+    final SchemaField uniqueKeyField = core.getLatestSchema().getUniqueKeyField();
+    if (uniqueKeyField == null) {
+      return sum;
+    }
+    final RefCounted<SolrIndexSearcher> searcher = core.getRegisteredSearcher();
+    if (searcher == null) {
+      return sum;
+    }
+    try {
+      for (LeafReaderContext leaf : searcher.get().getTopReaderContext().leaves()) {
+        final Terms terms = FilterLeafReader.unwrap(leaf.reader()).terms(uniqueKeyField.getName());
+        final XorFilterPostingsFormat.Stats stats = XorFilterPostingsFormat.getStats(terms);
+        if (stats != null) {
+          sum.add(stats);
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Unable to read xor filter counters", e);
+    } finally {
+      searcher.decref();
+    }
+    return sum;
+  }
+
+  @Override
+  public SolrMetricsContext getSolrMetricsContext() {
+    return solrMetricsContext;
+  }
+
+  @Override
+  public void close() {
+    // same as SolrMetricProducer.close(), without its checked exception
+    if (solrMetricsContext != null) {
+      solrMetricsContext.unregister();
+    }
+  }
 }
@@ -224,10 +224,12 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
     queryResultWindowSize = Math.max(1, getInt("query/queryResultWindowSize", 1));
     queryResultMaxDocsCached = getInt("query/queryResultMaxDocsCached", Integer.MAX_VALUE);
     enableLazyFieldLoading = getBool("query/enableLazyFieldLoading", false);
+    offHeapUninvertedFields = getBool("query/offHeapUninvertedFields", false);
     
     useRangeVersionsForPeerSync = getBool("peerSync/useRangeVersions", true);
 
     filterCacheConfig = CacheConfig.getConfig(this, "query/filterCache");
+    segmentFilterCacheConfig = CacheConfig.getConfig(this, "query/segmentFilterCache");
     queryResultCacheConfig = CacheConfig.getConfig(this, "query/queryResultCache");
     documentCacheConfig = CacheConfig.getConfig(this, "query/documentCache");
     CacheConfig conf = CacheConfig.getConfig(this, "query/fieldValueCache");
@@ -512,6 +514,8 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
 //  public final float filtOptThreshold;
   // SolrIndexSearcher - caches configurations
   public final CacheConfig filterCacheConfig;
+  /** Per-segment filter cache shared by all searchers of a core, see {@link org.apache.solr.search.SegmentFilterCache} */
+  public final CacheConfig segmentFilterCacheConfig;
   public final CacheConfig queryResultCacheConfig;
   public final CacheConfig documentCacheConfig;
   public final CacheConfig fieldValueCacheConfig;
@@ -521,6 +525,7 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
   public final int queryResultWindowSize;
   public final int queryResultMaxDocsCached;
   public final boolean enableLazyFieldLoading;
+  public final boolean offHeapUninvertedFields;
   
   public final boolean useRangeVersionsForPeerSync;
   
@@ -863,12 +868,13 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
     if (getZnodeVersion() > -1) result.put(ZNODEVER, getZnodeVersion());
     result.put(IndexSchema.LUCENE_MATCH_VERSION_PARAM, luceneMatchVersion);
     result.put("updateHandler", getUpdateHandlerInfo());
-    Map m = new LinkedHashMap();
+    Map<String, Object> m = new LinkedHashMap<>();
     result.put("query", m);
     m.put("useFilterForSortedQuery", useFilterForSortedQuery);
     m.put("queryResultWindowSize", queryResultWindowSize);
     m.put("queryResultMaxDocsCached", queryResultMaxDocsCached);
     m.put("enableLazyFieldLoading", enableLazyFieldLoading);
+    m.put("offHeapUninvertedFields", offHeapUninvertedFields);
     m.put("maxBooleanClauses", booleanQueryMaxClauseCount);
     for (SolrPluginInfo plugin : plugins) {
       List<PluginInfo> infos = getPluginInfos(plugin.clazz.getName());
@@ -898,8 +904,8 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
     }
 
 
-    addCacheConfig(m, filterCacheConfig, queryResultCacheConfig, documentCacheConfig, fieldValueCacheConfig);
-    m = new LinkedHashMap();
+    addCacheConfig(m, filterCacheConfig, segmentFilterCacheConfig, queryResultCacheConfig, documentCacheConfig, fieldValueCacheConfig);
+    m = new LinkedHashMap<>();
     result.put("requestDispatcher", m);
     m.put("handleSelect", handleSelect);
     if (httpCachingConfig != null) m.put("httpCaching", httpCachingConfig);
@@ -908,7 +914,7 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
         "addHttpRequestToContext", addHttpRequestToContext));
     if (indexConfig != null) result.put("indexConfig", indexConfig);
 
-    m = new LinkedHashMap();
+    m = new LinkedHashMap<>();
     result.put("peerSync", m);
     m.put("useRangeVersions", useRangeVersionsForPeerSync);
 
@@ -917,7 +923,7 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
     return result;
   }
 
-  private void addCacheConfig(Map queryMap, CacheConfig... cache) {
+  private void addCacheConfig(Map<String, Object> queryMap, CacheConfig... cache) {
     if (cache == null) return;
     for (CacheConfig config : cache) if (config != null) queryMap.put(config.getNodeName(), config);
 
@@ -69,6 +69,7 @@ import org.apache.lucene.index.IndexDeletionPolicy;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
@@ -107,6 +108,7 @@ import org.apache.solr.handler.component.HighlightComponent;
 import org.apache.solr.handler.component.SearchComponent;
 import org.apache.solr.logging.MDCLoggingContext;
 import org.apache.solr.metrics.SolrCoreMetricManager;
+import org.apache.solr.metrics.SolrMetricManager;
 import org.apache.solr.metrics.SolrMetricProducer;
 import org.apache.solr.metrics.SolrMetricsContext;
 import org.apache.solr.pkg.PackageListeners;
@@ -137,6 +139,8 @@ import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.ManagedIndexSchema;
 import org.apache.solr.schema.SimilarityFactory;
 import org.apache.solr.search.QParserPlugin;
+import org.apache.solr.search.SegmentFilterCache;
+import org.apache.solr.search.SolrCache;
 import org.apache.solr.search.SolrFieldCacheBean;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.search.ValueSourceParser;
@@ -215,7 +219,9 @@ public final class SolrCore implements SolrInfoBean, Closeable {
   private final DirectoryFactory directoryFactory;
   private final RecoveryStrategy.Builder recoveryStrategyBuilder;
   private IndexReaderFactory indexReaderFactory;
+  private final CodecFactory codecFactory;
   private final Codec codec;
+  private final SegmentFilterCache segmentFilterCache;
   private final MemClassLoader memClassLoader;
 
   private final List<Runnable> confListeners = new CopyOnWriteArrayList<>();
@@ -976,7 +982,9 @@ public final class SolrCore implements SolrInfoBean, Closeable {
       this.snapshotMgr = initSnapshotMetaDataManager();
       this.solrDelPolicy = initDeletionPolicy(delPolicy);
 
-      this.codec = initCodec(solrConfig, this.schema);
+      this.codecFactory = initCodecFactory(solrConfig, this.schema);
+      this.codec = codecFactory.getCodec();
+      this.segmentFilterCache = initSegmentFilterCache(solrConfig);
 
       memClassLoader = new MemClassLoader(
           PluginBag.RuntimeLib.getLibObjects(this, solrConfig.getPluginInfos(PluginBag.RuntimeLib.class.getName())),
@@ -1383,7 +1391,7 @@ public final class SolrCore implements SolrInfoBean, Closeable {
     }
   }
 
-  private Codec initCodec(SolrConfig solrConfig, final IndexSchema schema) {
+  private CodecFactory initCodecFactory(SolrConfig solrConfig, final IndexSchema schema) {
     final PluginInfo info = solrConfig.getPluginInfo(CodecFactory.class.getName());
     final CodecFactory factory;
     if (info != null) {
@@ -1401,6 +1409,9 @@ public final class SolrCore implements SolrInfoBean, Closeable {
       // CodecFactory needs SolrCore before inform() is called on all registered
       // SolrCoreAware listeners, at the end of the SolrCore constructor
       ((SolrCoreAware) factory).inform(this);
+      if (factory instanceof SolrMetricProducer) {
+        ((SolrMetricProducer) factory).initializeMetrics(solrMetricsContext, "codecFactory");
+      }
     } else {
       for (FieldType ft : schema.getFieldTypes().values()) {
         if (null != ft.getPostingsFormat()) {
@@ -1415,7 +1426,23 @@ public final class SolrCore implements SolrInfoBean, Closeable {
         }
       }
     }
-    return factory.getCodec();
+    return factory;
+  }
+
+  private SegmentFilterCache initSegmentFilterCache(SolrConfig solrConfig) {
+    if (solrConfig.segmentFilterCacheConfig == null) {
+      return null;
+    }
+    @SuppressWarnings("unchecked")
+    SolrCache<SegmentFilterCache.Key, DocIdSet> cache = solrConfig.segmentFilterCacheConfig.newInstance();
+    if (cache == null) {
+      return null;
+    }
+    // unlike the searcher caches, this one lives as long as the core
+    cache.setState(SolrCache.State.LIVE);
+    cache.initializeMetrics(solrMetricsContext, SolrMetricManager.mkName(cache.name(), "core"));
+    infoRegistry.put(cache.name(), cache);
+    return new SegmentFilterCache(cache);
   }
 
   /**
@@ -1630,6 +1657,28 @@ public final class SolrCore implements SolrInfoBean, Closeable {
       }
     }
 
+    if (codecFactory instanceof SolrMetricProducer) {
+      try {
+        ((SolrMetricProducer) codecFactory).close();
+      } catch (Throwable e) {
+        SolrException.log(log, e);
+        if (e instanceof Error) {
+          throw (Error) e;
+        }
+      }
+    }
+
+    if (segmentFilterCache != null) {
+      try {
+        segmentFilterCache.close();
+      } catch (Throwable e) {
+        SolrException.log(log, e);
+        if (e instanceof Error) {
+          throw (Error) e;
+        }
+      }
+    }
+
     if (coreStateClosed) {
       try {
         cleanupOldIndexDirectories(false);
@@ -2933,6 +2982,14 @@ public final class SolrCore implements SolrInfoBean, Closeable {
     return codec;
   }
 
+  /**
+   * The per-segment filter cache shared by the searchers of this core,
+   * or null if it isn't configured.
+   */
+  public SegmentFilterCache getSegmentFilterCache() {
+    return segmentFilterCache;
+  }
+
   public void unloadOnClose(final CoreDescriptor desc, boolean deleteIndexDir, boolean deleteDataDir, boolean deleteInstanceDir) {
     if (deleteIndexDir) {
       try {
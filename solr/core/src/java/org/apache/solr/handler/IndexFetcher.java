@@ -46,6 +46,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -155,6 +156,9 @@ public class IndexFetcher {
 
   private volatile boolean stop = false;
 
+  // set when one of the parallel file downloads failed, so that the others give up at their next packet
+  private volatile boolean fileFetchFailed = false;
+
   private boolean useInternalCompression = false;
 
   private boolean useExternalCompression = false;
@@ -173,6 +177,8 @@ public class IndexFetcher {
 
   private boolean clearLocalIndexFirst = false;
 
+  private int maxParallelFileFetches = 4;
+
   private static final String INTERRUPT_RESPONSE_MESSAGE = "Interrupted while waiting for modify lock";
 
   public static class IndexFetchResult {
@@ -267,6 +273,11 @@ public class IndexFetcher {
       downloadTlogFiles = initArgs.getBooleanArg(TLOG_FILES);
     }
 
+    Object maxParallelFileFetches = initArgs.get(MAX_PARALLEL_FILE_FETCHES);
+    if (maxParallelFileFetches != null) {
+      this.maxParallelFileFetches = Math.max(1, Integer.parseInt(maxParallelFileFetches.toString()));
+    }
+
     String httpBasicAuthUser = (String) initArgs.get(HttpClientUtil.PROP_BASIC_AUTH_USER);
     String httpBasicAuthPassword = (String) initArgs.get(HttpClientUtil.PROP_BASIC_AUTH_PASS);
     myHttpClient = createHttpClient(solrCore, httpBasicAuthUser, httpBasicAuthPassword, useExternalCompression);
@@ -1033,6 +1044,7 @@ public class IndexFetcher {
       deleteFilesInAdvance(indexDir, indexDirPath, totalSpaceRequired, usableSpace);
     }
 
+    List<Map<String, Object>> filesToFetch = new ArrayList<>();
     for (Map<String,Object> file : filesToDownload) {
       String filename = (String) file.get(NAME);
       long size = (Long) file.get(SIZE);
@@ -1049,22 +1061,86 @@ public class IndexFetcher {
           // compared to a file copy. TODO: Maybe we could do a move safely here?
           Files.createLink(new File(tmpIndexDirPath, filename).toPath(), localFile.toPath());
           bytesSkippedCopying += localFile.length();
+          filesDownloaded.add(new HashMap<>(file));
         } else {
-          dirFileFetcher = new DirectoryFileFetcher(tmpIndexDir, file,
-              (String) file.get(NAME), FILE, latestGeneration);
-          currentFile = file;
-          dirFileFetcher.fetchFile();
-          bytesDownloaded += dirFileFetcher.getBytesDownloaded();
+          filesToFetch.add(file);
         }
-        filesDownloaded.add(new HashMap<>(file));
       } else {
         log.debug("Skipping download for {} because it already exists", file.get(NAME));
       }
     }
+    bytesDownloaded += fetchIndexFiles(tmpIndexDir, filesToFetch, latestGeneration);
     log.info("Bytes downloaded: {}, Bytes skipped downloading: {}", bytesDownloaded, bytesSkippedCopying);
     return bytesDownloaded;
   }
 
+  /**
+   * Downloads the given files into tmpIndexDir, up to {@link #maxParallelFileFetches} of them at a time.
+   * Each file still streams over a single request, resuming from where it broke off on a retry.
+   *
+   * @return number of bytes downloaded
+   */
+  private long fetchIndexFiles(Directory tmpIndexDir, List<Map<String, Object>> files, long latestGeneration)
+      throws Exception {
+    // lets the master throttle the streams of this fetch together
+    String fetchSession = UUID.randomUUID().toString();
+    int numThreads = Math.min(maxParallelFileFetches, files.size());
+    if (numThreads <= 1) {
+      long bytesDownloaded = 0;
+      for (Map<String, Object> file : files) {
+        bytesDownloaded += fetchIndexFile(tmpIndexDir, file, latestGeneration, fetchSession);
+      }
+      return bytesDownloaded;
+    }
+
+    // start with the biggest files so that the last few downloads aren't the long ones
+    files = new ArrayList<>(files);
+    files.sort((f1, f2) -> Long.compare((Long) f2.get(SIZE), (Long) f1.get(SIZE)));
+    ExecutorService executor = ExecutorUtil.newMDCAwareFixedThreadPool(numThreads,
+        new DefaultSolrThreadFactory("indexFetcher"));
+    List<Future<Long>> futures = new ArrayList<>(files.size());
+    boolean success = false;
+    try {
+      for (Map<String, Object> file : files) {
+        futures.add(executor.submit(() -> fetchIndexFile(tmpIndexDir, file, latestGeneration, fetchSession)));
+      }
+      long bytesDownloaded = 0;
+      for (Future<Long> future : futures) {
+        try {
+          bytesDownloaded += future.get();
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof Exception) {
+            throw (Exception) e.getCause();
+          }
+          throw e;
+        }
+      }
+      success = true;
+      return bytesDownloaded;
+    } finally {
+      if (success == false) {
+        // the fetch has failed: drop the queued files and stop the in-flight downloads at their next packet
+        // rather than waiting for them to complete
+        fileFetchFailed = true;
+        executor.shutdownNow();
+      }
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+      fileFetchFailed = false;
+    }
+  }
+
+  private long fetchIndexFile(Directory tmpIndexDir, Map<String, Object> file, long latestGeneration,
+                              String fetchSession) throws Exception {
+    DirectoryFileFetcher fetcher = new DirectoryFileFetcher(tmpIndexDir, file,
+        (String) file.get(NAME), FILE, latestGeneration, fetchSession);
+    // with parallel fetches, the details report the most recently started file as the current one
+    dirFileFetcher = fetcher;
+    currentFile = file;
+    fetcher.fetchFile();
+    filesDownloaded.add(new HashMap<>(file));
+    return fetcher.getBytesDownloaded();
+  }
+
   //only for testing purposes. do not use this anywhere else
   //-----------START----------------------
   static BooleanSupplier testWait = () -> true;
@@ -1615,6 +1691,7 @@ public class IndexFetcher {
     private final String saveAs;
     private final String solrParamOutput;
     private final Long indexGen;
+    private final String fetchSession;
 
     private final long size;
     private long bytesDownloaded = 0;
@@ -1624,8 +1701,9 @@ public class IndexFetcher {
     private boolean aborted = false;
 
     FileFetcher(FileInterface file, Map<String, Object> fileDetails, String saveAs,
-                String solrParamOutput, long latestGen) throws IOException {
+                String solrParamOutput, long latestGen, String fetchSession) throws IOException {
       this.file = file;
+      this.fetchSession = fetchSession;
       this.fileName = (String) fileDetails.get(NAME);
       this.size = (Long) fileDetails.get(SIZE);
       buf = new byte[(int)Math.min(this.size, ReplicationHandler.PACKET_SZ)];
@@ -1697,10 +1775,14 @@ public class IndexFetcher {
       try {
         while (true) {
           if (stop) {
-            stop = false;
+            // stop is left set so that concurrent fetchers see the abort too, it is reset once the fetch is over
             aborted = true;
             throw new ReplicationHandlerException("User aborted replication");
           }
+          if (fileFetchFailed) {
+            aborted = true;
+            throw new ReplicationHandlerException("Replication aborted since another file failed to download");
+          }
           long checkSumServer = -1;
           fis.readFully(intbytes);
           //read the size of the packet
@@ -1827,6 +1909,9 @@ public class IndexFetcher {
       }
       //wt=filestream this is a custom protocol
       params.set(CommonParams.WT, FILE_STREAM);
+      if (fetchSession != null) {
+        params.set(FETCH_SESSION, fetchSession);
+      }
       // This happen if there is a failure there is a retry. the offset=<sizedownloaded> ensures that
       // the server starts from the offset
       if (bytesDownloaded > 0) {
@@ -1889,8 +1974,8 @@ public class IndexFetcher {
 
   private class DirectoryFileFetcher extends FileFetcher {
     DirectoryFileFetcher(Directory tmpIndexDir, Map<String, Object> fileDetails, String saveAs,
-                         String solrParamOutput, long latestGen) throws IOException {
-      super(new DirectoryFile(tmpIndexDir, saveAs), fileDetails, saveAs, solrParamOutput, latestGen);
+                         String solrParamOutput, long latestGen, String fetchSession) throws IOException {
+      super(new DirectoryFile(tmpIndexDir, saveAs), fileDetails, saveAs, solrParamOutput, latestGen, fetchSession);
     }
   }
 
@@ -1939,7 +2024,7 @@ public class IndexFetcher {
   private class LocalFsFileFetcher extends FileFetcher {
     LocalFsFileFetcher(File dir, Map<String, Object> fileDetails, String saveAs,
                        String solrParamOutput, long latestGen) throws IOException {
-      super(new LocalFsFile(dir, saveAs), fileDetails, saveAs, solrParamOutput, latestGen);
+      super(new LocalFsFile(dir, saveAs), fileDetails, saveAs, solrParamOutput, latestGen, null);
     }
   }
 
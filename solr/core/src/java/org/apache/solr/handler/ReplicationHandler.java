@@ -205,6 +205,9 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
 
   private final Map<String, FileInfo> confFileInfoCache = new HashMap<>();
 
+  // rate limiters of the file streams of in-flight index fetches, by FETCH_SESSION
+  private final Map<String, SessionRateLimiter> sessionRateLimiters = new HashMap<>();
+
   private Long reserveCommitDuration = readIntervalMs("00:00:10");
 
   volatile IndexCommit indexCommitPoint;
@@ -1480,6 +1483,50 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
     };
   }
 
+  /**
+   * Returns the rate limiter for a file stream. The streams of one index fetch, identified by
+   * {@link #FETCH_SESSION}, share a limiter so that a slave that downloads several files in parallel
+   * stays within {@link #MAX_WRITE_PER_SECOND} as a whole. Streams without a session get their own.
+   */
+  private RateLimiter acquireRateLimiter(SolrParams params, String fetchSession) {
+    //No throttle if MAX_WRITE_PER_SECOND is not specified
+    double maxWriteMBPerSec = params.getDouble(MAX_WRITE_PER_SECOND, Double.MAX_VALUE);
+    if (fetchSession == null) {
+      return new RateLimiter.SimpleRateLimiter(maxWriteMBPerSec);
+    }
+    synchronized (sessionRateLimiters) {
+      SessionRateLimiter limiter = sessionRateLimiters.computeIfAbsent(fetchSession,
+          k -> new SessionRateLimiter(maxWriteMBPerSec));
+      limiter.activeStreams++;
+      return limiter.rateLimiter;
+    }
+  }
+
+  /**
+   * Releases a limiter obtained from {@link #acquireRateLimiter}, forgetting the session once none of its
+   * streams are active, so that the map only holds the sessions of in-flight streams.
+   */
+  private void releaseRateLimiter(String fetchSession) {
+    if (fetchSession == null) {
+      return;
+    }
+    synchronized (sessionRateLimiters) {
+      SessionRateLimiter limiter = sessionRateLimiters.get(fetchSession);
+      if (--limiter.activeStreams == 0) {
+        sessionRateLimiters.remove(fetchSession);
+      }
+    }
+  }
+
+  private static final class SessionRateLimiter {
+    final RateLimiter rateLimiter;
+    int activeStreams;
+
+    SessionRateLimiter(double maxWriteMBPerSec) {
+      rateLimiter = new RateLimiter.SimpleRateLimiter(maxWriteMBPerSec);
+    }
+  }
+
   /**This class is used to read and send files in the lucene index
    *
    */
@@ -1504,7 +1551,7 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
 
     protected Checksum checksum;
 
-    private RateLimiter rateLimiter;
+    protected String fetchSession;
 
     byte[] buf;
 
@@ -1521,12 +1568,10 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
       compress = params.get(COMPRESSION);
       useChecksum = params.getBool(CHECKSUM, false);
       indexGen = params.getLong(GENERATION);
+      fetchSession = params.get(FETCH_SESSION);
       if (useChecksum) {
         checksum = new Adler32();
       }
-      //No throttle if MAX_WRITE_PER_SECOND is not specified
-      double maxWriteMBPerSec = params.getDouble(MAX_WRITE_PER_SECOND, Double.MAX_VALUE);
-      rateLimiter = new RateLimiter.SimpleRateLimiter(maxWriteMBPerSec);
     }
 
     // Throw exception on directory traversal attempts 
@@ -1585,6 +1630,7 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
       createOutputStream(out);
 
       IndexInput in = null;
+      RateLimiter rateLimiter = acquireRateLimiter(params, fetchSession);
       try {
         initWrite();
 
@@ -1631,6 +1677,7 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
         if (in != null) {
           in.close();
         }
+        releaseRateLimiter(fetchSession);
         extendReserveAndReleaseCommitPoint();
       }
     }
@@ -1834,6 +1881,10 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
 
   public static final String TLOG_FILES = "tlogFiles";
 
+  public static final String MAX_PARALLEL_FILE_FETCHES = "maxParallelFileFetches";
+
+  public static final String FETCH_SESSION = "fetchSession";
+
   public static final String REPLICATE_AFTER = "replicateAfter";
 
   public static final String FILE_STREAM = "filestream";
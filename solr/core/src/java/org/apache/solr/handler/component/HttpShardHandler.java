@@ -16,29 +16,30 @@
  */
 package org.apache.solr.handler.component;
 
-import java.io.IOException;
 import java.net.ConnectException;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.Callable;
-import java.util.concurrent.CompletionService;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import io.opentracing.Span;
 import io.opentracing.Tracer;
 import io.opentracing.propagation.Format;
 import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrResponse;
-import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.Http2SolrClient;
 import org.apache.solr.client.solrj.impl.LBSolrClient;
 import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.client.solrj.routing.ReplicaListTransformer;
+import org.apache.solr.client.solrj.util.AsyncListener;
+import org.apache.solr.client.solrj.util.Cancellable;
 import org.apache.solr.cloud.CloudDescriptor;
 import org.apache.solr.cloud.ZkController;
 import org.apache.solr.common.SolrException;
@@ -66,16 +67,23 @@ public class HttpShardHandler extends ShardHandler {
   public static String ONLY_NRT_REPLICAS = "distribOnlyRealtime";
 
   private HttpShardHandlerFactory httpShardHandlerFactory;
-  private CompletionService<ShardResponse> completionService;
-  private Set<Future<ShardResponse>> pending;
+  // shard requests are sent asynchronously, their responses are handed over through this queue
+  private BlockingQueue<ShardResponse> responses;
+  private AtomicInteger pending;
+  private Map<ShardResponse, Cancellable> responseCancellableMap;
   private Map<String, List<String>> shardToURLs;
   private Http2SolrClient httpClient;
+  // bounds the shard requests of this handler in flight at once, null for no limit
+  final Semaphore requestPermits;
 
   public HttpShardHandler(HttpShardHandlerFactory httpShardHandlerFactory, Http2SolrClient httpClient) {
     this.httpClient = httpClient;
     this.httpShardHandlerFactory = httpShardHandlerFactory;
-    completionService = httpShardHandlerFactory.newCompletionService();
-    pending = new HashSet<>();
+    responses = new LinkedBlockingQueue<>();
+    pending = new AtomicInteger(0);
+    responseCancellableMap = new ConcurrentHashMap<>();
+    int maxOutstandingRequests = httpShardHandlerFactory.maxOutstandingRequests;
+    requestPermits = maxOutstandingRequests > 0 ? new Semaphore(maxOutstandingRequests) : null;
 
     // maps "localhost:8983|localhost:7574" to a shuffled List("http://localhost:8983","http://localhost:7574")
     // This is primarily to keep track of what order we should use to query the replicas of a shard
@@ -125,87 +133,151 @@ public class HttpShardHandler extends ShardHandler {
 
   @Override
   public void submit(final ShardRequest sreq, final String shard, final ModifiableSolrParams params) {
-    // do this outside of the callable for thread safety reasons
     final List<String> urls = getURLs(shard);
     final Tracer tracer = GlobalTracer.getTracer();
     final Span span = tracer != null ? tracer.activeSpan() : null;
 
-    Callable<ShardResponse> task = () -> {
+    params.remove(CommonParams.WT); // use default (currently javabin)
+    params.remove(CommonParams.VERSION);
 
-      ShardResponse srsp = new ShardResponse();
-      if (sreq.nodeName != null) {
-        srsp.setNodeName(sreq.nodeName);
-      }
-      srsp.setShardRequest(sreq);
-      srsp.setShard(shard);
-      SimpleSolrResponse ssr = new SimpleSolrResponse();
-      srsp.setSolrResponse(ssr);
-      long startTime = System.nanoTime();
-
-      try {
-        params.remove(CommonParams.WT); // use default (currently javabin)
-        params.remove(CommonParams.VERSION);
-
-        QueryRequest req = makeQueryRequest(sreq, params, shard);
-        if (tracer != null && span != null) {
-          tracer.inject(span.context(), Format.Builtin.HTTP_HEADERS, new SolrRequestCarrier(req));
-        }
-        req.setMethod(SolrRequest.METHOD.POST);
-        SolrRequestInfo requestInfo = SolrRequestInfo.getRequestInfo();
-        if (requestInfo != null) req.setUserPrincipal(requestInfo.getReq().getUserPrincipal());
-
-        // no need to set the response parser as binary is the defaultJab
-        // req.setResponseParser(new BinaryResponseParser());
-
-        // if there are no shards available for a slice, urls.size()==0
-        if (urls.size() == 0) {
-          // TODO: what's the right error code here? We should use the same thing when
-          // all of the servers for a shard are down.
-          throw new SolrException(SolrException.ErrorCode.SERVICE_UNAVAILABLE, "no servers hosting shard: " + shard);
-        }
+    QueryRequest req = makeQueryRequest(sreq, params, shard);
+    if (tracer != null && span != null) {
+      tracer.inject(span.context(), Format.Builtin.HTTP_HEADERS, new SolrRequestCarrier(req));
+    }
+    req.setMethod(SolrRequest.METHOD.POST);
+    SolrRequestInfo requestInfo = SolrRequestInfo.getRequestInfo();
+    if (requestInfo != null) req.setUserPrincipal(requestInfo.getReq().getUserPrincipal());
 
-        if (urls.size() <= 1) {
-          String url = urls.get(0);
-          srsp.setShardAddress(url);
-          ssr.nl = request(url, req);
-        } else {
-          LBSolrClient.Rsp rsp = httpShardHandlerFactory.makeLoadBalancedRequest(req, urls);
-          ssr.nl = rsp.getResponse();
-          srsp.setShardAddress(rsp.getServer());
-        }
-      } catch (ConnectException cex) {
-        srsp.setException(cex); //????
-      } catch (Exception th) {
-        srsp.setException(th);
-        if (th instanceof SolrException) {
-          srsp.setResponseCode(((SolrException) th).code());
-        } else {
-          srsp.setResponseCode(-1);
-        }
-      }
+    // no need to set the response parser as binary is the default
+    // req.setResponseParser(new BinaryResponseParser());
 
-      ssr.elapsedTime = TimeUnit.MILLISECONDS.convert(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    final ShardResponse srsp = new ShardResponse();
+    if (sreq.nodeName != null) {
+      srsp.setNodeName(sreq.nodeName);
+    }
+    srsp.setShardRequest(sreq);
+    srsp.setShard(shard);
+    final SimpleSolrResponse ssr = new SimpleSolrResponse();
+    srsp.setSolrResponse(ssr);
+
+    pending.incrementAndGet();
+    // if there are no shards available for a slice, urls.size()==0
+    if (urls.isEmpty()) {
+      // TODO: what's the right error code here? We should use the same thing when
+      // all of the servers for a shard are down.
+      SolrException exception = new SolrException(SolrException.ErrorCode.SERVICE_UNAVAILABLE, "no servers hosting shard: " + shard);
+      srsp.setException(exception);
+      srsp.setResponseCode(exception.code());
+      responses.add(transfomResponse(sreq, srsp, shard));
+      return;
+    }
 
-      return transfomResponse(sreq, srsp, shard);
+    // back-pressure: blocks while this request has too many shard requests outstanding. The limit is per
+    // handler rather than node-wide, a node-wide limit could be exhausted by top-level requests all waiting
+    // on the nested shard requests they sent to this same node
+    acquireRequestPermit();
+    final AtomicBoolean permitReleased = new AtomicBoolean();
+    final Runnable releasePermit = () -> {
+      if (permitReleased.compareAndSet(false, true) && requestPermits != null) {
+        requestPermits.release();
+      }
     };
-
+    // registered before sending so that a response arriving right away can't be taken before its cancellable
+    final AtomicReference<Cancellable> cancellable = new AtomicReference<>();
+    responseCancellableMap.put(srsp, () -> {
+      Cancellable c = cancellable.get();
+      if (c != null) c.cancel();
+      releasePermit.run();
+    });
+    final long startTime = System.nanoTime();
     try {
       if (shard != null) {
         MDC.put("ShardRequest.shards", shard);
       }
-      if (urls != null && !urls.isEmpty()) {
-        MDC.put("ShardRequest.urlList", urls.toString());
+      MDC.put("ShardRequest.urlList", urls.toString());
+
+      if (urls.size() <= 1) {
+        String url = urls.get(0);
+        srsp.setShardAddress(url);
+        cancellable.set(request(url, req, new AsyncListener<NamedList<Object>>() {
+          @Override
+          public void onSuccess(NamedList<Object> result) {
+            ssr.nl = result;
+            complete(sreq, srsp, shard, startTime, null, releasePermit);
+          }
+
+          @Override
+          public void onFailure(Throwable throwable) {
+            complete(sreq, srsp, shard, startTime, throwable, releasePermit);
+          }
+        }));
+      } else {
+        cancellable.set(httpShardHandlerFactory.makeAsyncLoadBalancedRequest(req, urls, new AsyncListener<LBSolrClient.Rsp>() {
+          @Override
+          public void onSuccess(LBSolrClient.Rsp rsp) {
+            ssr.nl = rsp.getResponse();
+            srsp.setShardAddress(rsp.getServer());
+            complete(sreq, srsp, shard, startTime, null, releasePermit);
+          }
+
+          @Override
+          public void onFailure(Throwable throwable) {
+            complete(sreq, srsp, shard, startTime, throwable, releasePermit);
+          }
+        }));
       }
-      pending.add(completionService.submit(task));
+    } catch (RuntimeException e) {
+      responseCancellableMap.remove(srsp);
+      pending.decrementAndGet();
+      releasePermit.run();
+      throw e;
     } finally {
       MDC.remove("ShardRequest.shards");
       MDC.remove("ShardRequest.urlList");
     }
   }
 
-  protected NamedList<Object> request(String url, SolrRequest req) throws IOException, SolrServerException {
+  private void complete(ShardRequest sreq, ShardResponse srsp, String shard, long startTime, Throwable failure,
+                        Runnable releasePermit) {
+    releasePermit.run();
+    if (failure instanceof ConnectException) {
+      srsp.setException(failure); //????
+    } else if (failure != null) {
+      srsp.setException(failure);
+      if (failure instanceof SolrException) {
+        srsp.setResponseCode(((SolrException) failure).code());
+      } else {
+        srsp.setResponseCode(-1);
+      }
+    }
+    ((SimpleSolrResponse) srsp.getSolrResponse()).elapsedTime =
+        TimeUnit.MILLISECONDS.convert(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    ShardResponse rsp = transfomResponse(sreq, srsp, shard);
+    synchronized (responseCancellableMap) {
+      // a response completing after cancelAll() is dropped, nobody will take it anymore
+      if (responseCancellableMap.containsKey(srsp)) {
+        responses.add(rsp);
+      }
+    }
+  }
+
+  private void acquireRequestPermit() {
+    if (requestPermits == null) return;
+    try {
+      requestPermits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Interrupted while waiting to send a shard request", e);
+    }
+  }
+
+  /**
+   * Sends the request to a single url, notifying the listener once it completes.
+   * Subclasses could send the request through a different client.
+   */
+  protected Cancellable request(String url, SolrRequest<?> req, AsyncListener<NamedList<Object>> listener) {
     req.setBasePath(url);
-    return httpClient.request(req);
+    return httpClient.asyncRequest(req, null, listener);
   }
 
   /**
@@ -243,12 +315,11 @@ public class HttpShardHandler extends ShardHandler {
   }
 
   private ShardResponse take(boolean bailOnError) {
-
-    while (pending.size() > 0) {
-      try {
-        Future<ShardResponse> future = completionService.take();
-        pending.remove(future);
-        ShardResponse rsp = future.get();
+    try {
+      while (pending.get() > 0) {
+        ShardResponse rsp = responses.take();
+        pending.decrementAndGet();
+        responseCancellableMap.remove(rsp);
         if (bailOnError && rsp.getException() != null) return rsp; // if exception, return immediately
         // add response to the response list... we do this after the take() and
         // not after the completion of "call" so we know when the last response
@@ -258,13 +329,10 @@ public class HttpShardHandler extends ShardHandler {
         if (rsp.getShardRequest().responses.size() == rsp.getShardRequest().actualShards.length) {
           return rsp;
         }
-      } catch (InterruptedException e) {
-        throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
-      } catch (ExecutionException e) {
-        // should be impossible... the problem with catching the exception
-        // at this level is we don't know what ShardRequest it applied to
-        throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Impossible Exception", e);
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
     }
     return null;
   }
@@ -272,8 +340,14 @@ public class HttpShardHandler extends ShardHandler {
 
   @Override
   public void cancelAll() {
-    for (Future<ShardResponse> future : pending) {
-      future.cancel(false);
+    synchronized (responseCancellableMap) {
+      for (Cancellable cancellable : responseCancellableMap.values()) {
+        cancellable.cancel();
+      }
+      responseCancellableMap.clear();
+      // responses already queued belong to cancelled requests too, drop them so the handler can be reused
+      responses.clear();
+      pending.set(0);
     }
   }
 
@@ -31,6 +31,7 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -51,6 +52,8 @@ import org.apache.solr.client.solrj.routing.ReplicaListTransformer;
 import org.apache.solr.client.solrj.routing.ReplicaListTransformerFactory;
 import org.apache.solr.client.solrj.routing.RequestReplicaListTransformerGenerator;
 import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.util.AsyncListener;
+import org.apache.solr.client.solrj.util.Cancellable;
 import org.apache.solr.cloud.ZkController;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrException.ErrorCode;
@@ -112,6 +115,7 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
   int   permittedLoadBalancerRequestsMinimumAbsolute = 0;
   float permittedLoadBalancerRequestsMaximumFraction = 1.0f;
   boolean accessPolicy = false;
+  int maxOutstandingRequests = -1;
   private WhitelistHostChecker whitelistHostChecker = null;
   private SolrMetricsContext solrMetricsContext;
 
@@ -147,6 +151,9 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
   // Configure if the threadpool favours fairness over throughput
   static final String INIT_FAIRNESS_POLICY = "fairnessPolicy";
 
+  // The maximum number of shard requests a single distributed request may have in flight at once, (-1) for no limit
+  static final String INIT_MAX_OUTSTANDING_REQUESTS = "maxOutstandingRequests";
+
   public static final String INIT_SHARDS_WHITELIST = "shardsWhitelist";
 
   static final String INIT_SOLR_DISABLE_SHARDS_WHITELIST = "solr.disable." + INIT_SHARDS_WHITELIST;
@@ -173,10 +180,19 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
     // a little hack for backward-compatibility when we are moving from apache http client to jetty client
     return new HttpShardHandler(this, null) {
       @Override
-      protected NamedList<Object> request(String url, SolrRequest req) throws IOException, SolrServerException {
-        try (SolrClient client = new HttpSolrClient.Builder(url).withHttpClient(httpClient).build()) {
-          return client.request(req);
-        }
+      protected Cancellable request(String url, SolrRequest<?> req, AsyncListener<NamedList<Object>> listener) {
+        // the apache http client is blocking, so requests still take a thread from the comm executor
+        Future<?> future = commExecutor.submit(() -> {
+          NamedList<Object> rsp;
+          try (SolrClient client = new HttpSolrClient.Builder(url).withHttpClient(httpClient).build()) {
+            rsp = client.request(req);
+          } catch (Exception e) {
+            listener.onFailure(e);
+            return;
+          }
+          listener.onSuccess(rsp);
+        });
+        return () -> future.cancel(true);
       }
     };
   }
@@ -288,6 +304,7 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
         permittedLoadBalancerRequestsMaximumFraction,
         sb);
     this.accessPolicy = getParameter(args, INIT_FAIRNESS_POLICY, accessPolicy,sb);
+    this.maxOutstandingRequests = getParameter(args, INIT_MAX_OUTSTANDING_REQUESTS, maxOutstandingRequests,sb);
     this.whitelistHostChecker = new WhitelistHostChecker(args == null? null: (String) args.get(INIT_SHARDS_WHITELIST), !getDisableShardsWhitelist());
     log.info("Host whitelist initialized: {}", this.whitelistHostChecker);
 
@@ -384,6 +401,20 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
     return loadbalancer.request(newLBHttpSolrClientReq(req, urls));
   }
 
+  /**
+   * Asynchronously makes a request to one or more of the given urls, using the configured load balancer.
+   * The listener is notified on the thread that completes the request, so it must not block.
+   *
+   * @param req The solr search request that should be sent through the load balancer
+   * @param urls The list of solr server urls to load balance across
+   * @param listener Notified once the request has succeeded on some server or failed on all of them
+   * @return A handle that aborts the request
+   */
+  public Cancellable makeAsyncLoadBalancedRequest(final QueryRequest req, List<String> urls,
+                                                  AsyncListener<LBSolrClient.Rsp> listener) {
+    return loadbalancer.asyncReq(newLBHttpSolrClientReq(req, urls), listener);
+  }
+
   protected LBSolrClient.Req newLBHttpSolrClientReq(final QueryRequest req, List<String> urls) {
     int numServersToTry = (int)Math.floor(urls.size() * this.permittedLoadBalancerRequestsMaximumFraction);
     if (numServersToTry < this.permittedLoadBalancerRequestsMinimumAbsolute) {
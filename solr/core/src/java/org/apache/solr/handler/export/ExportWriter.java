@@ -25,6 +25,7 @@ import java.io.PrintWriter;
 import java.lang.invoke.MethodHandles;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
@@ -41,6 +42,7 @@ import org.apache.solr.common.MapWriter.EntryWriter;
 import org.apache.solr.common.PushWriter;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.ExecutorUtil;
 import org.apache.solr.common.util.JavaBinCodec;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.request.SolrQueryRequest;
@@ -63,6 +65,7 @@ import org.apache.solr.schema.StrField;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.search.SortSpec;
 import org.apache.solr.search.SyntaxError;
+import org.apache.solr.util.DefaultSolrThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -82,9 +85,16 @@ import static org.apache.solr.common.util.Utils.makeMap;
  * <p>
  * This streaming approach is light on memory (only {@link #DOCUMENT_BATCH_SIZE} documents are ever stored in memory at
  * once), and it allows {@link ExportWriter} to scale well with regard to numDocs.
+ * <p>
+ * With the {@link #THREADS_PARAM} parameter set to more than 1 each segment is stream sorted on its own, up to that
+ * many segments at a time, and the sorted runs of the segments are merged as they are written out. See
+ * {@link SegmentMergeSorter}. The batch size is then split across the segments, which keeps memory bounded to
+ * twice the single threaded mode.
  */
 public class ExportWriter implements SolrCore.RawWriter, Closeable {
   private static final int DOCUMENT_BATCH_SIZE = 30000;
+  /** Request parameter for the number of segments to sort concurrently, defaults to 1 */
+  public static final String THREADS_PARAM = "threads";
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private OutputStreamWriter respWriter;
   final SolrQueryRequest req;
@@ -94,6 +104,7 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
   FixedBitSet[] sets = null;
   PushWriter writer;
   private String wt;
+  int numThreads = 1;
 
 
   public ExportWriter(SolrQueryRequest req, SolrQueryResponse res, String wt) {
@@ -188,6 +199,7 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
       }
     }
     SolrParams params = req.getParams();
+    numThreads = params.getInt(THREADS_PARAM, 1);
     String fl = params.get("fl");
 
     String[] fields = null;
@@ -265,26 +277,34 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
         });
       }
     } catch (Throwable e) {
-      Throwable ex = e;
-      while (ex != null) {
-        String m = ex.getMessage();
-        if (m != null && m.contains("Broken pipe")) {
-          throw new IgnoreException();
-        }
-        ex = ex.getCause();
-      }
+      throw toIOException(e);
+    }
+  }
 
-      if (e instanceof IOException) {
-        throw ((IOException) e);
-      } else {
-        throw new IOException(e);
+  private static IOException toIOException(Throwable e) {
+    Throwable ex = e;
+    while (ex != null) {
+      String m = ex.getMessage();
+      if (m != null && m.contains("Broken pipe")) {
+        return new IgnoreException();
       }
+      ex = ex.getCause();
+    }
+
+    if (e instanceof IOException) {
+      return (IOException) e;
+    } else {
+      return new IOException(e);
     }
   }
 
   protected void writeDocs(SolrQueryRequest req, IteratorWriter.ItemWriter writer, Sort sort) throws IOException {
     List<LeafReaderContext> leaves = req.getSearcher().getTopReaderContext().leaves();
     SortDoc sortDoc = getSortDoc(req.getSearcher(), sort.getSort());
+    if (numThreads > 1 && leaves.size() > 1) {
+      writeDocsInParallel(leaves, writer, sortDoc);
+      return;
+    }
     int count = 0;
     final int queueSize = Math.min(DOCUMENT_BATCH_SIZE, totalHits);
 
@@ -300,6 +320,25 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
     }
   }
 
+  protected void writeDocsInParallel(List<LeafReaderContext> leaves, IteratorWriter.ItemWriter writer,
+                                     SortDoc sortDoc) throws IOException {
+    final int runSize = Math.max(1, DOCUMENT_BATCH_SIZE / leaves.size());
+    ExecutorService executor = ExecutorUtil.newMDCAwareFixedThreadPool(Math.min(numThreads, leaves.size()),
+        new DefaultSolrThreadFactory("exportWriter"));
+    try (SegmentMergeSorter sorter = new SegmentMergeSorter(leaves, sets, sortDoc, runSize, executor)) {
+      // the sorter already unset the docs in the bitmaps, so write their fields only
+      SortDoc s;
+      while ((s = sorter.next()) != null) {
+        final SortDoc doc = s;
+        writer.add((MapWriter) ew -> writeFields(doc, leaves.get(doc.ord), ew));
+      }
+    } catch (Throwable e) {
+      throw toIOException(e);
+    } finally {
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+    }
+  }
+
   protected void writeDoc(SortDoc sortDoc,
                           List<LeafReaderContext> leaves,
                           EntryWriter ew) throws IOException {
@@ -307,7 +346,10 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
     int ord = sortDoc.ord;
     FixedBitSet set = sets[ord];
     set.clear(sortDoc.docId);
-    LeafReaderContext context = leaves.get(ord);
+    writeFields(sortDoc, leaves.get(ord), ew);
+  }
+
+  protected void writeFields(SortDoc sortDoc, LeafReaderContext context, EntryWriter ew) throws IOException {
     int fieldIndex = 0;
     for (FieldWriter fieldWriter : fieldWriters) {
       if (fieldWriter.write(sortDoc, context.reader(), ew, fieldIndex)) {
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.BitSetIterator;
+import org.apache.lucene.util.FixedBitSet;
+
+/**
+ * Iterates over the documents to export in sort order by stream sorting every segment on its own, concurrently, and
+ * merging the sorted runs of the segments.
+ * <p>
+ * Each segment is sorted in runs of at most {@code runSize} documents, using the same bitmap based approach as
+ * {@link ExportWriter}. As soon as a run is handed over to the merge, the next run of that segment is computed on the
+ * executor, so at most two runs per segment are held in memory at any time.
+ */
+class SegmentMergeSorter implements Closeable {
+
+  private final ExecutorService executor;
+  private final SegmentQueue queue;
+  private final List<SegmentCursor> cursors = new ArrayList<>();
+
+  SegmentMergeSorter(List<LeafReaderContext> leaves, FixedBitSet[] sets, SortDoc proto, int runSize,
+                     ExecutorService executor) throws IOException {
+    this.executor = executor;
+    for (LeafReaderContext leaf : leaves) {
+      FixedBitSet bits = sets[leaf.ord];
+      int count = bits.cardinality();
+      if (count > 0) {
+        SegmentCursor cursor = new SegmentCursor(new SegmentSorter(leaf, bits, count, proto.copy(), runSize));
+        cursor.next = executor.submit(cursor.sorter::nextRun);
+        cursors.add(cursor);
+      }
+    }
+    queue = new SegmentQueue(Math.max(1, cursors.size()));
+    for (SegmentCursor cursor : cursors) {
+      if (cursor.advanceRun()) {
+        queue.add(cursor);
+      }
+    }
+  }
+
+  /**
+   * Returns the next document in sort order, or null once all documents have been returned. The returned instance is
+   * only valid until the next call.
+   */
+  SortDoc next() throws IOException {
+    if (queue.size() == 0) {
+      return null;
+    }
+    SegmentCursor top = queue.top();
+    SortDoc doc = top.run[top.upto++];
+    if (top.upto < top.run.length || top.advanceRun()) {
+      queue.updateTop();
+    } else {
+      queue.pop();
+    }
+    return doc;
+  }
+
+  @Override
+  public void close() {
+    for (SegmentCursor cursor : cursors) {
+      if (cursor.next != null) {
+        cursor.next.cancel(true);
+      }
+    }
+  }
+
+  /** Produces the sorted runs of a single segment. Only one run of a segment is ever being computed at a time. */
+  private static class SegmentSorter {
+    private final LeafReaderContext leaf;
+    private final FixedBitSet bits;
+    private final SortDoc sortDoc;
+    private final int runSize;
+    private int remaining;
+
+    SegmentSorter(LeafReaderContext leaf, FixedBitSet bits, int count, SortDoc sortDoc, int runSize) {
+      this.leaf = leaf;
+      this.bits = bits;
+      this.remaining = count;
+      this.sortDoc = sortDoc;
+      this.runSize = runSize;
+    }
+
+    boolean hasMoreRuns() {
+      return remaining > 0;
+    }
+
+    /** Returns the lowest sorting docs of the segment that have not been part of a previous run, in sort order. */
+    SortDoc[] nextRun() throws IOException {
+      final int size = Math.min(runSize, remaining);
+      // a new queue every time, the docs of the previous run may still be in use by the merge
+      SortQueue queue = new SortQueue(size, sortDoc);
+      queue.reset();
+      SortDoc top = queue.top();
+      sortDoc.setNextReader(leaf);
+      DocIdSetIterator it = new BitSetIterator(bits, 0); // cost is not useful here
+      int docId;
+      while ((docId = it.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+        sortDoc.setValues(docId);
+        if (top.lessThan(sortDoc)) {
+          top.setValues(sortDoc);
+          top = queue.updateTop();
+        }
+      }
+      SortDoc[] run = new SortDoc[size];
+      for (int i = size - 1; i >= 0; --i) {
+        SortDoc doc = queue.pop();
+        assert doc.docId > -1;
+        bits.clear(doc.docId);
+        run[i] = doc;
+      }
+      remaining -= size;
+      return run;
+    }
+  }
+
+  private class SegmentCursor {
+    final SegmentSorter sorter;
+    SortDoc[] run;
+    int upto;
+    Future<SortDoc[]> next;
+
+    SegmentCursor(SegmentSorter sorter) {
+      this.sorter = sorter;
+    }
+
+    /** Moves on to the run computed in the background, if any, and starts computing the one after it. */
+    boolean advanceRun() throws IOException {
+      if (next == null) {
+        return false;
+      }
+      try {
+        run = next.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        }
+        throw new IOException(e.getCause());
+      }
+      upto = 0;
+      next = sorter.hasMoreRuns() ? executor.submit(sorter::nextRun) : null;
+      return true;
+    }
+  }
+
+  private static class SegmentQueue extends PriorityQueue<SegmentCursor> {
+    SegmentQueue(int maxSize) {
+      super(maxSize);
+    }
+
+    @Override
+    protected boolean lessThan(SegmentCursor a, SegmentCursor b) {
+      // SortDoc.lessThan means "sorts after", the head of the queue is the cursor whose current doc sorts first
+      return b.run[b.upto].lessThan(a.run[a.upto]);
+    }
+  }
+}
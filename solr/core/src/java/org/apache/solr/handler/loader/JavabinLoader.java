@@ -19,6 +19,7 @@ package org.apache.solr.handler.loader;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +43,7 @@ import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.SolrQueryResponse;
 import org.apache.solr.update.AddUpdateCommand;
 import org.apache.solr.update.DeleteUpdateCommand;
+import org.apache.solr.update.UpdateHandler;
 import org.apache.solr.update.processor.UpdateRequestProcessor;
 
 /**
@@ -51,7 +53,13 @@ import org.apache.solr.update.processor.UpdateRequestProcessor;
  * @see org.apache.solr.common.util.JavaBinCodec
  */
 public class JavabinLoader extends ContentStreamLoader {
+  /** the number of documents handed to the {@link UpdateHandler} at once when bulk loading */
+  static final int BULK_BATCH_SIZE = 1000;
+  /** handler init arg that lets requests use {@link UpdateParams#BULK}, false by default */
+  public static final String ALLOW_BULK_PARAM = "allowBulkLoading";
+
   final ContentStreamLoader contentStreamLoader;
+  boolean allowBulk = false;
 
   public JavabinLoader() {
     this.contentStreamLoader = this;
@@ -62,6 +70,14 @@ public class JavabinLoader extends ContentStreamLoader {
     this.contentStreamLoader = contentStreamLoader;
   }
 
+  @Override
+  public JavabinLoader init(SolrParams args) {
+    if (args != null) {
+      allowBulk = args.getBool(ALLOW_BULK_PARAM, false);
+    }
+    return this;
+  }
+
   @Override
   public void load(SolrQueryRequest req, SolrQueryResponse rsp, ContentStream stream, UpdateRequestProcessor processor) throws Exception {
     InputStream is = null;
@@ -81,6 +97,10 @@ public class JavabinLoader extends ContentStreamLoader {
       handleMultiStream(req, rsp, stream, processor);
       return;
     }
+    if (req.getParams().getBool(UpdateParams.BULK, false)) {
+      bulkLoadDocs(req, stream, processor);
+      return;
+    }
     UpdateRequest update = null;
     JavaBinUpdateRequestCodec.StreamingUpdateHandler handler = new JavaBinUpdateRequestCodec.StreamingUpdateHandler() {
       private AddUpdateCommand addCmd = null;
@@ -129,6 +149,85 @@ public class JavabinLoader extends ContentStreamLoader {
     }
   }
 
+  /**
+   * Adds the documents in batches straight through the {@link UpdateHandler}, bypassing the processor chain.
+   * Deletes still go through the processor, after the documents that came before them have been added.
+   */
+  private void bulkLoadDocs(SolrQueryRequest req, InputStream stream, UpdateRequestProcessor processor)
+      throws IOException {
+    if (!allowBulk) {
+      throw new SolrException(SolrException.ErrorCode.BAD_REQUEST,
+          UpdateParams.BULK + " is not enabled, the update handler must be configured with " + ALLOW_BULK_PARAM + "=true");
+    }
+    if (req.getCore().getCoreContainer().isZooKeeperAware()) {
+      throw new SolrException(SolrException.ErrorCode.BAD_REQUEST,
+          UpdateParams.BULK + " is not supported in SolrCloud mode, documents would not be distributed to replicas");
+    }
+    BulkUpdateHandler handler = new BulkUpdateHandler(req);
+    FastInputStream in = FastInputStream.wrap(stream);
+    while (in.peek() != -1) {
+      UpdateRequest update;
+      try {
+        update = new JavaBinUpdateRequestCodec()
+            .unmarshal(in, handler);
+      } catch (EOFException e) {
+        break; // this is expected
+      }
+      if (update.getDeleteByIdMap() != null || update.getDeleteQuery() != null) {
+        handler.flush();
+        delete(req, update, processor);
+      }
+    }
+    handler.flush();
+  }
+
+  /** Collects the streamed documents into batches for {@link UpdateHandler#bulkAdd} */
+  private class BulkUpdateHandler implements JavaBinUpdateRequestCodec.StreamingUpdateHandler {
+    private final SolrQueryRequest req;
+    private final UpdateHandler updateHandler;
+    private final List<SolrInputDocument> batch = new ArrayList<>(BULK_BATCH_SIZE);
+    private AddUpdateCommand addCmd = null;
+
+    BulkUpdateHandler(SolrQueryRequest req) {
+      this.req = req;
+      this.updateHandler = req.getCore().getUpdateHandler();
+    }
+
+    @Override
+    public void update(SolrInputDocument document, UpdateRequest updateRequest, Integer commitWithin, Boolean overwrite) {
+      if (document == null) {
+        return;
+      }
+      if (addCmd == null) {
+        addCmd = getAddCommand(req, updateRequest.getParams());
+      }
+      // all documents in a batch share these settings, so flush the batch when they change
+      int docCommitWithin = commitWithin != null ? commitWithin : addCmd.commitWithin;
+      boolean docOverwrite = overwrite != null ? overwrite : addCmd.overwrite;
+      if (docCommitWithin != addCmd.commitWithin || docOverwrite != addCmd.overwrite) {
+        flush();
+        addCmd.commitWithin = docCommitWithin;
+        addCmd.overwrite = docOverwrite;
+      }
+      batch.add(document);
+      if (batch.size() >= BULK_BATCH_SIZE) {
+        flush();
+      }
+    }
+
+    void flush() {
+      if (batch.isEmpty()) {
+        return;
+      }
+      try {
+        updateHandler.bulkAdd(addCmd, batch);
+      } catch (IOException e) {
+        throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "ERROR adding bulk documents", e);
+      }
+      batch.clear();
+    }
+  }
+
   private void handleMultiStream(SolrQueryRequest req, SolrQueryResponse rsp, InputStream stream, UpdateRequestProcessor processor)
       throws IOException {
     FastInputStream in = FastInputStream.wrap(stream);
@@ -24,8 +24,11 @@ import java.io.Writer;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import org.apache.commons.io.output.ByteArrayOutputStream;
@@ -40,8 +43,11 @@ import org.apache.solr.common.util.Utf8CharSequence;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.DocIterator;
 import org.apache.solr.search.DocList;
 import org.apache.solr.search.ReturnFields;
+import org.apache.solr.search.SolrDocumentFetcher;
+import org.apache.solr.search.SolrReturnFields;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,7 +60,7 @@ public class BinaryResponseWriter implements BinaryQueryResponseWriter {
 
   @Override
   public void write(OutputStream out, SolrQueryRequest req, SolrQueryResponse response) throws IOException {
-    Resolver resolver = new Resolver(req, response.getReturnFields());
+    Resolver resolver = new Resolver(req, response.getReturnFields()).setStreamDocuments(true);
     if (req.getParams().getBool(CommonParams.OMIT_HEADER, false)) response.removeResponseHeader();
     try (JavaBinCodec jbc = new JavaBinCodec(resolver)) {
       jbc.setWritableDocFields(resolver).marshal(response.getValues(), out);
@@ -88,12 +94,24 @@ public class BinaryResponseWriter implements BinaryQueryResponseWriter {
     protected final SolrQueryRequest solrQueryRequest;
     protected IndexSchema schema;
     protected ReturnFields returnFields;
+    private boolean streamDocuments;
 
     public Resolver(SolrQueryRequest req, ReturnFields returnFields) {
       solrQueryRequest = req;
       this.returnFields = returnFields;
     }
 
+    /**
+     * When enabled, result documents that need no {@link org.apache.solr.response.transform.DocTransformer} are
+     * serialized field by field as they are read by the {@link SolrDocumentFetcher}, without materializing a
+     * {@link SolrDocument} per row. Only enable this if the codec writes documents the default way, i.e. does not
+     * override {@link JavaBinCodec#writeSolrDocument(SolrDocument)}.
+     */
+    public Resolver setStreamDocuments(boolean streamDocuments) {
+      this.streamDocuments = streamDocuments;
+      return this;
+    }
+
     @Override
     public Object resolve(Object o, JavaBinCodec codec) throws IOException {
       if (o instanceof StoredField) {
@@ -155,6 +173,18 @@ public class BinaryResponseWriter implements BinaryQueryResponseWriter {
 
     protected void writeResultsBody( ResultContext res, JavaBinCodec codec ) throws IOException {
       codec.writeTag(JavaBinCodec.ARR, res.getDocList().size());
+      if (streamDocuments && res.getSearcher() != null && res.getReturnFields() instanceof SolrReturnFields
+          && res.getReturnFields().getTransformer() == null) {
+        final SolrDocumentFetcher docFetcher = res.getSearcher().getDocFetcher();
+        final SolrReturnFields solrReturnFields = (SolrReturnFields) res.getReturnFields();
+        final StreamingDocWriter docWriter = new StreamingDocWriter(res.getSearcher().getSchema(), this);
+        final DocIterator docIterator = res.getDocList().iterator();
+        while (docIterator.hasNext()) {
+          docFetcher.streamDoc(docIterator.nextDoc(), solrReturnFields, docWriter);
+          docWriter.writeDoc(codec);
+        }
+        return;
+      }
       Iterator<SolrDocument> docStreamer = res.getProcessedDocuments();
       while (docStreamer.hasNext()) {
         SolrDocument doc = docStreamer.next();
@@ -182,6 +212,83 @@ public class BinaryResponseWriter implements BinaryQueryResponseWriter {
   }
 
 
+  /**
+   * Gathers the values of one document as {@link SolrDocumentFetcher#streamDoc} produces them, then writes them
+   * exactly as {@link JavaBinCodec#writeSolrDocument(SolrDocument)} would have written the equivalent
+   * SolrDocument. The per-field value lists are reused from one document to the next.
+   */
+  static class StreamingDocWriter implements BiConsumer<String, Object> {
+    private final IndexSchema schema;
+    private final JavaBinCodec.WritableDocFields writableDocFields;
+    private final Map<String, FieldValues> fields = new HashMap<>();
+    // fields of the current document, in the order they were first seen
+    private final List<FieldValues> docFields = new ArrayList<>();
+
+    private static class FieldValues {
+      final String name;
+      final boolean multiValued;
+      final List<Object> values = new ArrayList<>();
+
+      FieldValues(String name, boolean multiValued) {
+        this.name = name;
+        this.multiValued = multiValued;
+      }
+    }
+
+    StreamingDocWriter(IndexSchema schema, JavaBinCodec.WritableDocFields writableDocFields) {
+      this.schema = schema;
+      this.writableDocFields = writableDocFields;
+    }
+
+    @Override
+    public void accept(String name, Object value) {
+      FieldValues fieldValues = fields.get(name);
+      if (fieldValues == null) {
+        SchemaField sf = schema.getFieldOrNull(name);
+        fieldValues = new FieldValues(name, sf != null && sf.multiValued());
+        fields.put(name, fieldValues);
+      }
+      if (fieldValues.values.isEmpty()) {
+        docFields.add(fieldValues);
+      }
+      if (value instanceof Collection) {
+        fieldValues.values.addAll((Collection<?>) value);
+      } else {
+        fieldValues.values.add(value);
+      }
+    }
+
+    private boolean isWritable(String name) {
+      return writableDocFields.wantsAllFields() || writableDocFields.isWritable(name);
+    }
+
+    /** Writes the document gathered so far and resets for the next one. */
+    void writeDoc(JavaBinCodec codec) throws IOException {
+      try {
+        int sz = 0;
+        for (FieldValues fieldValues : docFields) {
+          if (isWritable(fieldValues.name)) sz++;
+        }
+        codec.writeTag(JavaBinCodec.SOLRDOC);
+        codec.writeTag(JavaBinCodec.ORDERED_MAP, sz);
+        for (FieldValues fieldValues : docFields) {
+          if (!isWritable(fieldValues.name)) continue;
+          codec.writeExternString(fieldValues.name);
+          if (fieldValues.multiValued || fieldValues.values.size() > 1) {
+            codec.writeArray(fieldValues.values);
+          } else {
+            codec.writeVal(fieldValues.values.get(0));
+          }
+        }
+      } finally {
+        for (FieldValues fieldValues : docFields) {
+          fieldValues.values.clear();
+        }
+        docFields.clear();
+      }
+    }
+  }
+
   /**
    * TODO -- there may be a way to do this without marshal at all...
    *
@@ -193,7 +300,7 @@ public class BinaryResponseWriter implements BinaryQueryResponseWriter {
   @SuppressWarnings("unchecked")
   public static NamedList<Object> getParsedResponse(SolrQueryRequest req, SolrQueryResponse rsp) {
     try {
-      Resolver resolver = new Resolver(req, rsp.getReturnFields());
+      Resolver resolver = new Resolver(req, rsp.getReturnFields()).setStreamDocuments(true);
 
       ByteArrayOutputStream out = new ByteArrayOutputStream();
       try (JavaBinCodec jbc = new JavaBinCodec(resolver)) {
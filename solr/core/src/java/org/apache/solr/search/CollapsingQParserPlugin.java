@@ -445,6 +445,8 @@ public class CollapsingQParserPlugin extends QParserPlugin {
               fieldInfo.getPointDimensionCount(),
               fieldInfo.getPointIndexDimensionCount(),
               fieldInfo.getPointNumBytes(),
+              fieldInfo.getVectorDimension(),
+              fieldInfo.getVectorSimilarityFunction(),
               fieldInfo.isSoftDeletesField());
           newInfos.add(f);
         } else {
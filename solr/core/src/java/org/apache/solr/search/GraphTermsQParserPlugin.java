@@ -332,7 +332,8 @@ public class GraphTermsQParserPlugin extends QParserPlugin {
 
         @Override
         public boolean isCacheable(LeafReaderContext ctx) {
-          return true;
+          // the terms are selected by their docFreq across the whole index, see maxDocFreq
+          return false;
         }
 
       };
@@ -636,7 +637,8 @@ abstract class PointSetQuery extends Query implements DocSetProducer, Accountabl
 
       @Override
       public boolean isCacheable(LeafReaderContext ctx) {
-        return true;
+        // the points are selected by their number of matches across the whole index, see maxDocFreq
+        return false;
       }
     };
   }
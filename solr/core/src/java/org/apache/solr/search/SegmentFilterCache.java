@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TwoPhaseIterator;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.DocIdSetBuilder;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * A filter cache that is keyed by query <em>and</em> segment, and is shared by all the searchers of a core.
+ * <p>
+ * The regular filterCache holds top-level {@link DocSet}s, so it has to be thrown away and regenerated
+ * over the whole index every time a new searcher is opened. This cache holds the documents matching a query
+ * in a single segment, keyed by the segment's core cache key and ignoring deletions, so those bits stay valid
+ * for as long as the segment exists. When the filterCache misses, the top-level set is assembled from the
+ * cached segments and only the segments that were not seen before are actually searched. Autowarming the
+ * filterCache after a commit thus costs in proportion to what changed rather than to the size of the index.
+ * <p>
+ * Only queries that are cacheable on every segment (see {@link Weight#isCacheable(LeafReaderContext)}) are
+ * handled here; queries whose per-segment matches depend on the rest of the index, such as joins, are not.
+ * The matches of a segment are held as a bit set only if they are dense, sparse ones are held as a sorted
+ * array of doc ids (see {@link DocIdSetBuilder}). The entries of a segment are removed once it is closed,
+ * i.e. merged away and no longer used by any searcher.
+ *
+ * @see org.apache.solr.core.SolrConfig#segmentFilterCacheConfig
+ * @lucene.experimental
+ */
+public class SegmentFilterCache {
+
+  private final SolrCache<Key,DocIdSet> cache;
+  // the keys put into the cache by segment core key, to remove them when the segment is closed
+  private final Map<Object,Set<Key>> segmentKeys = new ConcurrentHashMap<>();
+
+  public SegmentFilterCache(SolrCache<Key,DocIdSet> cache) {
+    this.cache = cache;
+  }
+
+  public SolrCache<Key,DocIdSet> getCache() {
+    return cache;
+  }
+
+  /**
+   * Returns the set of documents matching the given positive query, using and populating the per-segment
+   * entries, or null if the query can't be cached per segment.
+   */
+  public DocSet getDocSet(SolrIndexSearcher searcher, Query query) throws IOException {
+    if (query instanceof DocSetProducer) {
+      // computes its matches over the whole index at once
+      return null;
+    }
+    final IndexReader reader = searcher.getIndexReader();
+    final List<LeafReaderContext> leaves = reader.leaves();
+    final IndexReader.CacheHelper[] cacheHelpers = new IndexReader.CacheHelper[leaves.size()];
+    final Key[] keys = new Key[leaves.size()];
+    final DocIdSet[] sets = new DocIdSet[leaves.size()];
+    boolean allCached = true;
+    for (LeafReaderContext ctx : leaves) {
+      IndexReader.CacheHelper cacheHelper = ctx.reader().getCoreCacheHelper();
+      if (cacheHelper == null) {
+        return null;
+      }
+      cacheHelpers[ctx.ord] = cacheHelper;
+      keys[ctx.ord] = new Key(query, cacheHelper.getKey());
+      sets[ctx.ord] = cache.get(keys[ctx.ord]);
+      allCached &= sets[ctx.ord] != null;
+    }
+
+    if (!allCached) {
+      final Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
+      for (LeafReaderContext ctx : leaves) {
+        if (sets[ctx.ord] == null && !weight.isCacheable(ctx)) {
+          return null;
+        }
+      }
+      for (LeafReaderContext ctx : leaves) {
+        if (sets[ctx.ord] == null) {
+          sets[ctx.ord] = matches(weight, ctx);
+          put(cacheHelpers[ctx.ord], keys[ctx.ord], sets[ctx.ord]);
+        }
+      }
+    }
+
+    final DocSetCollector collector = new DocSetCollector(reader.maxDoc());
+    for (LeafReaderContext ctx : leaves) {
+      final DocIdSetIterator it = sets[ctx.ord].iterator();
+      if (it == null) {
+        continue;
+      }
+      final LeafCollector leafCollector = collector.getLeafCollector(ctx);
+      final Bits liveDocs = ctx.reader().getLiveDocs();
+      for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+        if (liveDocs == null || liveDocs.get(doc)) {
+          leafCollector.collect(doc);
+        }
+      }
+    }
+    return DocSetUtil.getDocSet(collector, searcher);
+  }
+
+  private void put(IndexReader.CacheHelper cacheHelper, Key key, DocIdSet set) {
+    Set<Key> keys = segmentKeys.get(key.coreKey);
+    if (keys == null) {
+      keys = ConcurrentHashMap.newKeySet();
+      Set<Key> existing = segmentKeys.putIfAbsent(key.coreKey, keys);
+      if (existing != null) {
+        keys = existing;
+      } else {
+        cacheHelper.addClosedListener(this::segmentClosed);
+      }
+    }
+    keys.add(key);
+    cache.put(key, set);
+  }
+
+  private void segmentClosed(IndexReader.CacheKey coreKey) {
+    Set<Key> keys = segmentKeys.remove(coreKey);
+    if (keys != null) {
+      for (Key key : keys) {
+        cache.remove(key);
+      }
+    }
+  }
+
+  /** All documents of the segment matching the weight, including deleted ones. */
+  private static DocIdSet matches(Weight weight, LeafReaderContext ctx) throws IOException {
+    final Scorer scorer = weight.scorer(ctx);
+    if (scorer == null) {
+      return DocIdSet.EMPTY;
+    }
+    final TwoPhaseIterator twoPhase = scorer.twoPhaseIterator();
+    final DocIdSetIterator it = twoPhase == null ? scorer.iterator() : TwoPhaseIterator.asDocIdSetIterator(twoPhase);
+    // a bit set if the matches are dense, a sorted array of doc ids otherwise
+    final DocIdSetBuilder builder = new DocIdSetBuilder(ctx.reader().maxDoc());
+    builder.add(it);
+    return builder.build();
+  }
+
+  /** Closes the underlying cache when the core is closed. */
+  public void close() throws Exception {
+    segmentKeys.clear();
+    cache.close();
+  }
+
+  /** Cache key: a query and the core cache key of the segment it was executed on. */
+  public static final class Key implements Accountable {
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(Key.class);
+
+    final Query query;
+    final Object coreKey;
+    private final int hashCode;
+
+    Key(Query query, Object coreKey) {
+      this.query = query;
+      this.coreKey = coreKey;
+      this.hashCode = 31 * query.hashCode() + System.identityHashCode(coreKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof Key)) return false;
+      Key other = (Key) obj;
+      return coreKey == other.coreKey && query.equals(other.query);
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOfObject(query, RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED);
+    }
+
+    @Override
+    public String toString() {
+      return query + " @ " + coreKey;
+    }
+  }
+}
@@ -32,6 +32,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -287,6 +288,23 @@ public class SolrDocumentFetcher {
     return solrReturnFields.getFetchOptimizer(rfoSupplier).getSolrDoc(luceneDocId);
   }
 
+  /**
+   * Like {@link #solrDoc(int, SolrReturnFields)}, but rather than populating a {@link SolrDocument} (and the
+   * {@link Document} it is converted from) each value to be returned is handed to {@code fieldConsumer} as soon
+   * as it is read. Stored values come first, one call per value in stored order and already converted to their
+   * external form as per {@link DocsStreamer#getValue}; docValues follow with one call per field, multi-valued
+   * ones as a {@link List}. No {@link org.apache.solr.response.transform.DocTransformer} is applied.
+   *
+   * @param luceneDocId       The Lucene doc ID
+   * @param solrReturnFields  the structure holding the fields to be returned, see
+   *                          {@link #solrDoc(int, SolrReturnFields)}
+   * @param fieldConsumer     receives the field name and value(s)
+   */
+  public void streamDoc(int luceneDocId, SolrReturnFields solrReturnFields, BiConsumer<String, Object> fieldConsumer) {
+    Supplier<RetrieveFieldsOptimizer> rfoSupplier = () -> new RetrieveFieldsOptimizer(solrReturnFields);
+    solrReturnFields.getFetchOptimizer(rfoSupplier).streamDoc(luceneDocId, fieldConsumer);
+  }
+
   /** {@link StoredFieldVisitor} which loads the specified fields eagerly (or all if null).
    * If {@link #enableLazyFieldLoading} then the rest get special lazy field entries.  Designated "large"
    * fields will always get a special field entry. */
@@ -340,6 +358,70 @@ public class SolrDocumentFetcher {
     }
   }
 
+  /** {@link StoredFieldVisitor} that passes the converted values of the wanted fields straight to a consumer. */
+  private class StreamingStoredFieldVisitor extends StoredFieldVisitor {
+    private final Set<String> toLoad; // null means all
+    private final Set<String> fieldNamesNeeded; // null means all
+    private final BiConsumer<String, Object> fieldConsumer;
+
+    StreamingStoredFieldVisitor(Set<String> toLoad, Set<String> fieldNamesNeeded, BiConsumer<String, Object> fieldConsumer) {
+      this.toLoad = toLoad;
+      this.fieldNamesNeeded = fieldNamesNeeded;
+      this.fieldConsumer = fieldConsumer;
+    }
+
+    @Override
+    public Status needsField(FieldInfo fieldInfo) {
+      if (toLoad != null && !toLoad.contains(fieldInfo.name)) return Status.NO;
+      if (fieldNamesNeeded != null && !fieldNamesNeeded.contains(fieldInfo.name)) return Status.NO;
+      return Status.YES;
+    }
+
+    @Override
+    public void stringField(FieldInfo fieldInfo, String value) {
+      final SchemaField sf = searcher.getSchema().getFieldOrNull(fieldInfo.name);
+      if (sf != null && sf.getType().isUtf8Field() && DocsStreamer.KNOWN_TYPES.contains(sf.getType().getClass())) {
+        // what DocsStreamer.getValue would return anyway, minus the StoredField wrapper
+        fieldConsumer.accept(fieldInfo.name, value);
+      } else {
+        accept(sf, new StoredField(fieldInfo.name, value));
+      }
+    }
+
+    @Override
+    public void binaryField(FieldInfo fieldInfo, byte[] value) {
+      accept(fieldInfo, new StoredField(fieldInfo.name, value));
+    }
+
+    @Override
+    public void intField(FieldInfo fieldInfo, int value) {
+      accept(fieldInfo, new StoredField(fieldInfo.name, value));
+    }
+
+    @Override
+    public void longField(FieldInfo fieldInfo, long value) {
+      accept(fieldInfo, new StoredField(fieldInfo.name, value));
+    }
+
+    @Override
+    public void floatField(FieldInfo fieldInfo, float value) {
+      accept(fieldInfo, new StoredField(fieldInfo.name, value));
+    }
+
+    @Override
+    public void doubleField(FieldInfo fieldInfo, double value) {
+      accept(fieldInfo, new StoredField(fieldInfo.name, value));
+    }
+
+    private void accept(FieldInfo fieldInfo, IndexableField f) {
+      accept(searcher.getSchema().getFieldOrNull(fieldInfo.name), f);
+    }
+
+    private void accept(SchemaField sf, IndexableField f) {
+      fieldConsumer.accept(f.name(), DocsStreamer.getValue(sf, f));
+    }
+  }
+
   /** @see SolrIndexSearcher#doc(int, StoredFieldVisitor) */
   public void doc(int docId, StoredFieldVisitor visitor) throws IOException {
     if (documentCache != null) {
@@ -528,6 +610,20 @@ public class SolrDocumentFetcher {
     }
   }
 
+  private void streamDocValueFields(int docid, Set<String> fields, BiConsumer<String, Object> fieldConsumer)
+      throws IOException {
+    final List<LeafReaderContext> leafContexts = searcher.getLeafContexts();
+    final int subIndex = ReaderUtil.subIndex(docid, leafContexts);
+    final int localId = docid - leafContexts.get(subIndex).docBase;
+    final LeafReader leafReader = leafContexts.get(subIndex).reader();
+    for (String fieldName : fields) {
+      Object fieldValue = decodeDVField(localId, leafReader, fieldName);
+      if (fieldValue != null) {
+        fieldConsumer.accept(fieldName, fieldValue);
+      }
+    }
+  }
+
   /**
    * Decode value from DV field for a document
    * @return null if DV field is not exist or can not decodable
@@ -823,6 +919,31 @@ public class SolrDocumentFetcher {
       }
       return sdoc;
     }
+
+    private void streamDoc(int luceneDocId, BiConsumer<String, Object> fieldConsumer) {
+      try {
+        if (returnStoredFields()) {
+          final StreamingStoredFieldVisitor visitor = new StreamingStoredFieldVisitor(getStoredFields(),
+              getReturnFields().getLuceneFieldNames(), fieldConsumer);
+          if (documentCache != null) {
+            // go through the cache the same way solrDoc does
+            visitFromCached(doc(luceneDocId, getStoredFields()), visitor);
+          } else {
+            searcher.getIndexReader().document(luceneDocId, visitor);
+          }
+          solrReturnFields.setFieldSources(returnDVFields() ?
+              SolrReturnFields.FIELD_SOURCES.MIXED_SOURCES : SolrReturnFields.FIELD_SOURCES.ALL_FROM_STORED);
+        } else {
+          solrReturnFields.setFieldSources(SolrReturnFields.FIELD_SOURCES.ALL_FROM_DV);
+        }
+
+        if (returnDVFields()) {
+          streamDocValueFields(luceneDocId, getDvFields(), fieldConsumer);
+        }
+      } catch (IOException e) {
+        throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Error reading document with docId " + luceneDocId, e);
+      }
+    }
   }
 }
 
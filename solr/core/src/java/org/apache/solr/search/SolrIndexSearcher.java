@@ -118,6 +118,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
   private final boolean cachingEnabled;
   private final SolrCache<Query,DocSet> filterCache;
+  private final SegmentFilterCache segmentFilterCache;
   private final SolrCache<QueryResultKey,DocList> queryResultCache;
   private final SolrCache<String,UnInvertedField> fieldValueCache;
 
@@ -157,7 +158,8 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
   private static DirectoryReader wrapReader(SolrCore core, DirectoryReader reader) throws IOException {
     assert reader != null;
     return ExitableDirectoryReader.wrap(
-        UninvertingReader.wrap(reader, core.getLatestSchema().getUninversionMapper()),
+        UninvertingReader.wrap(reader, core.getLatestSchema().getUninversionMapper(),
+            core.getSolrConfig().offHeapUninvertedFields),
         SolrQueryTimeoutImpl.getInstance());
   }
 
@@ -275,6 +277,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       if (fieldValueCache != null) clist.add(fieldValueCache);
       filterCache = solrConfig.filterCacheConfig == null ? null : solrConfig.filterCacheConfig.newInstance();
       if (filterCache != null) clist.add(filterCache);
+      segmentFilterCache = core.getSegmentFilterCache();
       queryResultCache = solrConfig.queryResultCacheConfig == null ? null
           : solrConfig.queryResultCacheConfig.newInstance();
       if (queryResultCache != null) clist.add(queryResultCache);
@@ -297,6 +300,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       cacheList = clist.toArray(new SolrCache[clist.size()]);
     } else {
       this.filterCache = null;
+      this.segmentFilterCache = null;
       this.queryResultCache = null;
       this.fieldValueCache = null;
       this.cacheMap = NO_GENERIC_CACHES;
@@ -813,7 +817,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       }
     }
 
-    DocSet absAnswer = getDocSetNC(absQ, null);
+    DocSet absAnswer = getPositiveDocSetNC(absQ);
     DocSet answer = positive ? absAnswer : getLiveDocSet().andNot(absAnswer);
 
     if (filterCache != null) {
@@ -831,7 +835,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       answer = filterCache.get(q);
       if (answer != null) return answer;
     }
-    answer = getDocSetNC(q, null);
+    answer = getPositiveDocSetNC(q);
     if (filterCache != null) filterCache.put(q, answer);
     return answer;
   }
@@ -1194,6 +1198,15 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     return DocSetUtil.createDocSet(this, query, filter);
   }
 
+  // query must be positive; computes only the segments missing from the segment filter cache, if any
+  private DocSet getPositiveDocSetNC(Query query) throws IOException {
+    if (segmentFilterCache != null) {
+      DocSet answer = segmentFilterCache.getDocSet(this, query);
+      if (answer != null) return answer;
+    }
+    return getDocSetNC(query, null);
+  }
+
   /**
    * Returns the set of document ids matching both the query and the filter. This method is cache-aware and attempts to
    * retrieve the answer from the cache if possible. If the answer was not cached, it may have been inserted into the
@@ -1226,7 +1239,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     if (filterCache != null) {
       first = filterCache.get(absQ);
       if (first == null) {
-        first = getDocSetNC(absQ, null);
+        first = getPositiveDocSetNC(absQ);
         filterCache.put(absQ, first);
       }
       return positive ? first.intersection(filter) : filter.andNot(first);
@@ -119,9 +119,12 @@ public class FacetField extends FacetRequestSorted {
     FieldType ft = sf.getType();
     boolean multiToken = sf.multiValued() || ft.multiValuedFieldCache();
 
+    // with off-heap uninverted fields, per-segment DocValues are preferred over the top-level UnInvertedField
+    boolean topLevelUIF = method == FacetMethod.UIF || !fcontext.searcher.getCore().getSolrConfig().offHeapUninvertedFields;
+
     if (fcontext.facetInfo != null) {
       // refinement... we will end up either skipping the entire facet, or doing calculating only specific facet buckets
-      if (multiToken && !sf.hasDocValues() && method!=FacetMethod.DV && sf.isUninvertible()) {
+      if (multiToken && !sf.hasDocValues() && method!=FacetMethod.DV && sf.isUninvertible() && topLevelUIF) {
         // Match the access method from the first phase.
         // It won't always matter, but does currently for an all-values bucket
         return new FacetFieldProcessorByArrayUIF(fcontext, this, sf);
@@ -181,8 +184,8 @@ public class FacetField extends FacetRequestSorted {
 
     // multi-valued after this point
 
-    if (sf.hasDocValues() || method == FacetMethod.DV || !sf.isUninvertible()) {
-      // single and multi-valued string docValues
+    if (sf.hasDocValues() || method == FacetMethod.DV || !sf.isUninvertible() || !topLevelUIF) {
+      // single and multi-valued string docValues, or per-segment uninverted off-heap
       return new FacetFieldProcessorByArrayDV(fcontext, this, sf);
     }
 
@@ -279,7 +279,8 @@ public class GraphQuery extends Query {
 
     @Override
     public boolean isCacheable(LeafReaderContext ctx) {
-      return true;
+      // the matches of a segment depend on the graph traversal over the whole index
+      return false;
     }
     
   }
@@ -342,6 +342,21 @@ public interface FieldCache {
    */
   public SortedSetDocValues getDocTermOrds(LeafReader reader, String field, BytesRef prefix) throws IOException;
 
+  /**
+   * Like {@link #getDocTermOrds(LeafReader, String, BytesRef)}, but uninverts multi-valued
+   * fields into an {@link OffHeapDocTermOrds}, which keeps the per-document ordinals
+   * outside of the Java heap.
+   *
+   * @param reader  Used to build an {@link OffHeapDocTermOrds} instance
+   * @param field   Which field contains the strings.
+   * @param prefix  prefix for a subset of the terms which should be uninverted. Can be null or
+   *                {@link #INT32_TERM_PREFIX} or {@link #INT64_TERM_PREFIX}
+   *
+   * @return a {@link SortedSetDocValues} view of the field
+   * @throws IOException  If any error occurs.
+   */
+  public SortedSetDocValues getOffHeapDocTermOrds(LeafReader reader, String field, BytesRef prefix) throws IOException;
+
   /**
    * EXPERT: A unique Identifier/Description for each item in the FieldCache. 
    * Can be useful for logging/debugging.
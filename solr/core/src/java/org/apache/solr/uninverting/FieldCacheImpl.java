@@ -72,6 +72,7 @@ public class FieldCacheImpl implements FieldCache {
     caches.put(BinaryDocValues.class, new BinaryDocValuesCache(this));
     caches.put(SortedDocValues.class, new SortedDocValuesCache(this));
     caches.put(DocTermOrds.class, new DocTermOrdsCache(this));
+    caches.put(OffHeapDocTermOrds.class, new OffHeapDocTermOrdsCache(this));
     caches.put(DocsWithFieldCache.class, new DocsWithFieldCache(this));
   }
 
@@ -1196,6 +1197,15 @@ public class FieldCacheImpl implements FieldCache {
   // TODO: this if DocTermsIndex was already created, we
   // should share it...
   public SortedSetDocValues getDocTermOrds(LeafReader reader, String field, BytesRef prefix) throws IOException {
+    return getDocTermOrds(reader, field, prefix, DocTermOrds.class);
+  }
+
+  public SortedSetDocValues getOffHeapDocTermOrds(LeafReader reader, String field, BytesRef prefix) throws IOException {
+    return getDocTermOrds(reader, field, prefix, OffHeapDocTermOrds.class);
+  }
+
+  private SortedSetDocValues getDocTermOrds(LeafReader reader, String field, BytesRef prefix,
+                                            Class<? extends DocTermOrds> cacheType) throws IOException {
     // not a general purpose filtering mechanism...
     assert prefix == null || prefix == INT32_TERM_PREFIX || prefix == INT64_TERM_PREFIX;
     
@@ -1233,7 +1243,7 @@ public class FieldCacheImpl implements FieldCache {
       }
     }
     
-    DocTermOrds dto = (DocTermOrds) caches.get(DocTermOrds.class).get(reader, new CacheKey(field, prefix));
+    DocTermOrds dto = (DocTermOrds) caches.get(cacheType).get(reader, new CacheKey(field, prefix));
     return dto.iterator(reader);
   }
 
@@ -1250,5 +1260,17 @@ public class FieldCacheImpl implements FieldCache {
     }
   }
 
-}
+  static final class OffHeapDocTermOrdsCache extends Cache {
+    OffHeapDocTermOrdsCache(FieldCacheImpl wrapper) {
+      super(wrapper);
+    }
 
+    @Override
+    protected Accountable createValue(LeafReader reader, CacheKey key)
+        throws IOException {
+      BytesRef prefix = (BytesRef) key.custom;
+      return new OffHeapDocTermOrds(reader, key.field, prefix);
+    }
+  }
+
+}
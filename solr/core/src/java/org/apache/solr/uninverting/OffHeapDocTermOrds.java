@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.uninverting;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.PagedBytes;
+import org.apache.lucene.util.StringHelper;
+
+/**
+ * A per-segment {@link DocTermOrds} that keeps the per-document term ordinals
+ * in direct (off-heap) memory instead of on the Java heap.
+ * <p>
+ * Each document's ordinals are stored as vInt deltas in a single direct
+ * {@link ByteBuffer}, addressed by a direct {@link IntBuffer} of
+ * <code>maxDoc+1</code> start offsets. The only structure kept on the heap
+ * is the sampled terms index shared with {@link DocTermOrds}, which is used to
+ * implement ord lookups. The scratch arrays used while uninverting are
+ * allocated off-heap too, so building a large field does not cause heap spikes.
+ * <p>
+ * Like {@link DocTermOrds}, instances are cached by {@link FieldCache} against
+ * the core cache key of the segment, so they are reused by every searcher
+ * that shares the segment. Closing the segment only evicts the instance from
+ * the cache: the direct buffers are not freed eagerly, as iterators may still
+ * reference them, and their memory is returned when they are garbage collected.
+ * Direct memory is bounded by <code>-XX:MaxDirectMemorySize</code> rather than
+ * by the heap size.
+ * <p>
+ * Uninverting is done in two passes over the postings: the first one sizes
+ * every document's ordinal list and the second one fills them in.
+ */
+public class OffHeapDocTermOrds extends DocTermOrds {
+
+  /** Per-document start offsets into {@link #data}, <code>maxDoc+1</code> entries. */
+  private IntBuffer offsets;
+
+  /** vInt encoded ordinal deltas of all documents. */
+  private ByteBuffer data;
+
+  /** Inverts all terms */
+  public OffHeapDocTermOrds(LeafReader reader, String field) throws IOException {
+    this(reader, field, null);
+  }
+
+  /** Inverts only terms starting w/ prefix */
+  public OffHeapDocTermOrds(LeafReader reader, String field, BytesRef termPrefix) throws IOException {
+    super(field, Integer.MAX_VALUE, DEFAULT_INDEX_INTERVAL_BITS);
+    uninvertOffHeap(reader, termPrefix);
+  }
+
+  private void uninvertOffHeap(LeafReader reader, BytesRef termPrefix) throws IOException {
+    final FieldInfo info = reader.getFieldInfos().fieldInfo(field);
+    if (checkForDocValues && info != null && info.getDocValuesType() != DocValuesType.NONE) {
+      throw new IllegalStateException("Type mismatch: " + field + " was indexed as " + info.getDocValuesType());
+    }
+    final long startTime = System.nanoTime();
+    prefix = termPrefix == null ? null : BytesRef.deepCopyOf(termPrefix);
+
+    final Terms terms = reader.terms(field);
+    if (terms == null) {
+      // No terms
+      return;
+    }
+    final int maxDoc = reader.maxDoc();
+    if (maxDoc >= Integer.MAX_VALUE / Integer.BYTES) {
+      throw new IllegalStateException("Too many documents to uninvert field " + field + " off-heap: " + maxDoc);
+    }
+    final int indexIntervalMask = (1 << DEFAULT_INDEX_INTERVAL_BITS) - 1;
+    final BytesRef seekStart = termPrefix != null ? termPrefix : new BytesRef();
+
+    // last term number seen per document, and the byte length of its list
+    final IntBuffer lastTerm = ByteBuffer.allocateDirect(maxDoc * Integer.BYTES).asIntBuffer();
+    final IntBuffer lengths = ByteBuffer.allocateDirect(maxDoc * Integer.BYTES).asIntBuffer();
+    fill(lastTerm, maxDoc, -1);
+
+    // first pass: build the terms index and size every document's list
+    final List<BytesRef> indexedTerms = new ArrayList<>();
+    final PagedBytes indexedTermsBytes = new PagedBytes(15);
+    TermsEnum te = terms.iterator();
+    if (te.seekCeil(seekStart) == TermsEnum.SeekStatus.END) {
+      // No terms match
+      return;
+    }
+    long totalBytes = 0;
+    int termNum = 0;
+    for (BytesRef t = te.term(); t != null && (termPrefix == null || StringHelper.startsWith(t, termPrefix)); t = te.next()) {
+      if ((termNum & indexIntervalMask) == 0) {
+        // Index this term
+        sizeOfIndexedStrings += t.length;
+        BytesRef indexedTerm = new BytesRef();
+        indexedTermsBytes.copy(t, indexedTerm);
+        indexedTerms.add(indexedTerm);
+      }
+      postingsEnum = te.postings(postingsEnum, PostingsEnum.NONE);
+      for (int doc = postingsEnum.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postingsEnum.nextDoc()) {
+        final int size = vIntSize(termNum - lastTerm.get(doc));
+        lastTerm.put(doc, termNum);
+        lengths.put(doc, lengths.get(doc) + size);
+        totalBytes += size;
+        termInstances++;
+      }
+      if (termNum == Integer.MAX_VALUE - 1) {
+        throw new IllegalStateException("Too many terms to uninvert field " + field);
+      }
+      termNum++;
+    }
+    numTermsInField = termNum;
+    indexedTermsBytes.freeze(true);
+    indexedTermsArray = indexedTerms.toArray(new BytesRef[indexedTerms.size()]);
+    if (totalBytes > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Too many values for OffHeapDocTermOrds on field " + field + ": " + totalBytes + " bytes");
+    }
+    phase1_time = (int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+    // turn lengths into start offsets, and reuse them as write positions
+    offsets = ByteBuffer.allocateDirect((maxDoc + 1) * Integer.BYTES).asIntBuffer();
+    int offset = 0;
+    for (int doc = 0; doc < maxDoc; doc++) {
+      offsets.put(doc, offset);
+      final int length = lengths.get(doc);
+      lengths.put(doc, offset);
+      offset += length;
+    }
+    offsets.put(maxDoc, offset);
+    data = ByteBuffer.allocateDirect((int) totalBytes);
+    fill(lastTerm, maxDoc, -1);
+
+    // second pass: write the deltas
+    te = terms.iterator();
+    te.seekCeil(seekStart);
+    termNum = 0;
+    for (BytesRef t = te.term(); termNum < numTermsInField; t = te.next()) {
+      assert t != null;
+      postingsEnum = te.postings(postingsEnum, PostingsEnum.NONE);
+      for (int doc = postingsEnum.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postingsEnum.nextDoc()) {
+        final int pos = writeVInt(termNum - lastTerm.get(doc), data, lengths.get(doc));
+        lastTerm.put(doc, termNum);
+        lengths.put(doc, pos);
+      }
+      termNum++;
+    }
+    postingsEnum = null;
+    total_time = (int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+  }
+
+  private static void fill(IntBuffer buffer, int length, int value) {
+    for (int i = 0; i < length; i++) {
+      buffer.put(i, value);
+    }
+  }
+
+  private static int vIntSize(int x) {
+    if ((x & (0xffffffff << 7)) == 0) {
+      return 1;
+    }
+    if ((x & (0xffffffff << 14)) == 0) {
+      return 2;
+    }
+    if ((x & (0xffffffff << 21)) == 0) {
+      return 3;
+    }
+    if ((x & (0xffffffff << 28)) == 0) {
+      return 4;
+    }
+    return 5;
+  }
+
+  private static int writeVInt(int x, ByteBuffer buffer, int pos) {
+    while ((x & ~0x7f) != 0) {
+      buffer.put(pos++, (byte) ((x & 0x7f) | 0x80));
+      x >>>= 7;
+    }
+    buffer.put(pos++, (byte) x);
+    return pos;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return data == null;
+  }
+
+  /** Returns the number of bytes used outside of the Java heap. */
+  public long offHeapBytesUsed() {
+    if (data == null) {
+      return 0;
+    }
+    return ((long) offsets.capacity() * Integer.BYTES) + data.capacity();
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    // only the terms index lives on the heap
+    long sz = 8*8 + 32; // local fields
+    if (indexedTermsArray != null) {
+      // assume 8 byte references?
+      sz += 8+8+8+8+(indexedTermsArray.length<<3)+sizeOfIndexedStrings;
+    }
+    return sz;
+  }
+
+  @Override
+  public SortedSetDocValues iterator(LeafReader reader) throws IOException {
+    if (isEmpty()) {
+      return DocValues.emptySortedSet();
+    } else {
+      return new Iterator(reader);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "OffHeapDocTermOrds(field=" + field
+        + ",nTerms=" + numTermsInField
+        + ",termInstances=" + termInstances
+        + ",offHeapBytes=" + offHeapBytesUsed()
+        + ",time=" + total_time
+        + ",phase1=" + phase1_time
+        + ")";
+  }
+
+  private final class Iterator extends SortedSetDocValues {
+    final LeafReader reader;
+    final TermsEnum te;  // used internally for lookupOrd() and lookupTerm()
+    final int maxDoc;
+
+    private int doc = -1;
+    private int upto;
+    private int end;
+    private long ord;
+
+    Iterator(LeafReader reader) throws IOException {
+      this.reader = reader;
+      this.maxDoc = reader.maxDoc();
+      this.te = termsEnum();
+    }
+
+    @Override
+    public long nextOrd() {
+      if (upto == end) {
+        return NO_MORE_ORDS;
+      }
+      int delta = 0;
+      for (int shift = 0; ; shift += 7) {
+        final byte b = data.get(upto++);
+        delta |= (b & 0x7f) << shift;
+        if (b >= 0) {
+          break;
+        }
+      }
+      ord += delta;
+      return ord;
+    }
+
+    @Override
+    public boolean advanceExact(int target) throws IOException {
+      doc = target;
+      upto = offsets.get(target);
+      end = offsets.get(target + 1);
+      ord = -1;
+      return upto < end;
+    }
+
+    @Override
+    public int docID() {
+      return doc;
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      return advance(docID() + 1);
+    }
+
+    @Override
+    public int advance(int target) throws IOException {
+      for (int d = target; d < maxDoc; ++d) {
+        if (advanceExact(d)) {
+          return d;
+        }
+      }
+      return doc = NO_MORE_DOCS;
+    }
+
+    @Override
+    public long cost() {
+      return maxDoc;
+    }
+
+    @Override
+    public BytesRef lookupOrd(long ord) {
+      try {
+        return OffHeapDocTermOrds.this.lookupTerm(te, (int) ord);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public long getValueCount() {
+      return numTerms();
+    }
+
+    @Override
+    public long lookupTerm(BytesRef key) {
+      try {
+        switch (te.seekCeil(key)) {
+          case FOUND:
+            assert te.ord() >= 0;
+            return te.ord();
+          case NOT_FOUND:
+            assert te.ord() >= 0;
+            return -te.ord()-1;
+          default: /* END */
+            return -numTerms()-1;
+        }
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public TermsEnum termsEnum() {
+      try {
+        return getOrdTermsEnum(reader);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+}
@@ -38,6 +38,7 @@ import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.apache.solr.uninverting.FieldCache.CacheEntry;
 
@@ -189,25 +190,40 @@ public class UninvertingReader extends FilterLeafReader {
    * @return a wrapped directory reader
    */
   public static DirectoryReader wrap(DirectoryReader in, Function<String, Type> mapper) throws IOException {
-    return new UninvertingDirectoryReader(in, mapper);
+    return wrap(in, mapper, false);
+  }
+
+  /**
+   * Wraps a provided {@link DirectoryReader}, optionally uninverting multi-valued fields
+   * into {@link OffHeapDocTermOrds} rather than {@link DocTermOrds}.
+   *
+   * @param in input directory reader
+   * @param mapper function to map a field name to an uninversion type.  A Null result means to not uninvert.
+   * @param offHeapSortedSets whether the SORTED_SET types should keep their ordinals off-heap
+   * @return a wrapped directory reader
+   */
+  public static DirectoryReader wrap(DirectoryReader in, Function<String, Type> mapper, boolean offHeapSortedSets) throws IOException {
+    return new UninvertingDirectoryReader(in, mapper, offHeapSortedSets);
   }
 
   static class UninvertingDirectoryReader extends FilterDirectoryReader {
     final Function<String, Type> mapper;
+    final boolean offHeapSortedSets;
     
-    public UninvertingDirectoryReader(DirectoryReader in, final Function<String, Type> mapper) throws IOException {
+    public UninvertingDirectoryReader(DirectoryReader in, final Function<String, Type> mapper, final boolean offHeapSortedSets) throws IOException {
       super(in, new FilterDirectoryReader.SubReaderWrapper() {
         @Override
         public LeafReader wrap(LeafReader reader) {
-          return UninvertingReader.wrap(reader, mapper);
+          return UninvertingReader.wrap(reader, mapper, offHeapSortedSets);
         }
       });
       this.mapper = mapper;
+      this.offHeapSortedSets = offHeapSortedSets;
     }
 
     @Override
     protected DirectoryReader doWrapDirectoryReader(DirectoryReader in) throws IOException {
-      return new UninvertingDirectoryReader(in, mapper);
+      return new UninvertingDirectoryReader(in, mapper, offHeapSortedSets);
     }
 
     // NOTE: delegating the cache helpers is wrong since this wrapper alters the
@@ -229,6 +245,16 @@ public class UninvertingReader extends FilterLeafReader {
    * @lucene.internal
    */
   public static LeafReader wrap(LeafReader in, Function<String, Type> mapping) {
+    return wrap(in, mapping, false);
+  }
+
+  /**
+   * Same as {@link #wrap(LeafReader, Function)}, optionally uninverting multi-valued fields
+   * into {@link OffHeapDocTermOrds}.
+   *
+   * @lucene.internal
+   */
+  public static LeafReader wrap(LeafReader in, Function<String, Type> mapping, boolean offHeapSortedSets) {
     boolean wrap = false;
 
     // Calculate a new FieldInfos that has DocValuesType where we didn't before
@@ -284,7 +310,8 @@ public class UninvertingReader extends FilterLeafReader {
         wrap = true;
         newFieldInfos.add(new FieldInfo(fi.name, fi.number, fi.hasVectors(), fi.omitsNorms(),
             fi.hasPayloads(), fi.getIndexOptions(), type, fi.getDocValuesGen(), fi.attributes(),
-            fi.getPointDimensionCount(), fi.getPointIndexDimensionCount(), fi.getPointNumBytes(), fi.isSoftDeletesField()));
+            fi.getPointDimensionCount(), fi.getPointIndexDimensionCount(), fi.getPointNumBytes(),
+            fi.getVectorDimension(), fi.getVectorSimilarityFunction(), fi.isSoftDeletesField()));
       } else {
         newFieldInfos.add(fi);
       }
@@ -293,17 +320,19 @@ public class UninvertingReader extends FilterLeafReader {
       return in;
     } else {
       FieldInfos fieldInfos = new FieldInfos(newFieldInfos.toArray(new FieldInfo[newFieldInfos.size()]));
-      return new UninvertingReader(in, mapping, fieldInfos);
+      return new UninvertingReader(in, mapping, fieldInfos, offHeapSortedSets);
     }
   }
 
   final Function<String, Type> mapping;
   final FieldInfos fieldInfos;
+  final boolean offHeapSortedSets;
 
-  private UninvertingReader(LeafReader in, Function<String, Type> mapping, FieldInfos fieldInfos) {
+  private UninvertingReader(LeafReader in, Function<String, Type> mapping, FieldInfos fieldInfos, boolean offHeapSortedSets) {
     super(in);
     this.mapping = mapping;
     this.fieldInfos = fieldInfos;
+    this.offHeapSortedSets = offHeapSortedSets;
   }
 
   @Override
@@ -380,12 +409,12 @@ public class UninvertingReader extends FilterLeafReader {
       switch (v) {
         case SORTED_SET_INTEGER:
         case SORTED_SET_FLOAT: 
-          return FieldCache.DEFAULT.getDocTermOrds(in, field, FieldCache.INT32_TERM_PREFIX);
+          return getDocTermOrds(field, FieldCache.INT32_TERM_PREFIX);
         case SORTED_SET_LONG:
         case SORTED_SET_DOUBLE:
-          return FieldCache.DEFAULT.getDocTermOrds(in, field, FieldCache.INT64_TERM_PREFIX);
+          return getDocTermOrds(field, FieldCache.INT64_TERM_PREFIX);
         case SORTED_SET_BINARY:
-          return FieldCache.DEFAULT.getDocTermOrds(in, field, null);
+          return getDocTermOrds(field, null);
         case BINARY:
         case LEGACY_DOUBLE:
         case LEGACY_FLOAT:
@@ -402,6 +431,14 @@ public class UninvertingReader extends FilterLeafReader {
     return null;
   }
 
+  private SortedSetDocValues getDocTermOrds(String field, BytesRef prefix) throws IOException {
+    if (offHeapSortedSets) {
+      return FieldCache.DEFAULT.getOffHeapDocTermOrds(in, field, prefix);
+    } else {
+      return FieldCache.DEFAULT.getDocTermOrds(in, field, prefix);
+    }
+  }
+
   /** 
    * Returns the field's uninversion type, or null 
    * if the field doesn't exist or doesn't have a mapping.
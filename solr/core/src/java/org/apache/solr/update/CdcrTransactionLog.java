@@ -355,6 +355,7 @@ public class CdcrTransactionLog extends TransactionLog {
           raf = null;
         }
       }
+      closeMappings();
 
       if (deleteOnClose) {
         try {
@@ -46,7 +46,9 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefHash;
 import org.apache.solr.cloud.ZkController;
 import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.cloud.Replica;
+import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.core.SolrConfig.UpdateHandlerInfo;
@@ -313,6 +315,109 @@ public class DirectUpdateHandler2 extends UpdateHandler implements SolrCoreState
     return rc;
   }
 
+  @Override
+  public int bulkAdd(AddUpdateCommand cmd, List<SolrInputDocument> docs) throws IOException {
+    try {
+      return bulkAdd0(cmd, docs);
+    } catch (SolrException e) {
+      throw e;
+    } catch (AlreadyClosedException e) {
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Server error writing bulk documents to the index", e);
+    } catch (RuntimeException t) {
+      // the batch is added as a whole unless overwriting, so the failing document is only known in that case
+      String id = cmd.solrDoc == null ? "" : " id " + cmd.getPrintableId();
+      throw new SolrException(SolrException.ErrorCode.BAD_REQUEST,
+          "Exception writing bulk document" + id + " to the index; possible analysis error: " + t.getMessage(), t);
+    } finally {
+      cmd.clear();
+    }
+  }
+
+  private int bulkAdd0(AddUpdateCommand cmd, List<SolrInputDocument> docs) throws IOException {
+    if (docs.isEmpty()) {
+      return 0;
+    }
+    addCommands.add(docs.size());
+    addCommandsCumulative.mark(docs.size());
+
+    // the documents are versioned here since they skip the processor chain, so that they can be
+    // written to the update log and recovered and looked up like any other update
+    VersionInfo vinfo = ulog == null ? null : ulog.getVersionInfo();
+    long[] versions = new long[docs.size()];
+    int added = 0;
+    if (vinfo != null) {
+      vinfo.lockForUpdate();
+    }
+    RefCounted<IndexWriter> iw = solrCoreState.getIndexWriter(core);
+    try {
+      if (vinfo != null) {
+        for (int i = 0; i < docs.size(); i++) {
+          versions[i] = vinfo.getNewClock();
+          docs.get(i).setField(CommonParams.VERSION_FIELD, versions[i]);
+        }
+      }
+      IndexWriter writer = iw.get();
+      if (cmd.overwrite && idField != null) {
+        // each document has to replace the one with its id, this can't be done for a whole batch at once
+        for (int i = 0; i < docs.size(); i++) {
+          cmd.clear();
+          cmd.solrDoc = docs.get(i);
+          cmd.setVersion(versions[i]);
+          updateDocOrDocValues(cmd, writer);
+          if (ulog != null) ulog.add(cmd);
+          added++;
+        }
+      } else {
+        List<Document> luceneDocs = new ArrayList<>(docs.size());
+        for (SolrInputDocument doc : docs) {
+          cmd.clear();
+          cmd.solrDoc = doc;
+          Iterable<Document> nestedDocs = cmd.getLuceneDocsIfNested();
+          if (nestedDocs != null) {
+            nestedDocs.forEach(luceneDocs::add);
+          } else {
+            luceneDocs.add(cmd.getLuceneDocument());
+          }
+        }
+        writer.addDocuments(luceneDocs);
+        // as in doNormalUpdate, the documents are only logged once they were added to the index
+        if (ulog != null) {
+          for (int i = 0; i < docs.size(); i++) {
+            cmd.clear();
+            cmd.solrDoc = docs.get(i);
+            cmd.setVersion(versions[i]);
+            ulog.add(cmd);
+          }
+        }
+        added = docs.size();
+      }
+    } finally {
+      iw.decref();
+      if (vinfo != null) {
+        vinfo.unlockForUpdate();
+      }
+      numDocsPending.add(added);
+      if (added != docs.size()) {
+        numErrors.increment();
+        numErrorsCumulative.mark();
+      }
+    }
+
+    if ((cmd.getFlags() & UpdateCommand.IGNORE_AUTOCOMMIT) == 0) {
+      long currentTlogSize = getCurrentTLogSize();
+      for (int i = 0; i < added; i++) {
+        if (commitWithinSoftCommit) {
+          commitTracker.addedDocument(-1, currentTlogSize);
+          softCommitTracker.addedDocument(cmd.commitWithin);
+        } else {
+          softCommitTracker.addedDocument(-1);
+          commitTracker.addedDocument(cmd.commitWithin, currentTlogSize);
+        }
+      }
+    }
+    return added;
+  }
+
   private void allowDuplicateUpdate(AddUpdateCommand cmd) throws IOException {
     RefCounted<IndexWriter> iw = solrCoreState.getIndexWriter(core);
     try {
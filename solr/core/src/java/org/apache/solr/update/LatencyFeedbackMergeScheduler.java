@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Locale;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Timer;
+import org.apache.lucene.index.ConcurrentMergeScheduler;
+import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.core.SolrInfoBean;
+import org.apache.solr.metrics.SolrMetricManager;
+import org.apache.solr.metrics.SolrMetricsContext;
+import org.apache.solr.util.DefaultSolrThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link ConcurrentMergeScheduler} that throttles merges based on the latency of foreground
+ * requests, in addition to the merge backlog that the auto IO throttle of its super class reacts to.
+ * <p>
+ * Every {@link #setIntervalMs(long) intervalMs} the scheduler reads a {@link LatencySignal}, by
+ * default a percentile of the <code>requestTimes</code> timer of the {@link #setLatencyHandler(String) latencyHandler}.
+ * While the latency is above {@link #setTargetLatencyMs(double) targetLatencyMs}, the IO rate of merges is halved,
+ * down to {@link #setMinMBPerSec(double) minMBPerSec}, and then the number of merge threads is reduced, down to one.
+ * Once the latency drops below 75% of the target, the merge threads are restored first and then the IO rate
+ * ceiling is raised by 25% per interval until it exceeds {@link #setMaxMBPerSec(double) maxMBPerSec}, at which
+ * point merges are only limited by the auto IO throttle again.
+ * <p>
+ * Like the auto IO throttle, the rate ceiling only applies to merges larger than 50 MB, and it has no effect if the
+ * auto IO throttle is disabled. Example configuration:
+ * <pre class="prettyprint">
+ * &lt;mergeScheduler class="org.apache.solr.update.LatencyFeedbackMergeScheduler"&gt;
+ *   &lt;double name="targetLatencyMs"&gt;50&lt;/double&gt;
+ *   &lt;str name="latencyHandler"&gt;/select&lt;/str&gt;
+ * &lt;/mergeScheduler&gt;
+ * </pre>
+ */
+public class LatencyFeedbackMergeScheduler extends ConcurrentMergeScheduler {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /** A source of the current latency of foreground requests. */
+  public interface LatencySignal {
+    /** Returns the current latency in milliseconds, or {@link Double#NaN} if it is unknown. */
+    double getLatencyMs();
+  }
+
+  private double targetLatencyMs = 100.0;
+  private String latencyHandler = "/select";
+  private double latencyPercentile = 0.99;
+  private double minMBPerSec = 5.0;
+  private double maxMBPerSec = 1024.0;
+  private long intervalMs = 1000;
+
+  private volatile double latencyMs = Double.NaN;
+  // guarded by this:
+  private double ceilingMBPerSec = Double.POSITIVE_INFINITY;
+  private int configuredMaxThreadCount = AUTO_DETECT_MERGES_AND_THREADS;
+
+  private ScheduledThreadPoolExecutor executor;
+
+  public void setTargetLatencyMs(double targetLatencyMs) {
+    if (targetLatencyMs <= 0) {
+      throw new IllegalArgumentException("targetLatencyMs must be > 0, got " + targetLatencyMs);
+    }
+    this.targetLatencyMs = targetLatencyMs;
+  }
+
+  public double getTargetLatencyMs() {
+    return targetLatencyMs;
+  }
+
+  /** Sets the request handler whose <code>requestTimes</code> are used as the default latency signal. */
+  public void setLatencyHandler(String latencyHandler) {
+    this.latencyHandler = latencyHandler;
+  }
+
+  public String getLatencyHandler() {
+    return latencyHandler;
+  }
+
+  /** Sets the percentile of the request times, between 0 and 1, that is compared to the target latency. */
+  public void setLatencyPercentile(double latencyPercentile) {
+    if (latencyPercentile < 0 || latencyPercentile > 1) {
+      throw new IllegalArgumentException("latencyPercentile must be in [0, 1], got " + latencyPercentile);
+    }
+    this.latencyPercentile = latencyPercentile;
+  }
+
+  public double getLatencyPercentile() {
+    return latencyPercentile;
+  }
+
+  public void setMinMBPerSec(double minMBPerSec) {
+    if (minMBPerSec <= 0) {
+      throw new IllegalArgumentException("minMBPerSec must be > 0, got " + minMBPerSec);
+    }
+    this.minMBPerSec = minMBPerSec;
+  }
+
+  public double getMinMBPerSec() {
+    return minMBPerSec;
+  }
+
+  public void setMaxMBPerSec(double maxMBPerSec) {
+    if (maxMBPerSec <= 0) {
+      throw new IllegalArgumentException("maxMBPerSec must be > 0, got " + maxMBPerSec);
+    }
+    this.maxMBPerSec = maxMBPerSec;
+  }
+
+  public double getMaxMBPerSec() {
+    return maxMBPerSec;
+  }
+
+  public void setIntervalMs(long intervalMs) {
+    if (intervalMs <= 0) {
+      throw new IllegalArgumentException("intervalMs must be > 0, got " + intervalMs);
+    }
+    this.intervalMs = intervalMs;
+  }
+
+  public long getIntervalMs() {
+    return intervalMs;
+  }
+
+  /** Returns the latency that was last read from the signal, or {@link Double#NaN} if none was read yet. */
+  public double getLatencyMs() {
+    return latencyMs;
+  }
+
+  /** Returns the current ceiling of the merge IO rate, or {@link Double#POSITIVE_INFINITY} if merges are not throttled. */
+  public synchronized double getCeilingMBPerSec() {
+    return ceilingMBPerSec;
+  }
+
+  /**
+   * Returns a signal that reads the configured percentile of the <code>requestTimes</code> timer of the
+   * configured latency handler from the registry of the given metrics context.
+   */
+  public LatencySignal requestTimesSignal(SolrMetricsContext solrMetricsContext) {
+    final String timerName = SolrMetricManager.mkName("requestTimes", SolrInfoBean.Category.QUERY.toString(), latencyHandler);
+    final double percentile = latencyPercentile;
+    return () -> {
+      Timer timer = solrMetricsContext.getMetricRegistry().getTimers().get(timerName);
+      if (timer == null || timer.getCount() == 0) {
+        return Double.NaN;
+      }
+      return timer.getSnapshot().getValue(percentile) / TimeUnit.MILLISECONDS.toNanos(1);
+    };
+  }
+
+  /**
+   * Starts adjusting the merge throttle based on the given signal. This may only be called once.
+   */
+  public synchronized void setLatencySignal(LatencySignal signal) {
+    if (executor != null) {
+      throw new IllegalStateException("the latency signal was already set");
+    }
+    executor = new ScheduledThreadPoolExecutor(1, new DefaultSolrThreadFactory("mergeLatencyFeedback"));
+    executor.scheduleWithFixedDelay(() -> {
+      try {
+        adjust(signal.getLatencyMs());
+      } catch (Exception e) {
+        log.warn("Could not adjust the merge throttle", e);
+      }
+    }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  /** Adjusts the merge throttle to the given latency of foreground requests. */
+  synchronized void adjust(double latencyMs) {
+    this.latencyMs = latencyMs;
+    if (Double.isNaN(latencyMs)) {
+      return;
+    }
+    final int maxThreadCount = getMaxThreadCount();
+    if (latencyMs > targetLatencyMs) {
+      if (ceilingMBPerSec > minMBPerSec) {
+        ceilingMBPerSec = Math.max(minMBPerSec, Math.min(ceilingMBPerSec, targetMBPerSec) / 2);
+      } else if (maxThreadCount > 1) {
+        if (configuredMaxThreadCount == AUTO_DETECT_MERGES_AND_THREADS) {
+          configuredMaxThreadCount = maxThreadCount;
+        }
+        setMaxMergesAndThreads(getMaxMergeCount(), maxThreadCount - 1);
+      }
+    } else if (latencyMs < targetLatencyMs * 0.75) {
+      if (configuredMaxThreadCount != AUTO_DETECT_MERGES_AND_THREADS) {
+        if (maxThreadCount + 1 >= configuredMaxThreadCount) {
+          setMaxMergesAndThreads(getMaxMergeCount(), configuredMaxThreadCount);
+          configuredMaxThreadCount = AUTO_DETECT_MERGES_AND_THREADS;
+        } else {
+          setMaxMergesAndThreads(getMaxMergeCount(), maxThreadCount + 1);
+        }
+      } else if (ceilingMBPerSec != Double.POSITIVE_INFINITY) {
+        ceilingMBPerSec *= 1.25;
+        if (ceilingMBPerSec > maxMBPerSec) {
+          ceilingMBPerSec = Double.POSITIVE_INFINITY;
+        }
+      }
+    }
+    if (targetMBPerSec > ceilingMBPerSec) {
+      targetMBPerSec = ceilingMBPerSec;
+    }
+    if (verbose()) {
+      message(String.format(Locale.ROOT, "latency feedback: latency=%.1f ms target=%.1f ms ceiling=%.1f MB/sec maxThreadCount=%d",
+          latencyMs, targetLatencyMs, ceilingMBPerSec, getMaxThreadCount()));
+    }
+    updateMergeThreads();
+  }
+
+  @Override
+  protected synchronized void targetMBPerSecChanged() {
+    // the auto IO throttle may have raised the rate because of a merge backlog
+    if (targetMBPerSec > ceilingMBPerSec) {
+      targetMBPerSec = ceilingMBPerSec;
+    }
+  }
+
+  @Override
+  public void close() {
+    ScheduledThreadPoolExecutor executor;
+    synchronized (this) {
+      executor = this.executor;
+    }
+    if (executor != null) {
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+    }
+    super.close();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(super.toString());
+    sb.append(", targetLatencyMs=").append(targetLatencyMs);
+    sb.append(", latencyHandler=").append(latencyHandler);
+    return sb.toString();
+  }
+}
@@ -134,6 +134,14 @@ public class SolrIndexWriter extends IndexWriter {
     this.directory = directory;
     numOpens.incrementAndGet();
     solrMetricsContext = core.getSolrMetricsContext().getChildContext(this);
+    if (getConfig().getMergeScheduler() instanceof LatencyFeedbackMergeScheduler) {
+      LatencyFeedbackMergeScheduler scheduler = (LatencyFeedbackMergeScheduler) getConfig().getMergeScheduler();
+      scheduler.setLatencySignal(scheduler.requestTimesSignal(solrMetricsContext));
+      solrMetricsContext.gauge(() -> scheduler.getLatencyMs(), true, "latencyMs", SolrInfoBean.Category.INDEX.toString(), "merge", "throttle");
+      solrMetricsContext.gauge(() -> scheduler.getCeilingMBPerSec(), true, "ceilingMBPerSec", SolrInfoBean.Category.INDEX.toString(), "merge", "throttle");
+      solrMetricsContext.gauge(() -> scheduler.getIORateLimitMBPerSec(), true, "mbPerSec", SolrInfoBean.Category.INDEX.toString(), "merge", "throttle");
+      solrMetricsContext.gauge(() -> scheduler.getMaxThreadCount(), true, "maxThreads", SolrInfoBean.Category.INDEX.toString(), "merge", "throttle");
+    }
     if (config.metricsInfo != null && config.metricsInfo.initArgs != null) {
       Object v = config.metricsInfo.initArgs.get("majorMergeDocs");
       if (v != null) {
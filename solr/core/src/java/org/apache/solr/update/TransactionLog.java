@@ -36,7 +36,12 @@ import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.Constants;
+import org.apache.lucene.util.IOUtils;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.util.DataInputInputStream;
@@ -80,6 +85,22 @@ public class TransactionLog implements Closeable {
   int numRecords;
   boolean isBuffer;
 
+  // group commit: only one fsync runs at a time, and it covers everything flushed before it started
+  private final Object syncLock = new Object();
+  private volatile long syncedPosition;
+
+  // Reads (replay, realtime-get lookups, reverse reads) go through a read-only memory map of the log rather
+  // than a positional read syscall per buffer refill. The log is remapped only once the unmapped tail has
+  // grown by half of what is already mapped, so a growing log gets a logarithmic number of mappings and
+  // reads of the tail in between fall back to the channel. Superseded mappings stay open until close.
+  static final boolean MMAP_READS = Constants.JRE_IS_64BIT && MMapDirectory.UNMAP_SUPPORTED
+      && Boolean.parseBoolean(System.getProperty("solr.tlog.mmap", "true"));
+  static final long MIN_MAP_GROWTH = 1 << 20;
+  boolean useMmapReads = MMAP_READS;
+  private MMapDirectory mmapDirectory;  // guarded by this
+  private IndexInput mappedInput;  // guarded by this
+  private final List<IndexInput> mappings = new ArrayList<>();  // guarded by this
+
   protected volatile boolean deleteOnClose = true;  // we can delete old tlogs since they are currently only used for real-time-get (and in the future, recovery)
 
   AtomicInteger refcount = new AtomicInteger(1);
@@ -508,10 +529,12 @@ public class TransactionLog implements Closeable {
     if (pos < 0) return null;
 
     try {
+      IndexInput mapped;
       // make sure any unflushed buffer has been flushed
       synchronized (this) {
         // TODO: optimize this by keeping track of what we have flushed up to
         fos.flushBuffer();
+        mapped = getMappedInput();
         /***
          System.out.println("###flushBuffer to " + fos.size() + " raf.length()=" + raf.length() + " pos="+pos);
         if (fos.size() != raf.length() || pos >= fos.size() ) {
@@ -520,7 +543,7 @@ public class TransactionLog implements Closeable {
         ***/
       }
 
-      ChannelFastInputStream fis = new ChannelFastInputStream(channel, pos);
+      ChannelFastInputStream fis = new ChannelFastInputStream(channel, pos, mapped);
       try (LogCodec codec = new LogCodec(resolver)) {
         return codec.readVal(fis);
       }
@@ -558,18 +581,50 @@ public class TransactionLog implements Closeable {
 
   }
 
+  /**
+   * Returns a private view of the memory mapped log, or null if reads should use the channel. The view
+   * covers a prefix of the log and may be shorter than what has been written. Must be called while
+   * synchronized on this log.
+   */
+  protected IndexInput getMappedInput() throws IOException {
+    if (!useMmapReads || channel == null || fos == null) return null;
+    long mappedLength = mappedInput == null ? 0 : mappedInput.length();
+    if (fos.size() - mappedLength >= Math.max(MIN_MAP_GROWTH, mappedLength >> 1)) {
+      if (mmapDirectory == null) {
+        mmapDirectory = new MMapDirectory(tlogFile.getAbsoluteFile().toPath().getParent());
+      }
+      // maps the whole file as it is on disk, which includes anything flushed so far
+      mappedInput = mmapDirectory.openInput(tlogFile.getName(), IOContext.READ);
+      mappings.add(mappedInput);
+    }
+    return mappedInput == null ? null : mappedInput.clone();
+  }
+
+  /** Unmaps the log, any views handed out by {@link #getMappedInput()} become unusable. */
+  protected void closeMappings() {
+    synchronized (this) {
+      IOUtils.closeWhileHandlingException(mappings);
+      IOUtils.closeWhileHandlingException(mmapDirectory);
+      mappings.clear();
+      mappedInput = null;
+      mmapDirectory = null;
+    }
+  }
+
   public void finish(UpdateLog.SyncLevel syncLevel) {
     if (syncLevel == UpdateLog.SyncLevel.NONE) return;
     try {
+      long flushedPosition;
       synchronized (this) {
         fos.flushBuffer();
+        flushedPosition = fos.size();
       }
 
       if (syncLevel == UpdateLog.SyncLevel.FSYNC) {
         // Since fsync is outside of synchronized block, we can end up with a partial
         // last record on power failure (which is OK, and does not represent an error...
         // we just need to be aware of it when reading).
-        raf.getFD().sync();
+        syncTo(flushedPosition);
       }
 
     } catch (IOException e) {
@@ -577,6 +632,32 @@ public class TransactionLog implements Closeable {
     }
   }
 
+  /**
+   * Makes everything up to the given position durable. Concurrent callers are grouped: while one thread
+   * is in fsync the others queue up on the sync lock, and the next one to get it syncs everything
+   * flushed so far on behalf of all of them. Callers whose records were covered by that return without
+   * another fsync, so the cost is one fsync per group rather than one per update request.
+   */
+  private void syncTo(long position) throws IOException {
+    if (syncedPosition >= position) return;
+    synchronized (syncLock) {
+      if (syncedPosition >= position) return;  // a sync that started after our flush covered us
+      long target;
+      synchronized (this) {
+        // pick up whatever was appended while we waited, other callers are likely waiting for it
+        fos.flushBuffer();
+        target = fos.size();
+      }
+      raf.getFD().sync();
+      syncedPosition = target;
+    }
+  }
+
+  /** returns the position up to which the log is known to have been fsync'ed */
+  long getSyncedPosition() {
+    return syncedPosition;
+  }
+
   public void close() {
     try {
       if (debug) {
@@ -587,6 +668,7 @@ public class TransactionLog implements Closeable {
         fos.flush();
         fos.close();
       }
+      closeMappings();
 
       if (deleteOnClose) {
         try {
@@ -652,7 +734,14 @@ public class TransactionLog implements Closeable {
 
     public LogReader(long startingPos) {
       incref();
-      fis = new ChannelFastInputStream(channel, startingPos);
+      try {
+        synchronized (TransactionLog.this) {
+          fis = new ChannelFastInputStream(channel, startingPos, getMappedInput());
+        }
+      } catch (IOException e) {
+        decref();
+        throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
+      }
     }
 
     // for classes that extend
@@ -804,13 +893,15 @@ public class TransactionLog implements Closeable {
       incref();
 
       long sz;
+      IndexInput mapped;
       synchronized (TransactionLog.this) {
         fos.flushBuffer();
         sz = fos.size();
         assert sz == channel.size();
+        mapped = getMappedInput();
       }
 
-      fis = new ChannelFastInputStream(channel, 0);
+      fis = new ChannelFastInputStream(channel, 0, mapped);
       if (sz >=4) {
         // readHeader(fis);  // should not be needed
         prevPos = sz - 4;
@@ -885,16 +976,29 @@ public class TransactionLog implements Closeable {
 
 class ChannelFastInputStream extends FastInputStream {
   private FileChannel ch;
+  private final IndexInput mapped;  // a memory mapped prefix of the channel, or null
 
   public ChannelFastInputStream(FileChannel ch, long chPosition) {
+    this(ch, chPosition, null);
+  }
+
+  public ChannelFastInputStream(FileChannel ch, long chPosition, IndexInput mapped) {
     // super(null, new byte[10],0,0);    // a small buffer size for testing purposes
     super(null);
     this.ch = ch;
+    this.mapped = mapped;
     super.readFromStream = chPosition;
   }
 
   @Override
   public int readWrappedStream(byte[] target, int offset, int len) throws IOException {
+    if (mapped != null && readFromStream < mapped.length()) {
+      // copy straight out of the mapping, only what lies past its end needs a read from the channel
+      int n = (int) Math.min(len, mapped.length() - readFromStream);
+      mapped.seek(readFromStream);
+      mapped.readBytes(target, offset, n);
+      return n;
+    }
     ByteBuffer bb = ByteBuffer.wrap(target, offset, len);
     int ret = ch.read(bb, readFromStream);
     return ret;
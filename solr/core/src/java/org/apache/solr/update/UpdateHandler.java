@@ -18,8 +18,11 @@ package org.apache.solr.update;
 
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.util.List;
 import java.util.Vector;
 
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.core.DirectoryFactory;
 import org.apache.solr.core.HdfsDirectoryFactory;
 import org.apache.solr.core.PluginInfo;
@@ -161,6 +164,18 @@ public abstract class UpdateHandler implements SolrInfoBean {
   public abstract void rollback(RollbackUpdateCommand cmd) throws IOException;
   public abstract UpdateLog getUpdateLog();
 
+  /**
+   * Adds a batch of documents straight to the index, for bulk loading. The documents skip the update processor
+   * chain, so they are not distributed; they are versioned and written to the update log, if there is one.
+   *
+   * @param cmd supplies the request and the overwrite and commitWithin settings for all the documents
+   * @param docs the documents to add
+   * @return the number of documents added
+   */
+  public int bulkAdd(AddUpdateCommand cmd, List<SolrInputDocument> docs) throws IOException {
+    throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, getClass().getSimpleName() + " does not support bulk loading");
+  }
+
   /**
    * NOTE: this function is not thread safe.  However, it is safe to call within the
    * <code>inform( SolrCore core )</code> function for <code>SolrCoreAware</code> classes.
@@ -456,6 +456,10 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
     replayOpsMeter = solrMetricsContext.meter("ops", scope, "replay");
     copyOverOldUpdatesMeter = solrMetricsContext.meter("ops", scope, "copyOverOldUpdates");
     solrMetricsContext.gauge(() -> state.getValue(), true, "state", scope);
+    solrMetricsContext.gauge(() -> versionInfo == null ? 0L : versionInfo.getBucketLockAcquisitions(),
+        true, "acquisitions", scope, "versionBucketLock");
+    solrMetricsContext.gauge(() -> versionInfo == null ? 0L : TimeUnit.NANOSECONDS.toMillis(versionInfo.getBucketLockWaitNanos()),
+        true, "waitTimeMs", scope, "versionBucketLock");
   }
 
   @Override
@@ -18,6 +18,7 @@ package org.apache.solr.update;
 
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 // TODO: make inner?
 // TODO: store the highest possible in the index on a commit (but how to not block adds?)
@@ -29,11 +30,37 @@ import java.util.concurrent.TimeUnit;
  * It uses less memory but ignores the <code>lockTimeoutMs</code>.
  */
 public class VersionBucket {
-  public long highest;
+  private static final AtomicLongFieldUpdater<VersionBucket> HIGHEST =
+      AtomicLongFieldUpdater.newUpdater(VersionBucket.class, "highest");
+
+  // 0 means the highest version isn't known. Only ever raised, with a CAS, so it can be read without the lock.
+  private volatile long highest;
+
+  /**
+   * Returns the highest version seen in this bucket, or 0 if it isn't known yet.
+   * Replaces the former public <code>highest</code> field, and doesn't need the bucket lock.
+   */
+  public long getHighest() {
+    return highest;
+  }
 
   public void updateHighest(long val) {
-    if (highest != 0) {
-      highest = Math.max(highest, Math.abs(val));
+    final long version = Math.abs(val);
+    for (long current = highest; current != 0 && current < version; current = highest) {
+      if (HIGHEST.compareAndSet(this, current, version)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Raises the highest version to at least the given one, even if it wasn't known yet.
+   */
+  public void seedHighest(long val) {
+    for (long current = highest; current < val; current = highest) {
+      if (HIGHEST.compareAndSet(this, current, val)) {
+        return;
+      }
     }
   }
   
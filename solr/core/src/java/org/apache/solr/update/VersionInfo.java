@@ -19,6 +19,7 @@ package org.apache.solr.update;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -55,6 +56,10 @@ public class VersionInfo {
 
   private int versionBucketLockTimeoutMs;
 
+  // how often version bucket locks were taken and how long it took to get them
+  private final LongAdder bucketLockAcquisitions = new LongAdder();
+  private final LongAdder bucketLockWaitNanos = new LongAdder();
+
   /**
    * Gets and returns the {@link org.apache.solr.common.params.CommonParams#VERSION_FIELD} from the specified
    * schema, after verifying that it is indexed, stored, and single-valued.  
@@ -110,6 +115,28 @@ public class VersionInfo {
     return versionBucketLockTimeoutMs;
   }
 
+  /**
+   * Runs the function while holding the lock of the given bucket, recording how long it waited for the lock.
+   */
+  public <T, R> R runWithBucketLock(VersionBucket bucket, VersionBucket.CheckedFunction<T, R> function) throws IOException {
+    final long startNanos = System.nanoTime();
+    return bucket.runWithLock(versionBucketLockTimeoutMs, () -> {
+      bucketLockWaitNanos.add(System.nanoTime() - startNanos);
+      bucketLockAcquisitions.increment();
+      return function.apply();
+    });
+  }
+
+  /** Returns the number of times a version bucket lock has been acquired */
+  public long getBucketLockAcquisitions() {
+    return bucketLockAcquisitions.sum();
+  }
+
+  /** Returns the total time spent waiting for version bucket locks */
+  public long getBucketLockWaitNanos() {
+    return bucketLockWaitNanos.sum();
+  }
+
   public void reload() {
   }
 
@@ -271,10 +298,7 @@ public class VersionInfo {
   public void seedBucketsWithHighestVersion(long highestVersion) {
     for (int i=0; i<buckets.length; i++) {
       // should not happen, but in case other threads are calling updateHighest on the version bucket
-      synchronized (buckets[i]) {
-        if (buckets[i].highest < highestVersion)
-          buckets[i].highest = highestVersion;
-      }
+      buckets[i].seedHighest(highestVersion);
     }
   }
 
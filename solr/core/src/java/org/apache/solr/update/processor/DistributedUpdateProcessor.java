@@ -336,7 +336,7 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
     vinfo.lockForUpdate();
     try {
       long finalVersionOnUpdate = versionOnUpdate;
-      return bucket.runWithLock(vinfo.getVersionBucketLockTimeoutMs(), () -> doVersionAdd(cmd, finalVersionOnUpdate, isReplayOrPeersync, leaderLogic, forwardedFromCollection, bucket));
+      return vinfo.runWithBucketLock(bucket, () -> doVersionAdd(cmd, finalVersionOnUpdate, isReplayOrPeersync, leaderLogic, forwardedFromCollection, bucket));
     } finally {
       vinfo.unlockForUpdate();
     }
@@ -359,7 +359,7 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
 
       if (versionsStored) {
 
-        long bucketVersion = bucket.highest;
+        long bucketVersion = bucket.getHighest();
 
         if (leaderLogic) {
 
@@ -539,7 +539,12 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
 
     vinfo.lockForUpdate();
     try {
-      lastFoundVersion = bucket.runWithLock(vinfo.getVersionBucketLockTimeoutMs(), () -> doWaitForDependentUpdates(cmd, versionOnUpdate, isReplayOrPeersync, bucket, waitTimeout));
+      // usually the update we depend on has been applied already, check for that without taking the bucket lock
+      Long lookedUpVersion = vinfo.lookupVersion(cmd.getIndexedId());
+      lastFoundVersion = lookedUpVersion == null ? 0L : lookedUpVersion;
+      if (Math.abs(lastFoundVersion) < cmd.prevVersion) {
+        lastFoundVersion = vinfo.runWithBucketLock(bucket, () -> doWaitForDependentUpdates(cmd, versionOnUpdate, isReplayOrPeersync, bucket, waitTimeout));
+      }
     } finally {
       vinfo.unlockForUpdate();
     }
@@ -965,7 +970,7 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
     vinfo.lockForUpdate();
     try {
       long finalVersionOnUpdate = versionOnUpdate;
-      return bucket.runWithLock(vinfo.getVersionBucketLockTimeoutMs(), () -> doVersionDelete(cmd, finalVersionOnUpdate, signedVersionOnUpdate, isReplayOrPeersync, leaderLogic,
+      return vinfo.runWithBucketLock(bucket, () -> doVersionDelete(cmd, finalVersionOnUpdate, signedVersionOnUpdate, isReplayOrPeersync, leaderLogic,
           forwardedFromCollection, bucket));
     } finally {
       vinfo.unlockForUpdate();
@@ -978,7 +983,7 @@ public class DistributedUpdateProcessor extends UpdateRequestProcessor {
     try {
       BytesRef idBytes = cmd.getIndexedId();
       if (versionsStored) {
-        long bucketVersion = bucket.highest;
+        long bucketVersion = bucket.getHighest();
 
         if (leaderLogic) {
 
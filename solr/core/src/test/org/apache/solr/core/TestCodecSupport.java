@@ -19,6 +19,7 @@ package org.apache.solr.core;
 import java.io.IOException;
 import java.util.Map;
 
+import com.codahale.metrics.Gauge;
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat;
 import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat.Mode;
@@ -26,6 +27,7 @@ import org.apache.lucene.codecs.perfield.PerFieldDocValuesFormat;
 import org.apache.lucene.codecs.perfield.PerFieldPostingsFormat;
 import org.apache.lucene.index.SegmentInfo;
 import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.TestUtil;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.SolrException;
@@ -92,6 +94,53 @@ public class TestCodecSupport extends SolrTestCaseJ4 {
     assertEquals("Asserting", format.getDocValuesFormatForField("bar_direct").getName());
   }
   
+  public void testUniqueKeyFilter() throws Exception {
+    assertEquals("incompatible change in uniqueKeyFilter property",
+        "uniqueKeyFilter", SchemaCodecFactory.UNIQUE_KEY_FILTER);
+    System.setProperty("tests.UNIQUE_KEY_FILTER", "true");
+    try {
+      reloadCoreAndRecreateIndex();
+      Codec codec = h.getCore().getCodec();
+      PerFieldPostingsFormat format = (PerFieldPostingsFormat) codec.postingsFormat();
+      assertEquals("XorFilter", format.getPostingsFormatForField("string_f").getName());
+      assertSame(format.getPostingsFormatForField("string_f"), format.getPostingsFormatForField("string_f"));
+      assertEquals(TestUtil.getDefaultPostingsFormat().getName(), format.getPostingsFormatForField("string_standard_f").getName());
+
+      for (int i = 0; i < 10; i++) {
+        assertU(add(doc("string_f", "id" + i, "text", "foo")));
+        assertU(commit());
+      }
+
+      @SuppressWarnings({"unchecked"})
+      Gauge<Long> lookups = (Gauge<Long>) h.getCore().getCoreMetricManager().getRegistry()
+          .getMetrics().get("INDEX.codecFactory.xorFilter.lookups");
+      @SuppressWarnings({"unchecked"})
+      Gauge<Long> filterNegatives = (Gauge<Long>) h.getCore().getCoreMetricManager().getRegistry()
+          .getMetrics().get("INDEX.codecFactory.xorFilter.filterNegatives");
+      assertNotNull(lookups);
+      assertNotNull(filterNegatives);
+      long lookupsBefore = lookups.getValue();
+      long filterNegativesBefore = filterNegatives.getValue();
+      // id lookups, as done by real-time get, probe every segment but the one holding the id
+      h.getCore().withSearcher(searcher -> {
+        assertTrue(searcher.lookupId(new BytesRef("id5")) >= 0);
+        assertEquals(-1, searcher.lookupId(new BytesRef("missing")));
+        return null;
+      });
+      assertTrue(lookups.getValue() > lookupsBefore);
+      assertTrue(filterNegatives.getValue() > filterNegativesBefore);
+
+      // closing the core on reload unregisters the gauges of its codec factory
+      System.clearProperty("tests.UNIQUE_KEY_FILTER");
+      h.getCoreContainer().reload(h.coreName);
+      assertNull(h.getCore().getCoreMetricManager().getRegistry()
+          .getMetrics().get("INDEX.codecFactory.xorFilter.lookups"));
+    } finally {
+      System.clearProperty("tests.UNIQUE_KEY_FILTER");
+      h.getCoreContainer().reload(h.coreName);
+    }
+  }
+
   private void reloadCoreAndRecreateIndex() {
     h.getCoreContainer().reload(h.coreName);
     assertU(delQ("*:*"));
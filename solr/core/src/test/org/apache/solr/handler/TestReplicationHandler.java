@@ -35,15 +35,21 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexCommit;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.NIOFSDirectory;
 import org.apache.lucene.util.Constants;
 import org.apache.lucene.util.LuceneTestCase.Slow;
@@ -1511,6 +1517,62 @@ public class TestReplicationHandler extends SolrTestCaseJ4 {
     assertTrue(timeTakenInSeconds - approximateTimeInSeconds > 0);
   }
 
+  @Test
+  public void doTestParallelFileFetches() throws Exception {
+    // no polling, the index is fetched explicitly below
+    slave.setTestPort(masterJetty.getLocalPort());
+    slave.copyConfigFile(CONF_DIR + "solrconfig-slave1.xml", "solrconfig.xml");
+    slaveJetty.stop();
+    slaveJetty = createAndStartJetty(slave);
+    slaveClient.close();
+    slaveClient = createNewSolrClient(slaveJetty.getLocalPort());
+
+    nDocs--;
+    masterClient.deleteByQuery("*:*");
+    // one commit per batch, so that there are several segments and thus many files to fetch
+    final int numCommits = TestUtil.nextInt(random(), 3, 6);
+    for (int c = 0; c < numCommits; c++) {
+      for (int i = 0; i < nDocs; i++) {
+        index(masterClient, "id", c * nDocs + i, "name", TestUtil.randomSimpleString(random(), 10, 1000));
+      }
+      masterClient.commit();
+    }
+    final int totalDocs = numCommits * nDocs;
+    assertEquals(totalDocs, numFound(rQuery(totalDocs, "*:*", masterClient)));
+
+    final int maxParallelFileFetches = TestUtil.nextInt(random(), 2, 8);
+    String fetchUrl = buildUrl(slaveJetty.getLocalPort()) + "/" + DEFAULT_TEST_CORENAME
+        + ReplicationHandler.PATH + "?wait=true&command=fetchindex"
+        + "&" + ReplicationHandler.MAX_PARALLEL_FILE_FETCHES + "=" + maxParallelFileFetches
+        + "&masterUrl=" + buildUrl(masterJetty.getLocalPort()) + "/" + DEFAULT_TEST_CORENAME + ReplicationHandler.PATH;
+    InputStream stream = new URL(fetchUrl).openStream();
+    stream.close();
+
+    assertEquals(totalDocs, numFound(rQuery(totalDocs, "*:*", slaveClient)));
+    assertVersions(masterClient, slaveClient);
+
+    // every file of the fetched commit is a complete copy of the master's
+    Map<String,Long> masterChecksums = getCommitChecksums(masterJetty);
+    assertTrue(masterChecksums.toString(), masterChecksums.size() > maxParallelFileFetches);
+    assertEquals(masterChecksums, getCommitChecksums(slaveJetty));
+  }
+
+  /** Returns the checksums of the files of the commit that the current searcher of the jetty's core is opened on. */
+  private Map<String,Long> getCommitChecksums(JettySolrRunner jetty) throws IOException {
+    try (SolrCore core = jetty.getCoreContainer().getCore(DEFAULT_TEST_CORENAME)) {
+      return core.withSearcher(searcher -> {
+        IndexCommit commit = searcher.getIndexReader().getIndexCommit();
+        Map<String,Long> checksums = new HashMap<>();
+        for (String file : commit.getFileNames()) {
+          try (IndexInput in = commit.getDirectory().openInput(file, IOContext.READONCE)) {
+            checksums.put(file, CodecUtil.retrieveChecksum(in));
+          }
+        }
+        return checksums;
+      });
+    }
+  }
+
   @Test
   public void doTestIllegalFilePaths() throws Exception {
     // Loop through the file=, cf=, tlogFile= params and prove that it throws exception for path traversal attempts
@@ -20,6 +20,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -30,7 +31,10 @@ import org.apache.solr.client.solrj.impl.LBSolrClient;
 import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.cloud.ClusterState;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.util.NamedList;
 import org.apache.solr.core.CoreContainer;
+import org.apache.solr.core.PluginInfo;
 import org.apache.solr.handler.component.HttpShardHandlerFactory.WhitelistHostChecker;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -112,6 +116,62 @@ public class TestHttpShardHandlerFactory extends SolrTestCaseJ4 {
     }
   }
 
+  @Test
+  public void testMaxOutstandingRequests() throws Exception {
+    final NamedList<Object> args = new NamedList<>();
+    args.add(HttpShardHandlerFactory.INIT_MAX_OUTSTANDING_REQUESTS, 1);
+    final HttpShardHandlerFactory factory = new HttpShardHandlerFactory();
+    try {
+      factory.init(new PluginInfo("shardHandlerFactory", Collections.emptyMap(), args, null));
+
+      // nothing listens on these ports, so every request fails with a connection error. With a single
+      // permit each submit has to wait for the previous request to complete and release it.
+      final ShardRequest sreq = new ShardRequest();
+      sreq.actualShards = new String[] {"127.0.0.1:1/solr", "127.0.0.1:2/solr|127.0.0.1:3/solr", "127.0.0.1:4/solr"};
+      final HttpShardHandler shardHandler = (HttpShardHandler) factory.getShardHandler();
+      assertEquals(1, shardHandler.requestPermits.availablePermits());
+      for (String shard : sreq.actualShards) {
+        shardHandler.submit(sreq, shard, new ModifiableSolrParams());
+      }
+      final ShardResponse last = shardHandler.takeCompletedIncludingErrors();
+      assertNotNull(last);
+      assertEquals(sreq.actualShards.length, sreq.responses.size());
+      for (ShardResponse srsp : sreq.responses) {
+        assertNotNull("expected a failure for shard " + srsp.getShard(), srsp.getException());
+      }
+      assertNull(shardHandler.takeCompletedIncludingErrors());
+      assertEquals(1, shardHandler.requestPermits.availablePermits());
+
+      // every handler gets its own permits
+      assertEquals(1, ((HttpShardHandler) factory.getShardHandler()).requestPermits.availablePermits());
+    } finally {
+      factory.close();
+    }
+  }
+
+  @Test
+  public void testCancelAll() throws Exception {
+    final NamedList<Object> args = new NamedList<>();
+    args.add(HttpShardHandlerFactory.INIT_MAX_OUTSTANDING_REQUESTS, 2);
+    final HttpShardHandlerFactory factory = new HttpShardHandlerFactory();
+    try {
+      factory.init(new PluginInfo("shardHandlerFactory", Collections.emptyMap(), args, null));
+      final ShardRequest sreq = new ShardRequest();
+      // no servers host the first shard, its response is queued right away
+      sreq.actualShards = new String[] {"", "127.0.0.1:1/solr"};
+      final HttpShardHandler shardHandler = (HttpShardHandler) factory.getShardHandler();
+      for (String shard : sreq.actualShards) {
+        shardHandler.submit(sreq, shard, new ModifiableSolrParams());
+      }
+      shardHandler.cancelAll();
+      assertEquals(2, shardHandler.requestPermits.availablePermits());
+      assertNull(shardHandler.takeCompletedIncludingErrors());
+      assertTrue(sreq.responses.isEmpty());
+    } finally {
+      factory.close();
+    }
+  }
+
   @Test
   public void getShardsWhitelist() throws Exception {
     System.setProperty(SHARDS_WHITELIST, "http://abc:8983/,http://def:8984/,");
@@ -27,16 +27,21 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.TestUtil;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.ExecutorUtil;
 import org.apache.solr.common.util.SuppressForbidden;
 import org.apache.solr.common.util.Utils;
 import org.apache.solr.index.LogDocMergePolicyFactory;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.schema.SchemaField;
+import org.apache.solr.util.DefaultSolrThreadFactory;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -706,6 +711,83 @@ public class TestExportWriter extends SolrTestCaseJ4 {
     validateSort(numDocs);
   }
 
+  @Test
+  public void testParallelExport() throws Exception {
+    assertU(delQ("*:*"));
+    assertU(commit());
+
+    String[] str_vals = new String[10];
+    for (int i = 0; i < str_vals.length; i++) {
+      str_vals[i] = TestUtil.randomSimpleString(random(), 10);
+    }
+    int numDocs = atLeast(500);
+    for (int i = 0; i < numDocs; i++) {
+      int number = TestUtil.nextInt(random(), 0, 9);
+      assertU(adoc("id", String.valueOf(i),
+          "intdv", String.valueOf(number),
+          "stringdv", str_vals[number],
+          "longdv", String.valueOf(random().nextInt(numDocs)),
+          "doubledv", String.valueOf(random().nextDouble())));
+      if (random().nextInt(50) == 0) {
+        assertU(delI(String.valueOf(random().nextInt(i + 1))));
+      }
+      if (random().nextInt(40) == 0) {
+        assertU(commit());
+      }
+    }
+    assertU(commit());
+
+    for (String sort : new String[] {"intdv asc", "stringdv desc", "longdv asc", "intdv desc,doubledv asc",
+        "stringdv asc,longdv desc,id asc"}) {
+      for (String q : new String[] {"*:*", "intdv:[2 TO 6]"}) {
+        String fl = "id,intdv,stringdv,longdv,doubledv";
+        String expected = h.query(req("q", q, "qt", "/export", "fl", fl, "sort", sort));
+        String actual = h.query(req("q", q, "qt", "/export", "fl", fl, "sort", sort,
+            ExportWriter.THREADS_PARAM, String.valueOf(TestUtil.nextInt(random(), 2, 8))));
+        assertEquals("q=" + q + ", sort=" + sort, expected, actual);
+      }
+    }
+
+    // small runs, so that segments are sorted in several passes
+    h.getCore().withSearcher(searcher -> {
+      List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
+      FixedBitSet[] sets = new FixedBitSet[leaves.size()];
+      int expectedCount = 0;
+      for (LeafReaderContext leaf : leaves) {
+        sets[leaf.ord] = new FixedBitSet(leaf.reader().maxDoc());
+        for (int doc = 0; doc < leaf.reader().maxDoc(); doc++) {
+          if (leaf.reader().getLiveDocs() == null || leaf.reader().getLiveDocs().get(doc)) {
+            sets[leaf.ord].set(doc);
+            expectedCount++;
+          }
+        }
+      }
+      ExecutorService executor = ExecutorUtil.newMDCAwareFixedThreadPool(3, new DefaultSolrThreadFactory("test"));
+      try (SegmentMergeSorter sorter = new SegmentMergeSorter(leaves, sets,
+          new SingleValueSortDoc(new IntValue("intdv", new IntAsc())), TestUtil.nextInt(random(), 1, 20), executor)) {
+        int count = 0;
+        int lastValue = Integer.MIN_VALUE;
+        int lastDoc = -1;
+        SortDoc doc;
+        while ((doc = sorter.next()) != null) {
+          int value = (Integer) doc.getSortValue("intdv").getCurrentValue();
+          int globalDoc = doc.docBase + doc.docId;
+          assertTrue(value > lastValue || (value == lastValue && globalDoc > lastDoc));
+          lastValue = value;
+          lastDoc = globalDoc;
+          count++;
+        }
+        assertEquals(expectedCount, count);
+      } finally {
+        ExecutorUtil.shutdownAndAwaitTermination(executor);
+      }
+      for (FixedBitSet set : sets) {
+        assertEquals(0, set.cardinality());
+      }
+      return null;
+    });
+  }
+
   private void validateSort(int numDocs) throws Exception {
     // 10 fields
     List<String> fieldNames = new ArrayList<>(Arrays.asList("floatdv", "intdv", "stringdv", "longdv", "doubledv",
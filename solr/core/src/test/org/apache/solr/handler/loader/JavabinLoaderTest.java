@@ -24,7 +24,10 @@ import java.util.List;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.client.solrj.request.JavaBinUpdateRequestCodec;
 import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.UpdateParams;
 import org.apache.solr.common.util.ContentStreamBase;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.SolrQueryResponse;
@@ -88,4 +91,59 @@ public class JavabinLoaderTest extends SolrTestCaseJ4 {
     // last doc should have the flag set
     assertTrue(mockUpdateProcessor.addCommands.get(batch.size()-1).isLastDocInBatch);
   }
+
+  public void testBulkLoad() throws Exception {
+    int numDocs = JavabinLoader.BULK_BATCH_SIZE + 10;
+    List<SolrInputDocument> batch = new ArrayList<>(numDocs + 1);
+    for (int d=0; d < numDocs; d++) {
+      SolrInputDocument doc = new SolrInputDocument();
+      doc.setField("id", String.valueOf(d));
+      batch.add(doc);
+    }
+    SolrInputDocument dup = new SolrInputDocument();
+    dup.setField("id", "0");
+    batch.add(dup); // overwrites the first doc
+
+    UpdateRequest updateRequest = new UpdateRequest();
+    updateRequest.add(batch);
+    updateRequest.deleteById("1");
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    (new JavaBinUpdateRequestCodec()).marshal(updateRequest, os);
+
+    BufferingRequestProcessor mockUpdateProcessor = new BufferingRequestProcessor(null);
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.set(UpdateParams.BULK, true);
+    SolrQueryRequest req = req(params);
+    try {
+      // bulk loading has to be enabled on the handler
+      SolrException e = expectThrows(SolrException.class, () -> new JavabinLoader().load(req,
+          new SolrQueryResponse(),
+          new ContentStreamBase.ByteArrayStream(os.toByteArray(), "test"),
+          mockUpdateProcessor));
+      assertEquals(SolrException.ErrorCode.BAD_REQUEST.code, e.code());
+
+      ModifiableSolrParams initArgs = new ModifiableSolrParams();
+      initArgs.set(JavabinLoader.ALLOW_BULK_PARAM, true);
+      new JavabinLoader().init(initArgs).load(req,
+          new SolrQueryResponse(),
+          new ContentStreamBase.ByteArrayStream(os.toByteArray(), "test"),
+          mockUpdateProcessor);
+    } finally {
+      req.close();
+    }
+
+    // the adds go straight to the index, only the delete goes through the processor
+    assertEquals(0, mockUpdateProcessor.addCommands.size());
+    assertEquals(1, mockUpdateProcessor.deleteCommands.size());
+
+    if (h.getCore().getUpdateHandler().getUpdateLog() != null) {
+      // the documents were written to the update log, so they can be looked up before the commit
+      assertJQ(req("qt", "/get", "id", "5", "fl", "id"), "=={'doc':{'id':'5'}}");
+    }
+
+    assertU(commit());
+    assertQ(req("q", "*:*"), "//result[@numFound='" + numDocs + "']");
+    assertU(delQ("*:*"));
+    assertU(commit());
+  }
 }
@@ -20,6 +20,9 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
@@ -28,6 +31,8 @@ import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.util.BytesRef;
 import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.client.solrj.StreamingResponseCallback;
+import org.apache.solr.client.solrj.impl.StreamingBinaryResponseParser;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.params.CommonParams;
@@ -117,6 +122,69 @@ public class TestBinaryResponseWriter extends SolrTestCaseJ4 {
     req.close();
   }
 
+  public void testStreamedDocumentsMatchSolrDocuments() throws Exception {
+    clearIndex();
+    for (int i = 0; i < 20; i++) {
+      List<String> fieldsAndValues = new ArrayList<>(Arrays.asList(
+          "id", Integer.toString(i),
+          "name", "name " + i,
+          "foo_s", "a" + i, "foo_s", "b" + i,
+          "foo_i", Integer.toString(i),
+          "foo_l_dvo", Long.toString(i * 1000L),
+          "foo_dt", "2000-01-0" + (1 + i % 9) + "T00:00:00Z",
+          "foo_b", Boolean.toString(i % 2 == 0),
+          "foo_sdv", "dv" + i,
+          "foo_bdv", Boolean.toString(i % 3 == 0),
+          "uuid", UUID.randomUUID().toString().toLowerCase(Locale.ROOT)));
+      if (i % 4 == 0) {
+        fieldsAndValues.addAll(Arrays.asList("bar_is", "1", "bar_is", "2", "bar_is", "3"));
+      }
+      assertU(adoc(fieldsAndValues.toArray(new String[0])));
+      if (i % 7 == 0) {
+        assertU(commit());
+      }
+    }
+    assertU(commit());
+
+    for (String fl : new String[] {"*", "id,foo_s,foo_sdv", "id,foo_i,foo_l_dvo,bar_is", "foo_*", "id,name,score", "*,[docid]"}) {
+      LocalSolrQueryRequest req = lrf.makeRequest("q", "*:*", "fl", fl, "rows", "15", "sort", "id asc");
+      SolrQueryResponse rsp = h.queryAndResponse(req.getParams().get(CommonParams.QT), req);
+
+      ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+      ((BinaryQueryResponseWriter) h.getCore().getQueryResponseWriter("javabin")).write(streamed, req, rsp);
+      ByteArrayOutputStream materialized = new ByteArrayOutputStream();
+      Resolver resolver = new Resolver(req, rsp.getReturnFields());
+      try (JavaBinCodec jbc = new JavaBinCodec(resolver)) {
+        jbc.setWritableDocFields(resolver).marshal(rsp.getValues(), materialized);
+      }
+      assertArrayEquals("fl=" + fl, materialized.toByteArray(), streamed.toByteArray());
+
+      List<SolrDocument> docs = new ArrayList<>();
+      new StreamingBinaryResponseParser(new StreamingResponseCallback() {
+        @Override
+        public void streamSolrDocument(SolrDocument doc) {
+          docs.add(doc);
+        }
+
+        @Override
+        public void streamDocListInfo(long numFound, long start, Float maxScore) {
+          assertEquals(20, numFound);
+        }
+      }).processResponse(new ByteArrayInputStream(streamed.toByteArray()), null);
+      assertEquals(15, docs.size());
+      if (fl.equals("*")) {
+        assertEquals("0", docs.get(0).getFieldValue("id"));
+        assertEquals(Arrays.asList("a0", "b0"), docs.get(0).getFieldValue("foo_s"));
+        assertEquals(Arrays.asList(1, 2, 3), docs.get(0).getFieldValue("bar_is"));
+        assertEquals("dv0", docs.get(0).getFieldValue("foo_sdv"));
+        assertEquals(Boolean.TRUE, docs.get(0).getFieldValue("foo_b"));
+      }
+      req.close();
+    }
+    clearIndex();
+    assertU(commit());
+  }
+
   public void testResolverSolrDocumentPartialFields() throws Exception {
     LocalSolrQueryRequest req = lrf.makeRequest("q", "*:*",
                                                 "fl", "id,xxx,ddd_s"); 
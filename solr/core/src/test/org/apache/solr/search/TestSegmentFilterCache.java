@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.BitDocIdSet;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.request.SolrQueryRequest;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+/** Tests that the per-segment filter cache is shared across searchers and only computes new segments */
+public class TestSegmentFilterCache extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    System.setProperty("enable.update.log", "false"); // schema12 doesn't support _version_
+    System.setProperty("solr.tests.segmentFilterCache", "true");
+    initCore("solrconfig.xml", "schema12.xml");
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    System.clearProperty("enable.update.log");
+    System.clearProperty("solr.tests.segmentFilterCache");
+  }
+
+  public void testReuseAcrossCommits() throws Exception {
+    final SegmentFilterCache segmentFilterCache = h.getCore().getSegmentFilterCache();
+    assertNotNull(segmentFilterCache);
+    final SolrCache<SegmentFilterCache.Key,DocIdSet> cache = segmentFilterCache.getCache();
+    final Query query = new TermQuery(new Term("cat_s", "a"));
+
+    for (int i = 0; i < 10; i++) {
+      assertU(adoc("id", Integer.toString(i), "cat_s", i % 2 == 0 ? "a" : "b"));
+    }
+    assertU(commit());
+
+    assertJQ(req("q", "*:*", "fq", "cat_s:a"), "/response/numFound==5");
+    assertJQ(req("q", "*:*", "fq", "-cat_s:a"), "/response/numFound==5");
+
+    final Map<Object,DocIdSet> before = new HashMap<>();
+    h.getCore().withSearcher(searcher -> {
+      for (LeafReaderContext ctx : searcher.getIndexReader().leaves()) {
+        Object coreKey = ctx.reader().getCoreCacheHelper().getKey();
+        DocIdSet bits = cache.get(new SegmentFilterCache.Key(query, coreKey));
+        assertNotNull(bits);
+        before.put(coreKey, bits);
+      }
+      return null;
+    });
+
+    // new documents and a deletion in an existing segment
+    for (int i = 10; i < 14; i++) {
+      assertU(adoc("id", Integer.toString(i), "cat_s", i % 2 == 0 ? "a" : "b"));
+    }
+    assertU(delI("0"));
+    assertU(commit());
+
+    // the filterCache was regenerated from the segments
+    h.getCore().withSearcher(searcher -> {
+      for (LeafReaderContext ctx : searcher.getIndexReader().leaves()) {
+        Object coreKey = ctx.reader().getCoreCacheHelper().getKey();
+        DocIdSet bits = cache.get(new SegmentFilterCache.Key(query, coreKey));
+        assertNotNull(bits);
+        if (before.containsKey(coreKey)) {
+          assertSame(before.get(coreKey), bits);
+        }
+      }
+      return null;
+    });
+
+    assertJQ(req("q", "*:*", "fq", "cat_s:a"), "/response/numFound==6");
+    assertJQ(req("q", "*:*", "fq", "-cat_s:a"), "/response/numFound==7");
+    assertJQ(req("q", "cat_s:b", "fq", "cat_s:a"), "/response/numFound==0");
+
+    // joins depend on the whole index and are not cached per segment
+    assertJQ(req("q", "*:*", "fq", "{!join from=id to=id}cat_s:b"), "/response/numFound==7");
+    try (SolrQueryRequest req = req()) {
+      Query join = QParser.getParser("{!join from=id to=id}cat_s:b", req).getQuery();
+      assertNull(segmentFilterCache.getDocSet(req.getSearcher(), join));
+    }
+
+    // the entries of segments that were merged away are removed once no searcher uses them anymore
+    assertU(optimize());
+    h.getCore().withSearcher(searcher -> {
+      final Set<Object> coreKeys = new HashSet<>();
+      for (LeafReaderContext ctx : searcher.getIndexReader().leaves()) {
+        coreKeys.add(ctx.reader().getCoreCacheHelper().getKey());
+      }
+      for (Object coreKey : before.keySet()) {
+        if (coreKeys.contains(coreKey) == false) {
+          assertNull(cache.get(new SegmentFilterCache.Key(query, coreKey)));
+        }
+      }
+      return null;
+    });
+
+    assertU(delQ("*:*"));
+    assertU(commit());
+  }
+
+  public void testSparseMatches() throws Exception {
+    final SolrCache<SegmentFilterCache.Key,DocIdSet> cache = h.getCore().getSegmentFilterCache().getCache();
+    final Query rare = new TermQuery(new Term("cat_s", "rare"));
+    final Query common = new TermQuery(new Term("cat_s", "common"));
+    for (int i = 0; i < 1000; i++) {
+      assertU(adoc("id", "s" + i, "cat_s", i == 0 ? "rare" : "common"));
+    }
+    assertU(commit());
+
+    assertJQ(req("q", "*:*", "fq", "cat_s:rare"), "/response/numFound==1");
+    assertJQ(req("q", "*:*", "fq", "cat_s:common"), "/response/numFound==999");
+    h.getCore().withSearcher(searcher -> {
+      for (LeafReaderContext ctx : searcher.getIndexReader().leaves()) {
+        if (ctx.reader().maxDoc() < 256) {
+          continue; // too small for any set of matches to be sparse
+        }
+        Object coreKey = ctx.reader().getCoreCacheHelper().getKey();
+        // a single match isn't worth a bit set over the whole segment
+        assertFalse(cache.get(new SegmentFilterCache.Key(rare, coreKey)) instanceof BitDocIdSet);
+        assertTrue(cache.get(new SegmentFilterCache.Key(common, coreKey)) instanceof BitDocIdSet);
+      }
+      return null;
+    });
+
+    assertU(delQ("*:*"));
+    assertU(commit());
+  }
+
+  public void testGraphTermsAcrossCommits() throws Exception {
+    final SegmentFilterCache segmentFilterCache = h.getCore().getSegmentFilterCache();
+    assertNotNull(segmentFilterCache);
+
+    assertU(adoc("id", "g0", "group_s", "g"));
+    assertU(adoc("id", "g1", "group_s", "g"));
+    assertU(commit());
+
+    // the same query instance is reused across searchers, like the keys of an autowarmed filterCache
+    final Query graphTerms;
+    try (SolrQueryRequest req = req()) {
+      graphTerms = QParser.getParser("{!graphTerms f=group_s maxDocFreq=2}g", req).getQuery();
+    }
+    h.getCore().withSearcher(searcher -> {
+      assertEquals(2, searcher.getDocSet(graphTerms).size());
+      // which terms match depends on their docFreq in the whole index
+      assertNull(segmentFilterCache.getDocSet(searcher, graphTerms));
+      return null;
+    });
+
+    // the term now exceeds maxDocFreq, including in the segment that was searched before
+    assertU(adoc("id", "g2", "group_s", "g"));
+    assertU(commit());
+    h.getCore().withSearcher(searcher -> {
+      assertEquals(0, searcher.getDocSet(graphTerms).size());
+      return null;
+    });
+
+    assertU(delQ("group_s:g"));
+    assertU(commit());
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.uninverting;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.TestUtil;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.legacy.LegacyIntField;
+import org.apache.solr.uninverting.UninvertingReader.Type;
+
+public class TestOffHeapDocTermOrds extends SolrTestCase {
+
+  public void testEmptyField() throws IOException {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir, newIndexWriterConfig(new MockAnalyzer(random())));
+    Document doc = new Document();
+    doc.add(newStringField("other", "a", Field.Store.NO));
+    w.addDocument(doc);
+    DirectoryReader r = w.getReader();
+    w.close();
+
+    LeafReader ar = getOnlyLeafReader(r);
+    SortedSetDocValues v = FieldCache.DEFAULT.getOffHeapDocTermOrds(ar, "field", null);
+    assertEquals(0, v.getValueCount());
+    assertEquals(DocIdSetIterator.NO_MORE_DOCS, v.nextDoc());
+
+    r.close();
+    dir.close();
+  }
+
+  public void testSimple() throws IOException {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir, newIndexWriterConfig(new MockAnalyzer(random())));
+    addDoc(w, "a", "b", "c");
+    addDoc(w);
+    addDoc(w, "b");
+    addDoc(w, "c", "d");
+    w.forceMerge(1);
+    DirectoryReader r = w.getReader();
+    w.close();
+
+    LeafReader ar = getOnlyLeafReader(r);
+    OffHeapDocTermOrds dto = new OffHeapDocTermOrds(ar, "field");
+    assertFalse(dto.isEmpty());
+    assertTrue(dto.offHeapBytesUsed() > 0);
+    assertEquals(4, dto.numTerms());
+
+    SortedSetDocValues v = dto.iterator(ar);
+    assertEquals(4, v.getValueCount());
+    assertEquals(0, v.nextDoc());
+    assertEquals(0, v.nextOrd());
+    assertEquals(1, v.nextOrd());
+    assertEquals(2, v.nextOrd());
+    assertEquals(SortedSetDocValues.NO_MORE_ORDS, v.nextOrd());
+    assertEquals(2, v.nextDoc());
+    assertEquals(1, v.nextOrd());
+    assertEquals(SortedSetDocValues.NO_MORE_ORDS, v.nextOrd());
+    assertTrue(v.advanceExact(3));
+    assertEquals(2, v.nextOrd());
+    assertEquals(3, v.nextOrd());
+    assertEquals(SortedSetDocValues.NO_MORE_ORDS, v.nextOrd());
+    assertEquals(DocIdSetIterator.NO_MORE_DOCS, v.nextDoc());
+
+    assertEquals(new BytesRef("d"), v.lookupOrd(3));
+    assertEquals(1, v.lookupTerm(new BytesRef("b")));
+    assertEquals(-4, v.lookupTerm(new BytesRef("cc")));
+
+    r.close();
+    dir.close();
+  }
+
+  public void testRandom() throws IOException {
+    doTestRandom(null);
+  }
+
+  public void testRandomWithPrefix() throws IOException {
+    doTestRandom(new BytesRef(TestUtil.randomSimpleString(random(), 1, 1)));
+  }
+
+  public void testUninvertingReader() throws IOException {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir, newIndexWriterConfig(new MockAnalyzer(random())));
+    int numDocs = atLeast(50);
+    for (int i = 0; i < numDocs; i++) {
+      addDoc(w, randomValues());
+    }
+    addDoc(w, "a", "b");
+    w.forceMerge(1);
+    w.close();
+
+    DirectoryReader heap = UninvertingReader.wrap(DirectoryReader.open(dir),
+        Collections.singletonMap("field", Type.SORTED_SET_BINARY));
+    DirectoryReader offHeap = UninvertingReader.wrap(DirectoryReader.open(dir),
+        Collections.singletonMap("field", Type.SORTED_SET_BINARY)::get, true);
+    LeafReader expected = getOnlyLeafReader(heap);
+    LeafReader actual = getOnlyLeafReader(offHeap);
+    assertEquals(expected.getSortedSetDocValues("field"), actual.getSortedSetDocValues("field"));
+
+    boolean cached = false;
+    for (FieldCache.CacheEntry entry : FieldCache.DEFAULT.getCacheEntries()) {
+      cached |= entry.getCacheType() == OffHeapDocTermOrds.class && entry.getFieldName().equals("field");
+    }
+    assertTrue(cached);
+
+    heap.close();
+    offHeap.close();
+    dir.close();
+  }
+
+  private void doTestRandom(BytesRef prefix) throws IOException {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir, iwc);
+    int numDocs = atLeast(300);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new LegacyIntField("id", i, Field.Store.NO));
+      for (String value : randomValues()) {
+        doc.add(newStringField("field", value, Field.Store.NO));
+      }
+      w.addDocument(doc);
+      if (rarely()) {
+        w.deleteDocuments(new org.apache.lucene.index.Term("field", TestUtil.randomSimpleString(random(), 1, 2)));
+      }
+    }
+    DirectoryReader r = w.getReader();
+    w.close();
+
+    for (LeafReaderContext ctx : r.leaves()) {
+      LeafReader reader = ctx.reader();
+      DocTermOrds expected = new DocTermOrds(reader, null, "field", prefix);
+      OffHeapDocTermOrds actual = new OffHeapDocTermOrds(reader, "field", prefix);
+      assertEquals(expected.numTerms(), actual.numTerms());
+      assertEquals(expected.isEmpty(), actual.isEmpty());
+      assertEquals(expected.iterator(reader), actual.iterator(reader));
+    }
+
+    // the numeric prefix is handled like any other prefix
+    LeafReader first = r.leaves().get(0).reader();
+    DocTermOrds expected = new DocTermOrds(first, null, "id", FieldCache.INT32_TERM_PREFIX);
+    OffHeapDocTermOrds actual = new OffHeapDocTermOrds(first, "id", FieldCache.INT32_TERM_PREFIX);
+    assertEquals(expected.iterator(first), actual.iterator(first));
+
+    r.close();
+    dir.close();
+  }
+
+  private static void assertEquals(SortedSetDocValues exp, SortedSetDocValues actual) throws IOException {
+    assertEquals(exp.getValueCount(), actual.getValueCount());
+    for (int doc = exp.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = exp.nextDoc()) {
+      assertEquals(doc, actual.nextDoc());
+      for (long ord = exp.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = exp.nextOrd()) {
+        assertEquals(ord, actual.nextOrd());
+      }
+      assertEquals(SortedSetDocValues.NO_MORE_ORDS, actual.nextOrd());
+    }
+    assertEquals(DocIdSetIterator.NO_MORE_DOCS, actual.nextDoc());
+
+    for (long ord = 0; ord < exp.getValueCount(); ord++) {
+      BytesRef term = BytesRef.deepCopyOf(exp.lookupOrd(ord));
+      assertEquals(term, actual.lookupOrd(ord));
+      assertEquals(ord, actual.lookupTerm(term));
+    }
+    if (exp.getValueCount() > 0) {
+      TermsEnum expEnum = exp.termsEnum();
+      TermsEnum actualEnum = actual.termsEnum();
+      for (BytesRef term = expEnum.next(); term != null; term = expEnum.next()) {
+        assertEquals(term, actualEnum.next());
+        assertEquals(expEnum.ord(), actualEnum.ord());
+      }
+      assertNull(actualEnum.next());
+    }
+  }
+
+  private static String[] randomValues() {
+    String[] values = new String[TestUtil.nextInt(random(), 0, 10)];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = TestUtil.randomSimpleString(random(), 1, 3);
+    }
+    return values;
+  }
+
+  private static void addDoc(RandomIndexWriter w, String... values) throws IOException {
+    Document doc = new Document();
+    for (String value : values) {
+      doc.add(newStringField("field", value, Field.Store.NO));
+    }
+    w.addDocument(doc);
+  }
+}
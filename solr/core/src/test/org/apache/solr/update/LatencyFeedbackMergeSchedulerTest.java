@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update;
+
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Timer;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.core.SolrInfoBean;
+import org.apache.solr.metrics.SolrMetricManager;
+import org.apache.solr.metrics.SolrMetricsContext;
+import org.junit.Test;
+
+public class LatencyFeedbackMergeSchedulerTest extends SolrTestCase {
+
+  @Test
+  public void testAdjust() {
+    LatencyFeedbackMergeScheduler scheduler = new LatencyFeedbackMergeScheduler();
+    scheduler.setMaxMergesAndThreads(4, 3);
+    scheduler.setTargetLatencyMs(100);
+    scheduler.setMinMBPerSec(5);
+    scheduler.setMaxMBPerSec(40);
+    double startMBPerSec = scheduler.getIORateLimitMBPerSec();
+
+    // no signal yet
+    scheduler.adjust(Double.NaN);
+    assertEquals(Double.POSITIVE_INFINITY, scheduler.getCeilingMBPerSec(), 0);
+    assertEquals(startMBPerSec, scheduler.getIORateLimitMBPerSec(), 0);
+
+    // slow requests: first halve the IO rate down to the minimum, then reduce threads
+    scheduler.adjust(200);
+    assertEquals(startMBPerSec / 2, scheduler.getCeilingMBPerSec(), 0);
+    assertEquals(startMBPerSec / 2, scheduler.getIORateLimitMBPerSec(), 0);
+    while (scheduler.getCeilingMBPerSec() > 5) {
+      assertEquals(3, scheduler.getMaxThreadCount());
+      scheduler.adjust(200);
+    }
+    assertEquals(5, scheduler.getIORateLimitMBPerSec(), 0);
+    scheduler.adjust(200);
+    assertEquals(2, scheduler.getMaxThreadCount());
+    scheduler.adjust(200);
+    assertEquals(1, scheduler.getMaxThreadCount());
+    scheduler.adjust(200);
+    assertEquals(1, scheduler.getMaxThreadCount());
+    assertEquals(4, scheduler.getMaxMergeCount());
+
+    // close to the target: leave everything as is
+    scheduler.adjust(90);
+    assertEquals(1, scheduler.getMaxThreadCount());
+    assertEquals(5, scheduler.getCeilingMBPerSec(), 0);
+
+    // fast requests: first restore threads, then raise the IO rate until unthrottled
+    scheduler.adjust(10);
+    assertEquals(2, scheduler.getMaxThreadCount());
+    scheduler.adjust(10);
+    assertEquals(3, scheduler.getMaxThreadCount());
+    assertEquals(5, scheduler.getCeilingMBPerSec(), 0);
+    scheduler.adjust(10);
+    assertEquals(6.25, scheduler.getCeilingMBPerSec(), 0);
+    for (int i = 0; i < 100 && scheduler.getCeilingMBPerSec() != Double.POSITIVE_INFINITY; i++) {
+      scheduler.adjust(10);
+      assertTrue(scheduler.getCeilingMBPerSec() > 6.25);
+    }
+    assertEquals(Double.POSITIVE_INFINITY, scheduler.getCeilingMBPerSec(), 0);
+    assertEquals(3, scheduler.getMaxThreadCount());
+    assertEquals(10, scheduler.getLatencyMs(), 0);
+
+    scheduler.close();
+  }
+
+  @Test
+  public void testRequestTimesSignal() {
+    SolrMetricsContext solrMetricsContext = new SolrMetricsContext(new SolrMetricManager(), "test", "tag");
+    LatencyFeedbackMergeScheduler scheduler = new LatencyFeedbackMergeScheduler();
+    scheduler.setLatencyHandler("/query");
+    scheduler.setLatencyPercentile(0.5);
+    LatencyFeedbackMergeScheduler.LatencySignal signal = scheduler.requestTimesSignal(solrMetricsContext);
+
+    assertTrue(Double.isNaN(signal.getLatencyMs()));
+    Timer timer = solrMetricsContext.timer("requestTimes", SolrInfoBean.Category.QUERY.toString(), "/query");
+    assertTrue(Double.isNaN(signal.getLatencyMs()));
+    for (int i = 0; i < 10; i++) {
+      timer.update(30, TimeUnit.MILLISECONDS);
+    }
+    assertEquals(30, signal.getLatencyMs(), 0.001);
+
+    expectThrows(IllegalArgumentException.class, () -> scheduler.setLatencyPercentile(1.5));
+    expectThrows(IllegalArgumentException.class, () -> scheduler.setTargetLatencyMs(0));
+    scheduler.close();
+  }
+}
@@ -21,10 +21,13 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
 
+import org.apache.lucene.util.TestUtil;
 import org.apache.solr.SolrTestCase;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.update.TransactionLog.LogReader;
@@ -72,4 +75,108 @@ public class TransactionLogTest extends SolrTestCase {
       assertEquals(uuid, (UUID) doc.getFieldValue("uuid"));
     }
   }
+
+  @Test
+  public void testConcurrentFsync() throws Exception {
+    String tlogFileName = String.format(Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME,
+        Long.MAX_VALUE);
+    Path path = createTempDir();
+    File logFile = new File(path.toFile(), tlogFileName);
+    final int numThreads = 4;
+    final int docsPerThread = atLeast(50);
+    try (TransactionLog tlog = new TransactionLog(logFile, new ArrayList<>())) {
+      tlog.deleteOnClose = false;
+      Thread[] threads = new Thread[numThreads];
+      for (int t = 0; t < numThreads; t++) {
+        final int threadId = t;
+        threads[t] = new Thread(() -> {
+          for (int i = 0; i < docsPerThread; i++) {
+            AddUpdateCommand updateCommand = new AddUpdateCommand(null);
+            updateCommand.solrDoc = new SolrInputDocument();
+            updateCommand.solrDoc.addField("id", threadId + "_" + i);
+            long pos = tlog.write(updateCommand);
+            tlog.finish(UpdateLog.SyncLevel.FSYNC);
+            // once finish returns, the record must be covered by a completed fsync
+            assertTrue(tlog.getSyncedPosition() > pos);
+          }
+        });
+        threads[t].start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      assertEquals(tlog.position(), tlog.getSyncedPosition());
+    }
+
+    try (TransactionLog tlog = new TransactionLog(logFile, new ArrayList<>(), true)) {
+      LogReader reader = tlog.getReader(0);
+      Set<Object> ids = new HashSet<>();
+      for (Object entry = reader.next(); entry != null; entry = reader.next()) {
+        SolrInputDocument doc = (SolrInputDocument) ((List<?>) entry).get(2);
+        assertTrue(ids.add(doc.getFieldValue("id")));
+      }
+      assertEquals(numThreads * docsPerThread, ids.size());
+    }
+  }
+
+  @Test
+  public void testMappedReads() throws Exception {
+    String tlogFileName = String.format(Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME,
+        Long.MAX_VALUE);
+    Path path = createTempDir();
+    File logFile = new File(path.toFile(), tlogFileName);
+    try (TransactionLog tlog = new TransactionLog(logFile, new ArrayList<>())) {
+      tlog.useMmapReads = true;
+      // enough data to get mapped, with records both in the mapped prefix and in the unmapped tail
+      String text = TestUtil.randomSimpleString(random(), 1000, 2000);
+      int numDocs = (int) (2 * TransactionLog.MIN_MAP_GROWTH / text.length()) + atLeast(10);
+      List<Long> positions = new ArrayList<>();
+      for (int i = 0; i < numDocs; i++) {
+        AddUpdateCommand updateCommand = new AddUpdateCommand(null);
+        updateCommand.solrDoc = new SolrInputDocument();
+        updateCommand.solrDoc.addField("id", Integer.toString(i));
+        updateCommand.solrDoc.addField("text", text);
+        updateCommand.setVersion(i + 1);
+        positions.add(tlog.write(updateCommand));
+        if (i == numDocs / 2) {
+          // lookups before the log is done growing map a prefix of it
+          assertEquals(Integer.toString(i), lookupId(tlog, positions.get(i)));
+        }
+      }
+
+      for (int i = 0; i < numDocs; i++) {
+        assertEquals(Integer.toString(i), lookupId(tlog, positions.get(i)));
+      }
+      synchronized (tlog) {
+        assertNotNull(tlog.getMappedInput());
+      }
+
+      LogReader reader = tlog.getReader(0);
+      try {
+        for (int i = 0; i < numDocs; i++) {
+          List<?> entry = (List<?>) reader.next();
+          assertEquals(i + 1L, entry.get(UpdateLog.VERSION_IDX));
+        }
+        assertNull(reader.next());
+      } finally {
+        reader.close();
+      }
+
+      TransactionLog.ReverseReader reverseReader = tlog.getReverseReader();
+      try {
+        for (int i = numDocs - 1; i >= 0; i--) {
+          List<?> entry = (List<?>) reverseReader.next();
+          assertEquals(i + 1L, entry.get(UpdateLog.VERSION_IDX));
+          assertEquals(positions.get(i).longValue(), reverseReader.position());
+        }
+      } finally {
+        reverseReader.close();
+      }
+    }
+  }
+
+  private static String lookupId(TransactionLog tlog, long pos) {
+    List<?> entry = (List<?>) tlog.lookup(pos);
+    return ((SolrInputDocument) entry.get(UpdateLog.VERSION_IDX + 1)).getFieldValue("id").toString();
+  }
 }
@@ -91,7 +91,7 @@ public class VersionInfoTest extends SolrTestCaseJ4 {
 
     int bucketHash = Hash.murmurhash3_x86_32(idBytes.bytes, idBytes.offset, idBytes.length, 0);
     VersionBucket bucket = vInfo.bucket(bucketHash);
-    assertEquals(bucket.highest, version.longValue());
+    assertEquals(bucket.getHighest(), version.longValue());
 
     // send 2nd doc ... BUT DO NOT COMMIT
     docId = Integer.toString(2);
@@ -134,7 +134,7 @@ public class VersionInfoTest extends SolrTestCaseJ4 {
     
     bucketHash = Hash.murmurhash3_x86_32(idBytes.bytes, idBytes.offset, idBytes.length, 0);
     bucket = vInfo.bucket(bucketHash);
-    assertEquals(bucket.highest, version.longValue());
+    assertEquals(bucket.getHighest(), version.longValue());
 
     // reload the core, which should reset the max
     CoreContainer coreContainer = req.getCore().getCoreContainer();
@@ -167,6 +167,18 @@ public class VersionInfoTest extends SolrTestCaseJ4 {
 
     bucketHash = Hash.murmurhash3_x86_32(idBytes.bytes, idBytes.offset, idBytes.length, 0);
     bucket = vInfo.bucket(bucketHash);
-    assertEquals(bucket.highest, version.longValue());
+    assertEquals(bucket.getHighest(), version.longValue());
+
+    // the highest version can only go up
+    bucket.updateHighest(version - 1);
+    assertEquals(bucket.getHighest(), version.longValue());
+    bucket.updateHighest(-(version + 1));
+    assertEquals(bucket.getHighest(), version + 1);
+
+    long acquisitions = vInfo.getBucketLockAcquisitions();
+    long waitNanos = vInfo.getBucketLockWaitNanos();
+    assertEquals(Long.valueOf(42L), vInfo.runWithBucketLock(bucket, () -> 42L));
+    assertEquals(acquisitions + 1, vInfo.getBucketLockAcquisitions());
+    assertTrue(vInfo.getBucketLockWaitNanos() >= waitNanos);
   }
 }
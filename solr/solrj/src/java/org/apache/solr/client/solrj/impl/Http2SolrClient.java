@@ -38,10 +38,12 @@ import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpStatus;
@@ -55,6 +57,8 @@ import org.apache.solr.client.solrj.embedded.SSLConfig;
 import org.apache.solr.client.solrj.request.RequestWriter;
 import org.apache.solr.client.solrj.request.UpdateRequest;
 import org.apache.solr.client.solrj.request.V2Request;
+import org.apache.solr.client.solrj.util.AsyncListener;
+import org.apache.solr.client.solrj.util.Cancellable;
 import org.apache.solr.client.solrj.util.ClientUtils;
 import org.apache.solr.client.solrj.util.Constants;
 import org.apache.solr.common.SolrException;
@@ -421,6 +425,89 @@ public class Http2SolrClient extends SolrClient {
     }
   }
 
+  /**
+   * Sends the request without blocking the calling thread; {@code asyncListener} is notified once the response has
+   * been received and parsed, or the request failed. No thread is held while waiting for the response: once its
+   * headers arrive, the body is parsed as it streams in by a thread of this client's executor, so neither the
+   * thread that receives the response nor the heap holds the whole body.
+   *
+   * @return a handle to abort the request, after which the listener is not notified anymore
+   */
+  public Cancellable asyncRequest(SolrRequest solrRequest, String collection, AsyncListener<NamedList<Object>> asyncListener) {
+    final Request req;
+    try {
+      req = makeRequest(solrRequest, collection);
+    } catch (SolrServerException | IOException e) {
+      asyncListener.onFailure(e);
+      return () -> {};
+    }
+    final ResponseParser parser = solrRequest.getResponseParser() == null
+        ? this.parser: solrRequest.getResponseParser();
+    // set once the listener was notified or the request cancelled; a failure while the body streams in
+    // reaches both onFailure and the parsing thread, but the listener must only hear about it once
+    final AtomicBoolean done = new AtomicBoolean();
+
+    req.onRequestQueued(asyncTracker.queuedListener)
+        .onComplete(asyncTracker.completeListener).send(new InputStreamResponseListener() {
+
+      @Override
+      public void onHeaders(Response response) {
+        super.onHeaders(response);
+        final InputStream is = getInputStream();
+        assert ObjectReleaseTracker.track(is);
+        try {
+          httpClient.getExecutor().execute(() -> {
+            NamedList<Object> rsp;
+            try {
+              rsp = processErrorsAndResponse(response, parser, is, getEncoding(response), isV2ApiRequest(solrRequest));
+            } catch (Exception e) {
+              if (done.compareAndSet(false, true)) {
+                asyncListener.onFailure(e);
+              }
+              return;
+            }
+            if (done.compareAndSet(false, true)) {
+              asyncListener.onSuccess(rsp);
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          IOUtils.closeQuietly(is);
+          assert ObjectReleaseTracker.release(is);
+          req.abort(e);
+        }
+      }
+
+      @Override
+      public void onFailure(Response response, Throwable failure) {
+        super.onFailure(response, failure);
+        if (done.compareAndSet(false, true)) {
+          asyncListener.onFailure(wrapFailure(req, failure));
+        }
+      }
+    });
+    return () -> {
+      if (done.compareAndSet(false, true)) {
+        req.abort(CANCELLED_EXCEPTION);
+      }
+    };
+  }
+
+  private static final Exception CANCELLED_EXCEPTION = new Exception("Request cancelled");
+
+  /** Wraps transport failures the same way {@link #request(SolrRequest, String)} does */
+  private Throwable wrapFailure(Request req, Throwable failure) {
+    if (failure instanceof ConnectException) {
+      return new SolrServerException("Server refused connection at: " + req.getURI(), failure);
+    } else if (failure instanceof TimeoutException) {
+      return new SolrServerException("Timeout occured while waiting response from server at: " + req.getURI(), failure);
+    } else if (failure instanceof IOException) {
+      return new SolrServerException("IOException occured when talking to server at: " + getBaseURL(), failure);
+    } else if (failure instanceof SolrServerException || failure instanceof SolrException) {
+      return failure;
+    }
+    return new SolrServerException(failure.getMessage(), failure);
+  }
+
   private String getEncoding(Response response) {
     String contentType = response.getHeaders().get(HttpHeader.CONTENT_TYPE);
     if (contentType != null) {
@@ -19,6 +19,10 @@ package org.apache.solr.client.solrj.impl;
 import java.util.Arrays;
 
 import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.util.AsyncListener;
+import org.apache.solr.client.solrj.util.Cancellable;
+import org.apache.solr.common.util.NamedList;
 
 /**
  * LBHttp2SolrClient or "LoadBalanced LBHttp2SolrClient" is a load balancing wrapper around
@@ -66,4 +70,89 @@ public class LBHttp2SolrClient extends LBSolrClient {
   protected SolrClient getClient(String baseUrl) {
     return httpClient;
   }
+
+  /**
+   * Asynchronous version of {@link #request(Req)}: the servers are tried in the same order and on the same failures,
+   * but each attempt is sent with {@link Http2SolrClient#asyncRequest} so that no thread waits for the responses.
+   *
+   * @return a handle to abort the request, after which {@code asyncListener} is not notified anymore
+   */
+  public Cancellable asyncReq(Req req, AsyncListener<Rsp> asyncListener) {
+    AsyncReq asyncReq = new AsyncReq(req, asyncListener);
+    asyncReq.tryNext(null);
+    return asyncReq;
+  }
+
+  private class AsyncReq implements Cancellable {
+    private final Req req;
+    private final AsyncListener<Rsp> asyncListener;
+    private final boolean isNonRetryable;
+    private final ServerIterator serverIterator;
+    private final Rsp rsp = new Rsp();
+    private volatile Cancellable current;
+    private volatile int attempts;
+    private volatile boolean cancelled;
+
+    AsyncReq(Req req, AsyncListener<Rsp> asyncListener) {
+      this.req = req;
+      this.asyncListener = asyncListener;
+      this.isNonRetryable = isNonRetryable(req);
+      this.serverIterator = new ServerIterator(req);
+    }
+
+    void tryNext(Exception previousEx) {
+      if (cancelled) {
+        return;
+      }
+      final String baseUrl = serverIterator.nextServer();
+      if (baseUrl == null) {
+        asyncListener.onFailure(serverIterator.noMoreServersException(previousEx));
+        return;
+      }
+      final boolean isZombie = serverIterator.isServingZombieServer();
+      final int attempt = ++attempts;
+      rsp.server = baseUrl;
+      req.getRequest().setBasePath(baseUrl);
+      Cancellable cancellable = httpClient.asyncRequest(req.getRequest(), null, new AsyncListener<NamedList<Object>>() {
+        @Override
+        public void onSuccess(NamedList<Object> result) {
+          if (cancelled) {
+            return;
+          }
+          rsp.rsp = result;
+          LBHttp2SolrClient.this.onSuccess(baseUrl, isZombie);
+          asyncListener.onSuccess(rsp);
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+          if (cancelled) {
+            return;
+          }
+          Exception retryEx;
+          try {
+            Exception e = throwable instanceof Exception ? (Exception) throwable : new SolrServerException(throwable);
+            retryEx = LBHttp2SolrClient.this.onFailure(baseUrl, e, isNonRetryable, isZombie);
+          } catch (Exception e) {
+            asyncListener.onFailure(e);
+            return;
+          }
+          tryNext(retryEx);
+        }
+      });
+      // the listener may already have moved on to the next server if this attempt failed right away
+      if (attempt == attempts) {
+        current = cancellable;
+      }
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      Cancellable cancellable = current;
+      if (cancellable != null) {
+        cancellable.cancel();
+      }
+    }
+  }
 }
@@ -28,6 +28,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -254,46 +255,13 @@ public abstract class LBSolrClient extends SolrClient {
   public Rsp request(Req req) throws SolrServerException, IOException {
     Rsp rsp = new Rsp();
     Exception ex = null;
-    boolean isNonRetryable = req.request instanceof IsUpdateRequest || ADMIN_PATHS.contains(req.request.getPath());
-    List<ServerWrapper> skipped = null;
-
-    final Integer numServersToTry = req.getNumServersToTry();
-    int numServersTried = 0;
-
-    boolean timeAllowedExceeded = false;
-    long timeAllowedNano = getTimeAllowedInNanos(req.getRequest());
-    long timeOutTime = System.nanoTime() + timeAllowedNano;
-    for (String serverStr : req.getServers()) {
-      if (timeAllowedExceeded = isTimeExceeded(timeAllowedNano, timeOutTime)) {
-        break;
-      }
-
-      serverStr = normalize(serverStr);
-      // if the server is currently a zombie, just skip to the next one
-      ServerWrapper wrapper = zombieServers.get(serverStr);
-      if (wrapper != null) {
-        // System.out.println("ZOMBIE SERVER QUERIED: " + serverStr);
-        final int numDeadServersToTry = req.getNumDeadServersToTry();
-        if (numDeadServersToTry > 0) {
-          if (skipped == null) {
-            skipped = new ArrayList<>(numDeadServersToTry);
-            skipped.add(wrapper);
-          }
-          else if (skipped.size() < numDeadServersToTry) {
-            skipped.add(wrapper);
-          }
-        }
-        continue;
-      }
+    boolean isNonRetryable = isNonRetryable(req);
+    ServerIterator serverIterator = new ServerIterator(req);
+    String serverStr;
+    while ((serverStr = serverIterator.nextServer()) != null) {
       try {
         MDC.put("LBSolrClient.url", serverStr);
-
-        if (numServersToTry != null && numServersTried > numServersToTry.intValue()) {
-          break;
-        }
-
-        ++numServersTried;
-        ex = doRequest(serverStr, req, rsp, isNonRetryable, false);
+        ex = doRequest(serverStr, req, rsp, isNonRetryable, serverIterator.isServingZombieServer());
         if (ex == null) {
           return rsp; // SUCCESS
         }
@@ -301,48 +269,125 @@ public abstract class LBSolrClient extends SolrClient {
         MDC.remove("LBSolrClient.url");
       }
     }
+    throw serverIterator.noMoreServersException(ex);
+  }
+
+  protected static boolean isNonRetryable(Req req) {
+    return req.request instanceof IsUpdateRequest || ADMIN_PATHS.contains(req.request.getPath());
+  }
+
+  /**
+   * Hands out the servers of a {@link Req} in the order {@link #request(Req)} tries them: the live servers in the
+   * given order, then up to {@link Req#getNumDeadServersToTry()} of the skipped dead ones, stopping early once
+   * {@link Req#getNumServersToTry()} servers were tried or the time allowed for the request is exceeded.
+   */
+  protected class ServerIterator {
+    private final Integer numServersToTry;
+    private final int numDeadServersToTry;
+    private final long timeAllowedNano;
+    private final long timeOutTime;
+    private final Iterator<String> servers;
+    private List<ServerWrapper> skipped;
+    private Iterator<ServerWrapper> skippedServers;
+    private int numServersTried;
+    private boolean timeAllowedExceeded;
+    private boolean servingZombieServer;
+    private boolean exhausted;
+
+    public ServerIterator(Req req) {
+      this.numServersToTry = req.getNumServersToTry();
+      this.numDeadServersToTry = req.getNumDeadServersToTry();
+      this.timeAllowedNano = getTimeAllowedInNanos(req.getRequest());
+      this.timeOutTime = System.nanoTime() + timeAllowedNano;
+      this.servers = req.getServers().iterator();
+    }
 
-    // try the servers we previously skipped
-    if (skipped != null) {
-      for (ServerWrapper wrapper : skipped) {
+    /**
+     * @return the next server to send the request to, or null if there is none left to try
+     */
+    public String nextServer() {
+      if (exhausted) {
+        return null;
+      }
+      while (servers.hasNext()) {
         if (timeAllowedExceeded = isTimeExceeded(timeAllowedNano, timeOutTime)) {
-          break;
+          return exhausted();
         }
 
+        String serverStr = normalize(servers.next());
+        // if the server is currently a zombie, just skip to the next one
+        ServerWrapper wrapper = zombieServers.get(serverStr);
+        if (wrapper != null) {
+          if (numDeadServersToTry > 0) {
+            if (skipped == null) {
+              skipped = new ArrayList<>(numDeadServersToTry);
+              skipped.add(wrapper);
+            } else if (skipped.size() < numDeadServersToTry) {
+              skipped.add(wrapper);
+            }
+          }
+          continue;
+        }
         if (numServersToTry != null && numServersTried > numServersToTry.intValue()) {
-          break;
+          return exhausted();
         }
+        ++numServersTried;
+        servingZombieServer = false;
+        return serverStr;
+      }
 
-        try {
-          MDC.put("LBSolrClient.url", wrapper.getBaseUrl());
-          ++numServersTried;
-          ex = doRequest(wrapper.baseUrl, req, rsp, isNonRetryable, true);
-          if (ex == null) {
-            return rsp; // SUCCESS
+      // try the servers we previously skipped
+      if (skipped != null) {
+        if (skippedServers == null) {
+          skippedServers = skipped.iterator();
+        }
+        if (skippedServers.hasNext()) {
+          if (timeAllowedExceeded = isTimeExceeded(timeAllowedNano, timeOutTime)) {
+            return exhausted();
+          }
+          if (numServersToTry != null && numServersTried > numServersToTry.intValue()) {
+            return exhausted();
           }
-        } finally {
-          MDC.remove("LBSolrClient.url");
+          ++numServersTried;
+          servingZombieServer = true;
+          return skippedServers.next().getBaseUrl();
         }
       }
+      return exhausted();
     }
 
+    private String exhausted() {
+      exhausted = true;
+      return null;
+    }
 
-    final String solrServerExceptionMessage;
-    if (timeAllowedExceeded) {
-      solrServerExceptionMessage = "Time allowed to handle this request exceeded";
-    } else {
-      if (numServersToTry != null && numServersTried > numServersToTry.intValue()) {
-        solrServerExceptionMessage = "No live SolrServers available to handle this request:"
-            + " numServersTried="+numServersTried
-            + " numServersToTry="+numServersToTry.intValue();
+    /** @return whether the server last returned by {@link #nextServer()} is on the dead list */
+    public boolean isServingZombieServer() {
+      return servingZombieServer;
+    }
+
+    /**
+     * @param ex the failure of the last server tried, if any
+     * @return the exception to fail the request with once {@link #nextServer()} returned null
+     */
+    public SolrServerException noMoreServersException(Exception ex) {
+      final String solrServerExceptionMessage;
+      if (timeAllowedExceeded) {
+        solrServerExceptionMessage = "Time allowed to handle this request exceeded";
       } else {
-        solrServerExceptionMessage = "No live SolrServers available to handle this request";
+        if (numServersToTry != null && numServersTried > numServersToTry.intValue()) {
+          solrServerExceptionMessage = "No live SolrServers available to handle this request:"
+              + " numServersTried="+numServersTried
+              + " numServersToTry="+numServersToTry.intValue();
+        } else {
+          solrServerExceptionMessage = "No live SolrServers available to handle this request";
+        }
+      }
+      if (ex == null) {
+        return new SolrServerException(solrServerExceptionMessage);
+      } else {
+        return new SolrServerException(solrServerExceptionMessage+":" + zombieServers.keySet(), ex);
       }
-    }
-    if (ex == null) {
-      throw new SolrServerException(solrServerExceptionMessage);
-    } else {
-      throw new SolrServerException(solrServerExceptionMessage+":" + zombieServers.keySet(), ex);
     }
   }
 
@@ -361,50 +406,73 @@ public abstract class LBSolrClient extends SolrClient {
 
   protected Exception doRequest(String baseUrl, Req req, Rsp rsp, boolean isNonRetryable,
                                 boolean isZombie) throws SolrServerException, IOException {
-    Exception ex = null;
     try {
       rsp.server = baseUrl;
       req.getRequest().setBasePath(baseUrl);
       rsp.rsp = getClient(baseUrl).request(req.getRequest(), (String) null);
-      if (isZombie) {
-        zombieServers.remove(baseUrl);
-      }
-    } catch (BaseHttpSolrClient.RemoteExecutionException e){
-      throw e;
-    } catch(SolrException e) {
+      onSuccess(baseUrl, isZombie);
+    } catch (Exception e) {
+      return onFailure(baseUrl, e, isNonRetryable, isZombie);
+    }
+    return null;
+  }
+
+  /**
+   * To be called once a request to {@code baseUrl} succeeded.
+   */
+  protected void onSuccess(String baseUrl, boolean isZombie) {
+    if (isZombie) {
+      zombieServers.remove(baseUrl);
+    }
+  }
+
+  /**
+   * Decides what to do about a request to {@code baseUrl} that failed with {@code e}.
+   *
+   * @return the exception to remember if the request should be retried on the next server; the server is put on the
+   *         dead list in that case
+   * @throws SolrServerException if the request should fail without trying other servers
+   * @throws IOException if the request should fail without trying other servers
+   */
+  protected Exception onFailure(String baseUrl, Exception e, boolean isNonRetryable,
+                                boolean isZombie) throws SolrServerException, IOException {
+    Exception ex = null;
+    if (e instanceof BaseHttpSolrClient.RemoteExecutionException) {
+      throw (BaseHttpSolrClient.RemoteExecutionException) e;
+    } else if (e instanceof SolrException) {
       // we retry on 404 or 403 or 503 or 500
       // unless it's an update - then we only retry on connect exception
-      if (!isNonRetryable && RETRY_CODES.contains(e.code())) {
+      if (!isNonRetryable && RETRY_CODES.contains(((SolrException) e).code())) {
         ex = (!isZombie) ? addZombie(baseUrl, e) : e;
       } else {
         // Server is alive but the request was likely malformed or invalid
         if (isZombie) {
           zombieServers.remove(baseUrl);
         }
-        throw e;
+        throw (SolrException) e;
       }
-    } catch (SocketException e) {
+    } else if (e instanceof SocketException) {
       if (!isNonRetryable || e instanceof ConnectException) {
         ex = (!isZombie) ? addZombie(baseUrl, e) : e;
       } else {
-        throw e;
+        throw (SocketException) e;
       }
-    } catch (SocketTimeoutException e) {
+    } else if (e instanceof SocketTimeoutException) {
       if (!isNonRetryable) {
         ex = (!isZombie) ? addZombie(baseUrl, e) : e;
       } else {
-        throw e;
+        throw (SocketTimeoutException) e;
       }
-    } catch (SolrServerException e) {
-      Throwable rootCause = e.getRootCause();
+    } else if (e instanceof SolrServerException) {
+      Throwable rootCause = ((SolrServerException) e).getRootCause();
       if (!isNonRetryable && rootCause instanceof IOException) {
         ex = (!isZombie) ? addZombie(baseUrl, e) : e;
       } else if (isNonRetryable && rootCause instanceof ConnectException) {
         ex = (!isZombie) ? addZombie(baseUrl, e) : e;
       } else {
-        throw e;
+        throw (SolrServerException) e;
       }
-    } catch (Exception e) {
+    } else {
       throw new SolrServerException(e);
     }
 
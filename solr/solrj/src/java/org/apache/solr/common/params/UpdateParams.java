@@ -68,4 +68,10 @@ public interface UpdateParams
 
   /** Return versions of updates? */
   public static final String VERSIONS = "versions";
+
+  /**
+   * Bulk load added documents straight into the index, skipping the update processor chain.  Only supported
+   * by the javabin loader in standalone mode, and only if the update handler enables it.
+   */
+  public static final String BULK = "update.bulk";
 }
@@ -21,10 +21,13 @@ import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import com.carrotsearch.randomizedtesting.annotations.ThreadLeakFilters;
@@ -40,8 +43,12 @@ import org.apache.solr.client.solrj.embedded.JettySolrRunner;
 import org.apache.solr.client.solrj.impl.Http2SolrClient;
 import org.apache.solr.client.solrj.impl.HttpSolrClient;
 import org.apache.solr.client.solrj.impl.LBHttp2SolrClient;
+import org.apache.solr.client.solrj.impl.LBSolrClient;
+import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.response.SolrResponseBase;
+import org.apache.solr.client.solrj.util.AsyncListener;
+import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.util.TimeSource;
 import org.apache.solr.util.TimeOut;
@@ -205,6 +212,40 @@ public class TestLBHttp2SolrClient extends SolrTestCaseJ4 {
     }
   }
 
+  public void testAsyncReq() throws Exception {
+    // nothing listens on port 1, so the first server fails and the request moves on to the live one
+    String deadUrl = "http://127.0.0.1:1/solr/collection1";
+    try (LBHttp2SolrClient client = getLBHttp2SolrClient(httpClient)) {
+      LBSolrClient.Req req = new LBSolrClient.Req(new QueryRequest(new SolrQuery("*:*")),
+          Arrays.asList(deadUrl, solr[0].getUrl()));
+      LBSolrClient.Rsp rsp = asyncReq(client, req).get(30, TimeUnit.SECONDS);
+      Assert.assertEquals(solr[0].getUrl(), rsp.getServer());
+      SolrDocumentList docs = (SolrDocumentList) rsp.getResponse().get("response");
+      Assert.assertEquals("solr/collection10", docs.get(0).getFieldValue("name").toString());
+
+      LBSolrClient.Req failing = new LBSolrClient.Req(new QueryRequest(new SolrQuery("*:*")),
+          Arrays.asList(deadUrl));
+      ExecutionException e = expectThrows(ExecutionException.class, () -> asyncReq(client, failing).get(30, TimeUnit.SECONDS));
+      assertTrue(e.getCause().toString(), e.getCause() instanceof SolrServerException);
+    }
+  }
+
+  private static CompletableFuture<LBSolrClient.Rsp> asyncReq(LBHttp2SolrClient client, LBSolrClient.Req req) {
+    CompletableFuture<LBSolrClient.Rsp> future = new CompletableFuture<>();
+    client.asyncReq(req, new AsyncListener<LBSolrClient.Rsp>() {
+      @Override
+      public void onSuccess(LBSolrClient.Rsp rsp) {
+        future.complete(rsp);
+      }
+
+      @Override
+      public void onFailure(Throwable throwable) {
+        future.completeExceptionally(throwable);
+      }
+    });
+    return future;
+  }
+
   public void testReliability() throws Exception {
     String[] s = new String[solr.length];
     for (int i = 0; i < solr.length; i++) {